@@ -3,11 +3,13 @@ import { StompSessionProvider } from "react-stomp-hooks";
 import Game from "./pages/Game";
 import Home from "./pages/Home";
 import Lobby from "./pages/Lobby";
+import { connectHeaders } from "./utils/stompUtils";
 
 const App = () => {
   return (
     <StompSessionProvider
       url={"ws://localhost:8080/ws"}
+      connectHeaders={connectHeaders}
       // debug={(str) => {
       //   console.log(str);
       // }}>
@@ -8,8 +8,8 @@ import {
   useState,
 } from "react";
 import { useSubscription } from "react-stomp-hooks";
-import { UserEntity } from "../types";
-import { sendLobbyAction } from "../utils/stompUtils";
+import { TextMessageEntity, UserEntity } from "../types";
+import { sendLobbyAction, parseMessageBody } from "../utils/stompUtils";
 import { isEvent, isUserEntity } from "../utils/typeGuards";
 
 type LobbyChatMessage = {
@@ -20,10 +20,16 @@ type LobbyChatMessage = {
 type LobbyChatProps = {
   uri: string;
   stompClient: Client;
+  chatHistory: TextMessageEntity[];
 };
 
 const LobbyChat = (props: LobbyChatProps) => {
-  const [chatMessages, setChatMessages] = useState<LobbyChatMessage[]>([]);
+  const [chatMessages, setChatMessages] = useState<LobbyChatMessage[]>(() =>
+    props.chatHistory.map(({ messageAuthor, messageContent }) => ({
+      author: messageAuthor,
+      content: messageContent,
+    }))
+  );
   const [textMessage, setTextMessage] = useState("");
   const messageBoxRef = useRef<HTMLDivElement>(null);
 
@@ -41,7 +47,7 @@ const LobbyChat = (props: LobbyChatProps) => {
   };
 
   const handleLobbyReply = useCallback((message: Message) => {
-    const messageBody: unknown = JSON.parse(message.body);
+    const messageBody: unknown = parseMessageBody(message);
 
     if (!isEvent(messageBody)) {
       return;
@@ -1,51 +1,52 @@
-import { useEffect, useMemo, useState } from "react";
+import { useEffect, useRef, useState } from "react";
+
+// How often the remaining time is recomputed, well under a second so the
+// displayed value flips close to the real second boundary.
+const REFRESH_MS = 250;
 
 const useTimer = () => {
   const [time, setTime] = useState<number>(0);
-  const [intervalID, setIntervalID] = useState<NodeJS.Timer | null>(null);
+  const intervalID = useRef<NodeJS.Timer | null>(null);
 
-  const isTimerGoing = useMemo(() => time <= 0, [time]);
+  const stopTimer = () => {
+    if (intervalID.current !== null) {
+      clearInterval(intervalID.current);
+    }
 
-  const update = () => {
-    setTime((prev: number) => prev - 1);
+    intervalID.current = null;
   };
 
-  const startTimer = (time: number) => {
-    if (intervalID !== null) {
-      clearInterval(intervalID);
-    }
-    setIntervalID(setInterval(update, 1000));
-    setTime(time);
-  };
+  // deadline is in server time, clockOffset is server time minus local time
+  const startTimerUntil = (deadline: number, clockOffset: number = 0) => {
+    stopTimer();
 
-  const stopTimer = () => {
-    if (intervalID !== null) {
-      clearInterval(intervalID);
-    }
+    const update = () => {
+      const remaining = Math.max(
+        0,
+        Math.ceil((deadline - (Date.now() + clockOffset)) / 1000)
+      );
+      setTime(remaining);
+
+      if (remaining === 0) {
+        stopTimer();
+      }
+    };
 
-    setIntervalID(null);
+    update();
+    intervalID.current = setInterval(update, REFRESH_MS);
   };
 
-  useEffect(() => {
-    if (isTimerGoing && intervalID !== null) {
-      clearInterval(intervalID);
-      setIntervalID(null);
-    }
-  }, [isTimerGoing, intervalID]);
+  const startTimer = (seconds: number) => {
+    startTimerUntil(Date.now() + seconds * 1000);
+  };
 
-  useEffect(
-    () => () => {
-      if (intervalID !== null) {
-        clearInterval(intervalID);
-      }
-    },
-    // eslint-disable-next-line react-hooks/exhaustive-deps
-    []
-  );
+  // eslint-disable-next-line react-hooks/exhaustive-deps
+  useEffect(() => () => stopTimer(), []);
 
   return {
     time,
     startTimer,
+    startTimerUntil,
     stopTimer,
   };
 };
@@ -1,12 +1,12 @@
 import { Message } from "@stomp/stompjs";
-import { useCallback, useMemo, useReducer } from "react";
+import { useCallback, useEffect, useMemo, useReducer } from "react";
 import { useStompClient, useSubscription } from "react-stomp-hooks";
-import { sendGameAction } from "../utils/stompUtils";
+import { sendGameAction, parseMessageBody } from "../utils/stompUtils";
 import { isGameEvent } from "../utils/typeGuards";
 import useTimer from "../hooks/useTimer";
 import useWindowDimensions from "../hooks/useWindowDimensions";
 import reducer from "../reducers/gameReducer";
-import { GameEntity } from "../types";
+import { GameStartState } from "../types";
 import { Navigate, useLocation, useNavigate } from "react-router-dom";
 import scissorsImg from "../static/img/scissors.png";
 import rockImg from "../static/img/rock.png";
@@ -20,8 +20,14 @@ const Game = () => {
 
   const navigate = useNavigate();
 
-  const { uri, players, settings, parentLobbyUri } = useLocation()
-    .state as GameEntity;
+  const {
+    uri,
+    players,
+    settings,
+    parentLobbyUri,
+    countdownDeadline,
+    clockOffset,
+  } = useLocation().state as GameStartState;
 
   const [state, dispatch] = useReducer(reducer, {
     players: players,
@@ -31,6 +37,10 @@ const Game = () => {
     startCountdown: 5,
     selectedMove: "NO_MOVE",
     gameWinner: null,
+    eliminationResult: null,
+    eliminated: false,
+    version: 0,
+    outOfSync: false,
   });
 
   const moveImgMapping: { [key: string]: string } = useMemo(
@@ -45,6 +55,28 @@ const Game = () => {
   );
 
   const { time, stopTimer, startTimer } = useTimer();
+  const { time: countdownTime, startTimerUntil: startCountdownUntil } =
+    useTimer();
+
+  // without a deadline the server sends UPDATE_COUNTDOWN every second instead
+  useEffect(() => {
+    if (countdownDeadline !== null) {
+      startCountdownUntil(countdownDeadline, clockOffset);
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [countdownDeadline, clockOffset]);
+
+  const startCountdown =
+    countdownDeadline !== null && state.startCountdown > 0
+      ? countdownTime
+      : state.startCountdown;
+
+  // missed a round result, the deltas that follow can't be applied until we have a snapshot
+  useEffect(() => {
+    if (state.outOfSync && stompClient) {
+      sendGameAction(stompClient, "SYNC_STATE", uri);
+    }
+  }, [state.outOfSync, stompClient, uri]);
 
   const handleMoveClick = (moveName: string) => {
     if (stompClient) {
@@ -56,7 +88,7 @@ const Game = () => {
 
   const handleEventReply = useCallback(
     (message: Message) => {
-      const messageBody: unknown = JSON.parse(message.body);
+      const messageBody: unknown = parseMessageBody(message);
 
       console.log(messageBody);
 
@@ -103,8 +135,18 @@ const Game = () => {
       return `${state.gameWinner.username} won the game.`;
     }
 
-    if (state.startCountdown > 0) {
-      return `Game starting in ${state.startCountdown}...`;
+    if (startCountdown > 0) {
+      return `Game starting in ${startCountdown}...`;
+    }
+
+    if (state.eliminated) {
+      return "You were knocked out.";
+    }
+
+    if (state.displayRoundWinner && settings.royale) {
+      return state.eliminationResult
+        ? `${state.eliminationResult.remainingPlayers} players left.`
+        : "Draw.";
     }
 
     if (state.displayRoundWinner) {
@@ -117,10 +159,13 @@ const Game = () => {
       return `${time} seconds left to pick...`;
     }
   }, [
+    settings.royale,
     state.displayRoundWinner,
+    state.eliminated,
+    state.eliminationResult,
     state.gameWinner,
     state.roundWinner,
-    state.startCountdown,
+    startCountdown,
     time,
   ]);
 
@@ -128,7 +173,19 @@ const Game = () => {
     <>
       <div className="text-4xl text-center">{headerText}</div>
       <div className="mt-5 text-3xl text-center">Round {state.roundNumber}</div>
-      {state.players.map((player, idx) => {
+      {settings.royale && state.eliminationResult && (
+        <div className="mt-5 text-2xl text-center">
+          Rock: {state.eliminationResult.rocks} Paper:{" "}
+          {state.eliminationResult.papers} Scissors:{" "}
+          {state.eliminationResult.scissors} Missed:{" "}
+          {state.eliminationResult.missed}
+          <br />
+          {state.eliminationResult.eliminatedMoves.length > 0
+            ? `Knocked out: ${state.eliminationResult.eliminatedMoves.join(", ")}`
+            : "Nobody was knocked out."}
+        </div>
+      )}
+      {!settings.royale && state.players.map((player, idx) => {
         const angle = ((2 * Math.PI) / state.players.length) * idx;
         const x = Math.round(width / 2.5 + radius * Math.cos(angle));
         const y = Math.round(height / 2.5 + (radius / 2) * Math.sin(angle));
@@ -157,7 +214,8 @@ const Game = () => {
 
       <div className="grid grid-flow-col absolute bottom-0 left-1/2 transform -translate-x-1/2">
         {!state.gameWinner ? (
-          state.startCountdown === 0 &&
+          startCountdown === 0 &&
+          !state.eliminated &&
           ["ROCK", "PAPER", "SCISSORS"].map((move) => (
             <button
               onClick={() => handleMoveClick(move)}
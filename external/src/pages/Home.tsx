@@ -1,12 +1,16 @@
 import React, { ChangeEvent, FormEvent, useState } from "react";
 import { useNavigate } from "react-router-dom";
 import { useStompClient, useSubscription } from "react-stomp-hooks";
-import { sendGeneralAction, sendLobbyAction } from "../utils/stompUtils";
-import { isEvent, isLobbyEntity } from "../utils/typeGuards";
+import { sendGeneralAction, sendLobbyAction, parseMessageBody } from "../utils/stompUtils";
+import {
+  isEvent,
+  isLobbyEntity,
+  isTextMessageEntity,
+} from "../utils/typeGuards";
 import BlueButton from "../components/BlueButton";
 import Header from "../components/Header";
 import { Message } from "@stomp/stompjs";
-import { LobbyEntity } from "../types";
+import { LobbyEnterState } from "../types";
 
 const Home = () => {
   const stompClient = useStompClient();
@@ -32,7 +36,7 @@ const Home = () => {
   };
 
   const handleReply = (message: Message) => {
-    const messageBody: unknown = JSON.parse(message.body);
+    const messageBody: unknown = parseMessageBody(message);
 
     if (!isEvent(messageBody)) {
       return;
@@ -41,13 +45,20 @@ const Home = () => {
     const { id, data } = messageBody;
 
     if (id === "CREATED_LOBBY" || id === "RECEIVE_LOBBY_DATA") {
-      const { lobbyData } = data;
+      const { lobbyData, chatHistory } = data;
 
       if (!isLobbyEntity(lobbyData)) {
         return;
       }
 
-      navigate("/lobby", { state: lobbyData });
+      // a new lobby has no chat yet
+      const lobbyEnterState: LobbyEnterState = {
+        ...lobbyData,
+        chatHistory: Array.isArray(chatHistory)
+          ? chatHistory.filter(isTextMessageEntity)
+          : [],
+      };
+      navigate("/lobby", { state: lobbyEnterState });
     }
   };
 
@@ -1,8 +1,8 @@
 import { Message } from "@stomp/stompjs";
 import React, { useCallback, useReducer} from "react";
 import { useStompClient, useSubscription } from "react-stomp-hooks";
-import { LobbyEntity } from "../types";
-import { sendLobbyAction } from "../utils/stompUtils";
+import { GameStartState, LobbyEnterState } from "../types";
+import { sendLobbyAction, parseMessageBody } from "../utils/stompUtils";
 import { isLobbyEvent, isGameEntity } from "../utils/typeGuards";
 import BlueButton from "../components/BlueButton";
 import LobbyConfigCheckbox from "../components/LobbyConfigCheckbox";
@@ -15,7 +15,8 @@ import reducer from "../reducers/lobbyReducer";
 const Lobby = () => {
   const stompClient = useStompClient();
 
-  const { uri, settings, users } = useLocation().state as LobbyEntity;
+  const { uri, settings, users, chatHistory } =
+    useLocation().state as LobbyEnterState;
 
   const [state, dispatch] = useReducer(reducer, {
     users: users,
@@ -26,7 +27,7 @@ const Lobby = () => {
 
   const handleLobbyReply = useCallback(
     (message: Message) => {
-      const messageBody: unknown = JSON.parse(message.body);
+      const messageBody: unknown = parseMessageBody(message);
 
       console.log(messageBody);
       if (!isLobbyEvent(messageBody)) {
@@ -40,11 +41,18 @@ const Lobby = () => {
       }
 
       if (id === "CREATED_GAME") {
-        const { gameData } = data;
+        const { gameData, countdownDeadline, serverTime } = data;
         if (!isGameEntity(gameData)) {
           return;
         }
-        navigate("/game", { state: gameData });
+        const gameStartState: GameStartState = {
+          ...gameData,
+          countdownDeadline:
+            typeof countdownDeadline === "number" ? countdownDeadline : null,
+          clockOffset:
+            typeof serverTime === "number" ? serverTime - Date.now() : 0,
+        };
+        navigate("/game", { state: gameStartState });
       } else {
         dispatch(messageBody);
       }
@@ -85,7 +93,7 @@ const Lobby = () => {
 
   useSubscription("/user/queue/reply/lobby", handleLobbyReply);
   useSubscription("/user/queue/reply/error", (e) => {
-    console.log(JSON.parse(e.body));
+    console.log(parseMessageBody(e));
   });
 
   return stompClient ? (
@@ -101,7 +109,11 @@ const Lobby = () => {
           >
             Leave Lobby
           </button>
-          <LobbyChat uri={uri} stompClient={stompClient} />
+          <LobbyChat
+            uri={uri}
+            stompClient={stompClient}
+            chatHistory={chatHistory}
+          />
         </div>
         <div className="space-y-5">
           <div className="border-2 border-blue-500 bg-blue-200 text-center h-96 max-h-96 overflow-y-scroll">
@@ -116,6 +128,18 @@ const Lobby = () => {
               serverValue={state.settings.inviteOnly}
               sendUpdate={updateSettings}
             />
+            <LobbyConfigCheckbox
+              name="finishRoundEarly"
+              label="End rounds as soon as everyone has picked"
+              serverValue={state.settings.finishRoundEarly}
+              sendUpdate={updateSettings}
+            />
+            <LobbyConfigCheckbox
+              name="royale"
+              label="Royale (losing moves are knocked out until one player is left)"
+              serverValue={state.settings.royale}
+              sendUpdate={updateSettings}
+            />
             <LobbyConfigSlider
               name="timeForMove"
               label="Time given to choose a move (in seconds)"
@@ -1,5 +1,10 @@
-import { GameEvent, PlayerEntity } from "../types";
-import { isPlayerEntity, isPlayerEntityArray } from "../utils/typeGuards";
+import { EliminationResult, GameEvent, PlayerEntity, RoundDelta } from "../types";
+import {
+  isEliminationResult,
+  isPlayerEntity,
+  isPlayerEntityArray,
+  isRoundDelta,
+} from "../utils/typeGuards";
 
 type GameState = {
   gameWinner: PlayerEntity | null;
@@ -9,6 +14,33 @@ type GameState = {
   displayRoundWinner: boolean;
   startCountdown: number;
   selectedMove: string;
+  eliminationResult: EliminationResult | null;
+  eliminated: boolean;
+  // of the last round result applied, a round result for any other base means one was missed
+  version: number;
+  outOfSync: boolean;
+};
+
+const applyRoundDelta = (
+  players: PlayerEntity[],
+  delta: RoundDelta
+): PlayerEntity[] => {
+  const updated = players
+    .filter((player) => !delta.removedPlayers.includes(player.uuid))
+    .concat(delta.addedPlayers);
+
+  delta.changes.forEach(({ index, score, move }) => {
+    const player = updated[index];
+    if (player) {
+      updated[index] = {
+        ...player,
+        score: score ?? player.score,
+        move: move,
+      };
+    }
+  });
+
+  return updated;
 };
 
 const reducer = (state: GameState, event: GameEvent): GameState => {
@@ -23,7 +55,7 @@ const reducer = (state: GameState, event: GameEvent): GameState => {
 
       return { ...state, gameWinner: gameWinner };
     }
-    case "COUNTDOWN_UPDATE": {
+    case "UPDATE_COUNTDOWN": {
       const { currentTimerValue } = data;
 
       if (typeof currentTimerValue !== "number") {
@@ -66,24 +98,71 @@ const reducer = (state: GameState, event: GameEvent): GameState => {
       };
     }
     case "RECEIVE_ROUND_RESULT": {
-      const { playerData, winner } = data;
+      if (!isRoundDelta(data)) {
+        return state;
+      }
+
+      // already covered by a snapshot
+      if (data.version <= state.version) {
+        return state;
+      }
+
+      if (data.baseVersion !== state.version) {
+        return { ...state, outOfSync: true };
+      }
+
+      const players = applyRoundDelta(state.players, data);
+
+      return {
+        ...state,
+        displayRoundWinner: true,
+        players: players,
+        roundWinner:
+          players.find((player) => player.uuid === data.winnerUuid) ?? null,
+        selectedMove: "",
+        version: data.version,
+      };
+    }
+    case "RECEIVE_GAME_DATA": {
+      const { gameData, roundNumber, version } = data;
+
+      // only the players are needed, the rest of the game can't change
+      if (typeof gameData !== "object" || gameData === null) {
+        return state;
+      }
+
+      const { players } = gameData as { players: unknown };
+      if (!isPlayerEntityArray(players)) {
+        return state;
+      }
 
-      if (!isPlayerEntityArray(playerData)) {
+      if (typeof roundNumber !== "number" || typeof version !== "number") {
         return state;
       }
 
-      if (winner !== null && !isPlayerEntity(winner)) {
+      return {
+        ...state,
+        players: players,
+        roundNumber: roundNumber,
+        version: version,
+        outOfSync: false,
+      };
+    }
+    case "RECEIVE_ELIMINATION_RESULT": {
+      if (!isEliminationResult(data)) {
         return state;
       }
 
       return {
         ...state,
         displayRoundWinner: true,
-        players: playerData,
-        roundWinner: winner,
+        eliminationResult: data,
         selectedMove: "",
       };
     }
+    case "ELIMINATED": {
+      return { ...state, eliminated: true };
+    }
     case "START_NEXT_ROUND": {
       const { roundNumber, timeToPick } = data;
 
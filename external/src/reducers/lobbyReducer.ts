@@ -55,7 +55,9 @@ const reducer = (state: LobbyState, event: LobbyEvent): LobbyState => {
       }
 
       switch (settingName) {
-        case "inviteOnly": {
+        case "inviteOnly":
+        case "finishRoundEarly":
+        case "royale": {
           return state.settings
             ? {
                 ...state,
@@ -21,6 +21,22 @@ export type GameEntity = {
   uri: string;
 };
 
+// what the lobby hands over to the game page on CREATED_GAME
+export type TextMessageEntity = {
+  messageAuthor: UserEntity;
+  messageContent: string;
+};
+
+// what Home hands the lobby page, the chat backfill comes with the lobby data
+export type LobbyEnterState = LobbyEntity & {
+  chatHistory: TextMessageEntity[];
+};
+
+export type GameStartState = GameEntity & {
+  countdownDeadline: number | null;
+  clockOffset: number;
+};
+
 export type RoundEntity = {
   roundNumber: number;
   winnerUuid: string | undefined;
@@ -37,6 +53,36 @@ export type Event = {
 export type GameSettings = {
   timeForMove: number;
   scoreGoal: number;
+  finishRoundEarly: boolean;
+  royale: boolean;
+};
+
+// royale rounds only report how many picked what, not every player
+export type EliminationResult = {
+  roundNumber: number;
+  rocks: number;
+  papers: number;
+  scissors: number;
+  missed: number;
+  eliminatedMoves: string[];
+  remainingPlayers: number;
+};
+
+// round results only carry what changed since baseVersion. changes index into the players once the removed ones
+// are dropped and the added ones appended
+export type RoundDelta = {
+  version: number;
+  baseVersion: number;
+  removedPlayers: string[];
+  addedPlayers: PlayerEntity[];
+  changes: PlayerChange[];
+  winnerUuid: string | null;
+};
+
+export type PlayerChange = {
+  index: number;
+  score?: number;
+  move: string;
 };
 
 export type LobbySettings = GameSettings & {
@@ -0,0 +1,80 @@
+/**
+ * @jest-environment node
+ */
+import { decodeCbor, encodeCbor } from "./cbor";
+import fixtures from "./cbor.fixtures.json";
+
+// The fixtures are shared with the server's WireFormatTests: serverEvents hold what its Jackson CBOR mapper writes
+// for an event, clientActions what encodeCbor makes of an action the server then has to read back.
+
+const fromHex = (hex: string): Uint8Array =>
+  Uint8Array.from(hex.match(/../g) ?? [], (byte) => parseInt(byte, 16));
+
+const toHex = (bytes: Uint8Array): string =>
+  Array.from(bytes, (byte) => byte.toString(16).padStart(2, "0")).join("");
+
+describe("decodeCbor", () => {
+  it.each(fixtures.serverEvents)(
+    "decodes the server's $name event",
+    ({ json, cbor }) => {
+      expect(decodeCbor(fromHex(cbor))).toEqual(json);
+    }
+  );
+
+  it("decodes half precision floats", () => {
+    expect(decodeCbor(fromHex("f93c00"))).toBe(1);
+    expect(decodeCbor(fromHex("f97bff"))).toBe(65504);
+    expect(decodeCbor(fromHex("f9c400"))).toBe(-4);
+    expect(decodeCbor(fromHex("f90001"))).toBe(2 ** -24);
+    expect(decodeCbor(fromHex("f97c00"))).toBe(Infinity);
+    expect(decodeCbor(fromHex("f97e00"))).toBeNaN();
+  });
+
+  it("joins indefinite length strings and byte strings", () => {
+    expect(decodeCbor(fromHex("7f626162616360ff"))).toBe("abc");
+    expect(decodeCbor(fromHex("5f4201024103ff"))).toEqual(
+      Uint8Array.of(1, 2, 3)
+    );
+  });
+
+  it("skips tags", () => {
+    expect(decodeCbor(fromHex("c11a514b67b0"))).toBe(1363896240);
+  });
+
+  it("rejects a chunk of the wrong type", () => {
+    expect(() => decodeCbor(fromHex("7f4161ff"))).toThrow();
+  });
+});
+
+describe("encodeCbor", () => {
+  it.each(fixtures.clientActions)(
+    "encodes the $name action the way the server expects",
+    ({ json, cbor }) => {
+      expect(toHex(encodeCbor(json))).toBe(cbor);
+    }
+  );
+
+  it("round trips through decodeCbor", () => {
+    const value = {
+      small: 23,
+      byte: 255,
+      short: 65535,
+      int: 4294967295,
+      long: 2 ** 40 + 1,
+      negative: -1,
+      negativeLong: -(2 ** 33),
+      fraction: -0.1,
+      flags: [true, false, null],
+      nested: { empty: {}, list: [[], [""]] },
+      text: "gg \u{1F44D} ünïcödé".repeat(20),
+    };
+
+    expect(decodeCbor(encodeCbor(value))).toEqual(value);
+  });
+
+  it("leaves out undefined fields and writes undefined items as null", () => {
+    expect(decodeCbor(encodeCbor({ data: undefined, list: [undefined] }))).toEqual(
+      { list: [null] }
+    );
+  });
+});
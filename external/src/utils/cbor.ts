@@ -0,0 +1,216 @@
+// Just enough CBOR (RFC 8949) for the server's event payloads and our own actions.
+// Tags are skipped, maps are decoded into plain objects so the type guards keep working.
+
+const BREAK = 0xff;
+
+export const decodeCbor = (bytes: Uint8Array): unknown => {
+  const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+  const textDecoder = new TextDecoder();
+  let offset = 0;
+
+  const readUint = (size: number): number => {
+    let value: number;
+    switch (size) {
+      case 1:
+        value = view.getUint8(offset);
+        break;
+      case 2:
+        value = view.getUint16(offset);
+        break;
+      case 4:
+        value = view.getUint32(offset);
+        break;
+      default:
+        value = view.getUint32(offset) * 2 ** 32 + view.getUint32(offset + 4);
+    }
+    offset += size;
+    return value;
+  };
+
+  // -1 for indefinite length
+  const readLength = (info: number): number => {
+    if (info < 24) return info;
+    if (info === 24) return readUint(1);
+    if (info === 25) return readUint(2);
+    if (info === 26) return readUint(4);
+    if (info === 27) return readUint(8);
+    if (info === 31) return -1;
+    throw new Error(`Invalid CBOR length ${info} at ${offset}`);
+  };
+
+  const readHalf = (): number => {
+    const half = readUint(2);
+    const exponent = (half >> 10) & 0x1f;
+    const fraction = half & 0x3ff;
+    const sign = half & 0x8000 ? -1 : 1;
+    if (exponent === 0) return sign * 2 ** -14 * (fraction / 1024);
+    if (exponent === 31) return fraction ? NaN : sign * Infinity;
+    return sign * 2 ** (exponent - 15) * (1 + fraction / 1024);
+  };
+
+  const atBreak = (): boolean => {
+    if (view.getUint8(offset) === BREAK) {
+      offset += 1;
+      return true;
+    }
+    return false;
+  };
+
+  const readBytes = (length: number): Uint8Array => {
+    const chunk = bytes.subarray(offset, offset + length);
+    offset += length;
+    return chunk;
+  };
+
+  const readChunks = (major: number): Uint8Array[] => {
+    const chunks: Uint8Array[] = [];
+    while (!atBreak()) {
+      const initial = readUint(1);
+      if (initial >> 5 !== major) {
+        throw new Error(`Invalid CBOR chunk at ${offset}`);
+      }
+      chunks.push(readBytes(readLength(initial & 0x1f)));
+    }
+    return chunks;
+  };
+
+  const concat = (chunks: Uint8Array[]): Uint8Array => {
+    const result = new Uint8Array(chunks.reduce((sum, c) => sum + c.length, 0));
+    chunks.reduce((position, c) => {
+      result.set(c, position);
+      return position + c.length;
+    }, 0);
+    return result;
+  };
+
+  const readItem = (): unknown => {
+    const initial = readUint(1);
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+
+    if (major === 7) {
+      switch (info) {
+        case 20:
+          return false;
+        case 21:
+          return true;
+        case 22:
+          return null;
+        case 23:
+          return undefined;
+        case 25:
+          return readHalf();
+        case 26: {
+          const value = view.getFloat32(offset);
+          offset += 4;
+          return value;
+        }
+        case 27: {
+          const value = view.getFloat64(offset);
+          offset += 8;
+          return value;
+        }
+        default:
+          throw new Error(`Unsupported CBOR simple value ${info} at ${offset}`);
+      }
+    }
+
+    const length = readLength(info);
+    switch (major) {
+      case 0:
+        return length;
+      case 1:
+        return -1 - length;
+      case 2:
+        return length < 0 ? concat(readChunks(major)) : readBytes(length);
+      case 3:
+        return length < 0
+          ? readChunks(major)
+              .map((c) => textDecoder.decode(c))
+              .join("")
+          : textDecoder.decode(readBytes(length));
+      case 4: {
+        const array: unknown[] = [];
+        for (let i = 0; length < 0 ? !atBreak() : i < length; i++) {
+          array.push(readItem());
+        }
+        return array;
+      }
+      case 5: {
+        const object: { [key: string]: unknown } = {};
+        for (let i = 0; length < 0 ? !atBreak() : i < length; i++) {
+          const key = readItem();
+          object[String(key)] = readItem();
+        }
+        return object;
+      }
+      default:
+        // tag, the tagged item is all we need
+        return readItem();
+    }
+  };
+
+  return readItem();
+};
+
+export const encodeCbor = (value: unknown): Uint8Array => {
+  const out: number[] = [];
+  const textEncoder = new TextEncoder();
+
+  const writeHead = (major: number, length: number) => {
+    if (length < 24) {
+      out.push((major << 5) | length);
+    } else if (length < 0x100) {
+      out.push((major << 5) | 24, length);
+    } else if (length < 0x10000) {
+      out.push((major << 5) | 25, length >> 8, length & 0xff);
+    } else if (length < 0x100000000) {
+      out.push((major << 5) | 26, ...[24, 16, 8, 0].map((s) => (length >>> s) & 0xff));
+    } else {
+      const high = Math.floor(length / 2 ** 32);
+      out.push((major << 5) | 27);
+      [high, length >>> 0].forEach((word) =>
+        out.push(...[24, 16, 8, 0].map((s) => (word >>> s) & 0xff))
+      );
+    }
+  };
+
+  const writeItem = (item: unknown) => {
+    if (item === null || item === undefined) {
+      out.push(0xf6);
+    } else if (typeof item === "boolean") {
+      out.push(item ? 0xf5 : 0xf4);
+    } else if (typeof item === "number") {
+      if (Number.isSafeInteger(item) && item >= 0) {
+        writeHead(0, item);
+      } else if (Number.isSafeInteger(item)) {
+        writeHead(1, -1 - item);
+      } else {
+        const buffer = new DataView(new ArrayBuffer(8));
+        buffer.setFloat64(0, item);
+        out.push(0xfb, ...new Uint8Array(buffer.buffer));
+      }
+    } else if (typeof item === "string") {
+      const encoded = textEncoder.encode(item);
+      writeHead(3, encoded.length);
+      encoded.forEach((b) => out.push(b));
+    } else if (Array.isArray(item)) {
+      writeHead(4, item.length);
+      item.forEach(writeItem);
+    } else if (typeof item === "object") {
+      const entries = Object.entries(item as object).filter(
+        ([, v]) => v !== undefined
+      );
+      writeHead(5, entries.length);
+      entries.forEach(([k, v]) => {
+        writeItem(k);
+        writeItem(v);
+      });
+    } else {
+      throw new Error(`Cannot encode ${typeof item} as CBOR`);
+    }
+  };
+
+  writeItem(value);
+  return Uint8Array.from(out);
+};
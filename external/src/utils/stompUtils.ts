@@ -1,6 +1,33 @@
-import { Client } from "@stomp/stompjs";
+import { Client, IMessage } from "@stomp/stompjs";
+import { decodeCbor, encodeCbor } from "./cbor";
+
+// Opt-in binary frames, build with REACT_APP_WIRE_FORMAT=cbor to use them.
+const useCbor = process.env.REACT_APP_WIRE_FORMAT === "cbor";
+const CBOR_CONTENT_TYPE = "application/octet-stream;codec=cbor";
+
+export const connectHeaders: { [key: string]: string } = useCbor
+  ? { "orps-encoding": "cbor" }
+  : {};
+
+export const parseMessageBody = (message: IMessage): unknown => {
+  const contentType = message.headers["content-type"] ?? "";
+  if (message.isBinaryBody && contentType.includes("codec=cbor")) {
+    return decodeCbor(message.binaryBody);
+  }
+
+  return JSON.parse(message.body);
+};
 
 const sendSocketMessage = (client: Client, url: string, body: object) => {
+  if (useCbor) {
+    client.publish({
+      destination: url,
+      binaryBody: encodeCbor(body),
+      headers: { "content-type": CBOR_CONTENT_TYPE },
+    });
+    return;
+  }
+
   client.publish({
     destination: url,
     body: JSON.stringify(body),
@@ -9,6 +9,10 @@ import {
   UserEntity,
   LobbySettings,
   GameEvent,
+  EliminationResult,
+  RoundDelta,
+  PlayerChange,
+  TextMessageEntity,
 } from "../types";
 
 export const isEvent = (obj: any): obj is Event => {
@@ -50,6 +54,12 @@ export const isLobbyEntity = (obj: any): obj is LobbyEntity => {
   );
 };
 
+export const isTextMessageEntity = (obj: any): obj is TextMessageEntity => {
+  return (
+    isUserEntity(obj.messageAuthor) && typeof obj.messageContent === "string"
+  );
+};
+
 export const isPlayerEntityArray = (obj: any): obj is PlayerEntity[] => {
   return (
     obj.constructor === Array && obj.every((item: any) => isPlayerEntity(item))
@@ -64,3 +74,35 @@ export const isGameEntity = (obj: any): obj is GameEntity => {
     isPlayerEntityArray(obj.players)
   );
 };
+
+export const isEliminationResult = (obj: any): obj is EliminationResult => {
+  return (
+    typeof obj.roundNumber === "number" &&
+    typeof obj.rocks === "number" &&
+    typeof obj.papers === "number" &&
+    typeof obj.scissors === "number" &&
+    typeof obj.missed === "number" &&
+    obj.eliminatedMoves.constructor === Array &&
+    typeof obj.remainingPlayers === "number"
+  );
+};
+
+const isPlayerChange = (obj: any): obj is PlayerChange => {
+  return (
+    typeof obj.index === "number" &&
+    (obj.score === undefined || typeof obj.score === "number") &&
+    typeof obj.move === "string"
+  );
+};
+
+export const isRoundDelta = (obj: any): obj is RoundDelta => {
+  return (
+    typeof obj.version === "number" &&
+    typeof obj.baseVersion === "number" &&
+    obj.removedPlayers.constructor === Array &&
+    isPlayerEntityArray(obj.addedPlayers) &&
+    obj.changes.constructor === Array &&
+    obj.changes.every((change: any) => isPlayerChange(change)) &&
+    (obj.winnerUuid === null || typeof obj.winnerUuid === "string")
+  );
+};
@@ -1,5 +1,6 @@
 package ad044.orps.actionhandler;
 
+import ad044.orps.dto.GameDTO;
 import ad044.orps.dto.PlayerDTO;
 import ad044.orps.model.ActionHandlerResponse;
 import ad044.orps.model.action.GameAction;
@@ -13,6 +14,7 @@ import ad044.orps.model.game.GameMove;
 import ad044.orps.model.game.Player;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.GameService;
+import ad044.orps.service.RatingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,23 +30,47 @@ public class GameActionHandler {
     @Autowired
     GameService gameService;
 
-    private List<Event<?>> getRoundResult(Game game) {
+    @Autowired
+    RatingService ratingService;
+
+    private List<Event<?>> getEliminationResult(Game game) {
         List<Event<?>> events = new ArrayList<>();
+        List<String> recipients = game.getPlayerUuids();
+
+        game.getLastElimination().ifPresent(elimination -> {
+            int remainingPlayers = game.getAlivePlayers().size();
+            events.add(GameEvent.receiveEliminationResult(recipients, game.getUri(), game.getRoundNumber(), elimination, remainingPlayers));
+
+            List<String> eliminatedUuids
+                    = elimination.getEliminatedPlayers().stream().map(Player::getUuid).collect(Collectors.toList());
+            if (!eliminatedUuids.isEmpty()) {
+                events.add(GameEvent.eliminated(eliminatedUuids, game.getUri(), game.getRoundNumber()));
+            }
+        });
+
+        if (game.isFinished()) {
+            game.getRoundWinner().ifPresent(winner
+                    -> events.add(GameEvent.playerWonGame(recipients, game.getUri(), PlayerDTO.from(winner))));
+        }
 
-        List<PlayerDTO> playerData = game.getPlayers().stream().map(PlayerDTO::from).collect(Collectors.toList());
+        return events;
+    }
 
-        game.getRoundWinner().ifPresentOrElse(winner -> {
-            GameEvent roundResultEvent
-                    = GameEvent.receiveRoundResult(game.getPlayerUuids(), game.getUri(), playerData, PlayerDTO.from(winner));
-            events.add(roundResultEvent);
+    private List<Event<?>> getRoundResult(Game game) {
+        if (game.getSettings().isRoyale()) {
+            return getEliminationResult(game);
+        }
 
+        List<Event<?>> events = new ArrayList<>();
+
+        GameEvent roundResultEvent = GameEvent.receiveRoundResult(game.getPlayerUuids(), game.getUri(), game.publishRoundResult());
+        events.add(roundResultEvent);
+
+        game.getRoundWinner().ifPresent(winner -> {
             if (game.isFinished()) {
                 GameEvent playerWonGameEvent = GameEvent.playerWonGame(game.getPlayerUuids(), game.getUri(), PlayerDTO.from(winner));
                 events.add(playerWonGameEvent);
             }
-        }, () -> {
-            GameEvent roundResultEvent = GameEvent.receiveRoundResult(game.getPlayerUuids(), game.getUri(), playerData);
-            events.add(roundResultEvent);
         });
 
         return events;
@@ -67,25 +93,41 @@ public class GameActionHandler {
         return kickMessages;
     }
 
-    private List<Event<?>> handleSubmitMove(Game game, Player authorPlayer, GameMove move) {
+    private ActionHandlerResponse handleSubmitMove(Game game, Player authorPlayer, GameMove move) {
         String authorUuid = authorPlayer.getUuid();
 
         if (game.isRoundFinished()) {
             ErrorEvent errorEvent = ErrorEvent.roundAlreadyFinished(authorUuid, game.getUri());
-            return Collections.singletonList(errorEvent);
+            return new ActionHandlerResponse(errorEvent);
+        }
+
+        if (authorPlayer.eliminated) {
+            ErrorEvent errorEvent = ErrorEvent.playerEliminated(authorUuid, game.getUri());
+            return new ActionHandlerResponse(errorEvent);
         }
 
         authorPlayer.move = move;
 
         List<Event<?>> events = new ArrayList<>();
 
-        GameEvent playerMadeMoveEvent = GameEvent.playerMadeMove(game.getPlayerUuidsExcept(authorUuid), game.getUri(), authorUuid);
-        events.add(playerMadeMoveEvent);
+        // in royale every move going out to every player is quadratic per round, so only the author hears about it
+        if (!game.getSettings().isRoyale()) {
+            GameEvent playerMadeMoveEvent = GameEvent.playerMadeMove(game.getPlayerUuidsExcept(authorUuid), game.getUri(), authorUuid);
+            events.add(playerMadeMoveEvent);
+        }
 
         GameEvent displayAuthorMoveEvent = GameEvent.displayAuthorMove(authorUuid, game.getUri(), authorUuid, move);
         events.add(displayAuthorMoveEvent);
 
-        return events;
+        if (game.getSettings().isFinishRoundEarly() && game.allActivePlayersMoved()) {
+            // the pending FINISH_ROUND is the only thing scheduled for the game mid-round
+            ActionHandlerResponse finishRoundResponse = handleFinishRound(game);
+            events.addAll(finishRoundResponse.getEvents());
+            return new ActionHandlerResponse(events, finishRoundResponse.getScheduledActions())
+                    .withCancelledScheduledActions(game.getUri());
+        }
+
+        return new ActionHandlerResponse(events);
     }
 
     public List<Event<?>> handlePlayerLeave(Game game, String authorUuid) {
@@ -98,16 +140,26 @@ public class GameActionHandler {
             return Collections.emptyList();
         }
 
+        if (game.hasOnlyBots()) {
+            gameService.settleBotGame(game);
+            return Collections.emptyList();
+        }
+
         List<Event<?>> events = new ArrayList<>();
 
         GameEvent leaveEvent = GameEvent.playerLeave(game.getPlayerUuids(), game.getUri(), authorUuid);
         events.add(leaveEvent);
 
-        if (game.getPlayers().size() == 1) {
+        List<Player> alivePlayers = game.getAlivePlayers();
+        if (alivePlayers.size() == 1) {
             logger.info(String.format("Game %s finished because only 1 player was left.", game.getUri()));
             GameEvent playerWonGameEvent
-                    = GameEvent.playerWonGame(game.getPlayerUuids(), game.getUri(), PlayerDTO.from(game.getPlayers().get(0)));
+                    = GameEvent.playerWonGame(game.getPlayerUuids(), game.getUri(), PlayerDTO.from(alivePlayers.get(0)));
             events.add(playerWonGameEvent);
+            // a walkover is rated like a win played to the end
+            ratingService.recordGame(game);
+            // nothing is left to play, and a tournament only records the match once its game is removed
+            gameService.removeGame(game.getUri());
         }
 
         return events;
@@ -117,7 +169,7 @@ public class GameActionHandler {
         game.finishRound();
 
         List<Player> inactivePlayers = game.getInactivePlayers();
-        if (inactivePlayers.size() == game.getPlayers().size()) {
+        if (inactivePlayers.size() == game.getAlivePlayers().size()) {
             logger.info(String.format("Ended game %s prematurely because all players were inactive.", game.getUri()));
             GameEvent event = endGamePrematurely(game, "Game ended because all players were inactive.");
             return new ActionHandlerResponse(event);
@@ -130,14 +182,21 @@ public class GameActionHandler {
             events.addAll(kickPlayer(game, inactivePlayer.getUuid()));
         });
 
+        // kicking the last human settled the game, or kicking left one player standing, and removed (and rated) it
+        // already
+        if (gameService.getGame(game.getUri()).isEmpty()) {
+            return new ActionHandlerResponse(events);
+        }
+
         if (game.isFinished()) {
+            ratingService.recordGame(game);
             gameService.removeGame(game.getUri());
             logger.info(String.format("Game %s finished", game.getUri()));
             return new ActionHandlerResponse(events);
         } else {
             ServerAction updateCountdownAction = ServerAction.game("START_NEXT_ROUND", game.getUri());
             ScheduledAction scheduledAction
-                    = new ScheduledAction(updateCountdownAction, Calendar.getInstance().getTimeInMillis() + game.SECONDS_BETWEEN_ROUNDS * 1000);
+                    = ScheduledAction.inMillis(updateCountdownAction, game.SECONDS_BETWEEN_ROUNDS * 1000);
 
             return new ActionHandlerResponse(events, scheduledAction);
         }
@@ -150,12 +209,12 @@ public class GameActionHandler {
         if (game.countDownValue >= 0) {
             ServerAction updateCountdownAction = ServerAction.game("UPDATE_COUNTDOWN", game.getUri());
             ScheduledAction scheduledAction
-                    = new ScheduledAction(updateCountdownAction, Calendar.getInstance().getTimeInMillis() + 1000);
+                    = ScheduledAction.inMillis(updateCountdownAction, 1000);
             return new ActionHandlerResponse(countdownUpdateEvent, scheduledAction);
         } else {
             ServerAction updateCountdownAction = ServerAction.game("START_NEXT_ROUND", game.getUri());
             ScheduledAction scheduledAction
-                    = new ScheduledAction(updateCountdownAction, Calendar.getInstance().getTimeInMillis() + 1000);
+                    = ScheduledAction.inMillis(updateCountdownAction, 1000);
             return new ActionHandlerResponse(countdownUpdateEvent, scheduledAction);
         }
     }
@@ -164,8 +223,8 @@ public class GameActionHandler {
         game.startNextRound();
 
         ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", game.getUri());
-        long executionTime = Calendar.getInstance().getTimeInMillis() + game.getSettings().getTimeForMove() * 1000L;
-        ScheduledAction scheduledAction = new ScheduledAction(finishRoundAction, executionTime);
+        long delay = game.getSettings().getTimeForMove() * 1000L;
+        ScheduledAction scheduledAction = ScheduledAction.inMillis(finishRoundAction, delay);
 
         GameEvent startNextRoundEvent
                 = GameEvent.startNextRound(game.getPlayerUuids(), game.getUri(), game.getRoundNumber(), game.getSettings().getTimeForMove());
@@ -173,10 +232,29 @@ public class GameActionHandler {
         return new ActionHandlerResponse(startNextRoundEvent, scheduledAction);
     }
 
+    // Anyone can watch, players or not. Everything after this snapshot comes from the game's spectator topic. Players
+    // that missed a round result get the same snapshot to catch up from.
+    public ActionHandlerResponse handleSendGameData(Game game, String authorUuid) {
+        GameEvent gameDataEvent = GameEvent.receiveGameData(authorUuid, game.getUri(), GameDTO.snapshotOf(game),
+                game.getRoundNumber(), game.getPublishedState().getVersion());
+        return new ActionHandlerResponse(gameDataEvent);
+    }
+
     // for server-emitted actions
     public ActionHandlerResponse handleGameServerAction(Game game, GameAction.ID actionId) {
+        // games created with nothing but bots in them get settled at their first scheduled action
+        if (game.hasOnlyBots()) {
+            gameService.settleBotGame(game);
+            return ActionHandlerResponse.empty();
+        }
+
         switch (actionId) {
             case FINISH_ROUND: {
+                // already finished early, nothing left to do
+                if (game.isRoundFinished()) {
+                    return ActionHandlerResponse.empty();
+                }
+
                 return handleFinishRound(game);
             }
             case UPDATE_COUNTDOWN: {
@@ -214,8 +292,7 @@ public class GameActionHandler {
                     return new ActionHandlerResponse(errorEvent);
                 }
 
-                List<Event<?>> submitMoveEvents = handleSubmitMove(game, player, optionalMove.get());
-                return new ActionHandlerResponse(submitMoveEvents);
+                return handleSubmitMove(game, player, optionalMove.get());
             }
             case PLAYER_LEAVE: {
                 List<Event<?>> playerLeaveEvents = handlePlayerLeave(game, author.getUuid());
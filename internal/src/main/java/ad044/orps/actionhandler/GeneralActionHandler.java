@@ -1,15 +1,24 @@
 package ad044.orps.actionhandler;
 
+import ad044.orps.dto.GameDTO;
 import ad044.orps.dto.LobbyDTO;
+import ad044.orps.matchmaking.MatchmakingQueue;
 import ad044.orps.model.ActionHandlerResponse;
 import ad044.orps.model.action.GeneralAction;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
 import ad044.orps.model.event.ErrorEvent;
 import ad044.orps.model.event.Event;
 import ad044.orps.model.event.GeneralEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
 import ad044.orps.model.lobby.Lobby;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.GameService;
 import ad044.orps.service.LobbyService;
+import ad044.orps.service.MatchmakingService;
+import ad044.orps.service.RatingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +45,12 @@ public class GeneralActionHandler {
     @Autowired
     GameActionHandler gameActionHandler;
 
+    @Autowired
+    MatchmakingService matchmakingService;
+
+    @Autowired
+    RatingService ratingService;
+
     private GeneralEvent handleCreateLobby(OrpsUserDetails author) {
         Lobby newLobby = lobbyService.createLobby(author);
 
@@ -45,6 +60,8 @@ public class GeneralActionHandler {
     private List<Event<?>> handleDisconnect(String disconnectedUuid) {
         List<Event<?>> messages = new ArrayList<>();
 
+        matchmakingService.leave(disconnectedUuid);
+
         lobbyService.getAllLobbiesWithUser(disconnectedUuid).forEach(lobby -> {
             messages.addAll(lobbyActionHandler.handleUserLeave(lobby, disconnectedUuid));
         });
@@ -92,6 +109,35 @@ public class GeneralActionHandler {
         return GeneralEvent.userChangedName(uniqueRecipients, author.getUuid(), newName);
     }
 
+    private Event<?> handleJoinMatchmaking(OrpsUserDetails author) {
+        if (!matchmakingService.join(author)) {
+            return ErrorEvent.alreadyInMatchmaking(author.getUuid());
+        }
+
+        return GeneralEvent.joinedMatchmaking(author.getUuid(), ratingService.getRating(author.getUuid()));
+    }
+
+    private Event<?> handleLeaveMatchmaking(OrpsUserDetails author) {
+        if (!matchmakingService.leave(author.getUuid())) {
+            return ErrorEvent.notInMatchmaking(author.getUuid());
+        }
+
+        return GeneralEvent.leftMatchmaking(author.getUuid());
+    }
+
+    // Runs on the matcher thread. The game is brand new, so nothing else can be touching it yet.
+    public ActionHandlerResponse handleMatchFound(MatchmakingQueue.Match match) {
+        List<Player> players = match.getUsers().stream().map(Player::from).collect(Collectors.toList());
+        Game game = gameService.createGame(players, new GameSettings(3, 5));
+
+        ServerAction startNextRoundAction = ServerAction.game("START_NEXT_ROUND", game.getUri());
+        ScheduledAction scheduledAction = ScheduledAction.inMillis(startNextRoundAction, game.countDownValue * 1000L);
+
+        GeneralEvent matchFoundEvent = GeneralEvent.matchFound(game.getPlayerUuids(), GameDTO.from(game),
+                scheduledAction.getExecutionTime());
+        return new ActionHandlerResponse(matchFoundEvent, scheduledAction);
+    }
+
     public ActionHandlerResponse handleGeneralAction(GeneralAction action) {
         OrpsUserDetails author = action.getAuthor();
 
@@ -114,6 +160,12 @@ public class GeneralActionHandler {
                 List<Event<?>> disconnectEvents = handleDisconnect(author.getUuid());
                 return new ActionHandlerResponse(disconnectEvents);
             }
+            case JOIN_MATCHMAKING: {
+                return new ActionHandlerResponse(handleJoinMatchmaking(author));
+            }
+            case LEAVE_MATCHMAKING: {
+                return new ActionHandlerResponse(handleLeaveMatchmaking(author));
+            }
         }
 
         return ActionHandlerResponse.empty();
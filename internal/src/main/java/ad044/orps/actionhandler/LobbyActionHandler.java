@@ -11,25 +11,57 @@ import ad044.orps.model.event.ErrorEvent;
 import ad044.orps.model.event.Event;
 import ad044.orps.model.event.LobbyEvent;
 import ad044.orps.model.game.Game;
+import ad044.orps.model.lobby.ChatHistory;
 import ad044.orps.model.lobby.Lobby;
 import ad044.orps.model.user.BotUserDetails;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.GameService;
+import ad044.orps.service.LobbyService;
 import ad044.orps.util.ParseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.util.*;
 
 @Component
 public class LobbyActionHandler {
     Logger logger = LoggerFactory.getLogger(LobbyActionHandler.class);
 
+    public enum CountdownMode {
+        // UPDATE_COUNTDOWN every second until the first round starts
+        TICKS,
+        // the deadline goes out with CREATED_GAME and the client counts down by itself
+        DEADLINE
+    }
+
     @Autowired
     GameService gameService;
 
+    @Autowired
+    LobbyService lobbyService;
+
+    @Value("${game-countdown:ticks}")
+    String gameCountdown;
+
+    // per lobby, 0 keeps no history
+    @Value("${chat-history-messages:50}")
+    int chatHistoryMessages;
+
+    // hard cap on the UTF-8 text a lobby's history holds
+    @Value("${chat-history-bytes:2048}")
+    int chatHistoryBytes;
+
+    private CountdownMode countdownMode;
+
+    @PostConstruct
+    private void postConstruct() {
+        countdownMode = CountdownMode.valueOf(gameCountdown.toUpperCase());
+    }
+
     private Event<?> handleAddBot(Lobby lobby, String authorUuid) {
         if (!lobby.isOwner(authorUuid)) {
             return ErrorEvent.insufficientPermissions(authorUuid, lobby.getUri());
@@ -52,6 +84,10 @@ public class LobbyActionHandler {
             return ErrorEvent.badTextMessage(author.getUuid(), lobby.getUri(), "Message can't be empty.");
         }
 
+        if (chatHistoryMessages > 0) {
+            lobby.getChatHistory(chatHistoryMessages, chatHistoryBytes).add(author.getUuid(), author.getUsername(), messageContent);
+        }
+
         return LobbyEvent.newTextMessage(lobby.getMemberUuids(), lobby.getUri(), UserDTO.from(author), messageContent);
     }
 
@@ -66,14 +102,26 @@ public class LobbyActionHandler {
             events.add(memberJoinEvent);
         }
 
-        lobby.deletionDate = -1;
+        lobbyService.cancelDeletion(lobby);
 
-        LobbyEvent receiveLobbyDataEvent = LobbyEvent.receiveLobbyData(author.getUuid(), lobby.getUri(), LobbyDTO.from(lobby));
+        // joining again after a reconnect gets the backfill too
+        LobbyEvent receiveLobbyDataEvent = LobbyEvent.receiveLobbyData(author.getUuid(), lobby.getUri(),
+                LobbyDTO.from(lobby), getChatHistory(lobby));
         events.add(receiveLobbyDataEvent);
 
         return events;
     }
 
+    private List<LobbyEvent.TextMessage> getChatHistory(Lobby lobby) {
+        return lobby.getChatHistory().map(ChatHistory::getMessages).orElse(Collections.emptyList());
+    }
+
+    // Lobby data for someone who only wants to watch, without making them a member. What happens after comes from
+    // the lobby's spectator topic.
+    private Event<?> handleSpectate(Lobby lobby, String authorUuid) {
+        return LobbyEvent.receiveLobbyData(authorUuid, lobby.getUri(), LobbyDTO.from(lobby), getChatHistory(lobby));
+    }
+
     public List<Event<?>> handleUserLeave(Lobby lobby, String userThatLeftUuid) {
         if (!lobby.hasMember(userThatLeftUuid)) {
             return Collections.emptyList();
@@ -84,7 +132,7 @@ public class LobbyActionHandler {
         List<OrpsUserDetails> nonBotMembers = lobby.getNonBotMembers();
 
         if (nonBotMembers.isEmpty()) {
-            lobby.deletionDate = Calendar.getInstance().getTimeInMillis() + 1000 * 60;
+            lobbyService.scheduleDeletion(lobby);
             return Collections.emptyList();
         }
 
@@ -148,9 +196,19 @@ public class LobbyActionHandler {
 
         Game createdGame = gameService.createLobbyGame(lobby);
 
+        if (countdownMode == CountdownMode.DEADLINE) {
+            ServerAction startNextRoundAction = ServerAction.game("START_NEXT_ROUND", createdGame.getUri());
+            ScheduledAction scheduledAction
+                    = ScheduledAction.inMillis(startNextRoundAction, createdGame.countDownValue * 1000L);
+
+            LobbyEvent createdGameEvent = LobbyEvent.createdGame(lobby.getMemberUuids(), lobby.getUri(),
+                    GameDTO.from(createdGame), scheduledAction.getExecutionTime());
+            return new ActionHandlerResponse(createdGameEvent, scheduledAction);
+        }
+
         ServerAction updateCountdownAction = ServerAction.game("UPDATE_COUNTDOWN", createdGame.getUri());
         ScheduledAction scheduledAction
-                = new ScheduledAction(updateCountdownAction, Calendar.getInstance().getTimeInMillis() + 1000);
+                = ScheduledAction.inMillis(updateCountdownAction, 1000);
 
         LobbyEvent createdGameEvent = LobbyEvent.createdGame(lobby.getMemberUuids(), lobby.getUri(), GameDTO.from(createdGame));
         return new ActionHandlerResponse(createdGameEvent, scheduledAction);
@@ -169,6 +227,20 @@ public class LobbyActionHandler {
 
                 lobby.getSettings().setInviteOnly(Boolean.parseBoolean(settingValue));
             } break;
+            case "finishRoundEarly": {
+                if (!ParseUtil.isBoolean(settingValue)) {
+                    return ErrorEvent.invalidFieldDataType(authorUuid, settingName, "boolean string (\"true\" or \"false\")");
+                }
+
+                lobby.getSettings().setFinishRoundEarly(Boolean.parseBoolean(settingValue));
+            } break;
+            case "royale": {
+                if (!ParseUtil.isBoolean(settingValue)) {
+                    return ErrorEvent.invalidFieldDataType(authorUuid, settingName, "boolean string (\"true\" or \"false\")");
+                }
+
+                lobby.getSettings().setRoyale(Boolean.parseBoolean(settingValue));
+            } break;
             case "timeForMove": {
                 if (!ParseUtil.isUnsignedInt(settingValue)) {
                     return ErrorEvent.invalidFieldDataType(authorUuid, settingName, "unsigned int");
@@ -203,6 +275,15 @@ public class LobbyActionHandler {
         return LobbyEvent.settingsUpdated(lobby.getMemberUuids(), lobby.getUri(), settingName, settingValue);
     }
 
+    // for server-emitted actions
+    public ActionHandlerResponse handleLobbyServerAction(Lobby lobby, LobbyAction.ID actionId) {
+        if (actionId == LobbyAction.ID.DELETE_IF_DUE) {
+            lobbyService.deleteIfDue(lobby);
+        }
+
+        return ActionHandlerResponse.empty();
+    }
+
     public ActionHandlerResponse handleAction(LobbyAction action) {
         LobbyAction.ID actionId = action.getId();
         OrpsUserDetails author = action.getAuthor();
@@ -244,6 +325,9 @@ public class LobbyActionHandler {
             case START_GAME: {
                 return handleStartGame(lobby, author.getUuid());
             }
+            case SPECTATE: {
+                return new ActionHandlerResponse(handleSpectate(lobby, author.getUuid()));
+            }
             case UPDATE_SETTINGS: {
                 Optional<String> settingName = action.getDataByKey("settingName");
                 Optional<String> settingValue = action.getDataByKey("settingValue");
@@ -0,0 +1,120 @@
+package ad044.orps.actionhandler;
+
+import ad044.orps.dto.GameDTO;
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.action.TournamentAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.TournamentEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.tournament.Tournament;
+import ad044.orps.service.GameService;
+import ad044.orps.service.TournamentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class TournamentActionHandler {
+    Logger logger = LoggerFactory.getLogger(TournamentActionHandler.class);
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    TournamentService tournamentService;
+
+    // Games started per START_MATCHES. A bigger round starts over several batches, so thousands of games don't get
+    // created, announced and timed all in the same instant, and their rounds don't all fire in the same tick after.
+    @Value("${tournament-batch-size:256}")
+    int batchSize;
+
+    @Value("${tournament-batch-interval-millis:100}")
+    long batchIntervalMillis;
+
+    private ActionHandlerResponse handleStartMatches(Tournament tournament) {
+        if (tournament.getRoundNumber() == 0) {
+            tournament.startRound();
+        }
+
+        List<Event<?>> events = new ArrayList<>();
+        List<ScheduledAction> scheduledActions = new ArrayList<>();
+
+        for (int match : tournament.takeUnstartedMatches(batchSize)) {
+            List<Player> players = tournament.getMatchEntrants(match)
+                    .stream()
+                    .map(Player::from)
+                    .collect(Collectors.toList());
+            Game game = gameService.createGame(players, new GameSettings(tournament.getSettings()));
+            tournament.matchStarted(match, game.getUri());
+            tournamentService.registerMatch(game.getUri(), tournament.getUri());
+
+            ServerAction startNextRoundAction = ServerAction.game("START_NEXT_ROUND", game.getUri());
+            ScheduledAction scheduledAction = ScheduledAction.inMillis(startNextRoundAction, game.countDownValue * 1000L);
+            scheduledActions.add(scheduledAction);
+
+            events.add(TournamentEvent.matchStarted(game.getPlayerUuids(), tournament.getUri(),
+                    tournament.getRoundNumber(), GameDTO.from(game), scheduledAction.getExecutionTime()));
+        }
+
+        if (tournament.hasUnstartedMatches()) {
+            ServerAction startMatchesAction = ServerAction.tournament("START_MATCHES", tournament.getUri());
+            scheduledActions.add(ScheduledAction.inMillis(startMatchesAction, batchIntervalMillis));
+        }
+
+        return new ActionHandlerResponse(events, scheduledActions);
+    }
+
+    private ActionHandlerResponse handleRecordResult(Tournament tournament, String gameUri, String winnerUuid) {
+        boolean roundFinished = tournament.recordResult(gameUri, winnerUuid);
+        if (!roundFinished) {
+            return ActionHandlerResponse.empty();
+        }
+
+        if (!tournament.isFinished()) {
+            tournament.startRound();
+        }
+
+        if (tournament.isFinished()) {
+            tournamentService.removeTournament(tournament.getUri());
+            logger.info(String.format("Tournament %s finished after %d rounds.", tournament.getUri(), tournament.getRoundNumber()));
+
+            List<Event<?>> events = tournament.getChampion()
+                    .map(champion -> Collections.<Event<?>>singletonList(
+                            TournamentEvent.wonTournament(champion.getUuid(), tournament.getUri(), tournament.getEntrantCount())))
+                    .orElse(Collections.emptyList());
+            return new ActionHandlerResponse(events);
+        }
+
+        logger.info(String.format("Tournament %s moved on to round %d.", tournament.getUri(), tournament.getRoundNumber()));
+        return handleStartMatches(tournament);
+    }
+
+    // tournaments are only ever driven by server-emitted actions
+    public ActionHandlerResponse handleTournamentServerAction(TournamentAction action) {
+        Tournament tournament = action.getTargetTournament();
+
+        switch (action.getId()) {
+            case START_MATCHES: {
+                return handleStartMatches(tournament);
+            }
+            case RECORD_RESULT: {
+                String gameUri = action.getDataByKey("gameUri").orElse("");
+                return handleRecordResult(tournament, gameUri, action.getDataByKey("winnerUuid").orElse(null));
+            }
+            default: {
+                return ActionHandlerResponse.empty();
+            }
+        }
+    }
+}
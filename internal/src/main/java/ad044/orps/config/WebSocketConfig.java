@@ -1,15 +1,27 @@
 package ad044.orps.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.web.socket.config.annotation.*;
 
+import java.util.List;
+
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/queue");
+        // /topic carries spectator broadcasts, one message per event whatever the number of watchers
+        config.enableSimpleBroker("/queue", "/topic");
         config.setApplicationDestinationPrefixes("/app");
         config.setUserDestinationPrefix("/user");
     }
@@ -19,4 +31,29 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("http://localhost:3000");
     }
+
+    // Clients may only send actions. Without this a SEND straight to /topic would reach every spectator of a game.
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.wrap(message);
+                String destination = headers.getDestination();
+                if (headers.getMessageType() == SimpMessageType.MESSAGE
+                        && (destination == null || !destination.startsWith("/app/"))) {
+                    throw new MessageDeliveryException(message, String.format("Can't send to %s.", destination));
+                }
+                return message;
+            }
+        });
+    }
+
+    // Binary formats go in front of the defaults, they only match their own content type.
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        messageConverters.add(new WireFormatMessageConverter(WireFormat.CBOR, Jackson2ObjectMapperBuilder.cbor().build()));
+        messageConverters.add(new WireFormatMessageConverter(WireFormat.SMILE, Jackson2ObjectMapperBuilder.smile().build()));
+        return true;
+    }
 }
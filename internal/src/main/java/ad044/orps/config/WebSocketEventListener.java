@@ -4,6 +4,7 @@ import ad044.orps.model.action.Action;
 import ad044.orps.model.Category;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.UserMessagingService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,8 @@ public class WebSocketEventListener {
     Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
     @Autowired
     ActionDispatcherService actionDispatcherService;
+    @Autowired
+    UserMessagingService userMessagingService;
 
     @EventListener
     public void handleSessionConnect(SessionConnectEvent event) {
@@ -31,6 +34,13 @@ public class WebSocketEventListener {
         if (principal != null) {
             OrpsUserDetails user = (OrpsUserDetails) ((Authentication) principal).getPrincipal();
             logger.info(String.format("User %s connected.", user.getUuid()));
+
+            String requestedFormat = headers.getFirstNativeHeader(WireFormat.HEADER);
+            WireFormat wireFormat = WireFormat.fromHeader(requestedFormat).orElseGet(() -> {
+                logger.warn(String.format("User %s asked for unknown wire format %s, using JSON.", user.getUuid(), requestedFormat));
+                return WireFormat.JSON;
+            });
+            userMessagingService.registerSession(user.getUuid(), headers.getSessionId(), wireFormat);
         }
     }
 
@@ -44,6 +54,8 @@ public class WebSocketEventListener {
 
             logger.info(String.format("User %s disconnected.", userThatLeft.getUuid()));
 
+            userMessagingService.unregisterSession(userThatLeft.getUuid(), headers.getSessionId());
+
             Action disconnectAction = new Action("USER_DISCONNECT",
                     Category.GENERAL,
                     new HashMap<>(),
@@ -0,0 +1,56 @@
+package ad044.orps.config;
+
+import ad044.orps.util.EnumStringValueMapper;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Encoding of frame bodies for one STOMP session, picked by the client with the orps-encoding header on CONNECT.
+ * JSON is the default. The binary formats are sent as application/octet-stream (Spring only uses binary websocket
+ * frames for that content type), the codec parameter tells them apart.
+ */
+public enum WireFormat {
+    JSON(MimeTypeUtils.APPLICATION_JSON),
+    CBOR(binary("cbor")),
+    SMILE(binary("smile"));
+
+    public static final String HEADER = "orps-encoding";
+    private static final String CODEC_PARAMETER = "codec";
+
+    private final MimeType mimeType;
+
+    WireFormat(MimeType mimeType) {
+        this.mimeType = mimeType;
+    }
+
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    public static Optional<WireFormat> fromHeader(String value) {
+        if (value == null) {
+            return Optional.of(JSON);
+        }
+
+        return EnumStringValueMapper.stringValueToEnum(value.toUpperCase(), WireFormat.class);
+    }
+
+    public static WireFormat fromMimeType(MimeType mimeType) {
+        if (mimeType == null || !MimeTypeUtils.APPLICATION_OCTET_STREAM.equalsTypeAndSubtype(mimeType)) {
+            return JSON;
+        }
+
+        return fromHeader(mimeType.getParameter(CODEC_PARAMETER)).orElse(JSON);
+    }
+
+    private static MimeType binary(String codec) {
+        return new MimeType(MimeTypeUtils.APPLICATION_OCTET_STREAM, Map.of(CODEC_PARAMETER, codec));
+    }
+}
@@ -0,0 +1,32 @@
+package ad044.orps.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * Jackson converter for one of the binary wire formats. Only used when the content type asks for that format, so
+ * frames without a content type still go through the default JSON converter.
+ */
+public class WireFormatMessageConverter extends MappingJackson2MessageConverter {
+    private final WireFormat wireFormat;
+
+    public WireFormatMessageConverter(WireFormat wireFormat, ObjectMapper objectMapper) {
+        super(wireFormat.getMimeType());
+        this.wireFormat = wireFormat;
+        setObjectMapper(objectMapper);
+        setStrictContentTypeMatch(true);
+    }
+
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    // all binary formats share application/octet-stream, the default check ignores the codec parameter
+    @Override
+    protected boolean supportsMimeType(MessageHeaders headers) {
+        MimeType mimeType = getMimeType(headers);
+        return mimeType != null && WireFormat.fromMimeType(mimeType) == wireFormat;
+    }
+}
@@ -0,0 +1,33 @@
+package ad044.orps.controller;
+
+import ad044.orps.rating.LeaderboardIndex;
+import ad044.orps.service.RatingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+public class LeaderboardController {
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    RatingService ratingService;
+
+    @GetMapping
+    public List<LeaderboardIndex.Entry> getTop(@RequestParam(defaultValue = "100") int limit) {
+        return ratingService.getLeaderboard().top(Math.max(0, Math.min(limit, MAX_LIMIT)));
+    }
+
+    // users who haven't finished a rated game yet aren't on the leaderboard
+    @GetMapping("/{uuid}")
+    public ResponseEntity<LeaderboardIndex.Entry> getEntry(@PathVariable String uuid) {
+        return ResponseEntity.of(ratingService.getLeaderboard().getEntry(uuid));
+    }
+}
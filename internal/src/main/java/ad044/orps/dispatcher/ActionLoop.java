@@ -0,0 +1,260 @@
+package ad044.orps.dispatcher;
+
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Single thread that handles incoming actions (and other tasks) in FIFO order and fires scheduled actions once they're due.
+ * In PARKING mode the thread sleeps until either a new action arrives or the earliest scheduled action
+ * comes due, SPINNING keeps polling (the old behaviour, kept around for comparison).
+ * <p>
+ * Scheduled actions are kept in a TimingWheel, so they fire with tick granularity (1 ms by default).
+ */
+public class ActionLoop {
+    public enum Mode {
+        PARKING,
+        SPINNING
+    }
+
+    public static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // How long to keep polling after the last piece of work before parking.
+    // Keeps wake-up latency low while actions are flowing in without burning a core when idle.
+    private static final long SPIN_NANOS_BEFORE_PARK = TimeUnit.MICROSECONDS.toNanos(50);
+
+    Logger logger = LoggerFactory.getLogger(ActionLoop.class);
+
+    private final String name;
+    private final Mode mode;
+    private final Consumer<Action> actionHandler;
+    private final ConcurrentLinkedQueue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
+    // scheduled actions can be submitted from any thread, but the timing wheel is only touched by the loop thread
+    private final ConcurrentLinkedQueue<ScheduledTimer> incomingTimers = new ConcurrentLinkedQueue<>();
+    private final TimingWheel timingWheel;
+    // pending timers by key (lobby/game uri), so everything scheduled for a removed game can be cancelled at once.
+    // the sets are only modified inside compute calls, which lock the key
+    private final ConcurrentHashMap<String, Set<ScheduledTimer>> timersByKey = new ConcurrentHashMap<>();
+    private final LongAdder firedTimers = new LongAdder();
+    private final LongAdder cancelledTimers = new LongAdder();
+
+    private volatile boolean running = false;
+    private volatile boolean parked = false;
+    private volatile Thread thread;
+
+    public ActionLoop(String name, Mode mode, Consumer<Action> actionHandler) {
+        this(name, mode, DEFAULT_TICK_NANOS, actionHandler);
+    }
+
+    public ActionLoop(String name, Mode mode, long tickNanos, Consumer<Action> actionHandler) {
+        this.name = name;
+        this.mode = mode;
+        this.actionHandler = actionHandler;
+        this.timingWheel = new TimingWheel(tickNanos, System.nanoTime());
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(mode == Mode.PARKING ? this::runParking : this::runSpinning, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public void putAction(Action action) {
+        execute(() -> handle(action));
+    }
+
+    public void execute(Runnable task) {
+        taskQueue.add(task);
+        wakeUp();
+    }
+
+    public ScheduledTimer scheduleAction(ScheduledAction scheduledAction) {
+        return scheduleAction(null, scheduledAction);
+    }
+
+    /**
+     * Schedules an action, the returned handle can be used to cancel it.
+     * Timers with a key can also be cancelled in bulk through cancelScheduledActions.
+     */
+    public ScheduledTimer scheduleAction(String key, ScheduledAction scheduledAction) {
+        ScheduledTimer timer = new ScheduledTimer(this, key, scheduledAction);
+        if (key != null) {
+            timersByKey.compute(key, (k, timers) -> {
+                Set<ScheduledTimer> keyTimers = timers == null ? new HashSet<>() : timers;
+                keyTimers.add(timer);
+                return keyTimers;
+            });
+        }
+
+        incomingTimers.add(timer);
+        wakeUp();
+
+        return timer;
+    }
+
+    /**
+     * Cancels every pending timer scheduled with the given key, returns how many were cancelled.
+     */
+    public int cancelScheduledActions(String key) {
+        Set<ScheduledTimer> timers = timersByKey.remove(key);
+        if (timers == null) {
+            return 0;
+        }
+
+        int cancelled = 0;
+        for (ScheduledTimer timer : timers) {
+            if (timer.markCancelled()) {
+                cancelled++;
+            }
+        }
+
+        cancelledTimers.add(cancelled);
+        execute(() -> timers.forEach(timingWheel::remove));
+
+        return cancelled;
+    }
+
+    public long getFiredTimerCount() {
+        return firedTimers.sum();
+    }
+
+    public long getCancelledTimerCount() {
+        return cancelledTimers.sum();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    void onCancelled(ScheduledTimer timer) {
+        unindex(timer);
+        cancelledTimers.increment();
+        execute(() -> timingWheel.remove(timer));
+    }
+
+    private void unindex(ScheduledTimer timer) {
+        if (timer.key == null) {
+            return;
+        }
+
+        timersByKey.computeIfPresent(timer.key, (key, timers) -> {
+            timers.remove(timer);
+            return timers.isEmpty() ? null : timers;
+        });
+    }
+
+    private void wakeUp() {
+        // parked is set before the loop re-checks its queues, so either the loop sees the new item or we see the flag
+        if (parked) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void runSpinning() {
+        while (running) {
+            runOnce();
+        }
+    }
+
+    private void runParking() {
+        long lastWorkTime = System.nanoTime();
+
+        while (running) {
+            if (runOnce()) {
+                lastWorkTime = System.nanoTime();
+                continue;
+            }
+
+            long now = System.nanoTime();
+            if (now - lastWorkTime < SPIN_NANOS_BEFORE_PARK) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            long nextWakeUpTime = timingWheel.nextWakeUpTime();
+
+            parked = true;
+            if (running && taskQueue.isEmpty() && incomingTimers.isEmpty()) {
+                if (nextWakeUpTime == -1) {
+                    LockSupport.park(this);
+                } else {
+                    long parkNanos = nextWakeUpTime - now;
+                    if (parkNanos > 0) {
+                        LockSupport.parkNanos(this, parkNanos);
+                    }
+                }
+            }
+            parked = false;
+        }
+    }
+
+    // Returns whether any work was done.
+    private boolean runOnce() {
+        boolean handledAny = false;
+
+        ScheduledTimer incoming;
+        while ((incoming = incomingTimers.poll()) != null) {
+            // cancelled before it even made it into the wheel
+            if (incoming.getState() == ScheduledTimer.State.PENDING) {
+                timingWheel.add(incoming);
+            }
+        }
+
+        Runnable task = taskQueue.poll();
+        if (task != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error(String.format("Failed to run task on %s", name), e);
+            }
+            handledAny = true;
+        }
+
+        if (timingWheel.advance(System.nanoTime(), this::fire) > 0) {
+            handledAny = true;
+        }
+
+        return handledAny;
+    }
+
+    private void fire(ScheduledTimer timer) {
+        unindex(timer);
+        firedTimers.increment();
+        handle(timer.scheduledAction.getAction());
+    }
+
+    private void handle(Action action) {
+        try {
+            actionHandler.accept(action);
+        } catch (RuntimeException e) {
+            logger.error(String.format("Failed to handle action %s on %s", action.getIdString(), name), e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package ad044.orps.dispatcher;
+
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Consumer;
+
+/**
+ * A fixed set of ActionLoops ("lanes"). Actions are routed to a lane by a key (lobby/game uri),
+ * so actions for the same lobby or game are handled strictly in order, while unrelated ones run in parallel.
+ * <p>
+ * Actions that touch several lobbies/games at once go through the coordinator, which waits until every lane
+ * has finished the work queued before it, runs the action while the lanes are held, then releases them.
+ * <p>
+ * A lobby and the game started from it usually land on different lanes, as do a tournament and its matches. Nothing
+ * mutable may be shared between them (the game takes its own copy of the settings, for one): model objects aren't
+ * thread safe, and a write made on one lane is not guaranteed to be seen, or seen whole, on another.
+ */
+public class DispatcherLanes {
+    Logger logger = LoggerFactory.getLogger(DispatcherLanes.class);
+
+    private final ActionLoop[] lanes;
+    private final ActionLoop coordinator;
+
+    public DispatcherLanes(int laneCount, ActionLoop.Mode mode, Consumer<Action> actionHandler) {
+        this(laneCount, mode, ActionLoop.DEFAULT_TICK_NANOS, actionHandler);
+    }
+
+    public DispatcherLanes(int laneCount, ActionLoop.Mode mode, long tickNanos, Consumer<Action> actionHandler) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1.");
+        }
+
+        this.lanes = new ActionLoop[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ActionLoop(String.format("action-dispatcher-%d", i), mode, tickNanos, actionHandler);
+        }
+
+        this.coordinator = new ActionLoop("action-dispatcher-coordinator", mode, tickNanos,
+                action -> runExclusive(() -> actionHandler.accept(action)));
+    }
+
+    public void start() {
+        for (ActionLoop lane : lanes) {
+            lane.start();
+        }
+        coordinator.start();
+    }
+
+    public void stop() {
+        // the coordinator first, so it never waits on lanes that are already gone
+        coordinator.stop();
+        for (ActionLoop lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    public int size() {
+        return lanes.length;
+    }
+
+    public void putAction(String key, Action action) {
+        laneFor(key).putAction(action);
+    }
+
+    public void putExclusiveAction(Action action) {
+        coordinator.putAction(action);
+    }
+
+    public ScheduledTimer scheduleAction(String key, ScheduledAction scheduledAction) {
+        return laneFor(key).scheduleAction(key, scheduledAction);
+    }
+
+    public int cancelScheduledActions(String key) {
+        return laneFor(key).cancelScheduledActions(key);
+    }
+
+    public long getFiredTimerCount() {
+        long count = 0;
+        for (ActionLoop lane : lanes) {
+            count += lane.getFiredTimerCount();
+        }
+        return count;
+    }
+
+    public long getCancelledTimerCount() {
+        long count = 0;
+        for (ActionLoop lane : lanes) {
+            count += lane.getCancelledTimerCount();
+        }
+        return count;
+    }
+
+    public int laneIndexFor(String key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private ActionLoop laneFor(String key) {
+        return lanes[laneIndexFor(key)];
+    }
+
+    private void runExclusive(Runnable task) {
+        CountDownLatch lanesHeld = new CountDownLatch(lanes.length);
+        CountDownLatch taskDone = new CountDownLatch(1);
+
+        for (ActionLoop lane : lanes) {
+            lane.execute(() -> {
+                lanesHeld.countDown();
+                awaitUninterruptibly(taskDone);
+            });
+        }
+
+        awaitUninterruptibly(lanesHeld);
+        try {
+            task.run();
+        } finally {
+            taskDone.countDown();
+        }
+    }
+
+    private void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            logger.warn("Interrupted while waiting for the dispatcher lanes.");
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package ad044.orps.dispatcher;
+
+import ad044.orps.model.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Outbound stage between the dispatcher and the socket. Events are split into one delivery per recipient and
+ * handed to a fixed set of sender threads, so serializing and sending never holds up the dispatcher.
+ * <p>
+ * Every event is encoded (to M) only once, by whichever sender gets to it first, and the same encoded message
+ * is then delivered to all of its recipients.
+ * <p>
+ * Every recipient is always served by the same sender, which keeps the events a user receives in the order
+ * they were submitted. Each sender has a bounded queue, once it's full the OverflowPolicy decides whether
+ * the submitting thread waits for space or the delivery is dropped.
+ * <p>
+ * With a broadcaster, events that have a spectator topic also go out once to that topic, on top of the per
+ * recipient deliveries. A topic is served by one sender the same way a recipient is, so it stays in order too.
+ */
+public class EventSenderPool<M> {
+    public enum OverflowPolicy {
+        BLOCK,
+        DROP
+    }
+
+    private static final long POLL_MILLIS = 100;
+
+    Logger logger = LoggerFactory.getLogger(EventSenderPool.class);
+
+    private final List<Sender> senders;
+    private final OverflowPolicy overflowPolicy;
+    private final Function<Event<?>, M> encoder;
+    private final BiConsumer<String, M> deliverer;
+    private final BiConsumer<String, M> broadcaster;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = false;
+
+    public EventSenderPool(int senderCount, int queueCapacity, OverflowPolicy overflowPolicy,
+                           Function<Event<?>, M> encoder, BiConsumer<String, M> deliverer) {
+        this(senderCount, queueCapacity, overflowPolicy, encoder, deliverer, null);
+    }
+
+    public EventSenderPool(int senderCount, int queueCapacity, OverflowPolicy overflowPolicy,
+                           Function<Event<?>, M> encoder, BiConsumer<String, M> deliverer,
+                           BiConsumer<String, M> broadcaster) {
+        if (senderCount < 1) {
+            throw new IllegalArgumentException("Sender count must be at least 1.");
+        }
+
+        this.overflowPolicy = overflowPolicy;
+        this.encoder = encoder;
+        this.deliverer = deliverer;
+        this.broadcaster = broadcaster;
+        this.senders = new ArrayList<>(senderCount);
+        for (int i = 0; i < senderCount; i++) {
+            senders.add(new Sender(String.format("event-sender-%d", i), queueCapacity));
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        for (Sender sender : senders) {
+            sender.thread.start();
+        }
+    }
+
+    // Whatever is still queued gets delivered before the senders exit.
+    public synchronized void stop() {
+        running = false;
+        for (Sender sender : senders) {
+            try {
+                sender.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public void submit(List<Event<?>> events) {
+        events.forEach(this::submit);
+    }
+
+    public void submit(Event<?> event) {
+        OutboundEvent outboundEvent = new OutboundEvent(event);
+        for (String recipient : event.getRecipientUuids()) {
+            senderFor(recipient).enqueue(new Delivery(recipient, outboundEvent, false));
+        }
+        if (broadcaster != null) {
+            event.getSpectatorTopic().ifPresent(topic ->
+                    senderFor(topic).enqueue(new Delivery(topic, outboundEvent, true)));
+        }
+    }
+
+    public int size() {
+        return senders.size();
+    }
+
+    public int senderIndexFor(String recipient) {
+        int hash = recipient.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), senders.size());
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Sender sender : senders) {
+            depth += sender.queue.size();
+        }
+        return depth;
+    }
+
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private Sender senderFor(String recipient) {
+        return senders.get(senderIndexFor(recipient));
+    }
+
+    // Shared by all deliveries of one event.
+    private final class OutboundEvent {
+        final Event<?> event;
+        private volatile M encoded;
+
+        OutboundEvent(Event<?> event) {
+            this.event = event;
+        }
+
+        M getEncoded() {
+            M result = encoded;
+            if (result == null) {
+                synchronized (this) {
+                    result = encoded;
+                    if (result == null) {
+                        result = encoder.apply(event);
+                        encoded = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private final class Delivery {
+        // the topic, for broadcasts
+        final String recipient;
+        final OutboundEvent outboundEvent;
+        final boolean broadcast;
+
+        Delivery(String recipient, OutboundEvent outboundEvent, boolean broadcast) {
+            this.recipient = recipient;
+            this.outboundEvent = outboundEvent;
+            this.broadcast = broadcast;
+        }
+    }
+
+    private final class Sender {
+        final BlockingQueue<Delivery> queue;
+        final Thread thread;
+
+        Sender(String name, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this::run, name);
+            this.thread.setDaemon(true);
+        }
+
+        void enqueue(Delivery delivery) {
+            if (overflowPolicy == OverflowPolicy.DROP) {
+                if (!queue.offer(delivery)) {
+                    drop(delivery);
+                }
+                return;
+            }
+
+            try {
+                queue.put(delivery);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                drop(delivery);
+            }
+        }
+
+        void drop(Delivery delivery) {
+            dropped.increment();
+            logger.warn(String.format("Dropped event %s for %s, %s is full.",
+                    delivery.outboundEvent.event.getId(), delivery.recipient, thread.getName()));
+        }
+
+        void run() {
+            while (running || !queue.isEmpty()) {
+                Delivery delivery;
+                try {
+                    delivery = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+
+                if (delivery == null) {
+                    continue;
+                }
+
+                try {
+                    (delivery.broadcast ? broadcaster : deliverer).accept(delivery.recipient, delivery.outboundEvent.getEncoded());
+                    delivered.increment();
+                } catch (RuntimeException e) {
+                    logger.error(String.format("Failed to send event %s to %s", delivery.outboundEvent.event.getId(), delivery.recipient), e);
+                }
+            }
+        }
+    }
+}
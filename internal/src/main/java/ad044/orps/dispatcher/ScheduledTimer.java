@@ -0,0 +1,73 @@
+package ad044.orps.dispatcher;
+
+import ad044.orps.model.action.ScheduledAction;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Handle to a ScheduledAction handed to an ActionLoop. Can be cancelled from any thread, a cancelled timer
+ * never fires and is unlinked from the TimingWheel by the loop thread.
+ * <p>
+ * While pending it sits in a TimingWheel bucket. Buckets are intrusive doubly linked lists,
+ * so inserting and unlinking a timer never allocates or searches.
+ */
+public final class ScheduledTimer {
+    public enum State {
+        PENDING,
+        FIRED,
+        CANCELLED
+    }
+
+    final ActionLoop loop;
+    final String key;
+    final ScheduledAction scheduledAction;
+    private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+
+    // only touched by the loop thread
+    long expiryTick;
+    ScheduledTimer prev;
+    ScheduledTimer next;
+    // -1 while not linked into a bucket
+    int bucket = -1;
+
+    ScheduledTimer(ActionLoop loop, String key, ScheduledAction scheduledAction) {
+        this.loop = loop;
+        this.key = key;
+        this.scheduledAction = scheduledAction;
+    }
+
+    public ScheduledAction getScheduledAction() {
+        return scheduledAction;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isCancelled() {
+        return state.get() == State.CANCELLED;
+    }
+
+    /**
+     * Returns false if the timer already fired or was cancelled before.
+     */
+    public boolean cancel() {
+        if (!markCancelled()) {
+            return false;
+        }
+
+        // timers added straight to a TimingWheel have no loop, whoever owns the wheel removes them
+        if (loop != null) {
+            loop.onCancelled(this);
+        }
+        return true;
+    }
+
+    boolean markCancelled() {
+        return state.compareAndSet(State.PENDING, State.CANCELLED);
+    }
+
+    boolean markFired() {
+        return state.compareAndSet(State.PENDING, State.FIRED);
+    }
+}
@@ -0,0 +1,246 @@
+package ad044.orps.dispatcher;
+
+import ad044.orps.model.action.ScheduledAction;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel (same layout as the classic Linux kernel timer wheel) for ScheduledActions.
+ * <p>
+ * Time is split into ticks of tickNanos. Level 0 has one bucket per tick for the next 64 ticks, every level above
+ * covers 64 times the range of the one below it. Timers further out are moved ("cascaded") one level down whenever
+ * the level below wraps around, so inserting is O(1) and every timer due in a tick is expired together by detaching
+ * a single bucket. A timer never fires before its deadline and at most one tick (plus wake-up delay) after it.
+ * <p>
+ * Not thread safe, it's meant to be owned by a single ActionLoop thread.
+ */
+public class TimingWheel {
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final long MAX_TICKS_AHEAD = (1L << (LEVELS * SLOT_BITS)) - 1;
+
+    private final long tickNanos;
+    private final long origin;
+    private final ScheduledTimer[] buckets = new ScheduledTimer[LEVELS * SLOTS];
+    // one bit per non-empty bucket, so the next tick worth waking up for can be found without scanning
+    private final long[] occupied = new long[LEVELS];
+    // the next tick that hasn't been processed yet
+    private long currentTick = 0;
+    private int size = 0;
+
+    public TimingWheel(long tickNanos, long now) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive.");
+        }
+
+        this.tickNanos = tickNanos;
+        this.origin = now;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    public ScheduledTimer add(ScheduledAction scheduledAction) {
+        ScheduledTimer timer = new ScheduledTimer(null, null, scheduledAction);
+        add(timer);
+
+        return timer;
+    }
+
+    void add(ScheduledTimer timer) {
+        // rounded up, so nothing ever fires before its deadline
+        timer.expiryTick = Math.floorDiv(timer.scheduledAction.getDeadline() - origin - 1, tickNanos) + 1;
+        place(timer);
+        size++;
+    }
+
+    /**
+     * Unlinks a timer that hasn't expired yet. Returns false if it wasn't in the wheel.
+     */
+    public boolean remove(ScheduledTimer timer) {
+        if (timer.bucket == -1) {
+            return false;
+        }
+
+        int bucket = timer.bucket;
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        if (buckets[bucket] == null) {
+            occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+        }
+
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = -1;
+        size--;
+
+        return true;
+    }
+
+    /**
+     * Processes every tick up to now, handing every expired timer to the consumer.
+     * Timers cancelled in the meantime are dropped. Returns how many were handed over.
+     */
+    public int advance(long now, Consumer<ScheduledTimer> consumer) {
+        long targetTick = Math.floorDiv(now - origin, tickNanos);
+
+        int expired = 0;
+        while (currentTick <= targetTick) {
+            // ticks with nothing to expire or cascade are skipped over instead of walked one by one
+            long nextTick = nextTickWithWork();
+            if (nextTick > targetTick) {
+                currentTick = targetTick + 1;
+                break;
+            }
+
+            currentTick = nextTick;
+            expired += processTick(consumer);
+        }
+
+        return expired;
+    }
+
+    /**
+     * System.nanoTime() at which the next tick that has work (expiring or cascading timers) comes due,
+     * or -1 when the wheel is empty.
+     */
+    public long nextWakeUpTime() {
+        if (size == 0) {
+            return -1;
+        }
+
+        return origin + nextTickWithWork() * tickNanos;
+    }
+
+    private long nextTickWithWork() {
+        long nextTick = Long.MAX_VALUE;
+
+        if (occupied[0] != 0) {
+            int index = (int) (currentTick & SLOT_MASK);
+            nextTick = currentTick + Long.numberOfTrailingZeros(Long.rotateRight(occupied[0], index));
+        }
+
+        for (int level = 1; level < LEVELS; level++) {
+            if (occupied[level] != 0) {
+                long nextCascadeTick = (currentTick + SLOT_MASK) & ~SLOT_MASK;
+                nextTick = Math.min(nextTick, nextCascadeTick);
+                break;
+            }
+        }
+
+        return nextTick;
+    }
+
+    private int processTick(Consumer<ScheduledTimer> consumer) {
+        int index = (int) (currentTick & SLOT_MASK);
+
+        if (index == 0) {
+            for (int level = 1; level < LEVELS; level++) {
+                int slot = (int) ((currentTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+                cascade(level, slot);
+                if (slot != 0) {
+                    break;
+                }
+            }
+        }
+
+        currentTick++;
+
+        ScheduledTimer timer = detach(index);
+        int expired = 0;
+        while (timer != null) {
+            ScheduledTimer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            size--;
+            if (timer.markFired()) {
+                expired++;
+                consumer.accept(timer);
+            }
+            timer = next;
+        }
+
+        return expired;
+    }
+
+    private void cascade(int level, int slot) {
+        ScheduledTimer timer = detach(level * SLOTS + slot);
+        while (timer != null) {
+            ScheduledTimer next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void place(ScheduledTimer timer) {
+        long expiryTick = timer.expiryTick;
+        long ticksAhead = expiryTick - currentTick;
+
+        int bucket;
+        if (ticksAhead < 0) {
+            // overdue, expire on the very next tick
+            bucket = (int) (currentTick & SLOT_MASK);
+        } else if (ticksAhead < SLOTS) {
+            bucket = (int) (expiryTick & SLOT_MASK);
+        } else {
+            if (ticksAhead > MAX_TICKS_AHEAD) {
+                // parked in the top level and re-placed once cascaded, until it's in range
+                expiryTick = currentTick + MAX_TICKS_AHEAD;
+                ticksAhead = MAX_TICKS_AHEAD;
+            }
+
+            int level = (63 - Long.numberOfLeadingZeros(ticksAhead)) / SLOT_BITS;
+            bucket = level * SLOTS + (int) ((expiryTick >>> (level * SLOT_BITS)) & SLOT_MASK);
+        }
+
+        link(bucket, timer);
+    }
+
+    private void link(int bucket, ScheduledTimer timer) {
+        ScheduledTimer head = buckets[bucket];
+        timer.bucket = bucket;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        buckets[bucket] = timer;
+        occupied[bucket / SLOTS] |= 1L << (bucket & SLOT_MASK);
+    }
+
+    // Empties a bucket and returns its former contents.
+    private ScheduledTimer detach(int bucket) {
+        ScheduledTimer head = buckets[bucket];
+        if (head == null) {
+            return null;
+        }
+
+        buckets[bucket] = null;
+        occupied[bucket / SLOTS] &= ~(1L << (bucket & SLOT_MASK));
+
+        for (ScheduledTimer timer = head; timer != null; timer = timer.next) {
+            timer.bucket = -1;
+        }
+
+        return head;
+    }
+}
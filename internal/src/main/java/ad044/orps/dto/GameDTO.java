@@ -3,6 +3,7 @@ package ad044.orps.dto;
 import ad044.orps.model.game.Game;
 import ad044.orps.model.game.GameSettings;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -26,7 +27,22 @@ public class GameDTO {
     }
 
     public static GameDTO from(Game game) {
-        List<PlayerDTO> playerDTOS = game.getPlayers().stream().map(PlayerDTO::from).collect(Collectors.toList());
+        // a royale game can have hundreds of players and the client only shows the round tallies, so they aren't listed
+        List<PlayerDTO> playerDTOS = game.getSettings().isRoyale()
+                ? Collections.emptyList()
+                : game.getPlayers().stream().map(PlayerDTO::from).collect(Collectors.toList());
+        return from(game, playerDTOS);
+    }
+
+    // the players as of the last round result, which is what the round results that follow apply to
+    public static GameDTO snapshotOf(Game game) {
+        List<PlayerDTO> playerDTOS = game.getSettings().isRoyale()
+                ? Collections.emptyList()
+                : game.getPublishedState().getPlayers().stream().map(PlayerDTO::from).collect(Collectors.toList());
+        return from(game, playerDTOS);
+    }
+
+    private static GameDTO from(Game game, List<PlayerDTO> playerDTOS) {
         GameSettings gameSettings = game.getSettings();
 
         return game.getParentLobbyUri()
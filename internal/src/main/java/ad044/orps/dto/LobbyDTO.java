@@ -20,7 +20,8 @@ public class LobbyDTO {
     public static LobbyDTO from(Lobby lobby) {
         List<UserDTO> userDTOS = lobby.getMembers().stream().map(UserDTO::from).collect(Collectors.toList());
 
-        return new LobbyDTO(userDTOS, lobby.getUri(), lobby.getSettings());
+        // a copy, events get encoded on the sender threads while the lobby's lane may be updating its settings
+        return new LobbyDTO(userDTOS, lobby.getUri(), new LobbySettings(lobby.getSettings()));
     }
 
     public String getUri() {
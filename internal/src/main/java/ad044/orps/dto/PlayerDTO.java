@@ -2,6 +2,7 @@ package ad044.orps.dto;
 
 import ad044.orps.model.game.GameMove;
 import ad044.orps.model.game.Player;
+import ad044.orps.model.game.PublishedState;
 
 public class PlayerDTO extends UserDTO {
     private final int score;
@@ -17,6 +18,10 @@ public class PlayerDTO extends UserDTO {
         return new PlayerDTO(player.getUsername(), player.getUuid(), player.score, player.move);
     }
 
+    public static PlayerDTO from(PublishedState.PlayerState state) {
+        return new PlayerDTO(state.getUsername(), state.getUuid(), state.getScore(), state.getMove());
+    }
+
     public int getScore() {
         return score;
     }
@@ -0,0 +1,248 @@
+package ad044.orps.matchmaking;
+
+import ad044.orps.model.user.OrpsUserDetails;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Users waiting for a 1v1 game, split into buckets by rating.
+ * <p>
+ * Enqueue and cancel can come from any thread and never lock anything shared: a user's ticket goes into the
+ * uuid map and onto the lock-free queue of its bucket, cancelling just flips the ticket's state and leaves it for the
+ * matcher to skip. Only one thread may call match at a time.
+ * <p>
+ * Each pass pairs users in the same bucket oldest first. Whoever is left over can be paired with a user from another
+ * bucket once either of them has waited long enough for the gap, every widenAfterNanos waited lets a user reach one
+ * bucket further.
+ */
+public class MatchmakingQueue {
+    private static final int WAITING = 0;
+    // between the matcher claiming the first user of a pair and finding out whether it got the second one as well
+    private static final int PAIRING = 1;
+    private static final int MATCHED = 2;
+    private static final int CANCELLED = 3;
+
+    public static class Ticket {
+        private final OrpsUserDetails user;
+        private final int rating;
+        private final int bucket;
+        private final long enqueuedAt;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Ticket(OrpsUserDetails user, int rating, int bucket, long enqueuedAt) {
+            this.user = user;
+            this.rating = rating;
+            this.bucket = bucket;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        public OrpsUserDetails getUser() {
+            return user;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+
+        public long getEnqueuedAt() {
+            return enqueuedAt;
+        }
+
+        private boolean isWaiting() {
+            return state.get() == WAITING;
+        }
+    }
+
+    public static class Match {
+        private final Ticket first;
+        private final Ticket second;
+        private final long matchedAt;
+
+        private Match(Ticket first, Ticket second, long matchedAt) {
+            this.first = first;
+            this.second = second;
+            this.matchedAt = matchedAt;
+        }
+
+        public List<OrpsUserDetails> getUsers() {
+            return List.of(first.getUser(), second.getUser());
+        }
+
+        public List<Ticket> getTickets() {
+            return List.of(first, second);
+        }
+
+        public long getMatchedAt() {
+            return matchedAt;
+        }
+    }
+
+    private final int bucketWidth;
+    private final long widenAfterNanos;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Ticket>[] incoming;
+    // tickets the matcher has taken off the incoming queues but not paired yet, oldest first. matcher thread only
+    private final ArrayDeque<Ticket>[] held;
+
+    @SuppressWarnings("unchecked")
+    public MatchmakingQueue(int bucketCount, int bucketWidth, long widenAfterNanos) {
+        if (bucketCount < 1 || bucketWidth < 1) {
+            throw new IllegalArgumentException("Bucket count and width must be at least 1.");
+        }
+
+        this.bucketWidth = bucketWidth;
+        this.widenAfterNanos = widenAfterNanos;
+        this.incoming = new ConcurrentLinkedQueue[bucketCount];
+        this.held = new ArrayDeque[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            incoming[i] = new ConcurrentLinkedQueue<>();
+            held[i] = new ArrayDeque<>();
+        }
+    }
+
+    private int bucketFor(int rating) {
+        return Math.max(0, Math.min(incoming.length - 1, rating / bucketWidth));
+    }
+
+    // false if the user is already waiting
+    public boolean enqueue(OrpsUserDetails user, int rating, long now) {
+        Ticket ticket = new Ticket(user, rating, bucketFor(rating), now);
+        if (tickets.putIfAbsent(user.getUuid(), ticket) != null) {
+            return false;
+        }
+
+        incoming[ticket.bucket].add(ticket);
+        return true;
+    }
+
+    // false if the user wasn't waiting, or has already been matched
+    public boolean cancel(String uuid) {
+        Ticket ticket = tickets.get(uuid);
+        if (ticket == null) {
+            return false;
+        }
+
+        while (true) {
+            int state = ticket.state.get();
+            if (state == PAIRING) {
+                // the matcher is a couple of instructions away from deciding either way
+                Thread.onSpinWait();
+            } else if (state != WAITING) {
+                return false;
+            } else if (ticket.state.compareAndSet(WAITING, CANCELLED)) {
+                tickets.remove(uuid, ticket);
+                return true;
+            }
+        }
+    }
+
+    public boolean isQueued(String uuid) {
+        return tickets.containsKey(uuid);
+    }
+
+    public int size() {
+        return tickets.size();
+    }
+
+    private long reach(Ticket ticket, long now) {
+        return widenAfterNanos > 0 ? (now - ticket.enqueuedAt) / widenAfterNanos : 0;
+    }
+
+    // Claims both tickets or neither. The first one only sits in PAIRING while the second is being claimed.
+    private Match tryPair(Ticket first, Ticket second, long now) {
+        if (!first.state.compareAndSet(WAITING, PAIRING)) {
+            return null;
+        }
+        if (!second.state.compareAndSet(WAITING, MATCHED)) {
+            first.state.set(WAITING);
+            return null;
+        }
+        first.state.set(MATCHED);
+
+        tickets.remove(first.user.getUuid(), first);
+        tickets.remove(second.user.getUuid(), second);
+        return new Match(first, second, now);
+    }
+
+    private static Ticket firstWaiting(ArrayDeque<Ticket> deque) {
+        Iterator<Ticket> iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            Ticket ticket = iterator.next();
+            if (ticket.isWaiting()) {
+                return ticket;
+            }
+            iterator.remove();
+        }
+        return null;
+    }
+
+    public List<Match> match(long now) {
+        List<Match> matches = new ArrayList<>();
+
+        for (int bucket = 0; bucket < incoming.length; bucket++) {
+            ArrayDeque<Ticket> bucketHeld = held[bucket];
+            Ticket ticket;
+            while ((ticket = incoming[bucket].poll()) != null) {
+                if (ticket.isWaiting()) {
+                    bucketHeld.add(ticket);
+                }
+            }
+
+            Ticket first;
+            while ((first = firstWaiting(bucketHeld)) != null) {
+                bucketHeld.poll();
+                Ticket second = firstWaiting(bucketHeld);
+                if (second == null) {
+                    bucketHeld.addFirst(first);
+                    break;
+                }
+
+                Match match = tryPair(first, second, now);
+                if (match != null) {
+                    bucketHeld.poll();
+                    matches.add(match);
+                } else if (first.isWaiting()) {
+                    // only the second one got cancelled, first stays at the front
+                    bucketHeld.poll();
+                    bucketHeld.addFirst(first);
+                }
+            }
+        }
+
+        // at most one user per bucket is left now, walk them from low to high rating
+        Ticket previous = null;
+        for (int bucket = 0; bucket < held.length; bucket++) {
+            Ticket current = firstWaiting(held[bucket]);
+            if (current == null) {
+                continue;
+            }
+
+            if (previous != null) {
+                long gap = current.bucket - previous.bucket;
+                if (gap <= Math.max(reach(previous, now), reach(current, now))) {
+                    Match match = tryPair(previous, current, now);
+                    if (match != null) {
+                        held[previous.bucket].remove(previous);
+                        held[current.bucket].remove(current);
+                        matches.add(match);
+                        previous = null;
+                        continue;
+                    }
+                    if (!current.isWaiting()) {
+                        continue;
+                    }
+                }
+            }
+            previous = current;
+        }
+
+        return matches;
+    }
+}
@@ -3,21 +3,28 @@ package ad044.orps.model;
 import ad044.orps.model.action.ScheduledAction;
 import ad044.orps.model.event.Event;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 public class ActionHandlerResponse {
     private final List<Event<?>> events;
     private final List<ScheduledAction> scheduledActions;
+    // lobby/game uris whose pending scheduled actions get cancelled before the new ones are scheduled
+    private final List<String> cancelledScheduleKeys;
 
     public ActionHandlerResponse(List<Event<?>> events, ScheduledAction scheduledAction) {
-        this.events = events;
-        this.scheduledActions = Collections.singletonList(scheduledAction);
+        this(events, Collections.singletonList(scheduledAction));
     }
 
     public ActionHandlerResponse(List<Event<?>> events, List<ScheduledAction> scheduledActions) {
+        this(events, scheduledActions, Collections.emptyList());
+    }
+
+    private ActionHandlerResponse(List<Event<?>> events, List<ScheduledAction> scheduledActions, List<String> cancelledScheduleKeys) {
         this.events = events;
         this.scheduledActions = scheduledActions;
+        this.cancelledScheduleKeys = cancelledScheduleKeys;
     }
 
     public ActionHandlerResponse(Event<?> events, ScheduledAction scheduledAction) {
@@ -43,4 +50,14 @@ public class ActionHandlerResponse {
     public List<ScheduledAction> getScheduledActions() {
         return scheduledActions;
     }
+
+    public List<String> getCancelledScheduleKeys() {
+        return cancelledScheduleKeys;
+    }
+
+    public ActionHandlerResponse withCancelledScheduledActions(String uri) {
+        List<String> keys = new ArrayList<>(cancelledScheduleKeys);
+        keys.add(uri);
+        return new ActionHandlerResponse(events, scheduledActions, keys);
+    }
 }
@@ -6,7 +6,7 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import java.util.Arrays;
 
 public enum Category {
-    LOBBY("LOBBY"), GAME("GAME"), GENERAL("GENERAL"), ERROR("ERROR");
+    LOBBY("LOBBY"), GAME("GAME"), TOURNAMENT("TOURNAMENT"), GENERAL("GENERAL"), ERROR("ERROR");
 
     private final String textValue;
 
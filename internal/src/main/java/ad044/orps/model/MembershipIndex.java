@@ -0,0 +1,36 @@
+package ad044.orps.model;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which lobbies (or games) every user is in, by uri. Lobby and Game keep it up to date themselves while they are
+ * attached to one, so lookups by user don't have to go through every session.
+ */
+public class MembershipIndex {
+    private final Map<String, Set<String>> urisByUuid = new ConcurrentHashMap<>();
+
+    public void add(String uuid, String uri) {
+        // inside compute, so a remove emptying and dropping the same user's set can't leave the uri in an orphaned one
+        urisByUuid.compute(uuid, (k, uris) -> {
+            if (uris == null) {
+                uris = ConcurrentHashMap.newKeySet();
+            }
+            uris.add(uri);
+            return uris;
+        });
+    }
+
+    public void remove(String uuid, String uri) {
+        urisByUuid.computeIfPresent(uuid, (k, uris) -> {
+            uris.remove(uri);
+            return uris.isEmpty() ? null : uris;
+        });
+    }
+
+    public Set<String> getUris(String uuid) {
+        return urisByUuid.getOrDefault(uuid, Collections.emptySet());
+    }
+}
@@ -47,6 +47,11 @@ public class Action {
     }
 
     public Optional<String> getDataByKey(String key) {
+        // clients can leave out the data field entirely
+        if (data == null) {
+            return Optional.empty();
+        }
+
         return Optional.ofNullable(data.get(key));
     }
 
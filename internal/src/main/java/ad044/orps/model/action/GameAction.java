@@ -10,6 +10,8 @@ public class GameAction extends Action {
         FINISH_ROUND,
         START_NEXT_ROUND,
         PLAYER_LEAVE,
+        SPECTATE,
+        SYNC_STATE,
     }
     private final ID id;
     private final Game targetGame;
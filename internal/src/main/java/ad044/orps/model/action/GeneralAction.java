@@ -4,7 +4,9 @@ public class GeneralAction extends Action {
     public enum ID {
         CREATE_LOBBY,
         USER_DISCONNECT,
-        CHANGE_NAME;
+        CHANGE_NAME,
+        JOIN_MATCHMAKING,
+        LEAVE_MATCHMAKING;
     }
     private final ID id;
 
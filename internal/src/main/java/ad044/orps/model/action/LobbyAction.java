@@ -11,6 +11,8 @@ public class LobbyAction extends Action {
         MEMBER_KICK,
         UPDATE_SETTINGS,
         START_GAME,
+        SPECTATE,
+        DELETE_IF_DUE,
     }
 
     private final ID id;
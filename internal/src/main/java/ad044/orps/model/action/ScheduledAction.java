@@ -2,25 +2,50 @@ package ad044.orps.model.action;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+
 public class ScheduledAction implements Comparable<ScheduledAction> {
     private final Action action;
     private final long executionTime;
+    // System.nanoTime() based, so the dispatcher isn't affected by wall clock adjustments
+    private final long deadline;
 
     public ScheduledAction(Action action, long executionTime) {
         this.action = action;
         this.executionTime = executionTime;
+        this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(executionTime - System.currentTimeMillis());
+    }
+
+    private ScheduledAction(Action action, long executionTime, long deadline) {
+        this.action = action;
+        this.executionTime = executionTime;
+        this.deadline = deadline;
+    }
+
+    public static ScheduledAction inMillis(Action action, long delayMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+        return new ScheduledAction(action, System.currentTimeMillis() + delayMillis, deadline);
+    }
+
+    public static ScheduledAction atDeadline(Action action, long deadline) {
+        long executionTime = System.currentTimeMillis() + TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        return new ScheduledAction(action, executionTime, deadline);
     }
 
     public long getExecutionTime() {
         return executionTime;
     }
 
+    public long getDeadline() {
+        return deadline;
+    }
+
     public Action getAction() {
         return action;
     }
 
     @Override
     public int compareTo(@NotNull ScheduledAction scheduledAction) {
-        return Long.compare(executionTime, scheduledAction.executionTime);
+        return Long.signum(deadline - scheduledAction.deadline);
     }
 }
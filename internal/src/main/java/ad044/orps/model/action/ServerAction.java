@@ -3,6 +3,7 @@ package ad044.orps.model.action;
 import ad044.orps.model.Category;
 import ad044.orps.model.user.OrpsUserDetails;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class ServerAction extends Action {
@@ -10,7 +11,21 @@ public class ServerAction extends Action {
         super(idString, category, data, new OrpsUserDetails("SERVER", "SERVER"));
     }
 
+    public static ServerAction lobby(String idString, String lobbyUri) {
+        return new ServerAction(idString, Category.LOBBY, Map.of("lobbyUri", lobbyUri));
+    }
+
     public static ServerAction game(String idString, String gameUri) {
         return new ServerAction(idString, Category.GAME, Map.of("gameUri", gameUri));
     }
+
+    public static ServerAction tournament(String idString, String tournamentUri) {
+        return tournament(idString, tournamentUri, Map.of());
+    }
+
+    public static ServerAction tournament(String idString, String tournamentUri, Map<String, String> data) {
+        Map<String, String> actionData = new HashMap<>(data);
+        actionData.put("tournamentUri", tournamentUri);
+        return new ServerAction(idString, Category.TOURNAMENT, actionData);
+    }
 }
@@ -0,0 +1,29 @@
+package ad044.orps.model.action;
+
+import ad044.orps.model.tournament.Tournament;
+
+// only ever emitted by the server
+public class TournamentAction extends Action {
+    public enum ID {
+        START_MATCHES,
+        RECORD_RESULT,
+    }
+
+    private final ID id;
+    private final Tournament targetTournament;
+
+    public TournamentAction(Action action, ID id, Tournament targetTournament) {
+        super(action.getIdString(), action.getCategory(), action.getData(), action.getAuthor());
+
+        this.id = id;
+        this.targetTournament = targetTournament;
+    }
+
+    public ID getId() {
+        return id;
+    }
+
+    public Tournament getTargetTournament() {
+        return targetTournament;
+    }
+}
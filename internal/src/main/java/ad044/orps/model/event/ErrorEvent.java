@@ -3,7 +3,9 @@ package ad044.orps.model.event;
 import ad044.orps.model.Category;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class ErrorEvent extends Event<ErrorEvent.ID> {
     public enum ID {
@@ -23,15 +25,35 @@ public class ErrorEvent extends Event<ErrorEvent.ID> {
         SOMETHING_WENT_WRONG,
         LOBBY_PARAMETER_VALUE_NOT_ALLOWED,
         INVALID_MOVE,
-        INVALID_SETTING_NAME
+        INVALID_SETTING_NAME,
+        PLAYER_ELIMINATED,
+        ALREADY_IN_MATCHMAKING,
+        NOT_IN_MATCHMAKING
     }
 
+    // errors are one-off and only ever go to a single user, so they keep a plain map instead of typed payloads
+    private final Map<String, Object> data;
+
     public ErrorEvent(ID id, List<String> recipientUuids) {
-        super(id, Category.ERROR, recipientUuids);
+        this(id, recipientUuids, new HashMap<>());
     }
 
     public ErrorEvent(ID id, String recipientUuid) {
-        super(id, Category.ERROR, Collections.singletonList(recipientUuid));
+        this(id, Collections.singletonList(recipientUuid));
+    }
+
+    private ErrorEvent(ID id, List<String> recipientUuids, Map<String, Object> data) {
+        super(id, Category.ERROR, recipientUuids, data);
+        this.data = data;
+    }
+
+    public void putData(String k, Object v) {
+        data.put(k, v);
+    }
+
+    @Override
+    public Map<String, Object> getData() {
+        return data;
     }
 
     public static ErrorEvent dataFieldMissing(String recipient, String fieldName) {
@@ -124,6 +146,13 @@ public class ErrorEvent extends Event<ErrorEvent.ID> {
         return errorEvent;
     }
 
+    public static ErrorEvent playerEliminated(String recipient, String gameUri) {
+        ErrorEvent errorEvent = new ErrorEvent(ID.PLAYER_ELIMINATED, recipient);
+        errorEvent.putData("gameUri", gameUri);
+
+        return errorEvent;
+    }
+
     public static ErrorEvent insufficientPermissions(String recipient, String lobbyUri) {
         ErrorEvent errorEvent = new ErrorEvent(ID.INSUFFICIENT_PERMISSIONS, recipient);
         errorEvent.putData("lobbyUri", lobbyUri);
@@ -158,4 +187,12 @@ public class ErrorEvent extends Event<ErrorEvent.ID> {
 
         return errorEvent;
     }
+
+    public static ErrorEvent alreadyInMatchmaking(String recipient) {
+        return new ErrorEvent(ID.ALREADY_IN_MATCHMAKING, recipient);
+    }
+
+    public static ErrorEvent notInMatchmaking(String recipient) {
+        return new ErrorEvent(ID.NOT_IN_MATCHMAKING, recipient);
+    }
 }
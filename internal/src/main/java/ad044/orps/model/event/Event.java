@@ -1,41 +1,62 @@
 package ad044.orps.model.event;
 
 import ad044.orps.model.Category;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 
+/**
+ * What goes out over the socket is only the id, the lobby/game uri (for those events) and the payload.
+ * Recipients and category are used for routing on the server and never serialized.
+ */
 public abstract class Event<T extends Enum<T>> {
+    // the client expects data to always be an object
+    private static final Object NO_DATA = Collections.emptyMap();
+
     private final T id;
     private final Category category;
     private final List<String> recipientUuids;
-    private final Map<String, Object> data;
+    private final Object data;
 
-    protected Event(T id, Category category, List<String> recipientUuids) {
+    protected Event(T id, Category category, List<String> recipientUuids, Object data) {
         this.id = id;
         this.category = category;
         this.recipientUuids = recipientUuids;
-        this.data = new HashMap<>();
+        this.data = data == null ? NO_DATA : data;
     }
 
-    public void putData(String k, Object v) {
-        data.put(k, v);
+    protected Event(T id, Category category, List<String> recipientUuids) {
+        this(id, category, recipientUuids, NO_DATA);
     }
 
-    public Map<String, Object> getData() {
+    public Object getData() {
         return data;
     }
 
+    public <D> D getData(Class<D> type) {
+        return type.cast(data);
+    }
+
     public T getId() {
         return id;
     }
 
+    @JsonIgnore
     public Category getCategory() {
         return category;
     }
 
+    @JsonIgnore
     public List<String> getRecipientUuids() {
         return recipientUuids;
     }
+
+    // Shared destination (under /topic) the event also goes out on once, for spectators. Empty for events that are
+    // only meant for their recipients.
+    @JsonIgnore
+    public Optional<String> getSpectatorTopic() {
+        return Optional.empty();
+    }
 }
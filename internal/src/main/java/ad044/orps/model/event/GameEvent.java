@@ -1,13 +1,17 @@
 package ad044.orps.model.event;
 
+import ad044.orps.dto.GameDTO;
 import ad044.orps.dto.PlayerDTO;
 import ad044.orps.model.Category;
+import ad044.orps.model.game.Elimination;
 import ad044.orps.model.game.GameMove;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
+import ad044.orps.model.game.RoundDelta;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public class GameEvent extends Event<GameEvent.ID> {
     public enum ID {
@@ -19,101 +23,268 @@ public class GameEvent extends Event<GameEvent.ID> {
         PLAYER_MADE_MOVE,
         PLAYER_LEAVE,
         GOT_KICKED,
-        ENDED_PREMATURELY
+        ENDED_PREMATURELY,
+        RECEIVE_ELIMINATION_RESULT,
+        ELIMINATED,
+        RECEIVE_GAME_DATA
     }
+    // everything that shows how the game goes, but not a player's own move or anything addressed to one player only
+    private static final Set<ID> SPECTATED = EnumSet.of(ID.START_NEXT_ROUND, ID.RECEIVE_ROUND_RESULT, ID.PLAYER_WON_GAME,
+            ID.UPDATE_COUNTDOWN, ID.PLAYER_MADE_MOVE, ID.PLAYER_LEAVE, ID.ENDED_PREMATURELY, ID.RECEIVE_ELIMINATION_RESULT);
     private final String gameUri;
 
-    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
-    public GameEvent(@JsonProperty("id") ID id, @JsonProperty("gameUri") String gameUri,
-                     @JsonProperty("recipientUuids") List<String> recipientUuids) {
-        super(id, Category.GAME, recipientUuids);
+    public GameEvent(ID id, String gameUri, List<String> recipientUuids, Object data) {
+        super(id, Category.GAME, recipientUuids, data);
         this.gameUri = gameUri;
     }
 
-    public GameEvent(ID id, String gameUri, String recipientUuid) {
-        super(id, Category.GAME, Collections.singletonList(recipientUuid));
-        this.gameUri = gameUri;
+    public GameEvent(ID id, String gameUri, String recipientUuid, Object data) {
+        this(id, gameUri, Collections.singletonList(recipientUuid), data);
     }
 
     public String getGameUri() {
         return gameUri;
     }
 
-    public static GameEvent startNextRound(List<String> recipients, String gameUri, int roundNumber, int timeForMove) {
-        GameEvent event = new GameEvent(GameEvent.ID.START_NEXT_ROUND, gameUri, recipients);
-        event.putData("roundNumber", roundNumber);
-        event.putData("timeToPick", timeForMove);
-
-        return event;
+    @Override
+    public Optional<String> getSpectatorTopic() {
+        return SPECTATED.contains(getId()) ? Optional.of("game/" + gameUri) : Optional.empty();
     }
 
-    public static GameEvent receiveRoundResult(List<String> recipients, String gameUri, List<PlayerDTO> playerData, PlayerDTO winner) {
-        GameEvent event = new GameEvent(GameEvent.ID.RECEIVE_ROUND_RESULT, gameUri, recipients);
-        event.putData("playerData", playerData);
-        event.putData("winner", winner);
+    public static GameEvent startNextRound(List<String> recipients, String gameUri, int roundNumber, int timeForMove) {
+        return new GameEvent(ID.START_NEXT_ROUND, gameUri, recipients, new RoundStart(roundNumber, timeForMove));
+    }
 
-        return event;
+    // only the changes since the last round result, clients that missed one catch up with SYNC_STATE
+    public static GameEvent receiveRoundResult(List<String> recipients, String gameUri, RoundDelta delta) {
+        return new GameEvent(ID.RECEIVE_ROUND_RESULT, gameUri, recipients, delta);
     }
 
-    public static GameEvent receiveRoundResult(List<String> recipients, String gameUri, List<PlayerDTO> playerData) {
-        GameEvent event = new GameEvent(GameEvent.ID.RECEIVE_ROUND_RESULT, gameUri, recipients);
-        event.putData("playerData", playerData);
-        event.putData("winner", null);
+    // royale rounds only carry the tally, every player getting every other player's data doesn't scale to hundreds
+    public static GameEvent receiveEliminationResult(List<String> recipients, String gameUri, int roundNumber,
+                                                     Elimination elimination, int remainingPlayers) {
+        return new GameEvent(ID.RECEIVE_ELIMINATION_RESULT, gameUri, recipients,
+                new EliminationResult(roundNumber, elimination, remainingPlayers));
+    }
 
-        return event;
+    public static GameEvent eliminated(List<String> recipients, String gameUri, int roundNumber) {
+        return new GameEvent(ID.ELIMINATED, gameUri, recipients, new RoundNumber(roundNumber));
     }
 
     public static GameEvent playerWonGame(List<String> recipients, String gameUri, PlayerDTO winner) {
-        GameEvent event = new GameEvent(GameEvent.ID.PLAYER_WON_GAME, gameUri, recipients);
-        event.putData("gameWinner", winner);
-
-        return event;
+        return new GameEvent(ID.PLAYER_WON_GAME, gameUri, recipients, new GameWinner(winner));
     }
 
     public static GameEvent countdownUpdate(List<String> recipients, String gameUri, int timerValue) {
-        GameEvent event = new GameEvent(GameEvent.ID.UPDATE_COUNTDOWN, gameUri, recipients);
-        event.putData("currentTimerValue", timerValue);
-
-        return event;
+        return new GameEvent(ID.UPDATE_COUNTDOWN, gameUri, recipients, new Countdown(timerValue));
     }
 
     public static GameEvent displayAuthorMove(String recipient, String gameUri, String authorUuid, GameMove move) {
-        GameEvent event = new GameEvent(GameEvent.ID.DISPLAY_AUTHOR_MOVE, gameUri, recipient);
-        event.putData("authorUuid", authorUuid);
-        event.putData("move", move);
-
-        return event;
+        return new GameEvent(ID.DISPLAY_AUTHOR_MOVE, gameUri, recipient, new AuthorMove(authorUuid, move));
     }
 
     public static GameEvent playerMadeMove(List<String> recipients, String gameUri, String playerUuid) {
-        GameEvent event = new GameEvent(GameEvent.ID.PLAYER_MADE_MOVE, gameUri, recipients);
-        event.putData("playerUuid", playerUuid);
-
-        return event;
+        return new GameEvent(ID.PLAYER_MADE_MOVE, gameUri, recipients, new PlayerRef(playerUuid));
     }
 
     public static GameEvent playerLeave(List<String> recipients, String gameUri, String playerUuid) {
-        GameEvent event = new GameEvent(GameEvent.ID.PLAYER_LEAVE, gameUri, recipients);
-        event.putData("playerUuid", playerUuid);
-
-        return event;
+        return new GameEvent(ID.PLAYER_LEAVE, gameUri, recipients, new PlayerRef(playerUuid));
     }
 
     public static GameEvent gotKicked(String recipient, String gameUri, String parentLobbyUri) {
-        GameEvent event = new GameEvent(ID.GOT_KICKED, gameUri, recipient);
-        event.putData("parentLobbyUri", parentLobbyUri);
-
-        return event;
+        return new GameEvent(ID.GOT_KICKED, gameUri, recipient, new Kicked(parentLobbyUri));
     }
 
     public static GameEvent gotKicked(String recipient, String gameUri) {
-        return new GameEvent(ID.GOT_KICKED, gameUri, recipient);
+        return new GameEvent(ID.GOT_KICKED, gameUri, recipient, null);
     }
 
     public static GameEvent endedPrematurely(List<String> recipients, String gameUri, String reason) {
-        GameEvent event = new GameEvent(ID.ENDED_PREMATURELY, gameUri, recipients);
-        event.putData("reason", reason);
+        return new GameEvent(ID.ENDED_PREMATURELY, gameUri, recipients, new Reason(reason));
+    }
+
+    public static GameEvent receiveGameData(String recipient, String gameUri, GameDTO gameData, int roundNumber, int version) {
+        return new GameEvent(ID.RECEIVE_GAME_DATA, gameUri, recipient, new GameData(gameData, roundNumber, version));
+    }
+
+    public static class RoundStart {
+        private final int roundNumber;
+        private final int timeToPick;
+
+        public RoundStart(int roundNumber, int timeToPick) {
+            this.roundNumber = roundNumber;
+            this.timeToPick = timeToPick;
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+
+        public int getTimeToPick() {
+            return timeToPick;
+        }
+    }
+
+    public static class EliminationResult {
+        private final int roundNumber;
+        private final int rocks;
+        private final int papers;
+        private final int scissors;
+        private final int missed;
+        private final List<GameMove> eliminatedMoves;
+        private final int remainingPlayers;
+
+        public EliminationResult(int roundNumber, Elimination elimination, int remainingPlayers) {
+            this.roundNumber = roundNumber;
+            this.rocks = elimination.getRocks();
+            this.papers = elimination.getPapers();
+            this.scissors = elimination.getScissors();
+            this.missed = elimination.getMissed();
+            this.eliminatedMoves = elimination.getEliminatedMoves();
+            this.remainingPlayers = remainingPlayers;
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+
+        public int getRocks() {
+            return rocks;
+        }
+
+        public int getPapers() {
+            return papers;
+        }
+
+        public int getScissors() {
+            return scissors;
+        }
+
+        public int getMissed() {
+            return missed;
+        }
+
+        public List<GameMove> getEliminatedMoves() {
+            return eliminatedMoves;
+        }
+
+        public int getRemainingPlayers() {
+            return remainingPlayers;
+        }
+    }
+
+    public static class RoundNumber {
+        private final int roundNumber;
+
+        public RoundNumber(int roundNumber) {
+            this.roundNumber = roundNumber;
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+    }
+
+    public static class GameWinner {
+        private final PlayerDTO gameWinner;
+
+        public GameWinner(PlayerDTO gameWinner) {
+            this.gameWinner = gameWinner;
+        }
+
+        public PlayerDTO getGameWinner() {
+            return gameWinner;
+        }
+    }
+
+    public static class Countdown {
+        private final int currentTimerValue;
+
+        public Countdown(int currentTimerValue) {
+            this.currentTimerValue = currentTimerValue;
+        }
+
+        public int getCurrentTimerValue() {
+            return currentTimerValue;
+        }
+    }
+
+    public static class AuthorMove {
+        private final String authorUuid;
+        private final GameMove move;
+
+        public AuthorMove(String authorUuid, GameMove move) {
+            this.authorUuid = authorUuid;
+            this.move = move;
+        }
+
+        public String getAuthorUuid() {
+            return authorUuid;
+        }
+
+        public GameMove getMove() {
+            return move;
+        }
+    }
+
+    public static class PlayerRef {
+        private final String playerUuid;
+
+        public PlayerRef(String playerUuid) {
+            this.playerUuid = playerUuid;
+        }
+
+        public String getPlayerUuid() {
+            return playerUuid;
+        }
+    }
+
+    public static class Kicked {
+        private final String parentLobbyUri;
+
+        public Kicked(String parentLobbyUri) {
+            this.parentLobbyUri = parentLobbyUri;
+        }
+
+        public String getParentLobbyUri() {
+            return parentLobbyUri;
+        }
+    }
+
+    public static class Reason {
+        private final String reason;
+
+        public Reason(String reason) {
+            this.reason = reason;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    public static class GameData {
+        private final GameDTO gameData;
+        private final int roundNumber;
+        // of the published state the players in gameData come from
+        private final int version;
+
+        public GameData(GameDTO gameData, int roundNumber, int version) {
+            this.gameData = gameData;
+            this.roundNumber = roundNumber;
+            this.version = version;
+        }
+
+        public GameDTO getGameData() {
+            return gameData;
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
 
-        return event;
+        public int getVersion() {
+            return version;
+        }
     }
 }
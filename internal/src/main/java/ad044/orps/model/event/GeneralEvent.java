@@ -1,9 +1,8 @@
 package ad044.orps.model.event;
 
+import ad044.orps.dto.GameDTO;
 import ad044.orps.dto.LobbyDTO;
 import ad044.orps.model.Category;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Collections;
 import java.util.List;
@@ -11,30 +10,79 @@ import java.util.List;
 public class GeneralEvent extends Event<GeneralEvent.ID>{
     public enum ID {
         CREATED_LOBBY,
-        USER_CHANGED_NAME
+        USER_CHANGED_NAME,
+        JOINED_MATCHMAKING,
+        LEFT_MATCHMAKING,
+        MATCH_FOUND
     }
 
-    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
-    public GeneralEvent(@JsonProperty("id") GeneralEvent.ID id, @JsonProperty("recipientUuids") List<String> recipientUuids) {
-        super(id, Category.GENERAL, recipientUuids);
+    public GeneralEvent(GeneralEvent.ID id, List<String> recipientUuids, Object data) {
+        super(id, Category.GENERAL, recipientUuids, data);
     }
 
-    public GeneralEvent(@JsonProperty("id") GeneralEvent.ID id, String recipientUuid) {
-        super(id, Category.GENERAL, Collections.singletonList(recipientUuid));
+    public GeneralEvent(GeneralEvent.ID id, String recipientUuid, Object data) {
+        this(id, Collections.singletonList(recipientUuid), data);
     }
 
     public static GeneralEvent createdLobby(String recipient, LobbyDTO lobbyData) {
-        GeneralEvent event = new GeneralEvent(GeneralEvent.ID.CREATED_LOBBY, recipient);
-        event.putData("lobbyData", lobbyData);
-
-        return event;
+        return new GeneralEvent(ID.CREATED_LOBBY, recipient, new LobbyData(lobbyData));
     }
 
     public static GeneralEvent userChangedName(List<String> recipients, String uuid, String newName) {
-        GeneralEvent event = new GeneralEvent(GeneralEvent.ID.USER_CHANGED_NAME, recipients);
-        event.putData("userUuid", uuid);
-        event.putData("newName", newName);
+        return new GeneralEvent(ID.USER_CHANGED_NAME, recipients, new NameChange(uuid, newName));
+    }
+
+    public static GeneralEvent joinedMatchmaking(String recipient, int rating) {
+        return new GeneralEvent(ID.JOINED_MATCHMAKING, recipient, new Rating(rating));
+    }
+
+    public static GeneralEvent leftMatchmaking(String recipient) {
+        return new GeneralEvent(ID.LEFT_MATCHMAKING, recipient, null);
+    }
+
+    public static GeneralEvent matchFound(List<String> recipients, GameDTO gameData, long countdownDeadline) {
+        return new GeneralEvent(ID.MATCH_FOUND, recipients, new LobbyEvent.GameData(gameData, countdownDeadline));
+    }
+
+    public static class LobbyData {
+        private final LobbyDTO lobbyData;
+
+        public LobbyData(LobbyDTO lobbyData) {
+            this.lobbyData = lobbyData;
+        }
+
+        public LobbyDTO getLobbyData() {
+            return lobbyData;
+        }
+    }
+
+    public static class NameChange {
+        private final String userUuid;
+        private final String newName;
+
+        public NameChange(String userUuid, String newName) {
+            this.userUuid = userUuid;
+            this.newName = newName;
+        }
+
+        public String getUserUuid() {
+            return userUuid;
+        }
+
+        public String getNewName() {
+            return newName;
+        }
+    }
+
+    public static class Rating {
+        private final int rating;
+
+        public Rating(int rating) {
+            this.rating = rating;
+        }
 
-        return event;
+        public int getRating() {
+            return rating;
+        }
     }
 }
@@ -4,14 +4,12 @@ import ad044.orps.dto.GameDTO;
 import ad044.orps.dto.LobbyDTO;
 import ad044.orps.dto.UserDTO;
 import ad044.orps.model.Category;
-import ad044.orps.model.user.OrpsUserDetails;
-import com.fasterxml.jackson.annotation.JsonCreator;
-import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.zip.CheckedOutputStream;
+import java.util.Optional;
+import java.util.Set;
 
 public class LobbyEvent extends Event<LobbyEvent.ID> {
     public enum ID {
@@ -25,90 +23,186 @@ public class LobbyEvent extends Event<LobbyEvent.ID> {
         SETTINGS_UPDATED,
         RECEIVE_LOBBY_DATA;
     }
+    private static final Set<ID> SPECTATED = EnumSet.of(ID.MEMBER_JOIN, ID.MEMBER_LEAVE, ID.MEMBER_KICK,
+            ID.NEW_TEXT_MESSAGE, ID.CREATED_GAME, ID.OWNER_UPDATED, ID.SETTINGS_UPDATED);
     private final String lobbyUri;
 
-    @JsonCreator(mode = JsonCreator.Mode.PROPERTIES)
-    public LobbyEvent(@JsonProperty("id") ID id, @JsonProperty("lobbyUri") String lobbyUri,
-                      @JsonProperty("recipientUuids") List<String> recipientUuids) {
-        super(id, Category.LOBBY, recipientUuids);
+    public LobbyEvent(ID id, String lobbyUri, List<String> recipientUuids, Object data) {
+        super(id, Category.LOBBY, recipientUuids, data);
         this.lobbyUri = lobbyUri;
     }
 
-    public LobbyEvent(ID id, String lobbyUri, String recipientUuid) {
-        super(id, Category.LOBBY, Collections.singletonList(recipientUuid));
-        this.lobbyUri = lobbyUri;
+    public LobbyEvent(ID id, String lobbyUri, String recipientUuid, Object data) {
+        this(id, lobbyUri, Collections.singletonList(recipientUuid), data);
     }
 
     public String getLobbyUri() {
         return lobbyUri;
     }
 
-    public static LobbyEvent addBot(List<String> recipients, String lobbyUri, UserDTO botData) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.MEMBER_JOIN, lobbyUri, recipients);
-        event.putData("memberData", botData);
+    @Override
+    public Optional<String> getSpectatorTopic() {
+        return SPECTATED.contains(getId()) ? Optional.of("lobby/" + lobbyUri) : Optional.empty();
+    }
 
-        return event;
+    public static LobbyEvent addBot(List<String> recipients, String lobbyUri, UserDTO botData) {
+        return new LobbyEvent(ID.MEMBER_JOIN, lobbyUri, recipients, new MemberData(botData));
     }
 
     public static LobbyEvent newTextMessage(List<String> recipients, String lobbyUri, UserDTO author, String messageContent) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.NEW_TEXT_MESSAGE, lobbyUri, recipients);
-        event.putData("messageAuthor", author);
-        event.putData("messageContent", messageContent);
-
-        return event;
+        return new LobbyEvent(ID.NEW_TEXT_MESSAGE, lobbyUri, recipients, new TextMessage(author, messageContent));
     }
 
     public static LobbyEvent memberJoin(List<String> recipients, String lobbyUri, UserDTO memberThatJoined) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.MEMBER_JOIN, lobbyUri, recipients);
-        event.putData("memberData", memberThatJoined);
-
-        return event;
+        return new LobbyEvent(ID.MEMBER_JOIN, lobbyUri, recipients, new MemberData(memberThatJoined));
     }
 
-    public static LobbyEvent receiveLobbyData(String recipient, String lobbyUri, LobbyDTO lobbyData) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.RECEIVE_LOBBY_DATA, lobbyUri, recipient);
-        event.putData("lobbyData", lobbyData);
-
-        return event;
+    public static LobbyEvent receiveLobbyData(String recipient, String lobbyUri, LobbyDTO lobbyData, List<TextMessage> chatHistory) {
+        return new LobbyEvent(ID.RECEIVE_LOBBY_DATA, lobbyUri, recipient, new LobbyData(lobbyData, chatHistory));
     }
 
     public static LobbyEvent ownerUpdated(List<String> recipients, String lobbyUri, String newOwnerUuid) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.OWNER_UPDATED, lobbyUri, recipients);
-        event.putData("newOwnerUuid", newOwnerUuid);
-
-        return event;
+        return new LobbyEvent(ID.OWNER_UPDATED, lobbyUri, recipients, new OwnerUpdate(newOwnerUuid));
     }
 
     public static LobbyEvent memberLeave(List<String> recipients, String lobbyUri, String userThatLeftUuid) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.MEMBER_LEAVE, lobbyUri, recipients);
-        event.putData("memberUuid", userThatLeftUuid);
-
-        return event;
+        return new LobbyEvent(ID.MEMBER_LEAVE, lobbyUri, recipients, new MemberRef(userThatLeftUuid));
     }
 
     public static LobbyEvent memberKick(List<String> recipients, String lobbyUri, String memberUuid) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.MEMBER_KICK, lobbyUri, recipients);
-        event.putData("memberUuid", memberUuid);
-
-        return event;
+        return new LobbyEvent(ID.MEMBER_KICK, lobbyUri, recipients, new MemberRef(memberUuid));
     }
 
     public static LobbyEvent gotKicked(String recipient, String lobbyUri) {
-        return new LobbyEvent(ID.GOT_KICKED, lobbyUri, recipient);
+        return new LobbyEvent(ID.GOT_KICKED, lobbyUri, recipient, null);
     }
 
     public static LobbyEvent createdGame(List<String> recipients, String lobbyUri, GameDTO gameData) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.CREATED_GAME, lobbyUri, recipients);
-        event.putData("gameData", gameData);
+        return new LobbyEvent(ID.CREATED_GAME, lobbyUri, recipients, new GameData(gameData, null));
+    }
 
-        return event;
+    public static LobbyEvent createdGame(List<String> recipients, String lobbyUri, GameDTO gameData, long countdownDeadline) {
+        return new LobbyEvent(ID.CREATED_GAME, lobbyUri, recipients, new GameData(gameData, countdownDeadline));
     }
 
     public static LobbyEvent settingsUpdated(List<String> recipients, String lobbyUri, String settingName, String settingValue) {
-        LobbyEvent event = new LobbyEvent(LobbyEvent.ID.SETTINGS_UPDATED, lobbyUri, recipients);
-        event.putData("settingName", settingName);
-        event.putData("settingValue", settingValue);
+        return new LobbyEvent(ID.SETTINGS_UPDATED, lobbyUri, recipients, new SettingUpdate(settingName, settingValue));
+    }
+
+    public static class MemberData {
+        private final UserDTO memberData;
+
+        public MemberData(UserDTO memberData) {
+            this.memberData = memberData;
+        }
+
+        public UserDTO getMemberData() {
+            return memberData;
+        }
+    }
+
+    public static class TextMessage {
+        private final UserDTO messageAuthor;
+        private final String messageContent;
+
+        public TextMessage(UserDTO messageAuthor, String messageContent) {
+            this.messageAuthor = messageAuthor;
+            this.messageContent = messageContent;
+        }
+
+        public UserDTO getMessageAuthor() {
+            return messageAuthor;
+        }
+
+        public String getMessageContent() {
+            return messageContent;
+        }
+    }
+
+    public static class LobbyData {
+        private final LobbyDTO lobbyData;
+        // the chat backfill rides along, the client only starts listening for lobby events once it's in the lobby,
+        // oldest message first
+        private final List<TextMessage> chatHistory;
+
+        public LobbyData(LobbyDTO lobbyData, List<TextMessage> chatHistory) {
+            this.lobbyData = lobbyData;
+            this.chatHistory = chatHistory;
+        }
+
+        public LobbyDTO getLobbyData() {
+            return lobbyData;
+        }
+
+        public List<TextMessage> getChatHistory() {
+            return chatHistory;
+        }
+    }
+
+    public static class OwnerUpdate {
+        private final String newOwnerUuid;
+
+        public OwnerUpdate(String newOwnerUuid) {
+            this.newOwnerUuid = newOwnerUuid;
+        }
+
+        public String getNewOwnerUuid() {
+            return newOwnerUuid;
+        }
+    }
+
+    public static class MemberRef {
+        private final String memberUuid;
+
+        public MemberRef(String memberUuid) {
+            this.memberUuid = memberUuid;
+        }
+
+        public String getMemberUuid() {
+            return memberUuid;
+        }
+    }
+
+    public static class GameData {
+        private final GameDTO gameData;
+        // epoch millis on the server clock, null when the server sends UPDATE_COUNTDOWN ticks instead
+        private final Long countdownDeadline;
+        // lets the client correct the deadline for its own clock
+        private final long serverTime = System.currentTimeMillis();
+
+        public GameData(GameDTO gameData, Long countdownDeadline) {
+            this.gameData = gameData;
+            this.countdownDeadline = countdownDeadline;
+        }
+
+        public GameDTO getGameData() {
+            return gameData;
+        }
+
+        public Long getCountdownDeadline() {
+            return countdownDeadline;
+        }
+
+        public long getServerTime() {
+            return serverTime;
+        }
+    }
+
+    public static class SettingUpdate {
+        private final String settingName;
+        private final String settingValue;
+
+        public SettingUpdate(String settingName, String settingValue) {
+            this.settingName = settingName;
+            this.settingValue = settingValue;
+        }
+
+        public String getSettingName() {
+            return settingName;
+        }
 
-        return event;
+        public String getSettingValue() {
+            return settingValue;
+        }
     }
 }
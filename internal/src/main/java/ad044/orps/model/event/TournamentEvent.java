@@ -0,0 +1,74 @@
+package ad044.orps.model.event;
+
+import ad044.orps.dto.GameDTO;
+import ad044.orps.model.Category;
+
+import java.util.Collections;
+import java.util.List;
+
+public class TournamentEvent extends Event<TournamentEvent.ID> {
+    public enum ID {
+        MATCH_STARTED,
+        WON_TOURNAMENT
+    }
+    private final String tournamentUri;
+
+    public TournamentEvent(ID id, String tournamentUri, List<String> recipientUuids, Object data) {
+        super(id, Category.TOURNAMENT, recipientUuids, data);
+        this.tournamentUri = tournamentUri;
+    }
+
+    public TournamentEvent(ID id, String tournamentUri, String recipientUuid, Object data) {
+        this(id, tournamentUri, Collections.singletonList(recipientUuid), data);
+    }
+
+    public String getTournamentUri() {
+        return tournamentUri;
+    }
+
+    public static TournamentEvent matchStarted(List<String> recipients, String tournamentUri, int roundNumber,
+                                               GameDTO gameData, long countdownDeadline) {
+        return new TournamentEvent(ID.MATCH_STARTED, tournamentUri, recipients,
+                new MatchStart(roundNumber, gameData, countdownDeadline));
+    }
+
+    public static TournamentEvent wonTournament(String recipient, String tournamentUri, int entrantCount) {
+        return new TournamentEvent(ID.WON_TOURNAMENT, tournamentUri, recipient, new Victory(entrantCount));
+    }
+
+    public static class MatchStart {
+        private final int roundNumber;
+        private final GameDTO gameData;
+        private final long countdownDeadline;
+
+        public MatchStart(int roundNumber, GameDTO gameData, long countdownDeadline) {
+            this.roundNumber = roundNumber;
+            this.gameData = gameData;
+            this.countdownDeadline = countdownDeadline;
+        }
+
+        public int getRoundNumber() {
+            return roundNumber;
+        }
+
+        public GameDTO getGameData() {
+            return gameData;
+        }
+
+        public long getCountdownDeadline() {
+            return countdownDeadline;
+        }
+    }
+
+    public static class Victory {
+        private final int entrantCount;
+
+        public Victory(int entrantCount) {
+            this.entrantCount = entrantCount;
+        }
+
+        public int getEntrantCount() {
+            return entrantCount;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ad044.orps.model.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one royale round. Every move that was played scores how many players it beats minus how many beat it,
+ * and the moves with the lowest score are knocked out, unless all of them score the same. With two moves on the table
+ * that is simply the losing one, with all three it is the one caught between the biggest crowd it loses to and the
+ * smallest one it beats. Missing the move is knocked out whenever somebody else did pick.
+ */
+public class Elimination {
+    private final int rocks;
+    private final int papers;
+    private final int scissors;
+    private final int missed;
+    private final List<GameMove> eliminatedMoves;
+    private final List<Player> eliminatedPlayers;
+
+    private Elimination(int rocks, int papers, int scissors, int missed,
+                        List<GameMove> eliminatedMoves, List<Player> eliminatedPlayers) {
+        this.rocks = rocks;
+        this.papers = papers;
+        this.scissors = scissors;
+        this.missed = missed;
+        this.eliminatedMoves = eliminatedMoves;
+        this.eliminatedPlayers = eliminatedPlayers;
+    }
+
+    public static Elimination resolve(List<Player> alivePlayers) {
+        int rocks = 0, papers = 0, scissors = 0, missed = 0;
+        for (Player player : alivePlayers) {
+            switch (player.move) {
+                case ROCK:
+                    rocks++;
+                    break;
+                case PAPER:
+                    papers++;
+                    break;
+                case SCISSORS:
+                    scissors++;
+                    break;
+                default:
+                    missed++;
+            }
+        }
+
+        if (rocks + papers + scissors == 0) {
+            return new Elimination(rocks, papers, scissors, missed, Collections.emptyList(), Collections.emptyList());
+        }
+
+        // indexed by ordinal, NO_MOVE last
+        int[] counts = {rocks, papers, scissors};
+        int[] scores = {scissors - papers, rocks - scissors, papers - rocks};
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                lowest = Math.min(lowest, scores[i]);
+                highest = Math.max(highest, scores[i]);
+            }
+        }
+
+        boolean[] knockedOut = new boolean[GameMove.values().length];
+        List<GameMove> eliminatedMoves = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && lowest < highest && scores[i] == lowest) {
+                knockedOut[i] = true;
+                eliminatedMoves.add(GameMove.values()[i]);
+            }
+        }
+        if (missed > 0) {
+            knockedOut[GameMove.NO_MOVE.ordinal()] = true;
+            eliminatedMoves.add(GameMove.NO_MOVE);
+        }
+
+        List<Player> eliminatedPlayers = new ArrayList<>();
+        for (Player player : alivePlayers) {
+            if (knockedOut[player.move.ordinal()]) {
+                eliminatedPlayers.add(player);
+            }
+        }
+
+        return new Elimination(rocks, papers, scissors, missed, eliminatedMoves, eliminatedPlayers);
+    }
+
+    public int getRocks() {
+        return rocks;
+    }
+
+    public int getPapers() {
+        return papers;
+    }
+
+    public int getScissors() {
+        return scissors;
+    }
+
+    public int getMissed() {
+        return missed;
+    }
+
+    public List<GameMove> getEliminatedMoves() {
+        return eliminatedMoves;
+    }
+
+    public List<Player> getEliminatedPlayers() {
+        return eliminatedPlayers;
+    }
+}
@@ -1,13 +1,10 @@
 package ad044.orps.model.game;
 
+import ad044.orps.model.MembershipIndex;
 import ad044.orps.model.lobby.Lobby;
-import ad044.orps.model.user.BotUserDetails;
 import net.bytebuddy.utility.RandomString;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 public class Game {
@@ -23,59 +20,110 @@ public class Game {
 
     // STATE
     public int countDownValue = 5;
-    private final List<Player> players;
+    // keyed by uuid, in join order
+    private final Map<String, Player> players = new LinkedHashMap<>();
+    // built on first use after membership changes, events share them as recipient lists
+    private List<Player> playerList = null;
+    private List<String> playerUuids = null;
+    // players that left or got kicked, a game they walked out of still counts as lost for them
+    private final Map<String, Player> leftPlayers = new LinkedHashMap<>();
+    private MembershipIndex membershipIndex = null;
     private Player roundWinner = null;
+    private Elimination lastElimination = null;
+    // bot moves come from here, every game has its own so bots on different lanes don't share a generator
+    private SplittableRandom random = new SplittableRandom();
     private boolean finished = false;
     private boolean roundFinished = true;
     private int roundNumber = 0;
+    private final PublishedState publishedState;
 
     public Game(List<Player> players, GameSettings settings) {
-        this.players = new ArrayList<>(players);
-        this.settings = settings;
-        this.parentLobbyUri = null;
+        this(players, settings, null);
     }
 
     public Game(List<Player> players, GameSettings settings, String parentLobbyUri) {
-        this.players = new ArrayList<>(players);
+        players.forEach(player -> this.players.put(player.getUuid(), player));
         this.settings = settings;
         this.parentLobbyUri = parentLobbyUri;
+        this.publishedState = new PublishedState(this.players.values());
     }
 
     public static Game from(Lobby lobby) {
         List<Player> players = lobby.getMembers()
                 .stream()
-                .map(member -> member instanceof BotUserDetails ? new BotPlayer((BotUserDetails) member) : new Player(member))
+                .map(Player::from)
                 .collect(Collectors.toList());
 
-        return new Game(players, lobby.getSettings(), lobby.getUri());
+        // a copy, the lobby's settings keep changing under UPDATE_SETTINGS while the game runs
+        return new Game(players, new GameSettings(lobby.getSettings()), lobby.getUri());
     }
 
     public List<Player> getPlayers() {
-        return players;
+        if (playerList == null) {
+            playerList = List.copyOf(players.values());
+        }
+        return playerList;
+    }
+
+    public Collection<Player> getLeftPlayers() {
+        return Collections.unmodifiableCollection(leftPlayers.values());
     }
 
     public List<String> getPlayerUuids() {
-        return players.stream().map(Player::getUuid).collect(Collectors.toList());
+        if (playerUuids == null) {
+            playerUuids = List.copyOf(players.keySet());
+        }
+        return playerUuids;
     }
 
     public List<String> getPlayerUuidsExcept(String ignoredUuid) {
-        return players
-                .stream()
-                .map(Player::getUuid)
-                .filter(uuid -> !uuid.equals(ignoredUuid))
-                .collect(Collectors.toList());
+        List<String> uuids = new ArrayList<>(getPlayerUuids());
+        uuids.remove(ignoredUuid);
+        return uuids;
     }
 
     public List<Player> getPlayersExcept(String uuid) {
-        return players.stream().filter(player -> !player.getUuid().equals(uuid)).collect(Collectors.toList());
+        List<Player> others = new ArrayList<>(players.size());
+        players.forEach((playerUuid, player) -> {
+            if (!playerUuid.equals(uuid)) {
+                others.add(player);
+            }
+        });
+        return others;
+    }
+
+    // runs on every SUBMIT_MOVE of a game that finishes rounds early, so no streams
+    public boolean allActivePlayersMoved() {
+        for (Player player : getPlayers()) {
+            if (!player.inactive && !player.eliminated && player.move == GameMove.NO_MOVE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean hasOnlyBots() {
+        if (players.isEmpty()) {
+            return false;
+        }
+        for (Player player : getPlayers()) {
+            if (!(player instanceof BotPlayer)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<Player> getAlivePlayers() {
+        return getPlayers().stream().filter(player -> !player.eliminated).collect(Collectors.toList());
     }
 
     public List<Player> getInactivePlayers() {
-        return players.stream().filter(player -> player.inactive).collect(Collectors.toList());
+        return getPlayers().stream().filter(player -> player.inactive).collect(Collectors.toList());
     }
 
     public Optional<Player> getPlayer(String uuid) {
-        return players.stream().filter(player -> Objects.equals(player.getUuid(), uuid)).findFirst();
+        return Optional.ofNullable(players.get(uuid));
     }
 
     public GameSettings getSettings() {
@@ -91,15 +139,48 @@ public class Game {
     }
 
     public boolean hasPlayer(String uuid) {
-        return getPlayer(uuid).isPresent();
+        return players.containsKey(uuid);
     }
 
     public void removePlayer(String uuid) {
-        players.removeIf(player -> player.getUuid().equals(uuid));
+        Player removed = players.remove(uuid);
+        if (removed != null) {
+            leftPlayers.put(uuid, removed);
+            membershipChanged();
+            if (membershipIndex != null) {
+                membershipIndex.remove(uuid, uri);
+            }
+        }
     }
 
     public void addPlayer(Player player) {
-        players.add(player);
+        players.put(player.getUuid(), player);
+        leftPlayers.remove(player.getUuid());
+        membershipChanged();
+        if (membershipIndex != null) {
+            membershipIndex.add(player.getUuid(), uri);
+        }
+    }
+
+    // null detaches the game, taking its players out of the index it was in
+    public void setMembershipIndex(MembershipIndex membershipIndex) {
+        if (this.membershipIndex != null) {
+            players.keySet().forEach(uuid -> this.membershipIndex.remove(uuid, uri));
+        }
+        this.membershipIndex = membershipIndex;
+        if (membershipIndex != null) {
+            players.keySet().forEach(uuid -> membershipIndex.add(uuid, uri));
+        }
+    }
+
+    private void membershipChanged() {
+        playerList = null;
+        playerUuids = null;
+    }
+
+    // the same seed makes the bots pick the same moves
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
     }
 
     public void startNextRound() {
@@ -109,9 +190,9 @@ public class Game {
 
         roundNumber++;
 
-        players.forEach(player -> {
-            if (player instanceof BotPlayer) {
-                player.move = GameMove.getRandomMove();
+        getPlayers().forEach(player -> {
+            if (player instanceof BotPlayer && !player.eliminated) {
+                player.move = GameMove.getRandomMove(random);
             } else {
                 player.move = GameMove.NO_MOVE;
             }
@@ -121,7 +202,12 @@ public class Game {
     public void finishRound() {
         roundFinished = true;
 
-        Optional<Player> winner = determineWinner(players);
+        if (settings.isRoyale()) {
+            finishRoyaleRound();
+            return;
+        }
+
+        Optional<Player> winner = determineWinner(getPlayers());
 
         winner.ifPresent(winnerPlayer -> {
             roundWinner = winnerPlayer;
@@ -131,33 +217,79 @@ public class Game {
             }
         });
 
-        getPlayers().forEach(player -> {
-            if (player.move.equals(GameMove.NO_MOVE)) {
-                player.consecutiveMovesMissed++;
-                if (player.consecutiveMovesMissed == MISSED_MOVE_THRESHOLD) {
-                    player.inactive = true;
-                }
-            } else {
-                player.consecutiveMovesMissed = 0;
-                player.inactive = false;
+        getPlayers().forEach(this::trackMissedMove);
+    }
+
+    private void finishRoyaleRound() {
+        List<Player> alivePlayers = getAlivePlayers();
+        lastElimination = Elimination.resolve(alivePlayers);
+        lastElimination.getEliminatedPlayers().forEach(player -> player.eliminated = true);
+
+        List<Player> survivors = new ArrayList<>();
+        alivePlayers.forEach(player -> {
+            if (!player.eliminated) {
+                // the score of a royale player is the number of rounds they made it through
+                player.score++;
+                trackMissedMove(player);
+                survivors.add(player);
             }
         });
+
+        if (survivors.size() == 1) {
+            roundWinner = survivors.get(0);
+            finished = true;
+        }
     }
 
+    private void trackMissedMove(Player player) {
+        if (player.move.equals(GameMove.NO_MOVE)) {
+            player.consecutiveMovesMissed++;
+            if (player.consecutiveMovesMissed == MISSED_MOVE_THRESHOLD) {
+                player.inactive = true;
+            }
+        } else {
+            player.consecutiveMovesMissed = 0;
+            player.inactive = false;
+        }
+    }
+
+    // A player wins when their move beats everyone else's, so the winning move has to be played exactly once and the
+    // move that beats it not at all. Tallying the moves in one pass is enough to find that player.
     public static Optional<Player> determineWinner(List<Player> players) {
-        Player winner = null;
-        for (Player player : players) {
-            boolean beatsAll = players
-                    .stream()
-                    .filter(otherPlayer -> !otherPlayer.getUuid().equals(player.getUuid()))
-                    .allMatch(otherPlayer -> player.move.beats(otherPlayer.move));
+        if (players.size() == 1) {
+            return Optional.of(players.get(0));
+        }
 
-            if (beatsAll) {
-                winner = player;
+        int rocks = 0, papers = 0, scissors = 0;
+        Player rock = null, paper = null, scissor = null;
+        for (Player player : players) {
+            switch (player.move) {
+                case ROCK:
+                    rocks++;
+                    rock = player;
+                    break;
+                case PAPER:
+                    papers++;
+                    paper = player;
+                    break;
+                case SCISSORS:
+                    scissors++;
+                    scissor = player;
+                    break;
             }
         }
 
-        return Optional.ofNullable(winner);
+        if (rocks == 1 && papers == 0) {
+            return Optional.of(rock);
+        }
+        if (papers == 1 && scissors == 0) {
+            return Optional.of(paper);
+        }
+        if (scissors == 1 && rocks == 0) {
+            return Optional.of(scissor);
+        }
+
+        return Optional.empty();
     }
 
     private static String generateUri() {
@@ -172,6 +304,28 @@ public class Game {
         return Optional.ofNullable(roundWinner);
     }
 
+    // who won the game, once it finished or everyone else left
+    public Optional<Player> getWinner() {
+        if (finished) {
+            return getRoundWinner();
+        }
+        List<Player> alivePlayers = getAlivePlayers();
+        return alivePlayers.size() == 1 ? Optional.of(alivePlayers.get(0)) : Optional.empty();
+    }
+
+    // what changed since the last round result, which becomes the new published state
+    public RoundDelta publishRoundResult() {
+        return publishedState.publish(getPlayers(), roundWinner);
+    }
+
+    public PublishedState getPublishedState() {
+        return publishedState;
+    }
+
+    public Optional<Elimination> getLastElimination() {
+        return Optional.ofNullable(lastElimination);
+    }
+
     public boolean isFinished() {
         return finished;
     }
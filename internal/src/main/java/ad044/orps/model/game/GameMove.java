@@ -1,9 +1,7 @@
 package ad044.orps.model.game;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.SplittableRandom;
 
 public enum GameMove {
     ROCK {
@@ -28,6 +26,9 @@ public enum GameMove {
         }
     };
 
+    // the moves a bot can pick, indexed by a random int
+    private static final GameMove[] PLAYABLE_MOVES = {ROCK, PAPER, SCISSORS};
+
     public static Optional<GameMove> parseMove(String value) {
         GameMove res = null;
         switch (value.toUpperCase()) {
@@ -46,12 +47,7 @@ public enum GameMove {
 
     public abstract boolean beats(GameMove other);
 
-    public static GameMove getRandomMove() {
-        List<GameMove> possibleMoves = Arrays
-                .stream(GameMove.values())
-                .filter(move -> !move.equals(GameMove.NO_MOVE))
-                .collect(Collectors.toList());
-
-        return possibleMoves.get((int) (Math.random() * (possibleMoves.size())));
+    public static GameMove getRandomMove(SplittableRandom random) {
+        return PLAYABLE_MOVES[random.nextInt(PLAYABLE_MOVES.length)];
     }
 }
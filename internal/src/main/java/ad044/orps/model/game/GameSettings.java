@@ -3,12 +3,23 @@ package ad044.orps.model.game;
 public class GameSettings {
     private int timeForMove;
     private int scoreGoal;
+    // finish the round as soon as every active player has picked a move instead of waiting out timeForMove
+    private boolean finishRoundEarly = false;
+    // losing moves get knocked out every round until one player is left, instead of playing up to scoreGoal
+    private boolean royale = false;
 
     public GameSettings(int timeForMove, int scoreGoal) {
         this.timeForMove = timeForMove;
         this.scoreGoal = scoreGoal;
     }
 
+    public GameSettings(GameSettings settings) {
+        this.timeForMove = settings.timeForMove;
+        this.scoreGoal = settings.scoreGoal;
+        this.finishRoundEarly = settings.finishRoundEarly;
+        this.royale = settings.royale;
+    }
+
     public int getScoreGoal() {
         return scoreGoal;
     }
@@ -24,4 +35,20 @@ public class GameSettings {
     public void setTimeForMove(int timeForMove) {
         this.timeForMove = timeForMove;
     }
+
+    public boolean isFinishRoundEarly() {
+        return finishRoundEarly;
+    }
+
+    public void setFinishRoundEarly(boolean finishRoundEarly) {
+        this.finishRoundEarly = finishRoundEarly;
+    }
+
+    public boolean isRoyale() {
+        return royale;
+    }
+
+    public void setRoyale(boolean royale) {
+        this.royale = royale;
+    }
 }
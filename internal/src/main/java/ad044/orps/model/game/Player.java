@@ -1,5 +1,6 @@
 package ad044.orps.model.game;
 
+import ad044.orps.model.user.BotUserDetails;
 import ad044.orps.model.user.OrpsUserDetails;
 
 public class Player extends OrpsUserDetails {
@@ -9,6 +10,8 @@ public class Player extends OrpsUserDetails {
     // Keeps track of how many rounds the player didn't make a move
     // This is used to automatically kick a player if they've been idle for "too long" (3 rounds for example)
     public int consecutiveMovesMissed;
+    // royale only, knocked out players stay in the game to watch but can't move anymore
+    public boolean eliminated;
 
     public Player(OrpsUserDetails userDetails) {
         super(userDetails.getUsername(), userDetails.getUuid());
@@ -16,4 +19,8 @@ public class Player extends OrpsUserDetails {
         this.move = GameMove.NO_MOVE;
         this.inactive = false;
     }
+
+    public static Player from(OrpsUserDetails user) {
+        return user instanceof BotUserDetails ? new BotPlayer((BotUserDetails) user) : new Player(user);
+    }
 }
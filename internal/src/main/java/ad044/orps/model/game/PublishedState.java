@@ -0,0 +1,103 @@
+package ad044.orps.model.game;
+
+import java.util.*;
+
+/**
+ * The players of a game as clients last saw them, under a version that goes up with every round result. Round
+ * results only carry every player's move and the scores that changed since the previous version (RoundDelta). A
+ * client that missed one asks for a snapshot of this, not of the live game, so later deltas still apply to it and
+ * moves made in the current round aren't given away.
+ */
+public class PublishedState {
+    public static class PlayerState {
+        private final String username;
+        private final String uuid;
+        private final int score;
+        private final GameMove move;
+
+        PlayerState(Player player) {
+            this.username = player.getUsername();
+            this.uuid = player.getUuid();
+            this.score = player.score;
+            this.move = player.move;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public GameMove getMove() {
+            return move;
+        }
+    }
+
+    private int version = 0;
+    private List<PlayerState> players;
+
+    PublishedState(Collection<Player> players) {
+        this.players = snapshot(players);
+    }
+
+    private static List<PlayerState> snapshot(Collection<Player> players) {
+        List<PlayerState> states = new ArrayList<>(players.size());
+        players.forEach(player -> states.add(new PlayerState(player)));
+        return Collections.unmodifiableList(states);
+    }
+
+    // Clients apply a delta by dropping the removed players, appending the added ones and only then applying the
+    // changes by index. The new version is built in that same order, whatever order the game has its players in, so
+    // the indices always point at the right player and snapshots line up with what clients end up with.
+    RoundDelta publish(List<Player> current, Player winner) {
+        Map<String, Player> currentByUuid = new HashMap<>(current.size() * 2);
+        current.forEach(player -> currentByUuid.put(player.getUuid(), player));
+
+        List<PlayerState> next = new ArrayList<>(current.size());
+        List<String> removed = new ArrayList<>();
+        List<RoundDelta.Change> changes = new ArrayList<>();
+        Set<String> previousUuids = new HashSet<>(players.size() * 2);
+        for (PlayerState before : players) {
+            previousUuids.add(before.getUuid());
+            Player player = currentByUuid.get(before.getUuid());
+            if (player == null) {
+                removed.add(before.getUuid());
+                continue;
+            }
+
+            // the move always goes out, clients overwrite theirs while a round is on so an unchanged one can't be
+            // left out
+            Integer score = before.getScore() != player.score ? player.score : null;
+            changes.add(new RoundDelta.Change(next.size(), score, player.move));
+            next.add(new PlayerState(player));
+        }
+
+        List<PlayerState> added = new ArrayList<>();
+        for (Player player : current) {
+            if (!previousUuids.contains(player.getUuid())) {
+                PlayerState state = new PlayerState(player);
+                added.add(state);
+                next.add(state);
+            }
+        }
+
+        int baseVersion = version++;
+        players = Collections.unmodifiableList(next);
+        String winnerUuid = winner != null ? winner.getUuid() : null;
+        return new RoundDelta(version, baseVersion, removed, added, changes, winnerUuid);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public List<PlayerState> getPlayers() {
+        return players;
+    }
+}
@@ -0,0 +1,79 @@
+package ad044.orps.model.game;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * What changed about a game's players in one round, going from baseVersion to version. Every player that was already
+ * there gets a change with their move, the score is only set for players whose score changed.
+ */
+public class RoundDelta {
+    // score is left out when it didn't change
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Change {
+        private final int index;
+        private final Integer score;
+        private final GameMove move;
+
+        public Change(int index, Integer score, GameMove move) {
+            this.index = index;
+            this.score = score;
+            this.move = move;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Integer getScore() {
+            return score;
+        }
+
+        public GameMove getMove() {
+            return move;
+        }
+    }
+
+    private final int version;
+    private final int baseVersion;
+    private final List<String> removedPlayers;
+    private final List<PublishedState.PlayerState> addedPlayers;
+    private final List<Change> changes;
+    // null when nobody won the round
+    private final String winnerUuid;
+
+    public RoundDelta(int version, int baseVersion, List<String> removedPlayers,
+                      List<PublishedState.PlayerState> addedPlayers, List<Change> changes, String winnerUuid) {
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.removedPlayers = removedPlayers;
+        this.addedPlayers = addedPlayers;
+        this.changes = changes;
+        this.winnerUuid = winnerUuid;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public int getBaseVersion() {
+        return baseVersion;
+    }
+
+    public List<String> getRemovedPlayers() {
+        return removedPlayers;
+    }
+
+    public List<PublishedState.PlayerState> getAddedPlayers() {
+        return addedPlayers;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public String getWinnerUuid() {
+        return winnerUuid;
+    }
+}
@@ -0,0 +1,174 @@
+package ad044.orps.model.lobby;
+
+import ad044.orps.dto.UserDTO;
+import ad044.orps.model.event.LobbyEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The most recent text messages of a lobby, for members who join late. Everything lives in arrays sized up front:
+ * message contents are UTF-8 encoded straight into one circular byte buffer, and the authors and where each content
+ * starts sit in per-slot arrays. Adding a message allocates nothing, and a lobby's history never takes more than
+ * maxBytes of text, the oldest messages make room for new ones.
+ * <p>
+ * Not thread safe, it's only ever touched from its lobby's lane.
+ */
+public class ChatHistory {
+    private final byte[] text;
+    private final int[] offsets;
+    private final int[] lengths;
+    // the author strings are shared with the user, not copied
+    private final String[] authorUuids;
+    private final String[] authorUsernames;
+
+    // slot of the oldest message
+    private int first = 0;
+    private int count = 0;
+    // where the next content goes in text
+    private int textHead = 0;
+    private int textUsed = 0;
+
+    public ChatHistory(int maxMessages, int maxBytes) {
+        if (maxMessages < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Chat history needs room for at least one message.");
+        }
+
+        this.text = new byte[maxBytes];
+        this.offsets = new int[maxMessages];
+        this.lengths = new int[maxMessages];
+        this.authorUuids = new String[maxMessages];
+        this.authorUsernames = new String[maxMessages];
+    }
+
+    // Returns false for a message that wouldn't fit even on its own, which isn't kept.
+    public boolean add(String authorUuid, String authorUsername, String content) {
+        int length = encodedLength(content);
+        if (length > text.length) {
+            return false;
+        }
+
+        while (count == offsets.length || textUsed + length > text.length) {
+            evictOldest();
+        }
+
+        int slot = (first + count) % offsets.length;
+        offsets[slot] = textHead;
+        lengths[slot] = length;
+        authorUuids[slot] = authorUuid;
+        authorUsernames[slot] = authorUsername;
+        encode(content, textHead, length);
+
+        textHead = (textHead + length) % text.length;
+        textUsed += length;
+        count++;
+        return true;
+    }
+
+    private void evictOldest() {
+        textUsed -= lengths[first];
+        authorUuids[first] = null;
+        authorUsernames[first] = null;
+        first = (first + 1) % offsets.length;
+        count--;
+    }
+
+    // oldest first, decoded straight into what the backfill sends
+    public List<LobbyEvent.TextMessage> getMessages() {
+        List<LobbyEvent.TextMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % offsets.length;
+            UserDTO author = new UserDTO(authorUsernames[slot], authorUuids[slot]);
+            messages.add(new LobbyEvent.TextMessage(author, decode(offsets[slot], lengths[slot])));
+        }
+        return messages;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getUsedBytes() {
+        return textUsed;
+    }
+
+    // Same bytes String.getBytes(UTF_8) gives, unpaired surrogates included (they become '?').
+    private static int encodedLength(String content) {
+        int length = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (isSurrogatePair(content, i)) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogatePair(String content, int i) {
+        return Character.isHighSurrogate(content.charAt(i))
+                && i + 1 < content.length()
+                && Character.isLowSurrogate(content.charAt(i + 1));
+    }
+
+    private int put(int position, int b) {
+        text[position] = (byte) b;
+        return position + 1 == text.length ? 0 : position + 1;
+    }
+
+    private void encode(String content, int position, int length) {
+        // one byte per char means every char is ASCII or an unpaired surrogate, the common case needs no branching
+        // on the wrap or on the char's range
+        if (length == content.length() && position + length <= text.length) {
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                text[position + i] = c < 0x80 ? (byte) c : (byte) '?';
+            }
+            return;
+        }
+
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c < 0x80) {
+                position = put(position, c);
+            } else if (c < 0x800) {
+                position = put(position, 0xC0 | (c >> 6));
+                position = put(position, 0x80 | (c & 0x3F));
+            } else if (isSurrogatePair(content, i)) {
+                int codePoint = Character.toCodePoint(c, content.charAt(++i));
+                position = put(position, 0xF0 | (codePoint >> 18));
+                position = put(position, 0x80 | ((codePoint >> 12) & 0x3F));
+                position = put(position, 0x80 | ((codePoint >> 6) & 0x3F));
+                position = put(position, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                position = put(position, '?');
+            } else {
+                position = put(position, 0xE0 | (c >> 12));
+                position = put(position, 0x80 | ((c >> 6) & 0x3F));
+                position = put(position, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private String decode(int offset, int length) {
+        if (offset + length <= text.length) {
+            return new String(text, offset, length, StandardCharsets.UTF_8);
+        }
+
+        // wrapped around the end of the buffer
+        byte[] bytes = new byte[length];
+        int tail = text.length - offset;
+        System.arraycopy(text, offset, bytes, 0, tail);
+        System.arraycopy(text, 0, bytes, tail, length - tail);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,6 @@
 package ad044.orps.model.lobby;
 
+import ad044.orps.model.MembershipIndex;
 import ad044.orps.model.user.BotUserDetails;
 import ad044.orps.model.user.OrpsUserDetails;
 import net.bytebuddy.utility.RandomString;
@@ -8,16 +9,24 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 public class Lobby {
-    private final List<OrpsUserDetails> members;
+    // keyed by uuid, in join order
+    private final Map<String, OrpsUserDetails> members = new LinkedHashMap<>();
+    // built on first use after membership changes, events share them as recipient lists
+    private List<OrpsUserDetails> memberList = null;
+    private List<String> memberUuids = null;
+    private MembershipIndex membershipIndex = null;
     private final String uri = generateUri();
     private final LobbySettings settings;
     private boolean isGameOngoing = false;
-    public long deletionDate = -1;
+    // written by the lobby's actions, the cleanup task reads it to skip lobbies that were rejoined
+    public volatile long deletionDate = -1;
     private OrpsUserDetails owner;
+    // allocated with the first message, lobbies nobody talks in don't pay for it
+    private ChatHistory chatHistory = null;
 
     public Lobby(OrpsUserDetails creator, LobbySettings settings) {
         this.owner = creator;
-        this.members = new ArrayList<>(List.of(creator));
+        this.members.put(creator.getUuid(), creator);
         this.settings = settings;
     }
 
@@ -30,39 +39,86 @@ public class Lobby {
     }
 
     public List<OrpsUserDetails> getMembers() {
-        return members;
+        if (memberList == null) {
+            memberList = List.copyOf(members.values());
+        }
+        return memberList;
+    }
+
+    public ChatHistory getChatHistory(int maxMessages, int maxBytes) {
+        if (chatHistory == null) {
+            chatHistory = new ChatHistory(maxMessages, maxBytes);
+        }
+        return chatHistory;
+    }
+
+    public Optional<ChatHistory> getChatHistory() {
+        return Optional.ofNullable(chatHistory);
     }
 
     public List<String> getMemberUuids() {
-        return members.stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList());
+        if (memberUuids == null) {
+            memberUuids = List.copyOf(members.keySet());
+        }
+        return memberUuids;
     }
 
     public List<OrpsUserDetails> getMembersExcept(String uuid) {
-        return members.stream().filter(member -> !member.getUuid().equals(uuid)).collect(Collectors.toList());
+        List<OrpsUserDetails> others = new ArrayList<>(members.size());
+        members.forEach((memberUuid, member) -> {
+            if (!memberUuid.equals(uuid)) {
+                others.add(member);
+            }
+        });
+        return others;
     }
 
     public List<String> getMemberUuidsExcept(String ignoredUuid) {
-        return members.stream()
-                .map(OrpsUserDetails::getUuid)
-                .filter(uuid -> !uuid.equals(ignoredUuid))
-                .collect(Collectors.toList());
+        List<String> uuids = new ArrayList<>(getMemberUuids());
+        uuids.remove(ignoredUuid);
+        return uuids;
     }
 
 
     public void addMember(OrpsUserDetails user) {
-        members.add(user);
+        members.put(user.getUuid(), user);
+        membershipChanged();
+        if (membershipIndex != null) {
+            membershipIndex.add(user.getUuid(), uri);
+        }
     }
 
     public boolean hasMember(String uuid) {
-        return getMember(uuid).isPresent();
+        return members.containsKey(uuid);
     }
 
     public Optional<OrpsUserDetails> getMember(String uuid) {
-        return members.stream().filter(user -> Objects.equals(user.getUuid(), uuid)).findFirst();
+        return Optional.ofNullable(members.get(uuid));
     }
 
     public void removeMember(String uuid) {
-        members.removeIf(member -> member.getUuid().equals(uuid));
+        if (members.remove(uuid) != null) {
+            membershipChanged();
+            if (membershipIndex != null) {
+                membershipIndex.remove(uuid, uri);
+            }
+        }
+    }
+
+    // null detaches the lobby, taking its members out of the index it was in
+    public void setMembershipIndex(MembershipIndex membershipIndex) {
+        if (this.membershipIndex != null) {
+            members.keySet().forEach(uuid -> this.membershipIndex.remove(uuid, uri));
+        }
+        this.membershipIndex = membershipIndex;
+        if (membershipIndex != null) {
+            members.keySet().forEach(uuid -> membershipIndex.add(uuid, uri));
+        }
+    }
+
+    private void membershipChanged() {
+        memberList = null;
+        memberUuids = null;
     }
 
     public void setOwner(OrpsUserDetails owner) {
@@ -86,7 +142,7 @@ public class Lobby {
     }
 
     public List<OrpsUserDetails> getNonBotMembers() {
-        return members.stream()
+        return getMembers().stream()
                 .filter(member -> !(member instanceof BotUserDetails)).collect(Collectors.toList());
     }
 }
@@ -10,6 +10,11 @@ public final class LobbySettings extends GameSettings {
         this.inviteOnly = inviteOnly;
     }
 
+    public LobbySettings(LobbySettings settings) {
+        super(settings);
+        this.inviteOnly = settings.inviteOnly;
+    }
+
     public boolean isInviteOnly() {
         return inviteOnly;
     }
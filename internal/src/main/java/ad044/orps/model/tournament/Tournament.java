@@ -0,0 +1,178 @@
+package ad044.orps.model.tournament;
+
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.user.OrpsUserDetails;
+import net.bytebuddy.utility.RandomString;
+
+import java.util.*;
+
+/**
+ * A single elimination bracket. Entrants are placed by seed so the top seeds only meet in the late rounds, and the
+ * bracket is padded to a power of two with byes that go to the top seeds. Match i of a round is played between slots
+ * 2i and 2i+1, its winner takes slot i of the next round. A match with one side empty is a walkover, one that ended
+ * without a winner sends nobody through.
+ * <p>
+ * Only ever touched from the tournament's dispatcher lane.
+ */
+public class Tournament {
+    private final String uri = generateUri();
+    private final GameSettings settings;
+    private final int entrantCount;
+
+    // entrants of the current round in bracket order, null for a bye or a match nobody won
+    private OrpsUserDetails[] slots;
+    private OrpsUserDetails[] winners;
+    private int roundNumber = 0;
+    private int unresolvedMatches = 0;
+    // matches of the current round that still need a game, in bracket order
+    private final Deque<Integer> unstartedMatches = new ArrayDeque<>();
+    // game uri -> match index, for matches being played right now
+    private final Map<String, Integer> ongoingMatches = new HashMap<>();
+    private OrpsUserDetails champion = null;
+    private boolean finished = false;
+
+    private Tournament(OrpsUserDetails[] slots, GameSettings settings, int entrantCount) {
+        this.slots = slots;
+        this.settings = settings;
+        this.entrantCount = entrantCount;
+    }
+
+    // entrants in seed order, the first one being the top seed
+    public static Tournament seeded(List<? extends OrpsUserDetails> entrants, GameSettings settings) {
+        if (entrants.size() < 2) {
+            throw new IllegalArgumentException("A tournament needs at least 2 entrants.");
+        }
+
+        int bracketSize = Integer.highestOneBit(entrants.size() - 1) << 1;
+        int[] seeds = seedOrder(bracketSize);
+        OrpsUserDetails[] slots = new OrpsUserDetails[bracketSize];
+        for (int position = 0; position < bracketSize; position++) {
+            int seed = seeds[position];
+            slots[position] = seed <= entrants.size() ? entrants.get(seed - 1) : null;
+        }
+
+        return new Tournament(slots, settings, entrants.size());
+    }
+
+    // 1-based seed for every bracket position, every pair of neighbouring seeds adding up to bracketSize + 1
+    // 2: 1 2, 4: 1 4 2 3, 8: 1 8 4 5 2 7 3 6
+    static int[] seedOrder(int bracketSize) {
+        int[] order = {1};
+        while (order.length < bracketSize) {
+            int[] next = new int[order.length * 2];
+            for (int i = 0; i < order.length; i++) {
+                next[i * 2] = order[i];
+                next[i * 2 + 1] = order.length * 2 + 1 - order[i];
+            }
+            order = next;
+        }
+        return order;
+    }
+
+    // Moves on to the next round, settling walkovers on the way, until there's a round with matches to play or the
+    // tournament is over.
+    public void startRound() {
+        while (!finished) {
+            roundNumber++;
+            winners = new OrpsUserDetails[slots.length / 2];
+            unresolvedMatches = 0;
+
+            for (int match = 0; match < winners.length; match++) {
+                OrpsUserDetails first = slots[match * 2];
+                OrpsUserDetails second = slots[match * 2 + 1];
+                if (first != null && second != null) {
+                    unstartedMatches.add(match);
+                    unresolvedMatches++;
+                } else {
+                    winners[match] = first != null ? first : second;
+                }
+            }
+
+            if (unresolvedMatches > 0) {
+                return;
+            }
+            finishRound();
+        }
+    }
+
+    private void finishRound() {
+        slots = winners;
+        if (slots.length == 1) {
+            champion = slots[0];
+            finished = true;
+        }
+    }
+
+    public List<Integer> takeUnstartedMatches(int max) {
+        List<Integer> matches = new ArrayList<>(Math.min(max, unstartedMatches.size()));
+        while (matches.size() < max && !unstartedMatches.isEmpty()) {
+            matches.add(unstartedMatches.poll());
+        }
+        return matches;
+    }
+
+    public boolean hasUnstartedMatches() {
+        return !unstartedMatches.isEmpty();
+    }
+
+    public List<OrpsUserDetails> getMatchEntrants(int match) {
+        return List.of(slots[match * 2], slots[match * 2 + 1]);
+    }
+
+    public void matchStarted(int match, String gameUri) {
+        ongoingMatches.put(gameUri, match);
+    }
+
+    // true when this was the last match of the round, null winnerUuid when nobody won
+    public boolean recordResult(String gameUri, String winnerUuid) {
+        Integer match = ongoingMatches.remove(gameUri);
+        if (match == null) {
+            return false;
+        }
+
+        winners[match] = getMatchEntrants(match)
+                .stream()
+                .filter(entrant -> entrant.getUuid().equals(winnerUuid))
+                .findFirst()
+                .orElse(null);
+
+        unresolvedMatches--;
+        if (unresolvedMatches == 0) {
+            finishRound();
+            return true;
+        }
+        return false;
+    }
+
+    private static String generateUri() {
+        return RandomString.make(16);
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public GameSettings getSettings() {
+        return settings;
+    }
+
+    public int getEntrantCount() {
+        return entrantCount;
+    }
+
+    public int getRoundNumber() {
+        return roundNumber;
+    }
+
+    public int getOngoingMatchCount() {
+        return ongoingMatches.size();
+    }
+
+    public Optional<OrpsUserDetails> getChampion() {
+        return Optional.ofNullable(champion);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+}
@@ -0,0 +1,333 @@
+package ad044.orps.rating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Every rated user, ordered by rating. Ratings are whole numbers clamped to [0, MAX_RATING], so instead of keeping
+ * users sorted the index counts them per rating in a Fenwick tree: rank lookups and updates are O(log MAX_RATING)
+ * no matter how many users there are, and top-k walks down from the highest rating, finding each next occupied
+ * rating in O(log MAX_RATING).
+ * <p>
+ * Users get a dense int id on their first rating, everything about them lives in parallel arrays under that id, and
+ * uuids are looked up in an open addressing table of ids. Users with the same rating are chained through next/prev,
+ * so there are no per-user objects at all. Users on the same rating share a rank.
+ * <p>
+ * Identities are anonymous and don't outlive their session, so users who haven't been rated for a while are dropped
+ * (removeRatedBefore) instead of being kept forever. Removing moves the last id into the freed one to keep ids dense.
+ */
+public class LeaderboardIndex {
+    public static final int MAX_RATING = 4095;
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    public static class Entry {
+        private final int rank;
+        private final String uuid;
+        private final String username;
+        private final int rating;
+
+        public Entry(int rank, String uuid, String username, int rating) {
+            this.rank = rank;
+            this.uuid = uuid;
+            this.username = username;
+            this.rating = rating;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // ids by uuid hash, linear probing. removal shifts the entries after a freed slot back, so there are no tombstones
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private String[] uuids = new String[INITIAL_CAPACITY];
+    private String[] usernames = new String[INITIAL_CAPACITY];
+    private int[] ratings = new int[INITIAL_CAPACITY];
+    // epoch millis of each user's last rating
+    private long[] ratedAt = new long[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // first user (id) with each rating
+    private final int[] heads = new int[MAX_RATING + 1];
+    // Fenwick tree of user counts, highest rating first: position p (1-based) counts users rated MAX_RATING + 1 - p
+    private final int[] tree = new int[MAX_RATING + 2];
+
+    public LeaderboardIndex() {
+        Arrays.fill(heads, NONE);
+        Arrays.fill(slots, NONE);
+    }
+
+    public static int clamp(int rating) {
+        return Math.max(0, Math.min(MAX_RATING, rating));
+    }
+
+    private static int positionOf(int rating) {
+        return MAX_RATING + 1 - rating;
+    }
+
+    private void addCount(int rating, int delta) {
+        for (int p = positionOf(rating); p < tree.length; p += p & -p) {
+            tree[p] += delta;
+        }
+    }
+
+    // users rated strictly higher than rating
+    private int countAbove(int rating) {
+        int count = 0;
+        for (int p = positionOf(rating) - 1; p > 0; p -= p & -p) {
+            count += tree[p];
+        }
+        return count;
+    }
+
+    // the rating of the n-th best user (1-based), n must be <= size
+    private int ratingOfNth(int n) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            if (position + step < tree.length && tree[position + step] < n) {
+                position += step;
+                n -= tree[position];
+            }
+        }
+        return MAX_RATING - position;
+    }
+
+    private void link(int id, int rating) {
+        ratings[id] = rating;
+        prev[id] = NONE;
+        next[id] = heads[rating];
+        if (heads[rating] != NONE) {
+            prev[heads[rating]] = id;
+        }
+        heads[rating] = id;
+        addCount(rating, 1);
+    }
+
+    private void unlink(int id) {
+        int rating = ratings[id];
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[rating] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+        addCount(rating, -1);
+    }
+
+    private static int hash(String uuid) {
+        int h = uuid.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private int findSlot(String uuid) {
+        int mask = slots.length - 1;
+        for (int i = hash(uuid) & mask; slots[i] != NONE; i = (i + 1) & mask) {
+            if (uuids[slots[i]].equals(uuid)) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private int findId(String uuid) {
+        int slot = findSlot(uuid);
+        return slot == NONE ? NONE : slots[slot];
+    }
+
+    private void addSlot(int id) {
+        int mask = slots.length - 1;
+        int i = hash(uuids[id]) & mask;
+        while (slots[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = id;
+    }
+
+    // Frees a slot and moves back every entry after it that would no longer be found past the gap.
+    private void removeSlot(int slot) {
+        int mask = slots.length - 1;
+        int gap = slot;
+        for (int i = (gap + 1) & mask; slots[i] != NONE; i = (i + 1) & mask) {
+            int home = hash(uuids[slots[i]]) & mask;
+            // stays when its home is cyclically in (gap, i]
+            boolean reachable = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!reachable) {
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+        slots[gap] = NONE;
+    }
+
+    private void removeId(int id) {
+        unlink(id);
+        removeSlot(findSlot(uuids[id]));
+
+        int last = size - 1;
+        if (id != last) {
+            slots[findSlot(uuids[last])] = id;
+            uuids[id] = uuids[last];
+            usernames[id] = usernames[last];
+            ratings[id] = ratings[last];
+            ratedAt[id] = ratedAt[last];
+            next[id] = next[last];
+            prev[id] = prev[last];
+            if (prev[id] != NONE) {
+                next[prev[id]] = id;
+            } else {
+                heads[ratings[id]] = id;
+            }
+            if (next[id] != NONE) {
+                prev[next[id]] = id;
+            }
+        }
+        uuids[last] = null;
+        usernames[last] = null;
+        size--;
+    }
+
+    private void grow() {
+        int capacity = uuids.length * 2;
+        uuids = Arrays.copyOf(uuids, capacity);
+        usernames = Arrays.copyOf(usernames, capacity);
+        ratings = Arrays.copyOf(ratings, capacity);
+        ratedAt = Arrays.copyOf(ratedAt, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+
+        // kept at most half full
+        slots = new int[capacity * 2];
+        Arrays.fill(slots, NONE);
+        for (int id = 0; id < size; id++) {
+            addSlot(id);
+        }
+    }
+
+    public void put(String uuid, String username, int rating) {
+        lock.writeLock().lock();
+        try {
+            int id = findId(uuid);
+            if (id == NONE) {
+                if (size == uuids.length) {
+                    grow();
+                }
+                id = size++;
+                uuids[id] = uuid;
+                addSlot(id);
+            } else {
+                unlink(id);
+            }
+            usernames[id] = username;
+            ratedAt[id] = System.currentTimeMillis();
+            link(id, clamp(rating));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String uuid) {
+        lock.writeLock().lock();
+        try {
+            int id = findId(uuid);
+            if (id == NONE) {
+                return false;
+            }
+            removeId(id);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Drops everyone last rated before the given epoch millis, returns how many went.
+    public int removeRatedBefore(long epochMillis) {
+        lock.writeLock().lock();
+        try {
+            int removed = 0;
+            // from the end, so the id moved into a freed one has been looked at already
+            for (int id = size - 1; id >= 0; id--) {
+                if (ratedAt[id] < epochMillis) {
+                    removeId(id);
+                    removed++;
+                }
+            }
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Integer> getRating(String uuid) {
+        lock.readLock().lock();
+        try {
+            int id = findId(uuid);
+            return id == NONE ? Optional.empty() : Optional.of(ratings[id]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Entry> getEntry(String uuid) {
+        lock.readLock().lock();
+        try {
+            int id = findId(uuid);
+            if (id == NONE) {
+                return Optional.empty();
+            }
+            int rating = ratings[id];
+            return Optional.of(new Entry(countAbove(rating) + 1, uuid, usernames[id], rating));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Entry> top(int count) {
+        lock.readLock().lock();
+        try {
+            int limit = Math.min(count, size);
+            List<Entry> entries = new ArrayList<>(limit);
+            while (entries.size() < limit) {
+                int rank = entries.size() + 1;
+                int rating = ratingOfNth(rank);
+                for (int id = heads[rating]; id != NONE && entries.size() < limit; id = next[id]) {
+                    entries.add(new Entry(rank, uuids[id], usernames[id], rating));
+                }
+            }
+            return entries;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
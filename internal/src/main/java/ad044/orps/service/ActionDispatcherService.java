@@ -3,31 +3,51 @@ package ad044.orps.service;
 import ad044.orps.actionhandler.GameActionHandler;
 import ad044.orps.actionhandler.GeneralActionHandler;
 import ad044.orps.actionhandler.LobbyActionHandler;
+import ad044.orps.actionhandler.TournamentActionHandler;
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.dispatcher.DispatcherLanes;
+import ad044.orps.dispatcher.ScheduledTimer;
 import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
 import ad044.orps.model.action.*;
 import ad044.orps.model.event.ErrorEvent;
 import ad044.orps.model.game.Game;
 import ad044.orps.model.game.Player;
 import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.tournament.Tournament;
 import ad044.orps.util.EnumStringValueMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
-import java.util.Calendar;
+import javax.annotation.PreDestroy;
 import java.util.Optional;
-import java.util.PriorityQueue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class ActionDispatcherService {
     Logger logger = LoggerFactory.getLogger(ActionDispatcherService.class);
-    private final AtomicBoolean isReadingActions = new AtomicBoolean(false);
-    private final ConcurrentLinkedQueue<Action> actionQueue = new ConcurrentLinkedQueue<>();
-    private final PriorityQueue<ScheduledAction> scheduledActionQueue = new PriorityQueue<>();
+    // These read and modify several lobbies/games at once, so they can't run on a single lane.
+    private static final Set<String> CROSS_ENTITY_ACTIONS =
+            Set.of(GeneralAction.ID.CHANGE_NAME.name(), GeneralAction.ID.USER_DISCONNECT.name());
+    private DispatcherLanes lanes;
+
+    @Value("${dispatcher-mode:parking}")
+    String dispatcherMode;
+
+    // 0 means one lane per available processor
+    @Value("${dispatcher-lanes:0}")
+    int dispatcherLaneCount;
+
+    // granularity of the timing wheel scheduled actions are kept in
+    @Value("${dispatcher-tick-millis:1}")
+    long dispatcherTickMillis;
 
     @Autowired
     LobbyService lobbyService;
@@ -41,45 +61,101 @@ public class ActionDispatcherService {
     @Autowired
     GameActionHandler gameActionHandler;
 
+    @Autowired
+    TournamentService tournamentService;
+
+    @Autowired
+    TournamentActionHandler tournamentActionHandler;
+
     @Autowired
     GeneralActionHandler generalActionHandler;
 
+    @Autowired
+    MatchmakingService matchmakingService;
+
     @Autowired
     UserMessagingService userMessagingService;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @PostConstruct
     private void postConstruct() {
-        Runnable actionQueueLoop = () -> {
-            while (isReadingActions.get()) {
-                Action action = actionQueue.poll();
-                if (action != null) {
-                    ActionHandlerResponse response = handleAction(action);
-                    userMessagingService.sendEvent(response.getEvents());
-                    response.getScheduledActions().forEach(this::scheduleAction);
-                }
-
-                ScheduledAction scheduledAction = scheduledActionQueue.peek();
-                if (scheduledAction != null) {
-                    long currTime = Calendar.getInstance().getTimeInMillis();
-                    if (currTime >= scheduledAction.getExecutionTime()) {
-                        putAction(scheduledActionQueue.remove().getAction());
-                    }
-                }
-            }
-        };
+        ActionLoop.Mode mode = ActionLoop.Mode.valueOf(dispatcherMode.toUpperCase());
+        int laneCount = dispatcherLaneCount > 0 ? dispatcherLaneCount : Runtime.getRuntime().availableProcessors();
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(dispatcherTickMillis);
+        lanes = new DispatcherLanes(laneCount, mode, tickNanos, this::processAction);
+        lanes.start();
+
+        gameService.addGameRemovalListener(this::onGameRemoved);
+        lobbyService.addDueDeletionListener(lobby -> putAction(ServerAction.lobby("DELETE_IF_DUE", lobby.getUri())));
+        matchmakingService.addMatchListener(match -> applyResponse(generalActionHandler.handleMatchFound(match)));
+
+        FunctionCounter.builder("orps.dispatcher.scheduled.actions", lanes, DispatcherLanes::getFiredTimerCount)
+                .tag("outcome", "fired")
+                .description("Scheduled actions that fired")
+                .register(meterRegistry);
+        FunctionCounter.builder("orps.dispatcher.scheduled.actions", lanes, DispatcherLanes::getCancelledTimerCount)
+                .tag("outcome", "cancelled")
+                .description("Scheduled actions cancelled before firing")
+                .register(meterRegistry);
+
+        logger.info(String.format("Started action dispatcher with %d lane(s) in %s mode, %d ms ticks.",
+                laneCount, mode, dispatcherTickMillis));
+    }
 
-        new Thread(actionQueueLoop).start();
+    @PreDestroy
+    private void preDestroy() {
+        lanes.stop();
+    }
 
-        isReadingActions.set(true);
+    private void processAction(Action action) {
+        applyResponse(handleAction(action));
     }
 
+    private void applyResponse(ActionHandlerResponse response) {
+        userMessagingService.sendEvent(response.getEvents());
+        response.getCancelledScheduleKeys().forEach(this::cancelScheduledActions);
+        response.getScheduledActions().forEach(this::scheduleAction);
+    }
 
     public void putAction(Action action) {
-        actionQueue.add(action);
+        if (action.getCategory() == Category.GENERAL && CROSS_ENTITY_ACTIONS.contains(action.getIdString())) {
+            lanes.putExclusiveAction(action);
+        } else {
+            lanes.putAction(getLaneKey(action), action);
+        }
+    }
+
+    public ScheduledTimer scheduleAction(ScheduledAction scheduledAction) {
+        return lanes.scheduleAction(getLaneKey(scheduledAction.getAction()), scheduledAction);
+    }
+
+    private void onGameRemoved(Game game) {
+        // whatever was still scheduled for a removed game would only fire into a gameNotFound error
+        cancelScheduledActions(game.getUri());
+        // a tournament match reports back to the tournament's lane
+        tournamentService.takeMatchResult(game).ifPresent(this::putAction);
     }
 
-    public void scheduleAction(ScheduledAction scheduledAction) {
-        scheduledActionQueue.add(scheduledAction);
+    // Cancels everything scheduled for a lobby/game.
+    public void cancelScheduledActions(String uri) {
+        int cancelled = lanes.cancelScheduledActions(uri);
+        if (cancelled > 0) {
+            logger.debug(String.format("Cancelled %d scheduled action(s) for %s", cancelled, uri));
+        }
+    }
+
+    // Actions for the same lobby/game always end up on the same lane.
+    // Anything that isn't tied to one (or is missing its uri and will just produce an error) goes by author.
+    private String getLaneKey(Action action) {
+        String authorUuid = action.getAuthor().getUuid();
+        switch (action.getCategory()) {
+            case LOBBY: return action.getDataByKey("lobbyUri").orElse(authorUuid);
+            case GAME: return action.getDataByKey("gameUri").orElse(authorUuid);
+            case TOURNAMENT: return action.getDataByKey("tournamentUri").orElse(authorUuid);
+            default: return authorUuid;
+        }
     }
 
     private ActionHandlerResponse dispatchLobbyAction(Action action) {
@@ -105,6 +181,10 @@ public class ActionDispatcherService {
             return new ActionHandlerResponse(errorEvent);
         }
 
+        if (action instanceof ServerAction) {
+            return lobbyActionHandler.handleLobbyServerAction(optionalLobby.get(), optionalActionId.get());
+        }
+
         LobbyAction lobbyAction = new LobbyAction(action, optionalActionId.get(), optionalLobby.get());
 
         return lobbyActionHandler.handleAction(lobbyAction);
@@ -137,6 +217,8 @@ public class ActionDispatcherService {
 
         if (action instanceof ServerAction) {
             return gameActionHandler.handleGameServerAction(game, optionalActionId.get());
+        } else if (optionalActionId.get() == GameAction.ID.SPECTATE || optionalActionId.get() == GameAction.ID.SYNC_STATE) {
+            return gameActionHandler.handleSendGameData(game, authorUuid);
         } else {
             Optional<Player> optionalAuthorPlayer = game.getPlayer(authorUuid);
             if (optionalAuthorPlayer.isEmpty()) {
@@ -150,6 +232,27 @@ public class ActionDispatcherService {
         }
     }
 
+    private ActionHandlerResponse dispatchTournamentAction(Action action) {
+        String authorUuid = action.getAuthor().getUuid();
+        Optional<TournamentAction.ID> optionalActionId =
+                EnumStringValueMapper.stringValueToEnum(action.getIdString(), TournamentAction.ID.class);
+
+        if (!(action instanceof ServerAction) || optionalActionId.isEmpty()) {
+            ErrorEvent errorEvent = ErrorEvent.invalidAction(authorUuid, "TOURNAMENT", action.getIdString());
+            return new ActionHandlerResponse(errorEvent);
+        }
+
+        // a result coming in after the tournament was over has nothing left to update
+        Optional<Tournament> optionalTournament = action.getDataByKey("tournamentUri").flatMap(tournamentService::getTournament);
+        if (optionalTournament.isEmpty()) {
+            return ActionHandlerResponse.empty();
+        }
+
+        TournamentAction tournamentAction = new TournamentAction(action, optionalActionId.get(), optionalTournament.get());
+
+        return tournamentActionHandler.handleTournamentServerAction(tournamentAction);
+    }
+
     private ActionHandlerResponse dispatchGeneralAction(Action action) {
         Optional<GeneralAction.ID> optionalActionId =
                 EnumStringValueMapper.stringValueToEnum(action.getIdString(), GeneralAction.ID.class);
@@ -168,6 +271,7 @@ public class ActionDispatcherService {
         switch (action.getCategory()) {
             case LOBBY: return dispatchLobbyAction(action);
             case GAME: return dispatchGameAction(action);
+            case TOURNAMENT: return dispatchTournamentAction(action);
             case GENERAL: return dispatchGeneralAction(action);
             default: return ActionHandlerResponse.empty();
         }
@@ -1,33 +1,88 @@
 package ad044.orps.service;
 
+import ad044.orps.model.MembershipIndex;
 import ad044.orps.model.game.*;
 import ad044.orps.model.lobby.Lobby;
+import ad044.orps.simulation.BotStrategy;
+import ad044.orps.simulation.HeadlessGame;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class GameService {
     Logger logger = LoggerFactory.getLogger(GameService.class);
 
+    public enum BotGameMode {
+        // play the game out on the spot, in as many rounds as it takes
+        FAST_FORWARD,
+        // drop the game without playing it
+        TEAR_DOWN
+    }
+
+    // a fast-forwarded game still tied after this many rounds ends without a winner
+    public static final int FAST_FORWARD_ROUND_LIMIT = 1000;
+
+    @Value("${bot-games:fast-forward}")
+    String botGames;
+
+    private BotGameMode botGameMode = BotGameMode.FAST_FORWARD;
+
     Map<String, Game> gameSessions = new ConcurrentHashMap<>();
 
+    private final MembershipIndex membershipIndex = new MembershipIndex();
+
+    // called with every game that gets removed, after it's gone from the sessions
+    private final List<Consumer<Game>> gameRemovalListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    private void postConstruct() {
+        botGameMode = BotGameMode.valueOf(botGames.toUpperCase().replace('-', '_'));
+    }
+
     public Optional<Game> getGame(String uri) {
         return Optional.ofNullable(gameSessions.get(uri));
     }
 
     public void removeGame(String uri) {
-        gameSessions.remove(uri);
+        Game game = gameSessions.remove(uri);
+        if (game != null) {
+            game.setMembershipIndex(null);
+            gameRemovalListeners.forEach(listener -> listener.accept(game));
+        }
+    }
+
+    // Nobody watches the rounds of a game only bots are left in, so instead of holding timers for it the game gets
+    // settled right away and removed, which cancels whatever it still had scheduled.
+    public void settleBotGame(Game game) {
+        if (botGameMode == BotGameMode.FAST_FORWARD) {
+            List<BotStrategy> strategies = Collections.nCopies(game.getPlayers().size(), BotStrategy.RANDOM);
+            HeadlessGame headlessGame = new HeadlessGame(game, strategies).play(FAST_FORWARD_ROUND_LIMIT);
+            logger.info(String.format("Fast-forwarded bot game %s through %d rounds, ended with %s.",
+                    game.getUri(), headlessGame.getRounds(), headlessGame.getEnding()));
+        } else {
+            logger.info(String.format("Tore down bot game %s.", game.getUri()));
+        }
+
+        removeGame(game.getUri());
+    }
+
+    public void addGameRemovalListener(Consumer<Game> listener) {
+        gameRemovalListeners.add(listener);
     }
 
     public List<Game> getAllGamesWithUser(String uuid) {
-        return gameSessions
-                .values()
-                .stream().filter(game -> game.hasPlayer(uuid))
+        return membershipIndex.getUris(uuid)
+                .stream()
+                .map(gameSessions::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -35,6 +90,7 @@ public class GameService {
         Game game = Game.from(lobby);
 
         gameSessions.put(game.getUri(), game);
+        game.setMembershipIndex(membershipIndex);
 
         logger.info(String.format("Created new game with URI: %s for lobby with URI: %s", game.getUri(), lobby.getUri()));
 
@@ -45,6 +101,7 @@ public class GameService {
         Game game = new Game(players, gameSettings);
 
         gameSessions.put(game.getUri(), game);
+        game.setMembershipIndex(membershipIndex);
 
         logger.info(String.format("Created new game with URI: %s", game.getUri()));
 
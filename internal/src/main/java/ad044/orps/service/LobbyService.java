@@ -1,5 +1,6 @@
 package ad044.orps.service;
 
+import ad044.orps.model.MembershipIndex;
 import ad044.orps.model.lobby.*;
 import ad044.orps.model.user.OrpsUserDetails;
 import org.slf4j.Logger;
@@ -9,23 +10,95 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class LobbyService {
     Logger logger = LoggerFactory.getLogger(LobbyService.class);
 
+    // how long a lobby with nobody but bots left sticks around for someone to come back
+    public static final long EMPTY_LOBBY_LIFETIME_MILLIS = 1000 * 60;
+
     Map<String, Lobby> lobbySessions = new ConcurrentHashMap<>();
 
-    @Scheduled(fixedDelay = 1000 * 60)
+    // soonest deletion first. Cancelling only resets the lobby's deletionDate, the entry is skipped when it comes due.
+    private final DelayQueue<PendingDeletion> pendingDeletions = new DelayQueue<>();
+
+    private final MembershipIndex membershipIndex = new MembershipIndex();
+
+    // called from the cleanup task with every lobby whose deletion came due, to delete it on the lobby's own lane
+    private final List<Consumer<Lobby>> dueDeletionListeners = new CopyOnWriteArrayList<>();
+
+    private static class PendingDeletion implements Delayed {
+        final Lobby lobby;
+        final long deletionDate;
+
+        PendingDeletion(Lobby lobby, long deletionDate) {
+            this.lobby = lobby;
+            this.deletionDate = deletionDate;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deletionDate - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(deletionDate, ((PendingDeletion) other).deletionDate);
+        }
+    }
+
+    @Scheduled(fixedDelay = 1000)
     public void lobbyCleanupTask() {
-        long currTime = Calendar.getInstance().getTimeInMillis();
-        lobbySessions.values().forEach(lobby -> {
-            if (lobby.deletionDate != -1 && currTime >= lobby.deletionDate) {
-                logger.info(String.format("Deleted lobby %s during cleanup.", lobby.getUri()));
-                lobbySessions.remove(lobby.getUri());
+        PendingDeletion pendingDeletion;
+        while ((pendingDeletion = pendingDeletions.poll()) != null) {
+            Lobby lobby = pendingDeletion.lobby;
+            // rejoined since, or rescheduled and a later entry is still coming
+            if (lobby.deletionDate != pendingDeletion.deletionDate) {
+                continue;
             }
-        });
+
+            dueDeletionListeners.forEach(listener -> listener.accept(lobby));
+        }
+    }
+
+    public void addDueDeletionListener(Consumer<Lobby> listener) {
+        dueDeletionListeners.add(listener);
+    }
+
+    // Only from the lobby's lane. Someone may have rejoined between the cleanup task seeing the deletion come due and
+    // this running, so it's checked again here.
+    public boolean deleteIfDue(Lobby lobby) {
+        if (lobby.deletionDate == -1 || lobby.deletionDate > System.currentTimeMillis()) {
+            return false;
+        }
+
+        if (!lobbySessions.remove(lobby.getUri(), lobby)) {
+            return false;
+        }
+
+        lobby.setMembershipIndex(null);
+        logger.info(String.format("Deleted lobby %s during cleanup.", lobby.getUri()));
+        return true;
+    }
+
+    public void scheduleDeletion(Lobby lobby) {
+        scheduleDeletion(lobby, System.currentTimeMillis() + EMPTY_LOBBY_LIFETIME_MILLIS);
+    }
+
+    public void scheduleDeletion(Lobby lobby, long deletionDate) {
+        lobby.deletionDate = deletionDate;
+        pendingDeletions.add(new PendingDeletion(lobby, deletionDate));
+    }
+
+    public void cancelDeletion(Lobby lobby) {
+        lobby.deletionDate = -1;
     }
 
     public Lobby createLobby(OrpsUserDetails author) {
@@ -34,6 +107,7 @@ public class LobbyService {
         Lobby lobby = new Lobby(author, settings);
 
         lobbySessions.put(lobby.getUri(), lobby);
+        lobby.setMembershipIndex(membershipIndex);
 
         logger.info(String.format("Created new lobby with URI: %s", lobby.getUri()));
 
@@ -41,9 +115,10 @@ public class LobbyService {
     }
 
     public List<Lobby> getAllLobbiesWithUser(String uuid) {
-        return lobbySessions
-                .values()
-                .stream().filter(lobby -> lobby.hasMember(uuid))
+        return membershipIndex.getUris(uuid)
+                .stream()
+                .map(lobbySessions::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,166 @@
+package ad044.orps.service;
+
+import ad044.orps.matchmaking.MatchmakingQueue;
+import ad044.orps.model.user.OrpsUserDetails;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+@Service
+public class MatchmakingService {
+    Logger logger = LoggerFactory.getLogger(MatchmakingService.class);
+
+    // everyone rated above this shares the top bucket
+    private static final int MAX_RATING = 4000;
+
+    // how often the matcher runs, 0 means it only runs when runMatcher is called
+    @Value("${matchmaking-interval-millis:100}")
+    long intervalMillis;
+
+    @Value("${matchmaking-bucket-width:100}")
+    int bucketWidth;
+
+    // every this many ms spent waiting lets a user be matched one bucket further away
+    @Value("${matchmaking-widen-after-millis:5000}")
+    long widenAfterMillis;
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private MatchmakingQueue queue;
+    private ScheduledExecutorService matcher;
+    private Timer waitTimer;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final LongAdder matcherCpuNanos = new LongAdder();
+    // matcher cpu time over the last full second of wall time, as a fraction of one core
+    private volatile double matcherCpuShare = 0;
+    private long windowStartedAt = System.nanoTime();
+    private long windowCpuNanos = 0;
+
+    // called with every pair the matcher makes, on the matcher thread
+    private final List<Consumer<MatchmakingQueue.Match>> matchListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    private void postConstruct() {
+        queue = new MatchmakingQueue(MAX_RATING / bucketWidth + 1, bucketWidth, TimeUnit.MILLISECONDS.toNanos(widenAfterMillis));
+
+        waitTimer = Timer.builder("orps.matchmaking.wait")
+                .description("Time from joining matchmaking to getting matched")
+                .publishPercentiles(0.5)
+                .register(meterRegistry);
+        Gauge.builder("orps.matchmaking.waiting", queue, MatchmakingQueue::size)
+                .description("Users waiting to be matched")
+                .register(meterRegistry);
+        FunctionCounter.builder("orps.matchmaking.matcher.cpu", matcherCpuNanos, nanos -> nanos.sum() / 1e9)
+                .baseUnit("seconds")
+                .description("CPU time spent by the matcher")
+                .register(meterRegistry);
+        Gauge.builder("orps.matchmaking.matcher.cpu.usage", this, service -> service.matcherCpuShare)
+                .description("Matcher CPU seconds per second, over the last second")
+                .register(meterRegistry);
+
+        if (intervalMillis > 0) {
+            matcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "matchmaker");
+                thread.setDaemon(true);
+                return thread;
+            });
+            matcher.scheduleWithFixedDelay(this::runMatcherSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        logger.info(String.format("Started matchmaking with %d rating buckets of %d, running every %d ms.",
+                MAX_RATING / bucketWidth + 1, bucketWidth, intervalMillis));
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        if (matcher != null) {
+            matcher.shutdownNow();
+        }
+    }
+
+    // false if the user is already waiting
+    public boolean join(OrpsUserDetails user) {
+        return queue.enqueue(user, ratingService.getRating(user.getUuid()), System.nanoTime());
+    }
+
+    // false if the user wasn't waiting (or just got matched)
+    public boolean leave(String uuid) {
+        return queue.cancel(uuid);
+    }
+
+    public boolean isWaiting(String uuid) {
+        return queue.isQueued(uuid);
+    }
+
+    public void addMatchListener(Consumer<MatchmakingQueue.Match> listener) {
+        matchListeners.add(listener);
+    }
+
+    private void runMatcherSafely() {
+        try {
+            runMatcher();
+        } catch (RuntimeException e) {
+            // an exception would cancel every later run of the matcher
+            logger.error("Matchmaking pass failed", e);
+        }
+    }
+
+    // One pass over the queue, only ever from one thread at a time.
+    public synchronized List<MatchmakingQueue.Match> runMatcher() {
+        long cpuStartedAt = cpuTime();
+        long now = System.nanoTime();
+
+        List<MatchmakingQueue.Match> matches = queue.match(now);
+        for (MatchmakingQueue.Match match : matches) {
+            for (MatchmakingQueue.Ticket ticket : match.getTickets()) {
+                waitTimer.record(match.getMatchedAt() - ticket.getEnqueuedAt(), TimeUnit.NANOSECONDS);
+            }
+            matchListeners.forEach(listener -> listener.accept(match));
+        }
+
+        recordCpu(cpuTime() - cpuStartedAt, System.nanoTime());
+
+        if (!matches.isEmpty()) {
+            logger.debug(String.format("Matched %d pair(s), %d user(s) still waiting.", matches.size(), queue.size()));
+        }
+        return matches;
+    }
+
+    private long cpuTime() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private void recordCpu(long cpuNanos, long now) {
+        matcherCpuNanos.add(cpuNanos);
+        windowCpuNanos += cpuNanos;
+
+        long windowNanos = now - windowStartedAt;
+        if (windowNanos >= TimeUnit.SECONDS.toNanos(1)) {
+            matcherCpuShare = (double) windowCpuNanos / windowNanos;
+            windowStartedAt = now;
+            windowCpuNanos = 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ad044.orps.service;
+
+import ad044.orps.model.game.BotPlayer;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.rating.LeaderboardIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class RatingService {
+    Logger logger = LoggerFactory.getLogger(RatingService.class);
+
+    public static final int INITIAL_RATING = 1200;
+    public static final int K_FACTOR = 32;
+
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex();
+
+    // users not rated for this long are dropped from the leaderboard, 0 keeps everyone
+    @Value("${rating-idle-hours:24}")
+    long ratingIdleHours;
+
+    public int getRating(String uuid) {
+        return leaderboard.getRating(uuid).orElse(INITIAL_RATING);
+    }
+
+    public void setRating(OrpsUserDetails user, int rating) {
+        leaderboard.put(user.getUuid(), user.getUsername(), rating);
+    }
+
+    public LeaderboardIndex getLeaderboard() {
+        return leaderboard;
+    }
+
+    // Identities are anonymous and gone with their session, and nothing is persisted, so without this every session
+    // that ever finished a rated game would stay on the leaderboard.
+    @Scheduled(fixedDelay = 60_000)
+    public synchronized void evictIdleUsers() {
+        if (ratingIdleHours <= 0) {
+            return;
+        }
+
+        int removed = leaderboard.removeRatedBefore(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ratingIdleHours));
+        if (removed > 0) {
+            logger.info(String.format("Dropped %d user(s) not rated in %d hours from the leaderboard.", removed, ratingIdleHours));
+        }
+    }
+
+    private static double expectedScore(int rating, int opponentRating) {
+        return 1 / (1 + Math.pow(10, (opponentRating - rating) / 400.0));
+    }
+
+    // Elo, with the winner having beaten every other human in the game, including the ones who left. K is split between the pairs, so a win in a
+    // crowded game moves the winner about as much as a 1v1 would. Bots aren't rated and don't affect anyone's rating.
+    // Synchronized so a user finishing two games at once on different lanes doesn't lose one of the updates.
+    public synchronized void recordGame(Game game) {
+        Optional<Player> optionalWinner = game.getWinner();
+        if (optionalWinner.isEmpty() || optionalWinner.get() instanceof BotPlayer) {
+            return;
+        }
+        Player winner = optionalWinner.get();
+
+        List<Player> losers = Stream.concat(game.getPlayers().stream(), game.getLeftPlayers().stream())
+                .filter(player -> !(player instanceof BotPlayer) && !player.getUuid().equals(winner.getUuid()))
+                .collect(Collectors.toList());
+        if (losers.isEmpty()) {
+            return;
+        }
+
+        double k = (double) K_FACTOR / losers.size();
+        int winnerRating = getRating(winner.getUuid());
+        double winnerGain = 0;
+        for (Player loser : losers) {
+            int loserRating = getRating(loser.getUuid());
+            double change = k * (1 - expectedScore(winnerRating, loserRating));
+            winnerGain += change;
+            setRating(loser, (int) Math.round(loserRating - change));
+        }
+        setRating(winner, (int) Math.round(winnerRating + winnerGain));
+
+        logger.debug(String.format("Rated game %s, %s gained %.1f against %d player(s).",
+                game.getUri(), winner.getUuid(), winnerGain, losers.size()));
+    }
+}
@@ -0,0 +1,64 @@
+package ad044.orps.service;
+
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.tournament.Tournament;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class TournamentService {
+    Logger logger = LoggerFactory.getLogger(TournamentService.class);
+
+    Map<String, Tournament> tournamentSessions = new ConcurrentHashMap<>();
+
+    // game uri -> tournament uri, for every match game still being played
+    private final Map<String, String> matchTournaments = new ConcurrentHashMap<>();
+
+    // Entrants in seed order. Nothing gets played until START_MATCHES reaches the tournament's lane.
+    public Tournament createTournament(List<? extends OrpsUserDetails> entrants, GameSettings settings) {
+        Tournament tournament = Tournament.seeded(entrants, settings);
+
+        tournamentSessions.put(tournament.getUri(), tournament);
+
+        logger.info(String.format("Created new tournament with URI: %s for %d entrants", tournament.getUri(), entrants.size()));
+
+        return tournament;
+    }
+
+    public Optional<Tournament> getTournament(String uri) {
+        return Optional.ofNullable(tournamentSessions.get(uri));
+    }
+
+    public void removeTournament(String uri) {
+        tournamentSessions.remove(uri);
+    }
+
+    public void registerMatch(String gameUri, String tournamentUri) {
+        matchTournaments.put(gameUri, tournamentUri);
+    }
+
+    // A RECORD_RESULT for the tournament a removed game was a match of, if it was one. Games end on their own lanes,
+    // the bracket only gets updated on the tournament's.
+    public Optional<ServerAction> takeMatchResult(Game game) {
+        String tournamentUri = matchTournaments.remove(game.getUri());
+        if (tournamentUri == null) {
+            return Optional.empty();
+        }
+
+        Map<String, String> data = new HashMap<>();
+        data.put("gameUri", game.getUri());
+        game.getWinner().ifPresent(winner -> data.put("winnerUuid", winner.getUuid()));
+
+        return Optional.of(ServerAction.tournament("RECORD_RESULT", tournamentUri, data));
+    }
+}
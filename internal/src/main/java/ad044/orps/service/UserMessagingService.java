@@ -1,29 +1,179 @@
 package ad044.orps.service;
 
+import ad044.orps.config.WireFormat;
+import ad044.orps.dispatcher.EventSenderPool;
 import ad044.orps.model.event.Event;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MessageConversionException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class UserMessagingService {
+    private static final String TOPIC_HEADER = "orpsTopic";
+    public static final String SPECTATOR_DESTINATION_PREFIX = "/topic/";
+
+    Logger logger = LoggerFactory.getLogger(UserMessagingService.class);
+
     @Autowired
     SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    SimpUserRegistry simpUserRegistry;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // 0 means one sender per available processor
+    @Value("${outbound-senders:0}")
+    int senderCount;
+
+    // per sender, in deliveries (one event to one recipient)
+    @Value("${outbound-queue-capacity:10000}")
+    int queueCapacity;
+
+    @Value("${outbound-overflow-policy:block}")
+    String overflowPolicy;
+
+    private EventSenderPool<EncodedEvent> senderPool;
+
+    // user uuid -> session id -> format, only for sessions that asked for a binary format
+    private final Map<String, Map<String, WireFormat>> binarySessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void postConstruct() {
+        EventSenderPool.OverflowPolicy policy = EventSenderPool.OverflowPolicy.valueOf(overflowPolicy.toUpperCase());
+        int senders = senderCount > 0 ? senderCount : Runtime.getRuntime().availableProcessors();
+        senderPool = new EventSenderPool<>(senders, queueCapacity, policy, EncodedEvent::new, this::deliver, this::broadcast);
+        senderPool.start();
+
+        Gauge.builder("orps.outbound.queue.depth", senderPool, EventSenderPool::getQueueDepth)
+                .description("Deliveries waiting for a sender")
+                .register(meterRegistry);
+        FunctionCounter.builder("orps.outbound.deliveries", senderPool, EventSenderPool::getDeliveredCount)
+                .tag("outcome", "sent")
+                .register(meterRegistry);
+        FunctionCounter.builder("orps.outbound.deliveries", senderPool, EventSenderPool::getDroppedCount)
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+
+        logger.info(String.format("Started %d event sender(s), queue capacity %d, overflow policy %s.",
+                senders, queueCapacity, policy));
+    }
+
+    @PreDestroy
+    private void preDestroy() {
+        senderPool.stop();
+    }
+
+    // Returns right away, the event is sent to every recipient by the sender pool.
     public void sendEvent(Event<?> event) {
-        String topic = event.getCategory().getTextValue().toLowerCase();
-        event.getRecipientUuids().forEach(recipient -> {
-            sendSocketMessageToUser(recipient, topic, event);
-        });
+        senderPool.submit(event);
     }
 
     public void sendEvent(List<Event<?>> events) {
-        events.forEach(this::sendEvent);
+        senderPool.submit(events);
     }
 
-    private void sendSocketMessageToUser(String uuid, String topic, Object message) {
-        messagingTemplate.convertAndSendToUser(uuid, String.format("/queue/reply/%s", topic), message);
+    public void registerSession(String uuid, String sessionId, WireFormat wireFormat) {
+        if (wireFormat.isBinary()) {
+            binarySessions.computeIfAbsent(uuid, k -> new ConcurrentHashMap<>()).put(sessionId, wireFormat);
+        }
+    }
+
+    public void unregisterSession(String uuid, String sessionId) {
+        binarySessions.computeIfPresent(uuid, (k, sessions) -> {
+            sessions.remove(sessionId);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    // Converted once per format that is actually asked for, every recipient of that format gets the same bytes.
+    private Message<?> encode(Event<?> event, WireFormat wireFormat) {
+        String topic = event.getCategory().getTextValue().toLowerCase();
+        Map<String, Object> headers = wireFormat.isBinary()
+                ? Map.of(TOPIC_HEADER, topic, MessageHeaders.CONTENT_TYPE, wireFormat.getMimeType())
+                : Map.of(TOPIC_HEADER, topic);
+        Message<?> message = messagingTemplate.getMessageConverter().toMessage(event, new MessageHeaders(headers));
+        if (message == null) {
+            throw new MessageConversionException(String.format("Failed to convert event %s to %s", event.getId(), wireFormat));
+        }
+
+        return message;
+    }
+
+    private void deliver(String recipient, EncodedEvent encodedEvent) {
+        Map<String, WireFormat> sessions = binarySessions.get(recipient);
+        if (sessions == null) {
+            Message<?> message = encodedEvent.get(WireFormat.JSON);
+            sendSocketMessageToUser(recipient, (String) message.getHeaders().get(TOPIC_HEADER), message);
+            return;
+        }
+
+        // the user has a binary session, every session gets its own copy in its own format
+        SimpUser user = simpUserRegistry.getUser(recipient);
+        if (user == null) {
+            return;
+        }
+
+        for (SimpSession session : user.getSessions()) {
+            Message<?> message = encodedEvent.get(sessions.getOrDefault(session.getId(), WireFormat.JSON));
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+            accessor.copyHeaders(message.getHeaders());
+            accessor.setSessionId(session.getId());
+            accessor.setLeaveMutable(true);
+            sendSocketMessageToUser(recipient, (String) message.getHeaders().get(TOPIC_HEADER),
+                    MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders()));
+        }
+    }
+
+    // Spectator topics are always JSON, one message reaches every subscriber whatever format their session uses.
+    private void broadcast(String topic, EncodedEvent encodedEvent) {
+        messagingTemplate.send(SPECTATOR_DESTINATION_PREFIX + topic, encodedEvent.get(WireFormat.JSON));
+    }
+
+    // Same destination convertAndSendToUser would use, minus the conversion.
+    private void sendSocketMessageToUser(String uuid, String topic, Message<?> message) {
+        String destination = String.format("%s%s/queue/reply/%s",
+                messagingTemplate.getUserDestinationPrefix(), uuid.replace("/", "%2F"), topic);
+        messagingTemplate.send(destination, message);
+    }
+
+    private class EncodedEvent {
+        private final Event<?> event;
+        private final Message<?>[] messages = new Message<?>[WireFormat.values().length];
+
+        EncodedEvent(Event<?> event) {
+            this.event = event;
+        }
+
+        synchronized Message<?> get(WireFormat wireFormat) {
+            Message<?> message = messages[wireFormat.ordinal()];
+            if (message == null) {
+                message = encode(event, wireFormat);
+                messages[wireFormat.ordinal()] = message;
+            }
+
+            return message;
+        }
     }
 }
@@ -0,0 +1,85 @@
+package ad044.orps.simulation;
+
+import ad044.orps.model.game.BotPlayer;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.BotUserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays many bot games as fast as the CPU allows, split across a fork/join pool. Every game is a fresh Game with one
+ * bot per strategy, slot i playing strategies.get(i), run to the end by HeadlessGame. With a seed, game i of a run is
+ * seeded with seed + i, so the same run gives the same report however the pool splits it.
+ */
+public class BotSimulation {
+    // games a task plays itself instead of splitting further
+    private static final int BATCH_SIZE = 256;
+
+    private final List<BotStrategy> strategies;
+    private final GameSettings settings;
+    private final int maxRounds;
+    private final Long seed;
+
+    public BotSimulation(List<BotStrategy> strategies, GameSettings settings, int maxRounds) {
+        this(strategies, settings, maxRounds, null);
+    }
+
+    public BotSimulation(List<BotStrategy> strategies, GameSettings settings, int maxRounds, Long seed) {
+        this.strategies = List.copyOf(strategies);
+        this.settings = settings;
+        this.maxRounds = maxRounds;
+        this.seed = seed;
+    }
+
+    public SimulationReport run(int games) {
+        return run(games, ForkJoinPool.commonPool());
+    }
+
+    public SimulationReport run(int games, ForkJoinPool pool) {
+        return pool.invoke(new SimulationTask(0, games));
+    }
+
+    public HeadlessGame playGame(int index) {
+        List<Player> players = new ArrayList<>(strategies.size());
+        for (int slot = 0; slot < strategies.size(); slot++) {
+            players.add(new BotPlayer(new BotUserDetails(String.valueOf(slot))));
+        }
+        Game game = new Game(players, settings);
+        if (seed != null) {
+            game.setSeed(seed + index);
+        }
+        return new HeadlessGame(game, strategies).play(maxRounds);
+    }
+
+    private class SimulationTask extends RecursiveTask<SimulationReport> {
+        private final int from;
+        private final int games;
+
+        SimulationTask(int from, int games) {
+            this.from = from;
+            this.games = games;
+        }
+
+        @Override
+        protected SimulationReport compute() {
+            if (games <= BATCH_SIZE) {
+                SimulationReport report = new SimulationReport(strategies.size());
+                for (int i = 0; i < games; i++) {
+                    report.record(playGame(from + i));
+                }
+                return report;
+            }
+
+            int half = games / 2;
+            SimulationTask left = new SimulationTask(from, half);
+            left.fork();
+            SimulationReport right = new SimulationTask(from + half, games - half).compute();
+            return right.merge(left.join());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ad044.orps.simulation;
+
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.Player;
+
+/**
+ * Picks a bot's move once Game.startNextRound has run, when player.move already holds the random move the game gave it.
+ * Simulations share one instance between threads, so implementations shouldn't keep state.
+ */
+@FunctionalInterface
+public interface BotStrategy {
+    // keeps the move the game picked, what bots do in production
+    BotStrategy RANDOM = (game, player) -> player.move;
+
+    GameMove pickMove(Game game, Player player);
+
+    static BotStrategy always(GameMove move) {
+        return (game, player) -> move;
+    }
+}
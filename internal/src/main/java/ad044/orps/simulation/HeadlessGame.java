@@ -0,0 +1,97 @@
+package ad044.orps.simulation;
+
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.Player;
+
+import java.util.List;
+
+/**
+ * Plays a game round after round on the calling thread, with no timers, events or services involved. Rounds go through
+ * Game.startNextRound/finishRound and inactive players get kicked after each one like GameActionHandler does, so the
+ * outcome is the one the game would have had in production with the same moves.
+ */
+public class HeadlessGame {
+    public enum Ending {
+        WON,
+        ALL_INACTIVE,
+        ROUND_LIMIT
+    }
+
+    private final Game game;
+    // the players the game started with, strategies and winnerSlot go by their index
+    private final List<Player> seats;
+    private final List<BotStrategy> strategies;
+
+    private int rounds = 0;
+    private Ending ending = null;
+    private int winnerSlot = -1;
+
+    public HeadlessGame(Game game, List<BotStrategy> strategies) {
+        if (strategies.size() != game.getPlayers().size()) {
+            throw new IllegalArgumentException("Every player needs a strategy.");
+        }
+
+        this.game = game;
+        this.seats = game.getPlayers();
+        this.strategies = strategies;
+    }
+
+    public HeadlessGame play(int maxRounds) {
+        while (rounds < maxRounds) {
+            game.startNextRound();
+            rounds++;
+
+            for (int slot = 0; slot < seats.size(); slot++) {
+                Player player = seats.get(slot);
+                if (!player.eliminated && game.hasPlayer(player.getUuid())) {
+                    player.move = strategies.get(slot).pickMove(game, player);
+                }
+            }
+
+            game.finishRound();
+
+            List<Player> inactivePlayers = game.getInactivePlayers();
+            if (inactivePlayers.size() == game.getAlivePlayers().size()) {
+                ending = Ending.ALL_INACTIVE;
+                return this;
+            }
+            inactivePlayers.forEach(player -> game.removePlayer(player.getUuid()));
+
+            if (game.isFinished()) {
+                finish(game.getRoundWinner().orElseThrow());
+                return this;
+            }
+
+            List<Player> alivePlayers = game.getAlivePlayers();
+            if (!inactivePlayers.isEmpty() && alivePlayers.size() == 1) {
+                finish(alivePlayers.get(0));
+                return this;
+            }
+        }
+
+        ending = Ending.ROUND_LIMIT;
+        return this;
+    }
+
+    private void finish(Player winner) {
+        ending = Ending.WON;
+        winnerSlot = seats.indexOf(winner);
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public Ending getEnding() {
+        return ending;
+    }
+
+    // index of the winner among the players the game started with, -1 unless the game was won
+    public int getWinnerSlot() {
+        return winnerSlot;
+    }
+}
@@ -0,0 +1,63 @@
+package ad044.orps.simulation;
+
+/**
+ * Totals over a batch of headless games, merged up the fork/join tree.
+ */
+public class SimulationReport {
+    private final long[] winsBySlot;
+    private long games = 0;
+    private long rounds = 0;
+    private long allInactive = 0;
+    private long roundLimit = 0;
+
+    public SimulationReport(int slots) {
+        this.winsBySlot = new long[slots];
+    }
+
+    void record(HeadlessGame headlessGame) {
+        games++;
+        rounds += headlessGame.getRounds();
+        switch (headlessGame.getEnding()) {
+            case WON:
+                winsBySlot[headlessGame.getWinnerSlot()]++;
+                break;
+            case ALL_INACTIVE:
+                allInactive++;
+                break;
+            case ROUND_LIMIT:
+                roundLimit++;
+                break;
+        }
+    }
+
+    SimulationReport merge(SimulationReport other) {
+        games += other.games;
+        rounds += other.rounds;
+        allInactive += other.allInactive;
+        roundLimit += other.roundLimit;
+        for (int slot = 0; slot < winsBySlot.length; slot++) {
+            winsBySlot[slot] += other.winsBySlot[slot];
+        }
+        return this;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    public long getWins(int slot) {
+        return winsBySlot[slot];
+    }
+
+    public long getAllInactive() {
+        return allInactive;
+    }
+
+    public long getRoundLimit() {
+        return roundLimit;
+    }
+}
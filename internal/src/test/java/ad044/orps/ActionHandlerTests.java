@@ -40,8 +40,8 @@ public class ActionHandlerTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.INVALID_ACTION);
-        assertEquals(event.getData().get("category"), "GENERAL");
-        assertEquals(event.getData().get("action"), "123");
+        assertEquals(((ErrorEvent) event).getData().get("category"), "GENERAL");
+        assertEquals(((ErrorEvent) event).getData().get("action"), "123");
     }
 
     @Test
@@ -55,8 +55,8 @@ public class ActionHandlerTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.INVALID_ACTION);
-        assertEquals(event.getData().get("category"), "LOBBY");
-        assertEquals(event.getData().get("action"), "123");
+        assertEquals(((ErrorEvent) event).getData().get("category"), "LOBBY");
+        assertEquals(((ErrorEvent) event).getData().get("action"), "123");
     }
 
     @Test
@@ -70,8 +70,8 @@ public class ActionHandlerTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.INVALID_ACTION);
-        assertEquals(event.getData().get("category"), "GAME");
-        assertEquals(event.getData().get("action"), "123");
+        assertEquals(((ErrorEvent) event).getData().get("category"), "GAME");
+        assertEquals(((ErrorEvent) event).getData().get("action"), "123");
     }
 
     @Test
@@ -85,7 +85,7 @@ public class ActionHandlerTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.DATA_FIELD_MISSING);
-        assertEquals(event.getData().get("fieldName"), "gameUri");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "gameUri");
     }
 
     @Test
@@ -99,6 +99,6 @@ public class ActionHandlerTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.DATA_FIELD_MISSING);
-        assertEquals(event.getData().get("fieldName"), "lobbyUri");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "lobbyUri");
     }
 }
@@ -0,0 +1,115 @@
+package ad044.orps;
+
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.dispatcher.ScheduledTimer;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActionLoopTests {
+    private final OrpsUserDetails author = new OrpsUserDetails("user1", "uuid1");
+    private ActionLoop actionLoop;
+
+    @AfterEach
+    public void stopLoop() {
+        if (actionLoop != null) {
+            actionLoop.stop();
+        }
+    }
+
+    private Action action(String id) {
+        return new Action(id, Category.GENERAL, Collections.emptyMap(), author);
+    }
+
+    @Test
+    public void handlesActionsInOrder() throws InterruptedException {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        actionLoop = new ActionLoop("test-loop", ActionLoop.Mode.PARKING, action -> {
+            handled.add(action.getIdString());
+            latch.countDown();
+        });
+        actionLoop.start();
+
+        actionLoop.putAction(action("1"));
+        actionLoop.putAction(action("2"));
+        // let the loop park before the last one comes in
+        Thread.sleep(50);
+        actionLoop.putAction(action("3"));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(handled, List.of("1", "2", "3"));
+    }
+
+    @Test
+    public void firesScheduledActionsByDeadline() throws InterruptedException {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        actionLoop = new ActionLoop("test-loop", ActionLoop.Mode.PARKING, action -> {
+            handled.add(action.getIdString());
+            latch.countDown();
+        });
+        actionLoop.start();
+
+        long startTime = System.nanoTime();
+        actionLoop.scheduleAction(ScheduledAction.inMillis(action("later"), 200));
+        actionLoop.scheduleAction(ScheduledAction.inMillis(action("sooner"), 100));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - startTime >= TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(handled, List.of("sooner", "later"));
+    }
+
+    @Test
+    public void keepsRunningWhenHandlerThrows() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        actionLoop = new ActionLoop("test-loop", ActionLoop.Mode.PARKING, action -> {
+            if (action.getIdString().equals("bad")) {
+                throw new IllegalStateException();
+            }
+            latch.countDown();
+        });
+        actionLoop.start();
+
+        actionLoop.putAction(action("bad"));
+        actionLoop.putAction(action("good"));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void neverFiresCancelledActions() throws InterruptedException {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        actionLoop = new ActionLoop("test-loop", ActionLoop.Mode.PARKING, action -> {
+            handled.add(action.getIdString());
+            latch.countDown();
+        });
+        actionLoop.start();
+
+        ScheduledTimer cancelled = actionLoop.scheduleAction(ScheduledAction.inMillis(action("cancelled"), 50));
+        actionLoop.scheduleAction("game1", ScheduledAction.inMillis(action("game1-a"), 50));
+        actionLoop.scheduleAction("game1", ScheduledAction.inMillis(action("game1-b"), 100));
+        actionLoop.scheduleAction("game2", ScheduledAction.inMillis(action("game2"), 150));
+
+        assertTrue(cancelled.cancel());
+        assertEquals(actionLoop.cancelScheduledActions("game1"), 2);
+        assertEquals(actionLoop.cancelScheduledActions("game1"), 0);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(handled, List.of("game2"));
+        assertEquals(actionLoop.getCancelledTimerCount(), 3);
+        assertEquals(actionLoop.getFiredTimerCount(), 1);
+    }
+}
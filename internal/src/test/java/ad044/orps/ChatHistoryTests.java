@@ -0,0 +1,69 @@
+package ad044.orps;
+
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.lobby.ChatHistory;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatHistoryTests {
+    private static List<String> contents(ChatHistory history) {
+        return history.getMessages().stream().map(LobbyEvent.TextMessage::getMessageContent).collect(Collectors.toList());
+    }
+
+    @Test
+    public void keepsTheLatestMessagesInOrder() {
+        ChatHistory history = new ChatHistory(3, 1000);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(history.add("uuid" + i, "user" + i, "message " + i));
+        }
+
+        assertEquals(contents(history), List.of("message 2", "message 3", "message 4"));
+        assertEquals(history.getMessages().get(0).getMessageAuthor().getUuid(), "uuid2");
+        assertEquals(history.getMessages().get(0).getMessageAuthor().getUsername(), "user2");
+    }
+
+    @Test
+    public void dropsOldestMessagesToStayUnderTheByteCap() {
+        ChatHistory history = new ChatHistory(10, 10);
+        history.add("uuid", "user", "aaaa");
+        history.add("uuid", "user", "bbbb");
+        history.add("uuid", "user", "cccccc");
+
+        assertEquals(contents(history), List.of("bbbb", "cccccc"));
+        assertEquals(history.getUsedBytes(), 10);
+
+        // too long to keep at all, what's there stays
+        assertFalse(history.add("uuid", "user", "x".repeat(11)));
+        assertEquals(contents(history), List.of("bbbb", "cccccc"));
+    }
+
+    @Test
+    public void encodesLikeStringGetBytesAcrossTheWrap() {
+        String[] samples = {"hello", "żółw", "日本語", "emoji 😀!", "lone \uD800 surrogate", "x"};
+        ChatHistory history = new ChatHistory(4, 64);
+        List<String> expected = new ArrayList<>();
+        Random random = new Random(3);
+
+        for (int i = 0; i < 500; i++) {
+            String content = samples[random.nextInt(samples.length)] + i;
+            assertTrue(history.add("uuid", "user", content));
+            expected.add(new String(content.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+
+            int bytes = 0;
+            List<String> kept = contents(history);
+            for (String message : kept) {
+                bytes += message.getBytes(StandardCharsets.UTF_8).length;
+            }
+            assertEquals(kept, expected.subList(expected.size() - kept.size(), expected.size()));
+            assertEquals(history.getUsedBytes(), bytes);
+            assertTrue(bytes <= 64);
+        }
+    }
+}
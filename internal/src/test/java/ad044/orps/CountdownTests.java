@@ -0,0 +1,60 @@
+package ad044.orps;
+
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.LobbyService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "game-countdown=deadline")
+public class CountdownTests {
+    @Autowired
+    ActionDispatcherService actionDispatcherService;
+
+    @Autowired
+    LobbyService lobbyService;
+
+    @Test
+    public void startsGameWithCountdownDeadline() {
+        OrpsUserDetails lobbyOwner = new OrpsUserDetails("user1", "uuid1");
+        Lobby lobby = lobbyService.createLobby(lobbyOwner);
+        lobby.addMember(new OrpsUserDetails("user2", "uuid2"));
+
+        long startTime = System.currentTimeMillis();
+        Action action = new Action("START_GAME", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), lobbyOwner);
+        ActionHandlerResponse response = actionDispatcherService.handleAction(action);
+
+        List<Event<?>> events = response.getEvents();
+        assertEquals(events.size(), 1);
+
+        LobbyEvent gameCreatedEvent = (LobbyEvent) events.get(0);
+        assertEquals(gameCreatedEvent.getId(), LobbyEvent.ID.CREATED_GAME);
+        LobbyEvent.GameData gameData = gameCreatedEvent.getData(LobbyEvent.GameData.class);
+        assertNotNull(gameData.getCountdownDeadline());
+        assertTrue(gameData.getServerTime() >= startTime);
+
+        // no ticks, the first round is scheduled straight for the deadline
+        List<ScheduledAction> scheduledActions = response.getScheduledActions();
+        assertEquals(scheduledActions.size(), 1);
+        ScheduledAction scheduledAction = scheduledActions.get(0);
+        assertEquals(scheduledAction.getAction().getIdString(), "START_NEXT_ROUND");
+        assertEquals(scheduledAction.getAction().getDataByKey("gameUri").get(), gameData.getGameData().getUri());
+        assertTrue(scheduledAction.getAction() instanceof ServerAction);
+        assertEquals(scheduledAction.getExecutionTime(), (long) gameData.getCountdownDeadline());
+        assertTrue(gameData.getCountdownDeadline() >= startTime + 5000);
+    }
+}
@@ -0,0 +1,114 @@
+package ad044.orps;
+
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.dispatcher.DispatcherLanes;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DispatcherLanesTests {
+    private final OrpsUserDetails author = new OrpsUserDetails("user1", "uuid1");
+    private DispatcherLanes lanes;
+
+    @AfterEach
+    public void stopLanes() {
+        if (lanes != null) {
+            lanes.stop();
+        }
+    }
+
+    private Action gameAction(String gameUri, int sequence) {
+        return new Action(String.valueOf(sequence), Category.GAME, Map.of("gameUri", gameUri), author);
+    }
+
+    @Test
+    public void keepsActionsForTheSameKeyInOrder() throws InterruptedException {
+        int gameCount = 16;
+        int actionsPerGame = 200;
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(gameCount * actionsPerGame);
+
+        lanes = new DispatcherLanes(4, ActionLoop.Mode.PARKING, action -> {
+            String gameUri = action.getDataByKey("gameUri").get();
+            handled.computeIfAbsent(gameUri, uri -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(Integer.parseInt(action.getIdString()));
+            latch.countDown();
+        });
+        lanes.start();
+
+        for (int i = 0; i < actionsPerGame; i++) {
+            for (int game = 0; game < gameCount; game++) {
+                String gameUri = String.format("game%d", game);
+                lanes.putAction(gameUri, gameAction(gameUri, i));
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(handled.size(), gameCount);
+        handled.values().forEach(sequence -> {
+            assertEquals(sequence.size(), actionsPerGame);
+            for (int i = 0; i < actionsPerGame; i++) {
+                assertEquals(sequence.get(i), i);
+            }
+        });
+    }
+
+    @Test
+    public void runsExclusiveActionsWhileLanesAreHeld() throws InterruptedException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger laneActionsHandled = new AtomicInteger();
+        AtomicBoolean sawOverlap = new AtomicBoolean(false);
+        AtomicInteger handledBeforeExclusive = new AtomicInteger(-1);
+        CountDownLatch exclusiveDone = new CountDownLatch(1);
+
+        lanes = new DispatcherLanes(4, ActionLoop.Mode.PARKING, action -> {
+            if (action.getCategory() == Category.GENERAL) {
+                if (inFlight.get() != 0) {
+                    sawOverlap.set(true);
+                }
+                handledBeforeExclusive.set(laneActionsHandled.get());
+                exclusiveDone.countDown();
+                return;
+            }
+
+            inFlight.incrementAndGet();
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            laneActionsHandled.incrementAndGet();
+            inFlight.decrementAndGet();
+        });
+        lanes.start();
+
+        for (int i = 0; i < 40; i++) {
+            String gameUri = String.format("game%d", i % 8);
+            lanes.putAction(gameUri, gameAction(gameUri, i));
+        }
+        lanes.putExclusiveAction(new Action("CHANGE_NAME", Category.GENERAL, Collections.emptyMap(), author));
+
+        assertTrue(exclusiveDone.await(10, TimeUnit.SECONDS));
+        assertFalse(sawOverlap.get());
+        assertEquals(handledBeforeExclusive.get(), 40);
+    }
+
+    @Test
+    public void routesTheSameKeyToTheSameLane() {
+        lanes = new DispatcherLanes(8, ActionLoop.Mode.PARKING, action -> {});
+
+        assertEquals(lanes.laneIndexFor("someGameUri"), lanes.laneIndexFor("someGameUri"));
+        assertTrue(lanes.laneIndexFor("someGameUri") >= 0 && lanes.laneIndexFor("someGameUri") < 8);
+    }
+}
@@ -0,0 +1,153 @@
+package ad044.orps;
+
+import ad044.orps.dispatcher.EventSenderPool;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.GameMove;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventSenderPoolTests {
+    private EventSenderPool<?> senderPool;
+
+    @AfterEach
+    public void stopSenders() {
+        if (senderPool != null) {
+            senderPool.stop();
+        }
+    }
+
+    @Test
+    public void keepsEventsForTheSameRecipientInOrder() throws InterruptedException {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            recipients.add("uuid" + i);
+        }
+        int eventCount = 500;
+
+        Map<String, List<Integer>> received = new ConcurrentHashMap<>();
+        CountDownLatch latch = new CountDownLatch(recipients.size() * eventCount);
+        EventSenderPool<Event<?>> senderPool = new EventSenderPool<>(4, 100, EventSenderPool.OverflowPolicy.BLOCK, event -> event, (recipient, event) -> {
+            received.computeIfAbsent(recipient, k -> new CopyOnWriteArrayList<>())
+                    .add(event.getData(GameEvent.Countdown.class).getCurrentTimerValue());
+            latch.countDown();
+        });
+        this.senderPool = senderPool;
+        senderPool.start();
+
+        for (int i = 0; i < eventCount; i++) {
+            // every event goes to a different subset of the recipients
+            List<String> eventRecipients = i % 2 == 0 ? recipients : recipients.subList(0, 10);
+            senderPool.submit(GameEvent.countdownUpdate(eventRecipients, "game", i));
+            if (i % 2 != 0) {
+                senderPool.submit(GameEvent.countdownUpdate(recipients.subList(10, 20), "game", i));
+            }
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (String recipient : recipients) {
+            List<Integer> values = received.get(recipient);
+            assertEquals(values.size(), eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                assertEquals(values.get(i), i);
+            }
+        }
+        assertEquals(senderPool.getDeliveredCount(), recipients.size() * eventCount);
+    }
+
+    @Test
+    public void dropsDeliveriesWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch senderBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        EventSenderPool<Event<?>> senderPool = new EventSenderPool<>(1, 2, EventSenderPool.OverflowPolicy.DROP, event -> event, (recipient, event) -> {
+            senderBusy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.senderPool = senderPool;
+        senderPool.start();
+
+        senderPool.submit(GameEvent.countdownUpdate(List.of("uuid1"), "game", 0));
+        assertTrue(senderBusy.await(5, TimeUnit.SECONDS));
+
+        // one in flight, two queued, the rest don't fit
+        for (int i = 1; i <= 5; i++) {
+            senderPool.submit(GameEvent.countdownUpdate(List.of("uuid1"), "game", i));
+        }
+        assertEquals(senderPool.getQueueDepth(), 2);
+        assertEquals(senderPool.getDroppedCount(), 3);
+
+        release.countDown();
+    }
+
+    @Test
+    public void encodesEachEventOnce() throws InterruptedException {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            recipients.add("uuid" + i);
+        }
+
+        AtomicInteger encodeCount = new AtomicInteger();
+        Set<Object> delivered = ConcurrentHashMap.newKeySet();
+        CountDownLatch latch = new CountDownLatch(recipients.size());
+        EventSenderPool<Object> senderPool = new EventSenderPool<>(4, 100, EventSenderPool.OverflowPolicy.BLOCK, event -> {
+            encodeCount.incrementAndGet();
+            return new Object();
+        }, (recipient, encoded) -> {
+            delivered.add(encoded);
+            latch.countDown();
+        });
+        this.senderPool = senderPool;
+        senderPool.start();
+
+        senderPool.submit(GameEvent.countdownUpdate(recipients, "game", 0));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(encodeCount.get(), 1);
+        assertEquals(delivered.size(), 1);
+    }
+
+    @Test
+    public void broadcastsSpectatedEventsOncePerTopic() throws InterruptedException {
+        List<String> recipients = List.of("uuid1", "uuid2", "uuid3");
+        List<String> broadcasts = new CopyOnWriteArrayList<>();
+        List<Integer> broadcastValues = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(100 * recipients.size() + 100);
+        EventSenderPool<Event<?>> senderPool = new EventSenderPool<>(4, 1000, EventSenderPool.OverflowPolicy.BLOCK, event -> event,
+                (recipient, event) -> latch.countDown(),
+                (topic, event) -> {
+                    broadcasts.add(topic);
+                    broadcastValues.add(event.getData(GameEvent.Countdown.class).getCurrentTimerValue());
+                    latch.countDown();
+                });
+        this.senderPool = senderPool;
+        senderPool.start();
+
+        for (int i = 0; i < 100; i++) {
+            senderPool.submit(GameEvent.countdownUpdate(recipients, "game", i));
+        }
+        // only for the player who moved, never broadcast
+        senderPool.submit(GameEvent.displayAuthorMove("uuid1", "game", "uuid1", GameMove.ROCK));
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        senderPool.stop();
+        assertEquals(broadcasts.size(), 100);
+        assertEquals(Set.copyOf(broadcasts), Set.of("game/game"));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(broadcastValues.get(i), i);
+        }
+        assertEquals(senderPool.getDeliveredCount(), 100 * recipients.size() + 100 + 1);
+    }
+}
@@ -1,10 +1,16 @@
 package ad044.orps;
 
+import ad044.orps.model.game.BotPlayer;
+import ad044.orps.model.game.Elimination;
 import ad044.orps.model.game.Game;
 import ad044.orps.model.game.GameMove;
 import ad044.orps.model.game.GameSettings;
 import ad044.orps.model.game.Player;
+import ad044.orps.model.user.BotUserDetails;
 import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.simulation.BotSimulation;
+import ad044.orps.simulation.BotStrategy;
+import ad044.orps.simulation.SimulationReport;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -12,8 +18,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -61,6 +70,25 @@ public class GameLogicTests {
         });
     }
 
+    @Test
+    public void playerListsFollowMembershipChanges() {
+        Player player3 = new Player(new OrpsUserDetails("user3", "uuid3"));
+        game.addPlayer(player3);
+
+        List<String> playerUuids = game.getPlayerUuids();
+        assertEquals(playerUuids, List.of("uuid1", "uuid2", "uuid3"));
+        assertSame(game.getPlayerUuids(), playerUuids);
+        assertEquals(game.getPlayerUuidsExcept("uuid1"), List.of("uuid2", "uuid3"));
+        assertEquals(game.getPlayer("uuid3").orElseThrow(), player3);
+
+        game.removePlayer("uuid2");
+
+        assertEquals(game.getPlayerUuids(), List.of("uuid1", "uuid3"));
+        assertEquals(game.getPlayers().size(), 2);
+        assertFalse(game.hasPlayer("uuid2"));
+        assertEquals(playerUuids, List.of("uuid1", "uuid2", "uuid3"));
+    }
+
     @Test
     public void determineWinnerWorksWithTwoPeople() {
         assertEquals(Game.determineWinner(game.getPlayers()), Optional.empty());
@@ -112,4 +140,163 @@ public class GameLogicTests {
         player4.move = GameMove.PAPER;
         assertTrue(Game.determineWinner(players).isEmpty());
     }
-}
+
+    @Test
+    public void determineWinnerMatchesPairwiseComparison() {
+        Random random = new Random(42);
+        List<GameMove> moves = new ArrayList<>(List.of(GameMove.values()));
+
+        for (int i = 0; i < 100_000; i++) {
+            int playerCount = 1 + random.nextInt(i % 10 == 0 ? 200 : 6);
+            // drawing from a random subset of the moves makes sole winners and all-tie rounds likelier
+            Collections.shuffle(moves, random);
+            int moveCount = 1 + random.nextInt(moves.size());
+            List<Player> players = new ArrayList<>();
+            for (int j = 0; j < playerCount; j++) {
+                Player player = new Player(new OrpsUserDetails("user" + j, "uuid" + j));
+                player.move = moves.get(random.nextInt(moveCount));
+                players.add(player);
+            }
+
+            assertEquals(Game.determineWinner(players), pairwiseWinner(players));
+        }
+    }
+
+    // The original O(n^2) resolution, kept as the reference the counting version has to agree with.
+    private static Optional<Player> pairwiseWinner(List<Player> players) {
+        Player winner = null;
+        for (Player player : players) {
+            boolean beatsAll = players
+                    .stream()
+                    .filter(otherPlayer -> !otherPlayer.getUuid().equals(player.getUuid()))
+                    .allMatch(otherPlayer -> player.move.beats(otherPlayer.move));
+
+            if (beatsAll) {
+                winner = player;
+            }
+        }
+
+        return Optional.ofNullable(winner);
+    }
+
+    private static List<Player> playersWithMoves(GameMove... moves) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < moves.length; i++) {
+            Player player = new Player(new OrpsUserDetails("user" + i, "uuid" + i));
+            player.move = moves[i];
+            players.add(player);
+        }
+        return players;
+    }
+
+    @Test
+    public void eliminationKnocksOutLowestScoringMove() {
+        // rock beats 1 and loses to 1, paper beats 3 and loses to 1, scissors beats 1 and loses to 3
+        List<Player> players = playersWithMoves(GameMove.ROCK, GameMove.ROCK, GameMove.ROCK,
+                GameMove.PAPER, GameMove.SCISSORS);
+
+        Elimination elimination = Elimination.resolve(players);
+
+        assertEquals(elimination.getEliminatedMoves(), List.of(GameMove.SCISSORS));
+        assertEquals(elimination.getEliminatedPlayers(), List.of(players.get(4)));
+
+        // rock and scissors both come out at -1 and go together
+        players = playersWithMoves(GameMove.ROCK, GameMove.ROCK, GameMove.ROCK,
+                GameMove.PAPER, GameMove.PAPER, GameMove.SCISSORS);
+
+        assertEquals(Elimination.resolve(players).getEliminatedMoves(), List.of(GameMove.ROCK, GameMove.SCISSORS));
+    }
+
+    @Test
+    public void eliminationSparesEveryoneWhenBalanced() {
+        assertTrue(Elimination.resolve(playersWithMoves(GameMove.ROCK, GameMove.PAPER, GameMove.SCISSORS))
+                .getEliminatedPlayers().isEmpty());
+        assertTrue(Elimination.resolve(playersWithMoves(GameMove.PAPER, GameMove.PAPER))
+                .getEliminatedPlayers().isEmpty());
+        assertTrue(Elimination.resolve(playersWithMoves(GameMove.NO_MOVE, GameMove.NO_MOVE))
+                .getEliminatedPlayers().isEmpty());
+    }
+
+    @Test
+    public void eliminationKnocksOutMissedMoves() {
+        List<Player> players = playersWithMoves(GameMove.PAPER, GameMove.PAPER, GameMove.NO_MOVE);
+
+        Elimination elimination = Elimination.resolve(players);
+
+        assertEquals(elimination.getEliminatedMoves(), List.of(GameMove.NO_MOVE));
+        assertEquals(elimination.getEliminatedPlayers(), List.of(players.get(2)));
+    }
+
+    @Test
+    public void botSimulationPlaysGamesToTheEnd() {
+        GameSettings settings = new GameSettings(3, 5);
+
+        SimulationReport rockAgainstScissors = new BotSimulation(
+                List.of(BotStrategy.always(GameMove.ROCK), BotStrategy.always(GameMove.SCISSORS)), settings, 100).run(1000);
+        assertEquals(rockAgainstScissors.getGames(), 1000);
+        assertEquals(rockAgainstScissors.getWins(0), 1000);
+        assertEquals(rockAgainstScissors.getRounds(), 5000);
+
+        SimulationReport random = new BotSimulation(
+                List.of(BotStrategy.RANDOM, BotStrategy.RANDOM, BotStrategy.RANDOM), settings, 10_000).run(1000);
+        assertEquals(random.getWins(0) + random.getWins(1) + random.getWins(2), 1000);
+        assertTrue(random.getRounds() >= 5000);
+
+        SimulationReport idle = new BotSimulation(
+                List.of(BotStrategy.always(GameMove.NO_MOVE), BotStrategy.always(GameMove.NO_MOVE)), settings, 100).run(10);
+        assertEquals(idle.getAllInactive(), 10);
+        assertEquals(idle.getRounds(), 10 * 3);
+
+        GameSettings royaleSettings = new GameSettings(3, 5);
+        royaleSettings.setRoyale(true);
+        List<BotStrategy> strategies = Collections.nCopies(50, BotStrategy.RANDOM);
+        SimulationReport royale = new BotSimulation(strategies, royaleSettings, 10_000).run(100);
+        long royaleWins = 0;
+        for (int slot = 0; slot < strategies.size(); slot++) {
+            royaleWins += royale.getWins(slot);
+        }
+        assertEquals(royaleWins, 100);
+    }
+
+    private static List<GameMove> botMoves(long seed, int rounds) {
+        List<Player> bots = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            bots.add(new BotPlayer(new BotUserDetails("seeded" + i)));
+        }
+        Game botGame = new Game(bots, new GameSettings(3, Integer.MAX_VALUE));
+        botGame.setSeed(seed);
+
+        List<GameMove> moves = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            botGame.startNextRound();
+            bots.forEach(bot -> moves.add(bot.move));
+            botGame.finishRound();
+        }
+        return moves;
+    }
+
+    @Test
+    public void sameSeedGivesSameBotMoves() {
+        assertEquals(botMoves(7, 100), botMoves(7, 100));
+        assertNotEquals(botMoves(7, 100), botMoves(8, 100));
+        assertFalse(botMoves(7, 100).contains(GameMove.NO_MOVE));
+    }
+
+    @Test
+    public void seededBotSimulationIsReproducible() {
+        List<BotStrategy> strategies = List.of(BotStrategy.RANDOM, BotStrategy.RANDOM, BotStrategy.RANDOM);
+        BotSimulation simulation = new BotSimulation(strategies, new GameSettings(3, 5), 10_000, 42L);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool several = new ForkJoinPool(3);
+        SimulationReport first = simulation.run(2000, single);
+        SimulationReport second = simulation.run(2000, several);
+        single.shutdown();
+        several.shutdown();
+
+        assertEquals(second.getRounds(), first.getRounds());
+        for (int slot = 0; slot < strategies.size(); slot++) {
+            assertEquals(second.getWins(slot), first.getWins(slot));
+        }
+    }
+}
\ No newline at end of file
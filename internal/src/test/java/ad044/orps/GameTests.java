@@ -1,5 +1,6 @@
 package ad044.orps;
 
+import ad044.orps.dispatcher.ScheduledTimer;
 import ad044.orps.dto.PlayerDTO;
 import ad044.orps.model.ActionHandlerResponse;
 import ad044.orps.model.Category;
@@ -9,10 +10,14 @@ import ad044.orps.model.action.ServerAction;
 import ad044.orps.model.event.ErrorEvent;
 import ad044.orps.model.event.Event;
 import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.BotPlayer;
 import ad044.orps.model.game.Game;
 import ad044.orps.model.game.GameMove;
 import ad044.orps.model.game.GameSettings;
 import ad044.orps.model.game.Player;
+import ad044.orps.model.game.PublishedState;
+import ad044.orps.model.game.RoundDelta;
+import ad044.orps.model.user.BotUserDetails;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.ActionDispatcherService;
 import ad044.orps.service.GameService;
@@ -24,6 +29,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.List;
@@ -66,7 +72,7 @@ public class GameTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(player1.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.GAME_NOT_FOUND);
-        assertEquals(event.getData().get("gameUri"), "test");
+        assertEquals(((ErrorEvent) event).getData().get("gameUri"), "test");
     }
 
     @Test
@@ -81,8 +87,8 @@ public class GameTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(player3.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.PLAYER_NOT_IN_GAME);
-        assertEquals(event.getData().get("gameUri"), game.getUri());
-        assertEquals(event.getData().get("playerUuid"), player3.getUuid());
+        assertEquals(((ErrorEvent) event).getData().get("gameUri"), game.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("playerUuid"), player3.getUuid());
     }
 
     @Test
@@ -103,15 +109,15 @@ public class GameTests {
                 game.getPlayerUuidsExcept(player1.getUuid()));
         assertEquals(playerMadeMoveEvent.getId(), GameEvent.ID.PLAYER_MADE_MOVE);
         assertEquals(playerMadeMoveEvent.getGameUri(), game.getUri());
-        assertEquals(playerMadeMoveEvent.getData().get("playerUuid"), player1.getUuid());
+        assertEquals(playerMadeMoveEvent.getData(GameEvent.PlayerRef.class).getPlayerUuid(), player1.getUuid());
 
         GameEvent displayAuthorMoveEvent = (GameEvent) response.get(1);
         assertEquals(displayAuthorMoveEvent.getCategory(), Category.GAME);
         assertEquals(displayAuthorMoveEvent.getRecipientUuids(), List.of(player1.getUuid()));
         assertEquals(displayAuthorMoveEvent.getId(), GameEvent.ID.DISPLAY_AUTHOR_MOVE);
         assertEquals(displayAuthorMoveEvent.getGameUri(), game.getUri());
-        assertEquals(displayAuthorMoveEvent.getData().get("authorUuid"), player1.getUuid());
-        assertEquals(displayAuthorMoveEvent.getData().get("move"), GameMove.SCISSORS);
+        assertEquals(displayAuthorMoveEvent.getData(GameEvent.AuthorMove.class).getAuthorUuid(), player1.getUuid());
+        assertEquals(displayAuthorMoveEvent.getData(GameEvent.AuthorMove.class).getMove(), GameMove.SCISSORS);
 
         assertEquals(player1.move, GameMove.SCISSORS);
     }
@@ -129,7 +135,7 @@ public class GameTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(player1.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.DATA_FIELD_MISSING);
-        assertEquals(event.getData().get("fieldName"), "move");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "move");
 
         assertEquals(player1.move, GameMove.NO_MOVE);
     }
@@ -147,8 +153,8 @@ public class GameTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(player1.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.INVALID_MOVE);
-        assertEquals(event.getData().get("move"), "invalid");
-        assertEquals(event.getData().get("gameUri"), game.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("move"), "invalid");
+        assertEquals(((ErrorEvent) event).getData().get("gameUri"), game.getUri());
 
         assertEquals(player1.move, GameMove.NO_MOVE);
     }
@@ -165,7 +171,7 @@ public class GameTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(player1.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.ROUND_ALREADY_FINISHED);
-        assertEquals(event.getData().get("gameUri"), game.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("gameUri"), game.getUri());
 
         assertEquals(player1.move, GameMove.NO_MOVE);
     }
@@ -183,14 +189,14 @@ public class GameTests {
         assertEquals(playerLeaveEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(playerLeaveEvent.getId(), GameEvent.ID.PLAYER_LEAVE);
         assertEquals(playerLeaveEvent.getGameUri(), game.getUri());
-        assertEquals(playerLeaveEvent.getData().get("playerUuid"), player1.getUuid());
+        assertEquals(playerLeaveEvent.getData(GameEvent.PlayerRef.class).getPlayerUuid(), player1.getUuid());
 
         GameEvent playerWonGameEvent = (GameEvent) response.get(1);
         assertEquals(playerWonGameEvent.getCategory(), Category.GAME);
         assertEquals(playerWonGameEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(playerWonGameEvent.getId(), GameEvent.ID.PLAYER_WON_GAME);
         assertEquals(playerWonGameEvent.getGameUri(), game.getUri());
-        PlayerDTO winner = (PlayerDTO) playerWonGameEvent.getData().get("gameWinner");
+        PlayerDTO winner = playerWonGameEvent.getData(GameEvent.GameWinner.class).getGameWinner();
 
         assertEquals(winner.getUuid(), player2.getUuid());
 
@@ -211,7 +217,7 @@ public class GameTests {
         assertEquals(playerLeaveEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(playerLeaveEvent.getId(), GameEvent.ID.PLAYER_LEAVE);
         assertEquals(playerLeaveEvent.getGameUri(), game.getUri());
-        assertEquals(playerLeaveEvent.getData().get("playerUuid"), player1.getUuid());
+        assertEquals(playerLeaveEvent.getData(GameEvent.PlayerRef.class).getPlayerUuid(), player1.getUuid());
 
         assertEquals(game.getPlayers().size(), 2);
     }
@@ -248,7 +254,7 @@ public class GameTests {
         assertEquals(roundResultEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(roundResultEvent.getId(), GameEvent.ID.RECEIVE_ROUND_RESULT);
         assertEquals(roundResultEvent.getGameUri(), game.getUri());
-        assertNull(roundResultEvent.getData().get("winner"));
+        assertNull(roundResultEvent.getData(RoundDelta.class).getWinnerUuid());
 
         assertEquals(scheduledActions.size(), 1);
         ScheduledAction scheduledAction = scheduledActions.get(0);
@@ -279,7 +285,7 @@ public class GameTests {
         assertEquals(roundResultEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(roundResultEvent.getId(), GameEvent.ID.RECEIVE_ROUND_RESULT);
         assertEquals(roundResultEvent.getGameUri(), game.getUri());
-        assertEquals(((PlayerDTO) roundResultEvent.getData().get("winner")).getUuid(), player1.getUuid());
+        assertEquals(roundResultEvent.getData(RoundDelta.class).getWinnerUuid(), player1.getUuid());
 
         assertEquals(scheduledActions.size(), 1);
         ScheduledAction scheduledAction = scheduledActions.get(0);
@@ -311,14 +317,14 @@ public class GameTests {
         assertEquals(roundResultEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(roundResultEvent.getId(), GameEvent.ID.RECEIVE_ROUND_RESULT);
         assertEquals(roundResultEvent.getGameUri(), game.getUri());
-        assertEquals(((PlayerDTO) roundResultEvent.getData().get("winner")).getUuid(), player2.getUuid());
+        assertEquals(roundResultEvent.getData(RoundDelta.class).getWinnerUuid(), player2.getUuid());
 
         GameEvent wonGameEvent = (GameEvent) events.get(1);
         assertEquals(wonGameEvent.getCategory(), Category.GAME);
         assertEquals(wonGameEvent.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(wonGameEvent.getId(), GameEvent.ID.PLAYER_WON_GAME);
         assertEquals(wonGameEvent.getGameUri(), game.getUri());
-        assertEquals(((PlayerDTO) wonGameEvent.getData().get("gameWinner")).getUuid(), player2.getUuid());
+        assertEquals(wonGameEvent.getData(GameEvent.GameWinner.class).getGameWinner().getUuid(), player2.getUuid());
 
         assertEquals(scheduledActions.size(), 0);
     }
@@ -344,11 +350,92 @@ public class GameTests {
         assertEquals(event.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(event.getId(), GameEvent.ID.ENDED_PREMATURELY);
         assertEquals(event.getGameUri(), game.getUri());
-        assertEquals(event.getData().get("reason"), "Game ended because all players were inactive.");
+        assertEquals(event.getData(GameEvent.Reason.class).getReason(), "Game ended because all players were inactive.");
 
         assertEquals(scheduledActions.size(), 0);
     }
 
+    @Test
+    public void removingGameCancelsItsScheduledActions() {
+        ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", game.getUri());
+        ServerAction countdownAction = ServerAction.game("UPDATE_COUNTDOWN", game.getUri());
+        ScheduledTimer finishRoundTimer = actionDispatcherService.scheduleAction(ScheduledAction.inMillis(finishRoundAction, 60000));
+        ScheduledTimer countdownTimer = actionDispatcherService.scheduleAction(ScheduledAction.inMillis(countdownAction, 60000));
+
+        gameService.removeGame(game.getUri());
+
+        assertEquals(finishRoundTimer.getState(), ScheduledTimer.State.CANCELLED);
+        assertEquals(countdownTimer.getState(), ScheduledTimer.State.CANCELLED);
+    }
+
+    @Test
+    public void finishesRoundEarlyWhenEveryoneMoved() {
+        game.getSettings().setFinishRoundEarly(true);
+        game.startNextRound();
+
+        Action player1Move = new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "ROCK"), player1);
+        ActionHandlerResponse firstResponse = actionDispatcherService.handleAction(player1Move);
+        assertEquals(firstResponse.getEvents().size(), 2);
+        assertEquals(firstResponse.getScheduledActions().size(), 0);
+        assertFalse(game.isRoundFinished());
+
+        Action player2Move = new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "SCISSORS"), player2);
+        ActionHandlerResponse response = actionDispatcherService.handleAction(player2Move);
+
+        List<Event<?>> events = response.getEvents();
+        assertEquals(events.size(), 3);
+        assertTrue(game.isRoundFinished());
+
+        GameEvent roundResultEvent = (GameEvent) events.get(2);
+        assertEquals(roundResultEvent.getId(), GameEvent.ID.RECEIVE_ROUND_RESULT);
+        assertEquals(roundResultEvent.getData(RoundDelta.class).getWinnerUuid(), player1.getUuid());
+
+        assertEquals(response.getCancelledScheduleKeys(), List.of(game.getUri()));
+        assertEquals(response.getScheduledActions().size(), 1);
+        assertEquals(response.getScheduledActions().get(0).getAction().getIdString(), "START_NEXT_ROUND");
+
+        // a FINISH_ROUND that still gets through must not finish the round a second time
+        ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", game.getUri());
+        ActionHandlerResponse lateResponse = actionDispatcherService.handleAction(finishRoundAction);
+        assertEquals(lateResponse.getEvents().size(), 0);
+        assertEquals(player1.score, 1);
+    }
+
+    @Test
+    public void waitsForTimerWhenFinishRoundEarlyIsOff() {
+        game.startNextRound();
+
+        Action player1Move = new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "ROCK"), player1);
+        Action player2Move = new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "SCISSORS"), player2);
+        actionDispatcherService.handleAction(player1Move);
+        ActionHandlerResponse response = actionDispatcherService.handleAction(player2Move);
+
+        assertEquals(response.getEvents().size(), 2);
+        assertEquals(response.getScheduledActions().size(), 0);
+        assertEquals(response.getCancelledScheduleKeys().size(), 0);
+        assertFalse(game.isRoundFinished());
+    }
+
+    @Test
+    public void finishingRoundEarlyCancelsPendingTimer() throws InterruptedException {
+        game.getSettings().setFinishRoundEarly(true);
+        game.startNextRound();
+        ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", game.getUri());
+        ScheduledTimer finishRoundTimer = actionDispatcherService.scheduleAction(ScheduledAction.inMillis(finishRoundAction, 60000));
+
+        actionDispatcherService.putAction(new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "ROCK"), player1));
+        actionDispatcherService.putAction(new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", "PAPER"), player2));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (finishRoundTimer.getState() == ScheduledTimer.State.PENDING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(finishRoundTimer.getState(), ScheduledTimer.State.CANCELLED);
+        assertEquals(player2.score, 1);
+        gameService.removeGame(game.getUri());
+    }
+
     @Test
     public void updatesCountdown() {
         game.countDownValue = 5;
@@ -368,7 +455,7 @@ public class GameTests {
             assertEquals(event.getRecipientUuids(), game.getPlayerUuids());
             assertEquals(event.getId(), GameEvent.ID.UPDATE_COUNTDOWN);
             assertEquals(event.getGameUri(), game.getUri());
-            assertEquals(event.getData().get("currentTimerValue"), i);
+            assertEquals(event.getData(GameEvent.Countdown.class).getCurrentTimerValue(), i);
 
             assertEquals(game.countDownValue, i - 1);
 
@@ -399,7 +486,7 @@ public class GameTests {
         assertEquals(event.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(event.getId(), GameEvent.ID.UPDATE_COUNTDOWN);
         assertEquals(event.getGameUri(), game.getUri());
-        assertEquals(event.getData().get("currentTimerValue"), -1);
+        assertEquals(event.getData(GameEvent.Countdown.class).getCurrentTimerValue(), -1);
 
         assertEquals(scheduledActions.size(), 1);
         ScheduledAction scheduledAction = scheduledActions.get(0);
@@ -426,8 +513,8 @@ public class GameTests {
         assertEquals(event.getRecipientUuids(), game.getPlayerUuids());
         assertEquals(event.getId(), GameEvent.ID.START_NEXT_ROUND);
         assertEquals(event.getGameUri(), game.getUri());
-        assertEquals(event.getData().get("timeToPick"), game.getSettings().getTimeForMove());
-        assertEquals(event.getData().get("roundNumber"), 1);
+        assertEquals(event.getData(GameEvent.RoundStart.class).getTimeToPick(), game.getSettings().getTimeForMove());
+        assertEquals(event.getData(GameEvent.RoundStart.class).getRoundNumber(), 1);
 
         assertEquals(scheduledActions.size(), 1);
         ScheduledAction scheduledAction = scheduledActions.get(0);
@@ -436,4 +523,324 @@ public class GameTests {
         assertEquals(scheduledAction.getAction().getCategory(), Category.GAME);
         assertEquals(scheduledAction.getAction().getIdString(), "FINISH_ROUND");
     }
+
+    @Test
+    public void findsGamesWithUser() {
+        Player player3 = new Player(new OrpsUserDetails("player3", "findsGamesUuid3"));
+        Player player4 = new Player(new OrpsUserDetails("player4", "findsGamesUuid4"));
+        Game otherGame = gameService.createGame(List.of(player3, player4), new GameSettings(3, 5));
+
+        assertEquals(gameService.getAllGamesWithUser(player3.getUuid()), List.of(otherGame));
+
+        otherGame.removePlayer(player3.getUuid());
+        assertTrue(gameService.getAllGamesWithUser(player3.getUuid()).isEmpty());
+
+        gameService.removeGame(otherGame.getUri());
+        assertTrue(gameService.getAllGamesWithUser(player4.getUuid()).isEmpty());
+    }
+
+    @Test
+    public void fastForwardsGameWhenOnlyBotsAreLeft() {
+        BotPlayer bot1 = new BotPlayer(new BotUserDetails("fastForward1"));
+        BotPlayer bot2 = new BotPlayer(new BotUserDetails("fastForward2"));
+        Game botGame = gameService.createGame(List.of(player1, bot1, bot2), new GameSettings(3, 5));
+
+        Action action = new Action("PLAYER_LEAVE", Category.GAME, Map.of("gameUri", botGame.getUri()), player1);
+        List<Event<?>> response = actionDispatcherService.handleAction(action).getEvents();
+
+        assertTrue(response.isEmpty());
+        assertTrue(gameService.getGame(botGame.getUri()).isEmpty());
+        assertTrue(botGame.isFinished());
+        assertEquals(Math.max(bot1.score, bot2.score), 5);
+    }
+
+    @Test
+    public void settlesBotOnlyGameAtItsFirstAction() {
+        BotPlayer bot1 = new BotPlayer(new BotUserDetails("botOnly1"));
+        BotPlayer bot2 = new BotPlayer(new BotUserDetails("botOnly2"));
+        Game botGame = gameService.createGame(List.of(bot1, bot2), new GameSettings(3, 5));
+
+        ActionHandlerResponse response = actionDispatcherService.handleAction(ServerAction.game("START_NEXT_ROUND", botGame.getUri()));
+
+        assertTrue(response.getEvents().isEmpty());
+        assertTrue(response.getScheduledActions().isEmpty());
+        assertTrue(gameService.getGame(botGame.getUri()).isEmpty());
+        assertTrue(botGame.isFinished());
+    }
+
+    @Test
+    public void kickingLastHumanDoesntScheduleNextRound() {
+        BotPlayer bot = new BotPlayer(new BotUserDetails("kickLastHuman"));
+        Game botGame = gameService.createGame(List.of(player1, bot), new GameSettings(3, 5));
+
+        ActionHandlerResponse response = null;
+        for (int round = 0; round < botGame.MISSED_MOVE_THRESHOLD; round++) {
+            actionDispatcherService.handleAction(ServerAction.game("START_NEXT_ROUND", botGame.getUri()));
+            response = actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", botGame.getUri()));
+        }
+
+        assertTrue(response.getScheduledActions().isEmpty());
+        assertTrue(response.getEvents().stream().anyMatch(event -> event.getId() == GameEvent.ID.GOT_KICKED));
+        assertTrue(gameService.getGame(botGame.getUri()).isEmpty());
+        assertEquals(bot.score, 5);
+    }
+
+    private Game createRoyaleGame(Player... players) {
+        GameSettings settings = new GameSettings(3, 5);
+        settings.setRoyale(true);
+        return gameService.createGame(List.of(players), settings);
+    }
+
+    @Test
+    public void royaleEliminatesLosingMove() {
+        Player player3 = new Player(new OrpsUserDetails("player3", "player3uuid"));
+        Player player4 = new Player(new OrpsUserDetails("player4", "player4uuid"));
+        Game royaleGame = createRoyaleGame(player1, player2, player3, player4);
+        royaleGame.startNextRound();
+
+        player1.move = GameMove.ROCK;
+        player2.move = GameMove.ROCK;
+        player3.move = GameMove.SCISSORS;
+
+        ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", royaleGame.getUri());
+        ActionHandlerResponse response = actionDispatcherService.handleAction(finishRoundAction);
+
+        List<Event<?>> events = response.getEvents();
+        assertEquals(events.size(), 2);
+
+        GameEvent resultEvent = (GameEvent) events.get(0);
+        assertEquals(resultEvent.getRecipientUuids(), royaleGame.getPlayerUuids());
+        assertEquals(resultEvent.getId(), GameEvent.ID.RECEIVE_ELIMINATION_RESULT);
+        GameEvent.EliminationResult result = resultEvent.getData(GameEvent.EliminationResult.class);
+        assertEquals(result.getRocks(), 2);
+        assertEquals(result.getScissors(), 1);
+        assertEquals(result.getMissed(), 1);
+        assertEquals(result.getEliminatedMoves(), List.of(GameMove.SCISSORS, GameMove.NO_MOVE));
+        assertEquals(result.getRemainingPlayers(), 2);
+
+        GameEvent eliminatedEvent = (GameEvent) events.get(1);
+        assertEquals(eliminatedEvent.getRecipientUuids(), List.of(player3.getUuid(), player4.getUuid()));
+        assertEquals(eliminatedEvent.getId(), GameEvent.ID.ELIMINATED);
+
+        assertFalse(player1.eliminated);
+        assertFalse(player2.eliminated);
+        assertTrue(player3.eliminated);
+        assertTrue(player4.eliminated);
+        assertFalse(royaleGame.isFinished());
+        assertEquals(response.getScheduledActions().get(0).getAction().getIdString(), "START_NEXT_ROUND");
+    }
+
+    @Test
+    public void royaleFinishesWhenOnePlayerIsLeft() {
+        Player player3 = new Player(new OrpsUserDetails("player3", "player3uuid"));
+        Game royaleGame = createRoyaleGame(player1, player2, player3);
+        player3.eliminated = true;
+        royaleGame.startNextRound();
+
+        player1.move = GameMove.PAPER;
+        player2.move = GameMove.ROCK;
+
+        ServerAction finishRoundAction = ServerAction.game("FINISH_ROUND", royaleGame.getUri());
+        ActionHandlerResponse response = actionDispatcherService.handleAction(finishRoundAction);
+
+        List<Event<?>> events = response.getEvents();
+        assertEquals(events.size(), 3);
+        assertEquals(events.get(1).getRecipientUuids(), List.of(player2.getUuid()));
+
+        GameEvent wonGameEvent = (GameEvent) events.get(2);
+        assertEquals(wonGameEvent.getRecipientUuids(), royaleGame.getPlayerUuids());
+        assertEquals(wonGameEvent.getId(), GameEvent.ID.PLAYER_WON_GAME);
+        assertEquals(wonGameEvent.getData(GameEvent.GameWinner.class).getGameWinner().getUuid(), player1.getUuid());
+
+        assertTrue(royaleGame.isFinished());
+        assertEquals(response.getScheduledActions().size(), 0);
+        assertTrue(gameService.getGame(royaleGame.getUri()).isEmpty());
+    }
+
+    @Test
+    public void royaleOnlyTellsTheAuthorAboutTheirMove() {
+        Game royaleGame = createRoyaleGame(player1, player2);
+        royaleGame.startNextRound();
+
+        Map<String, String> data = Map.of("gameUri", royaleGame.getUri(), "move", "PAPER");
+        List<Event<?>> events = actionDispatcherService.handleAction(new Action("SUBMIT_MOVE", Category.GAME, data, player1)).getEvents();
+
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getId(), GameEvent.ID.DISPLAY_AUTHOR_MOVE);
+        assertEquals(events.get(0).getRecipientUuids(), List.of(player1.getUuid()));
+    }
+
+    @Test
+    public void royaleRejectsMovesFromEliminatedPlayers() {
+        Player player3 = new Player(new OrpsUserDetails("player3", "player3uuid"));
+        Game royaleGame = createRoyaleGame(player1, player2, player3);
+        player3.eliminated = true;
+        royaleGame.startNextRound();
+
+        Map<String, String> data = Map.of("gameUri", royaleGame.getUri(), "move", "ROCK");
+        List<Event<?>> events = actionDispatcherService.handleAction(new Action("SUBMIT_MOVE", Category.GAME, data, player3)).getEvents();
+
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getId(), ErrorEvent.ID.PLAYER_ELIMINATED);
+        assertEquals(player3.move, GameMove.NO_MOVE);
+    }
+
+    @Test
+    public void spectatorGetsGameDataWithoutJoining() {
+        game.startNextRound();
+        OrpsUserDetails spectator = new OrpsUserDetails("spectator", "spectatorUuid");
+        Action action = new Action("SPECTATE", Category.GAME, Map.of("gameUri", game.getUri()), spectator);
+
+        List<Event<?>> events = actionDispatcherService.handleAction(action).getEvents();
+        assertEquals(events.size(), 1);
+
+        GameEvent event = (GameEvent) events.get(0);
+        assertEquals(event.getId(), GameEvent.ID.RECEIVE_GAME_DATA);
+        assertEquals(event.getRecipientUuids(), List.of(spectator.getUuid()));
+        assertEquals(event.getData(GameEvent.GameData.class).getGameData().getUri(), game.getUri());
+        assertEquals(event.getData(GameEvent.GameData.class).getRoundNumber(), 1);
+        assertTrue(event.getSpectatorTopic().isEmpty());
+        assertFalse(game.getPlayer(spectator.getUuid()).isPresent());
+    }
+
+    @Test
+    public void onlyPublicGameEventsGoToSpectators() {
+        game.startNextRound();
+        Map<String, String> data = Map.of("gameUri", game.getUri(), "move", "ROCK");
+        List<Event<?>> events = actionDispatcherService.handleAction(new Action("SUBMIT_MOVE", Category.GAME, data, player1)).getEvents();
+
+        // everyone sees that player1 moved, but not what the move was
+        assertEquals(events.get(0).getId(), GameEvent.ID.PLAYER_MADE_MOVE);
+        assertEquals(events.get(0).getSpectatorTopic().orElseThrow(), "game/" + game.getUri());
+        assertEquals(events.get(1).getId(), GameEvent.ID.DISPLAY_AUTHOR_MOVE);
+        assertTrue(events.get(1).getSpectatorTopic().isEmpty());
+
+        GameEvent roundResult = (GameEvent) actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri())).getEvents().get(0);
+        assertEquals(roundResult.getId(), GameEvent.ID.RECEIVE_ROUND_RESULT);
+        assertEquals(roundResult.getSpectatorTopic().orElseThrow(), "game/" + game.getUri());
+    }
+
+    @Test
+    public void roundResultsOnlyCarryScoresThatChanged() {
+        game.startNextRound();
+        player1.move = GameMove.ROCK;
+        player2.move = GameMove.SCISSORS;
+        RoundDelta delta = actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()))
+                .getEvents().get(0).getData(RoundDelta.class);
+
+        assertEquals(delta.getBaseVersion(), 0);
+        assertEquals(delta.getVersion(), 1);
+        assertEquals(delta.getWinnerUuid(), player1.getUuid());
+        assertEquals(delta.getChanges().size(), 2);
+        assertEquals(delta.getChanges().get(0).getIndex(), 0);
+        assertEquals(delta.getChanges().get(0).getScore(), 1);
+        assertEquals(delta.getChanges().get(0).getMove(), GameMove.ROCK);
+        assertEquals(delta.getChanges().get(1).getIndex(), 1);
+        assertNull(delta.getChanges().get(1).getScore());
+        assertEquals(delta.getChanges().get(1).getMove(), GameMove.SCISSORS);
+
+        // nobody scores, the moves still all go out
+        game.startNextRound();
+        player1.move = GameMove.ROCK;
+        player2.move = GameMove.ROCK;
+        game.addPlayer(new Player(new OrpsUserDetails("player3", "deltaPlayer3")));
+        delta = actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()))
+                .getEvents().get(0).getData(RoundDelta.class);
+
+        assertEquals(delta.getBaseVersion(), 1);
+        assertEquals(delta.getVersion(), 2);
+        assertNull(delta.getWinnerUuid());
+        assertEquals(delta.getChanges().size(), 2);
+        assertNull(delta.getChanges().get(0).getScore());
+        assertEquals(delta.getChanges().get(0).getMove(), GameMove.ROCK);
+        assertNull(delta.getChanges().get(1).getScore());
+        assertEquals(delta.getChanges().get(1).getMove(), GameMove.ROCK);
+        assertEquals(delta.getAddedPlayers().size(), 1);
+        assertEquals(delta.getAddedPlayers().get(0).getUuid(), "deltaPlayer3");
+        assertTrue(delta.getRemovedPlayers().isEmpty());
+
+        game.removePlayer(player1.getUuid());
+        game.startNextRound();
+        delta = game.publishRoundResult();
+        assertEquals(delta.getRemovedPlayers(), List.of(player1.getUuid()));
+    }
+
+    // what the client's reducer does with a round result
+    private static List<String> applyDelta(List<String> uuids, RoundDelta delta) {
+        List<String> applied = new ArrayList<>(uuids);
+        applied.removeAll(delta.getRemovedPlayers());
+        delta.getAddedPlayers().forEach(player -> applied.add(player.getUuid()));
+        delta.getChanges().forEach(change -> assertTrue(change.getIndex() < applied.size()));
+        return applied;
+    }
+
+    @Test
+    public void roundResultIndicesPointIntoTheListAfterRemovals() {
+        game.addPlayer(new Player(new OrpsUserDetails("player3", "indexPlayer3")));
+        game.startNextRound();
+        game.publishRoundResult();
+        List<String> clientUuids = game.getPublishedState().getPlayers()
+                .stream().map(PublishedState.PlayerState::getUuid).collect(Collectors.toList());
+
+        // the first player leaves and a new one joins in the same round
+        game.removePlayer(player1.getUuid());
+        game.addPlayer(new Player(new OrpsUserDetails("player4", "indexPlayer4")));
+        game.startNextRound();
+        player2.move = GameMove.PAPER;
+        game.getPlayer("indexPlayer3").orElseThrow().move = GameMove.ROCK;
+        game.finishRound();
+        RoundDelta delta = game.publishRoundResult();
+
+        clientUuids = applyDelta(clientUuids, delta);
+        List<PublishedState.PlayerState> published = game.getPublishedState().getPlayers();
+        assertEquals(clientUuids, published.stream().map(PublishedState.PlayerState::getUuid).collect(Collectors.toList()));
+        assertEquals(clientUuids, List.of(player2.getUuid(), "indexPlayer3", "indexPlayer4"));
+
+        assertEquals(delta.getChanges().size(), 2);
+        assertEquals(clientUuids.get(delta.getChanges().get(0).getIndex()), player2.getUuid());
+        assertEquals(delta.getChanges().get(0).getScore(), 1);
+        assertEquals(delta.getChanges().get(0).getMove(), GameMove.PAPER);
+        assertEquals(clientUuids.get(delta.getChanges().get(1).getIndex()), "indexPlayer3");
+        assertEquals(delta.getChanges().get(1).getMove(), GameMove.ROCK);
+    }
+
+    @Test
+    public void repeatedMoveIsSentInEveryRoundResult() {
+        for (int round = 1; round <= 2; round++) {
+            game.startNextRound();
+            player1.move = GameMove.PAPER;
+            player2.move = GameMove.ROCK;
+            RoundDelta delta = actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()))
+                    .getEvents().get(0).getData(RoundDelta.class);
+
+            assertEquals(delta.getChanges().size(), 2);
+            assertEquals(delta.getChanges().get(0).getScore(), round);
+            assertEquals(delta.getChanges().get(0).getMove(), GameMove.PAPER);
+            assertEquals(delta.getChanges().get(1).getMove(), GameMove.ROCK);
+        }
+    }
+
+    @Test
+    public void syncStateSendsThePublishedStateNotTheLiveOne() {
+        game.startNextRound();
+        player1.move = GameMove.ROCK;
+        actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()));
+
+        game.startNextRound();
+        Map<String, String> data = Map.of("gameUri", game.getUri(), "move", "PAPER");
+        actionDispatcherService.handleAction(new Action("SUBMIT_MOVE", Category.GAME, data, player1));
+
+        Action sync = new Action("SYNC_STATE", Category.GAME, Map.of("gameUri", game.getUri()), player2);
+        GameEvent event = (GameEvent) actionDispatcherService.handleAction(sync).getEvents().get(0);
+        assertEquals(event.getId(), GameEvent.ID.RECEIVE_GAME_DATA);
+        assertEquals(event.getRecipientUuids(), List.of(player2.getUuid()));
+
+        GameEvent.GameData gameData = event.getData(GameEvent.GameData.class);
+        assertEquals(gameData.getVersion(), 1);
+        assertEquals(gameData.getRoundNumber(), 2);
+        PlayerDTO player1Data = gameData.getGameData().getPlayers().get(0);
+        assertEquals(player1Data.getScore(), 1);
+        // the move player1 made this round stays hidden
+        assertEquals(player1Data.getMove(), GameMove.ROCK);
+    }
 }
@@ -42,7 +42,7 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.GENERAL);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), GeneralEvent.ID.CREATED_LOBBY);
-        assertTrue(event.getData().get("lobbyData") instanceof LobbyDTO);
+        assertTrue(event.getData(GeneralEvent.LobbyData.class).getLobbyData() instanceof LobbyDTO);
     }
 
     @Test
@@ -57,8 +57,8 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.GENERAL);
         assertEquals(event.getRecipientUuids().stream().distinct().collect(Collectors.toList()), List.of(author.getUuid()));
         assertEquals(event.getId(), GeneralEvent.ID.USER_CHANGED_NAME);
-        assertEquals(event.getData().get("userUuid"), author.getUuid());
-        assertEquals(event.getData().get("newName"), "testname");
+        assertEquals(event.getData(GeneralEvent.NameChange.class).getUserUuid(), author.getUuid());
+        assertEquals(event.getData(GeneralEvent.NameChange.class).getNewName(), "testname");
 
         assertEquals(author.getUsername(), "testname");
     }
@@ -74,7 +74,7 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.DATA_FIELD_MISSING);
-        assertEquals(event.getData().get("fieldName"), "newName");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "newName");
     }
 
     @Test
@@ -88,8 +88,8 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.NAME_NOT_ACCEPTED);
-        assertEquals(event.getData().get("triedName"), "::::");
-        assertEquals(event.getData().get("reason"), "Name must be alphanumeric.");
+        assertEquals(((ErrorEvent) event).getData().get("triedName"), "::::");
+        assertEquals(((ErrorEvent) event).getData().get("reason"), "Name must be alphanumeric.");
     }
 
     @Test
@@ -104,8 +104,8 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.NAME_NOT_ACCEPTED);
-        assertEquals(event.getData().get("triedName"), tooLongName);
-        assertEquals(event.getData().get("reason"), "Name length must be >= 3 and <= 16");
+        assertEquals(((ErrorEvent) event).getData().get("triedName"), tooLongName);
+        assertEquals(((ErrorEvent) event).getData().get("reason"), "Name length must be >= 3 and <= 16");
     }
 
     @Test
@@ -120,7 +120,7 @@ public class GeneralActionTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), List.of(author.getUuid()));
         assertEquals(event.getId(), ErrorEvent.ID.NAME_NOT_ACCEPTED);
-        assertEquals(event.getData().get("triedName"), tooShortName);
-        assertEquals(event.getData().get("reason"), "Name length must be >= 3 and <= 16");
+        assertEquals(((ErrorEvent) event).getData().get("triedName"), tooShortName);
+        assertEquals(((ErrorEvent) event).getData().get("reason"), "Name length must be >= 3 and <= 16");
     }
 }
@@ -8,12 +8,15 @@ import ad044.orps.model.Category;
 import ad044.orps.model.action.Action;
 import ad044.orps.model.action.ScheduledAction;
 import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.event.ErrorEvent;
 import ad044.orps.model.event.Event;
 import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.game.Game;
 import ad044.orps.model.lobby.Lobby;
 import ad044.orps.model.event.Event;
 import ad044.orps.model.user.OrpsUserDetails;
 import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.GameService;
 import ad044.orps.service.LobbyService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,13 +24,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
+@ActiveProfiles("test")
 public class LobbyTests {
     Logger logger = LoggerFactory.getLogger(LobbyTests.class);
 
@@ -40,6 +46,9 @@ public class LobbyTests {
     @Autowired
     LobbyService lobbyService;
 
+    @Autowired
+    GameService gameService;
+
     @BeforeEach
     public void reinitialize() {
         this.lobbyOwner = new OrpsUserDetails("user1", "uuid1");
@@ -57,7 +66,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), "test");
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), "test");
     }
 
     @Test
@@ -71,8 +80,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.LOBBY);
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.MEMBER_JOIN);
-        assertTrue(((UserDTO) event.getData().get("memberData")).getUsername().startsWith("Bot"));
-        assertTrue(((UserDTO) event.getData().get("memberData")).getUuid().startsWith("Bot"));
+        assertTrue(event.getData(LobbyEvent.MemberData.class).getMemberData().getUsername().startsWith("Bot"));
+        assertTrue(event.getData(LobbyEvent.MemberData.class).getMemberData().getUuid().startsWith("Bot"));
         assertEquals(event.getLobbyUri(), lobby.getUri());
     }
 
@@ -88,7 +97,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(nonOwnerUser.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -103,8 +112,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.LOBBY);
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.NEW_TEXT_MESSAGE);
-        assertEquals(event.getData().get("messageContent"), "test");
-        assertEquals(((UserDTO) event.getData().get("messageAuthor")).getUuid(), lobbyOwner.getUuid());
+        assertEquals(event.getData(LobbyEvent.TextMessage.class).getMessageContent(), "test");
+        assertEquals(event.getData(LobbyEvent.TextMessage.class).getMessageAuthor().getUuid(), lobbyOwner.getUuid());
         assertEquals(event.getLobbyUri(), lobby.getUri());
     }
 
@@ -122,8 +131,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.LOBBY);
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.NEW_TEXT_MESSAGE);
-        assertEquals(event.getData().get("messageContent"), "test");
-        assertEquals(((UserDTO) event.getData().get("messageAuthor")).getUuid(), nonOwnerUser.getUuid());
+        assertEquals(event.getData(LobbyEvent.TextMessage.class).getMessageContent(), "test");
+        assertEquals(event.getData(LobbyEvent.TextMessage.class).getMessageAuthor().getUuid(), nonOwnerUser.getUuid());
         assertEquals(event.getLobbyUri(), lobby.getUri());
     }
 
@@ -140,7 +149,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(nonOwnerUser.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -155,7 +164,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "messageContent");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "messageContent");
     }
 
     @Test
@@ -170,8 +179,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("reason"), "Message can't be empty.");
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("reason"), "Message can't be empty.");
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -192,13 +201,13 @@ public class LobbyTests {
                 .collect(Collectors.toList()));
         assertEquals(joinEvent.getId(), LobbyEvent.ID.MEMBER_JOIN);
         assertEquals(joinEvent.getLobbyUri(), lobby.getUri());
-        assertEquals(((UserDTO) (joinEvent.getData().get("memberData"))).getUuid(), newUser.getUuid());
+        assertEquals(joinEvent.getData(LobbyEvent.MemberData.class).getMemberData().getUuid(), newUser.getUuid());
 
         LobbyEvent receiveLobbyDataEvent = (LobbyEvent) events.get(1);
         assertEquals(receiveLobbyDataEvent.getCategory(), Category.LOBBY);
         assertEquals(receiveLobbyDataEvent.getRecipientUuids(), Collections.singletonList(newUser.getUuid()));
         assertEquals(receiveLobbyDataEvent.getId(), LobbyEvent.ID.RECEIVE_LOBBY_DATA);
-        LobbyDTO lobbyData = (LobbyDTO) receiveLobbyDataEvent.getData().get("lobbyData");
+        LobbyDTO lobbyData = receiveLobbyDataEvent.getData(LobbyEvent.LobbyData.class).getLobbyData();
         assertEquals(lobbyData.getUri(), lobby.getUri());
 
         assertEquals(lobby.getMembers().size(), 2);
@@ -234,14 +243,14 @@ public class LobbyTests {
         assertEquals(ownerUpdatedEvent.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(ownerUpdatedEvent.getId(), LobbyEvent.ID.OWNER_UPDATED);
         assertEquals(ownerUpdatedEvent.getLobbyUri(), lobby.getUri());
-        assertEquals(ownerUpdatedEvent.getData().get("newOwnerUuid"), newUser.getUuid());
+        assertEquals(ownerUpdatedEvent.getData(LobbyEvent.OwnerUpdate.class).getNewOwnerUuid(), newUser.getUuid());
 
         LobbyEvent memberLeaveEvent = (LobbyEvent) events.get(1);
         assertEquals(memberLeaveEvent.getCategory(), Category.LOBBY);
         assertEquals(memberLeaveEvent.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(memberLeaveEvent.getId(), LobbyEvent.ID.MEMBER_LEAVE);
         assertEquals(memberLeaveEvent.getLobbyUri(), lobby.getUri());
-        assertEquals(memberLeaveEvent.getData().get("memberUuid"), lobbyOwner.getUuid());
+        assertEquals(memberLeaveEvent.getData(LobbyEvent.MemberRef.class).getMemberUuid(), lobbyOwner.getUuid());
 
         assertEquals(lobby.getMembers().size(), 1);
     }
@@ -268,7 +277,7 @@ public class LobbyTests {
                 .collect(Collectors.toList()));
         assertEquals(memberKickEvent.getId(), LobbyEvent.ID.MEMBER_KICK);
         assertEquals(memberKickEvent.getLobbyUri(), lobby.getUri());
-        assertEquals(memberKickEvent.getData().get("memberUuid"), "randomuuid");
+        assertEquals(memberKickEvent.getData(LobbyEvent.MemberRef.class).getMemberUuid(), "randomuuid");
 
         LobbyEvent gotKickedEvent = (LobbyEvent) events.get(1);
         assertEquals(gotKickedEvent.getCategory(), Category.LOBBY);
@@ -297,7 +306,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(newUser.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
 
         assertEquals(lobby.getMembers().size(), 2);
     }
@@ -315,8 +324,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
-        assertEquals(event.getData().get("userUuid"), "nonexistantuuid");
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("userUuid"), "nonexistantuuid");
     }
 
     @Test
@@ -332,7 +341,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "memberToKickUuid");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "memberToKickUuid");
     }
 
     @Test
@@ -354,7 +363,8 @@ public class LobbyTests {
         assertEquals(gameCreatedEvent.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(gameCreatedEvent.getId(), LobbyEvent.ID.CREATED_GAME);
         assertEquals(gameCreatedEvent.getLobbyUri(), lobby.getUri());
-        GameDTO gameDTO = (GameDTO) gameCreatedEvent.getData().get("gameData");
+        GameDTO gameDTO = gameCreatedEvent.getData(LobbyEvent.GameData.class).getGameData();
+        assertNull(gameCreatedEvent.getData(LobbyEvent.GameData.class).getCountdownDeadline());
 
         List<ScheduledAction> scheduledActions = response.getScheduledActions();
 
@@ -382,7 +392,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -403,7 +413,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -423,7 +433,43 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(newUser.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
+    }
+
+    @Test
+    public void updatingSettingsLeavesRunningGameAlone() {
+        lobby.addMember(new OrpsUserDetails("user1", "settingsCopyUuid"));
+        Action start = new Action("START_GAME", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), lobbyOwner);
+        String gameUri = actionDispatcherService.handleAction(start).getEvents().get(0)
+                .getData(LobbyEvent.GameData.class).getGameData().getUri();
+        Game game = gameService.getGame(gameUri).orElseThrow();
+
+        Map<String, String> royale = Map.of("lobbyUri", lobby.getUri(), "settingName", "royale", "settingValue", "true");
+        actionDispatcherService.handleAction(new Action("UPDATE_SETTINGS", Category.LOBBY, royale, lobbyOwner));
+        Map<String, String> scoreGoal = Map.of("lobbyUri", lobby.getUri(), "settingName", "scoreGoal", "settingValue", "7");
+        actionDispatcherService.handleAction(new Action("UPDATE_SETTINGS", Category.LOBBY, scoreGoal, lobbyOwner));
+
+        assertTrue(lobby.getSettings().isRoyale());
+        assertEquals(lobby.getSettings().getScoreGoal(), 7);
+        assertFalse(game.getSettings().isRoyale());
+        assertEquals(game.getSettings().getScoreGoal(), 5);
+    }
+
+    @Test
+    public void lobbyDataKeepsTheSettingsItWasBuiltWith() {
+        Action spectate = new Action("SPECTATE", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), lobbyOwner);
+        LobbyDTO lobbyData = actionDispatcherService.handleAction(spectate).getEvents().get(0)
+                .getData(LobbyEvent.LobbyData.class).getLobbyData();
+
+        // encoded later on a sender thread, after the lobby's lane moved on
+        Map<String, String> inviteOnly = Map.of("lobbyUri", lobby.getUri(), "settingName", "inviteOnly", "settingValue", "false");
+        actionDispatcherService.handleAction(new Action("UPDATE_SETTINGS", Category.LOBBY, inviteOnly, lobbyOwner));
+        Map<String, String> timeForMove = Map.of("lobbyUri", lobby.getUri(), "settingName", "timeForMove", "settingValue", "9");
+        actionDispatcherService.handleAction(new Action("UPDATE_SETTINGS", Category.LOBBY, timeForMove, lobbyOwner));
+
+        assertNotSame(lobbyData.getSettings(), lobby.getSettings());
+        assertTrue(lobbyData.getSettings().isInviteOnly());
+        assertEquals(lobbyData.getSettings().getTimeForMove(), 3);
     }
 
     @Test
@@ -440,12 +486,49 @@ public class LobbyTests {
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.SETTINGS_UPDATED);
         assertEquals(event.getLobbyUri(), lobby.getUri());
-        assertEquals(event.getData().get("settingName"), "inviteOnly");
-        assertEquals(event.getData().get("settingValue"), "true");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingName(), "inviteOnly");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingValue(), "true");
 
         assertTrue(lobby.getSettings().isInviteOnly());
     }
 
+    @Test
+    public void updatesSettingsFinishRoundEarly() {
+        Map<String, String> data = Map.of("lobbyUri", lobby.getUri(), "settingName", "finishRoundEarly", "settingValue", "true");
+        Action action = new Action("UPDATE_SETTINGS", Category.LOBBY, data, lobbyOwner);
+
+        List<Event<?>> events = actionDispatcherService.handleAction(action).getEvents();
+
+        assertEquals(events.size(), 1);
+
+        LobbyEvent event = (LobbyEvent) events.get(0);
+        assertEquals(event.getCategory(), Category.LOBBY);
+        assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
+        assertEquals(event.getId(), LobbyEvent.ID.SETTINGS_UPDATED);
+        assertEquals(event.getLobbyUri(), lobby.getUri());
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingName(), "finishRoundEarly");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingValue(), "true");
+
+        assertTrue(lobby.getSettings().isFinishRoundEarly());
+    }
+
+    @Test
+    public void updatesSettingsRoyale() {
+        Map<String, String> data = Map.of("lobbyUri", lobby.getUri(), "settingName", "royale", "settingValue", "true");
+        Action action = new Action("UPDATE_SETTINGS", Category.LOBBY, data, lobbyOwner);
+
+        List<Event<?>> events = actionDispatcherService.handleAction(action).getEvents();
+
+        assertEquals(events.size(), 1);
+
+        LobbyEvent event = (LobbyEvent) events.get(0);
+        assertEquals(event.getId(), LobbyEvent.ID.SETTINGS_UPDATED);
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingName(), "royale");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingValue(), "true");
+
+        assertTrue(lobby.getSettings().isRoyale());
+    }
+
     @Test
     public void updatesSettingsTimeForMove() {
         Map<String, String> data = Map.of("lobbyUri", lobby.getUri(), "settingName", "timeForMove", "settingValue", "10");
@@ -460,8 +543,8 @@ public class LobbyTests {
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.SETTINGS_UPDATED);
         assertEquals(event.getLobbyUri(), lobby.getUri());
-        assertEquals(event.getData().get("settingName"), "timeForMove");
-        assertEquals(event.getData().get("settingValue"), "10");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingName(), "timeForMove");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingValue(), "10");
 
         assertEquals(lobby.getSettings().getTimeForMove(), 10);
     }
@@ -480,8 +563,8 @@ public class LobbyTests {
         assertEquals(event.getRecipientUuids(), lobby.getMembers().stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList()));
         assertEquals(event.getId(), LobbyEvent.ID.SETTINGS_UPDATED);
         assertEquals(event.getLobbyUri(), lobby.getUri());
-        assertEquals(event.getData().get("settingName"), "scoreGoal");
-        assertEquals(event.getData().get("settingValue"), "44");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingName(), "scoreGoal");
+        assertEquals(event.getData(LobbyEvent.SettingUpdate.class).getSettingValue(), "44");
 
         assertEquals(lobby.getSettings().getScoreGoal(), 44);
     }
@@ -499,7 +582,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "settingName");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "settingName");
     }
 
     @Test
@@ -515,7 +598,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "settingValue");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "settingValue");
     }
 
 
@@ -533,7 +616,7 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(newUser.getUuid()));
 
-        assertEquals(event.getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event).getData().get("lobbyUri"), lobby.getUri());
     }
 
     @Test
@@ -549,8 +632,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "inviteOnly");
-        assertEquals(event.getData().get("expectedType"), "boolean string (\"true\" or \"false\")");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "inviteOnly");
+        assertEquals(((ErrorEvent) event).getData().get("expectedType"), "boolean string (\"true\" or \"false\")");
     }
 
     @Test
@@ -567,8 +650,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "timeForMove");
-        assertEquals(event.getData().get("expectedType"), "unsigned int");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "timeForMove");
+        assertEquals(((ErrorEvent) event).getData().get("expectedType"), "unsigned int");
 
         // UNDER THE MINIMUM VALUE
         Map<String, String> data2 = Map.of("lobbyUri", lobby.getUri(), "settingName", "timeForMove", "settingValue", "2");
@@ -582,8 +665,8 @@ public class LobbyTests {
         assertEquals(event2.getCategory(), Category.ERROR);
         assertEquals(event2.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event2.getData().get("lobbyUri"), lobby.getUri());
-        assertEquals(event2.getData().get("message"), "Time for move value must be in range 3 <= n <= 10");
+        assertEquals(((ErrorEvent) event2).getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event2).getData().get("message"), "Time for move value must be in range 3 <= n <= 10");
 
         // OVER THE MAXIMUM VALUE
         Map<String, String> data3 = Map.of("lobbyUri", lobby.getUri(), "settingName", "timeForMove", "settingValue", "11");
@@ -597,8 +680,8 @@ public class LobbyTests {
         assertEquals(event3.getCategory(), Category.ERROR);
         assertEquals(event3.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event3.getData().get("lobbyUri"), lobby.getUri());
-        assertEquals(event3.getData().get("message"), "Time for move value must be in range 3 <= n <= 10");
+        assertEquals(((ErrorEvent) event3).getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event3).getData().get("message"), "Time for move value must be in range 3 <= n <= 10");
     }
 
     @Test
@@ -614,8 +697,8 @@ public class LobbyTests {
         assertEquals(event.getCategory(), Category.ERROR);
         assertEquals(event.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event.getData().get("fieldName"), "scoreGoal");
-        assertEquals(event.getData().get("expectedType"), "unsigned int");
+        assertEquals(((ErrorEvent) event).getData().get("fieldName"), "scoreGoal");
+        assertEquals(((ErrorEvent) event).getData().get("expectedType"), "unsigned int");
 
         // UNDER THE MINIMUM VALUE
         Map<String, String> data2 = Map.of("lobbyUri", lobby.getUri(), "settingName", "scoreGoal", "settingValue", "0");
@@ -629,8 +712,8 @@ public class LobbyTests {
         assertEquals(event2.getCategory(), Category.ERROR);
         assertEquals(event2.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event2.getData().get("lobbyUri"), lobby.getUri());
-        assertEquals(event2.getData().get("message"), "Score goal value must be in range 1 <= n <= 50");
+        assertEquals(((ErrorEvent) event2).getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event2).getData().get("message"), "Score goal value must be in range 1 <= n <= 50");
 
         // OVER THE MAXIMUM VALUE
         Map<String, String> data3 = Map.of("lobbyUri", lobby.getUri(), "settingName", "scoreGoal", "settingValue", "51");
@@ -644,25 +727,177 @@ public class LobbyTests {
         assertEquals(event3.getCategory(), Category.ERROR);
         assertEquals(event3.getRecipientUuids(), Collections.singletonList(lobbyOwner.getUuid()));
 
-        assertEquals(event3.getData().get("lobbyUri"), lobby.getUri());
-        assertEquals(event3.getData().get("message"), "Score goal value must be in range 1 <= n <= 50");
+        assertEquals(((ErrorEvent) event3).getData().get("lobbyUri"), lobby.getUri());
+        assertEquals(((ErrorEvent) event3).getData().get("message"), "Score goal value must be in range 1 <= n <= 50");
     }
 
     @Test
-    public void cleanupTest() {
+    public void cleanupTest() throws InterruptedException {
         List<Lobby> lobbies = new ArrayList<>();
 
         for (int i = 0; i < 3; i++) {
             Lobby lobby = lobbyService.createLobby(lobbyOwner);
-            lobby.deletionDate = Calendar.getInstance().getTimeInMillis();
+            lobbyService.scheduleDeletion(lobby, Calendar.getInstance().getTimeInMillis());
             lobbies.add(lobby);
         }
 
         lobbyService.lobbyCleanupTask();
 
+        // the deletion itself happens on each lobby's lane
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (lobbies.stream().anyMatch(lobby -> lobbyService.getLobby(lobby.getUri()).isPresent())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
         lobbies.forEach(lobby -> {
             Optional<Lobby> optionalLobby = lobbyService.getLobby(lobby.getUri());
             assertTrue(optionalLobby.isEmpty());
+            assertTrue(lobbyService.getAllLobbiesWithUser(lobbyOwner.getUuid()).stream().noneMatch(lobby::equals));
         });
     }
+
+    @Test
+    public void lobbyRejoinedAfterItsDeletionCameDueIsKept() {
+        lobbyService.scheduleDeletion(lobby, Calendar.getInstance().getTimeInMillis());
+        Map<String, String> data = Map.of("lobbyUri", lobby.getUri());
+        actionDispatcherService.handleAction(new Action("USER_JOIN", Category.LOBBY, data, new OrpsUserDetails("rejoiner", "rejoiner-uuid")));
+
+        // the cleanup task's action reaching the lane after the rejoin
+        actionDispatcherService.handleAction(ServerAction.lobby("DELETE_IF_DUE", lobby.getUri()));
+
+        assertTrue(lobbyService.getLobby(lobby.getUri()).isPresent());
+        assertEquals(lobbyService.getAllLobbiesWithUser("rejoiner-uuid"), List.of(lobby));
+    }
+
+    @Test
+    public void clientsCantDeleteLobbies() {
+        lobbyService.scheduleDeletion(lobby, Calendar.getInstance().getTimeInMillis());
+        Map<String, String> data = Map.of("lobbyUri", lobby.getUri());
+        actionDispatcherService.handleAction(new Action("DELETE_IF_DUE", Category.LOBBY, data, lobbyOwner));
+
+        assertTrue(lobbyService.getLobby(lobby.getUri()).isPresent());
+    }
+
+    @Test
+    public void cleanupSkipsRejoinedAndPendingLobbies() {
+        Lobby rejoinedLobby = lobbyService.createLobby(lobbyOwner);
+        lobbyService.scheduleDeletion(rejoinedLobby, Calendar.getInstance().getTimeInMillis());
+        Map<String, String> data = Map.of("lobbyUri", rejoinedLobby.getUri());
+        actionDispatcherService.handleAction(new Action("USER_JOIN", Category.LOBBY, data, new OrpsUserDetails("user2", "uuid2")));
+
+        Lobby pendingLobby = lobbyService.createLobby(lobbyOwner);
+        lobbyService.scheduleDeletion(pendingLobby);
+
+        lobbyService.lobbyCleanupTask();
+
+        assertEquals(rejoinedLobby.deletionDate, -1);
+        assertTrue(lobbyService.getLobby(rejoinedLobby.getUri()).isPresent());
+        assertTrue(lobbyService.getLobby(pendingLobby.getUri()).isPresent());
+    }
+
+    @Test
+    public void leavingLastSchedulesDeletion() {
+        long before = Calendar.getInstance().getTimeInMillis();
+        Map<String, String> data = Map.of("lobbyUri", lobby.getUri());
+        actionDispatcherService.handleAction(new Action("USER_LEAVE", Category.LOBBY, data, lobbyOwner));
+
+        assertTrue(lobby.deletionDate >= before + LobbyService.EMPTY_LOBBY_LIFETIME_MILLIS);
+    }
+
+    @Test
+    public void memberListsFollowMembershipChanges() {
+        OrpsUserDetails user2 = new OrpsUserDetails("user2", "uuid2");
+        OrpsUserDetails user3 = new OrpsUserDetails("user3", "uuid3");
+        lobby.addMember(user2);
+        lobby.addMember(user3);
+
+        List<String> memberUuids = lobby.getMemberUuids();
+        assertEquals(memberUuids, List.of("uuid1", "uuid2", "uuid3"));
+        assertSame(lobby.getMemberUuids(), memberUuids);
+        assertEquals(lobby.getMemberUuidsExcept("uuid2"), List.of("uuid1", "uuid3"));
+        assertEquals(lobby.getMember("uuid3").orElseThrow(), user3);
+
+        lobby.removeMember("uuid2");
+
+        assertEquals(lobby.getMemberUuids(), List.of("uuid1", "uuid3"));
+        assertEquals(lobby.getMembers(), List.of(lobbyOwner, user3));
+        assertFalse(lobby.hasMember("uuid2"));
+        // recipient lists already handed out stay as they were
+        assertEquals(memberUuids, List.of("uuid1", "uuid2", "uuid3"));
+    }
+
+    @Test
+    public void findsLobbiesWithUser() {
+        OrpsUserDetails user2 = new OrpsUserDetails("user2", "uuid2");
+        Lobby otherLobby = lobbyService.createLobby(new OrpsUserDetails("user3", "uuid3"));
+
+        assertTrue(lobbyService.getAllLobbiesWithUser(user2.getUuid()).isEmpty());
+
+        lobby.addMember(user2);
+        otherLobby.addMember(user2);
+        assertEquals(Set.copyOf(lobbyService.getAllLobbiesWithUser(user2.getUuid())), Set.of(lobby, otherLobby));
+
+        lobby.removeMember(user2.getUuid());
+        assertEquals(lobbyService.getAllLobbiesWithUser(user2.getUuid()), List.of(otherLobby));
+    }
+
+    @Test
+    public void spectatorGetsLobbyDataWithoutJoining() {
+        OrpsUserDetails spectator = new OrpsUserDetails("spectator", "lobbySpectatorUuid");
+        Action action = new Action("SPECTATE", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), spectator);
+
+        List<Event<?>> events = actionDispatcherService.handleAction(action).getEvents();
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getId(), LobbyEvent.ID.RECEIVE_LOBBY_DATA);
+        assertEquals(events.get(0).getRecipientUuids(), List.of(spectator.getUuid()));
+        assertTrue(events.get(0).getSpectatorTopic().isEmpty());
+        assertFalse(lobby.hasMember(spectator.getUuid()));
+
+        OrpsUserDetails user2 = new OrpsUserDetails("user2", "uuid2");
+        action = new Action("USER_JOIN", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), user2);
+        Event<?> memberJoin = actionDispatcherService.handleAction(action).getEvents().stream()
+                .filter(event -> event.getId() == LobbyEvent.ID.MEMBER_JOIN)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(memberJoin.getSpectatorTopic().orElseThrow(), "lobby/" + lobby.getUri());
+    }
+
+    @Test
+    public void joiningBackfillsChatHistoryWithTheLobbyData() {
+        for (int i = 0; i < 3; i++) {
+            Map<String, String> data = Map.of("lobbyUri", lobby.getUri(), "messageContent", "message " + i);
+            actionDispatcherService.handleAction(new Action("NEW_TEXT_MESSAGE", Category.LOBBY, data, lobbyOwner));
+        }
+
+        OrpsUserDetails lateUser = new OrpsUserDetails("late", "lateJoinerUuid");
+        Action join = new Action("USER_JOIN", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), lateUser);
+        List<Event<?>> lobbyDataEvents = actionDispatcherService.handleAction(join).getEvents().stream()
+                .filter(event -> event.getId() == LobbyEvent.ID.RECEIVE_LOBBY_DATA)
+                .collect(Collectors.toList());
+        assertEquals(lobbyDataEvents.size(), 1);
+        assertEquals(lobbyDataEvents.get(0).getRecipientUuids(), List.of(lateUser.getUuid()));
+
+        List<LobbyEvent.TextMessage> messages = lobbyDataEvents.get(0).getData(LobbyEvent.LobbyData.class).getChatHistory();
+        assertEquals(messages.stream().map(LobbyEvent.TextMessage::getMessageContent).collect(Collectors.toList()),
+                List.of("message 0", "message 1", "message 2"));
+        assertEquals(messages.get(0).getMessageAuthor().getUuid(), lobbyOwner.getUuid());
+
+        Action spectate = new Action("SPECTATE", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), new OrpsUserDetails("watcher", "chatWatcherUuid"));
+        Event<?> spectated = actionDispatcherService.handleAction(spectate).getEvents().get(0);
+        assertEquals(spectated.getData(LobbyEvent.LobbyData.class).getChatHistory().size(), 3);
+    }
+
+    @Test
+    public void joiningQuietLobbySendsEmptyChatHistory() {
+        OrpsUserDetails user2 = new OrpsUserDetails("user2", "quietLobbyUuid");
+        Action join = new Action("USER_JOIN", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), user2);
+
+        Event<?> lobbyData = actionDispatcherService.handleAction(join).getEvents().stream()
+                .filter(event -> event.getId() == LobbyEvent.ID.RECEIVE_LOBBY_DATA)
+                .findFirst()
+                .orElseThrow();
+        assertTrue(lobbyData.getData(LobbyEvent.LobbyData.class).getChatHistory().isEmpty());
+        assertTrue(lobby.getChatHistory().isEmpty());
+    }
 }
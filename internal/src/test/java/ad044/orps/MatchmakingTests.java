@@ -0,0 +1,199 @@
+package ad044.orps;
+
+import ad044.orps.matchmaking.MatchmakingQueue;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.event.ErrorEvent;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GeneralEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.GameService;
+import ad044.orps.service.MatchmakingService;
+import ad044.orps.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MatchmakingTests {
+    @Autowired
+    ActionDispatcherService actionDispatcherService;
+
+    @Autowired
+    MatchmakingService matchmakingService;
+
+    @Autowired
+    GameService gameService;
+
+    private static OrpsUserDetails user(String uuid) {
+        return new OrpsUserDetails(uuid, uuid);
+    }
+
+    private static List<String> matchedUuids(MatchmakingQueue.Match match) {
+        List<String> uuids = new ArrayList<>();
+        match.getUsers().forEach(user -> uuids.add(user.getUuid()));
+        return uuids;
+    }
+
+    @Test
+    public void pairsUsersInTheSameBucketOldestFirst() {
+        MatchmakingQueue queue = new MatchmakingQueue(40, 100, 5000);
+        queue.enqueue(user("a"), 1200, 0);
+        queue.enqueue(user("b"), 1250, 1);
+        queue.enqueue(user("c"), 1210, 2);
+        queue.enqueue(user("d"), 1500, 3);
+
+        List<MatchmakingQueue.Match> matches = queue.match(10);
+        assertEquals(matches.size(), 1);
+        assertEquals(matchedUuids(matches.get(0)), List.of("a", "b"));
+        assertEquals(queue.size(), 2);
+        assertFalse(queue.isQueued("a"));
+        assertTrue(queue.isQueued("c"));
+
+        queue.enqueue(user("e"), 1299, 11);
+        matches = queue.match(20);
+        assertEquals(matchedUuids(matches.get(0)), List.of("c", "e"));
+    }
+
+    @Test
+    public void widensRatingRangeTheLongerUsersWait() {
+        MatchmakingQueue queue = new MatchmakingQueue(40, 100, 5000);
+        queue.enqueue(user("low"), 1000, 0);
+        queue.enqueue(user("high"), 1350, 0);
+
+        assertTrue(queue.match(14999).isEmpty());
+
+        // three buckets apart, one of them has waited three widening steps
+        List<MatchmakingQueue.Match> matches = queue.match(15000);
+        assertEquals(matches.size(), 1);
+        assertEquals(matchedUuids(matches.get(0)), List.of("low", "high"));
+        assertEquals(queue.size(), 0);
+    }
+
+    @Test
+    public void skipsCancelledUsers() {
+        MatchmakingQueue queue = new MatchmakingQueue(40, 100, 5000);
+        queue.enqueue(user("a"), 1200, 0);
+        queue.enqueue(user("b"), 1200, 1);
+        queue.enqueue(user("c"), 1200, 2);
+
+        assertTrue(queue.cancel("b"));
+        assertFalse(queue.cancel("b"));
+        assertFalse(queue.enqueue(user("a"), 1200, 3));
+
+        List<MatchmakingQueue.Match> matches = queue.match(10);
+        assertEquals(matchedUuids(matches.get(0)), List.of("a", "c"));
+        assertFalse(queue.cancel("a"));
+
+        // a cancelled user can get back in line
+        assertTrue(queue.enqueue(user("b"), 1200, 11));
+        assertEquals(queue.size(), 1);
+    }
+
+    @Test
+    public void matchesEveryoneOnceUnderConcurrentEnqueueAndCancel() throws InterruptedException {
+        MatchmakingQueue queue = new MatchmakingQueue(40, 100, 1);
+        int threadCount = 4;
+        int usersPerThread = 25_000;
+
+        Set<String> cancelled = ConcurrentHashMap.newKeySet();
+        Map<String, Integer> timesMatched = new ConcurrentHashMap<>();
+        AtomicBoolean producing = new AtomicBoolean(true);
+
+        Thread matcher = new Thread(() -> {
+            while (producing.get()) {
+                queue.match(System.nanoTime()).forEach(match
+                        -> matchedUuids(match).forEach(uuid -> timesMatched.merge(uuid, 1, Integer::sum)));
+            }
+        });
+        matcher.start();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            producers.add(new Thread(() -> {
+                Random random = new Random(thread);
+                for (int i = 0; i < usersPerThread; i++) {
+                    String uuid = thread + "-" + i;
+                    queue.enqueue(user(uuid), random.nextInt(3000), System.nanoTime());
+                    if (i % 3 == 0 && queue.cancel(uuid)) {
+                        cancelled.add(uuid);
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        producing.set(false);
+        matcher.join();
+
+        queue.match(Long.MAX_VALUE / 2).forEach(match
+                -> matchedUuids(match).forEach(uuid -> timesMatched.merge(uuid, 1, Integer::sum)));
+
+        assertTrue(queue.size() <= 1);
+        assertEquals(cancelled.size() + timesMatched.size() + queue.size(), threadCount * usersPerThread);
+        assertTrue(timesMatched.values().stream().allMatch(times -> times == 1));
+        assertTrue(cancelled.stream().noneMatch(timesMatched::containsKey));
+    }
+
+    @Test
+    public void joinsAndLeavesThroughGeneralActions() {
+        OrpsUserDetails author = user("matchmakingJoinLeave");
+
+        Action join = new Action("JOIN_MATCHMAKING", Category.GENERAL, Collections.emptyMap(), author);
+        Event<?> event = actionDispatcherService.handleAction(join).getEvents().get(0);
+        assertEquals(event.getId(), GeneralEvent.ID.JOINED_MATCHMAKING);
+        assertEquals(event.getData(GeneralEvent.Rating.class).getRating(), RatingService.INITIAL_RATING);
+        assertTrue(matchmakingService.isWaiting(author.getUuid()));
+
+        event = actionDispatcherService.handleAction(join).getEvents().get(0);
+        assertEquals(event.getId(), ErrorEvent.ID.ALREADY_IN_MATCHMAKING);
+
+        Action leave = new Action("LEAVE_MATCHMAKING", Category.GENERAL, Collections.emptyMap(), author);
+        event = actionDispatcherService.handleAction(leave).getEvents().get(0);
+        assertEquals(event.getId(), GeneralEvent.ID.LEFT_MATCHMAKING);
+        assertFalse(matchmakingService.isWaiting(author.getUuid()));
+
+        event = actionDispatcherService.handleAction(leave).getEvents().get(0);
+        assertEquals(event.getId(), ErrorEvent.ID.NOT_IN_MATCHMAKING);
+    }
+
+    @Test
+    public void disconnectingLeavesMatchmaking() {
+        OrpsUserDetails author = user("matchmakingDisconnect");
+        matchmakingService.join(author);
+
+        actionDispatcherService.handleAction(new Action("USER_DISCONNECT", Category.GENERAL, Collections.emptyMap(), author));
+
+        assertFalse(matchmakingService.isWaiting(author.getUuid()));
+    }
+
+    @Test
+    public void matcherStartsGameForMatchedUsers() {
+        OrpsUserDetails first = user("matchmakingFirst");
+        OrpsUserDetails second = user("matchmakingSecond");
+        matchmakingService.join(first);
+        matchmakingService.join(second);
+
+        List<MatchmakingQueue.Match> matches = matchmakingService.runMatcher();
+        assertEquals(matches.size(), 1);
+
+        List<Game> games = gameService.getAllGamesWithUser(first.getUuid());
+        assertEquals(games.size(), 1);
+        assertEquals(games.get(0).getPlayerUuids(), List.of(first.getUuid(), second.getUuid()));
+
+        gameService.removeGame(games.get(0).getUri());
+    }
+}
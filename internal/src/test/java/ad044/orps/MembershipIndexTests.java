@@ -0,0 +1,65 @@
+package ad044.orps;
+
+import ad044.orps.model.MembershipIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MembershipIndexTests {
+    @Test
+    public void tracksUrisPerUser() {
+        MembershipIndex index = new MembershipIndex();
+        index.add("uuid", "lobby");
+        index.add("uuid", "game");
+        index.add("other", "lobby");
+
+        assertEquals(index.getUris("uuid"), Set.of("lobby", "game"));
+
+        index.remove("uuid", "lobby");
+        assertEquals(index.getUris("uuid"), Set.of("game"));
+
+        index.remove("uuid", "game");
+        assertEquals(index.getUris("uuid"), Set.of());
+        assertEquals(index.getUris("other"), Set.of("lobby"));
+    }
+
+    // a lobby lane and a game lane adding and removing the same user, neither may lose the other's entry
+    @Test
+    public void concurrentAddsAndRemovesForOneUserKeepEveryEntry() throws InterruptedException {
+        MembershipIndex index = new MembershipIndex();
+        AtomicInteger lostEntries = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] lanes = new Thread[2];
+        for (int i = 0; i < lanes.length; i++) {
+            String uri = "uri" + i;
+            lanes[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 200_000; j++) {
+                    index.add("uuid", uri);
+                    if (!index.getUris("uuid").contains(uri)) {
+                        lostEntries.incrementAndGet();
+                    }
+                    index.remove("uuid", uri);
+                }
+            });
+            lanes[i].start();
+        }
+
+        start.countDown();
+        for (Thread lane : lanes) {
+            lane.join();
+        }
+
+        assertEquals(lostEntries.get(), 0);
+        assertEquals(index.getUris("uuid"), Set.of());
+    }
+}
@@ -0,0 +1,233 @@
+package ad044.orps;
+
+import ad044.orps.controller.LeaderboardController;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.BotUserDetails;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.rating.LeaderboardIndex;
+import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.GameService;
+import ad044.orps.service.RatingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RatingTests {
+    @Autowired
+    ActionDispatcherService actionDispatcherService;
+
+    @Autowired
+    GameService gameService;
+
+    @Autowired
+    RatingService ratingService;
+
+    @Autowired
+    LeaderboardController leaderboardController;
+
+    private static List<String> uuids(List<LeaderboardIndex.Entry> entries) {
+        return entries.stream().map(LeaderboardIndex.Entry::getUuid).collect(Collectors.toList());
+    }
+
+    private static Game finishedGame(List<Player> players, int winnerIndex) {
+        Game game = new Game(players, new GameSettings(3, 1));
+        game.startNextRound();
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).move = i == winnerIndex ? GameMove.ROCK : GameMove.SCISSORS;
+        }
+        game.finishRound();
+        return game;
+    }
+
+    @Test
+    public void ranksUsersAndSharesRankOnTies() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        index.put("a", "a", 1500);
+        index.put("b", "b", 1300);
+        index.put("c", "c", 1500);
+        index.put("d", "d", 900);
+
+        assertEquals(index.getEntry("a").orElseThrow().getRank(), 1);
+        assertEquals(index.getEntry("c").orElseThrow().getRank(), 1);
+        assertEquals(index.getEntry("b").orElseThrow().getRank(), 3);
+        assertEquals(index.getEntry("d").orElseThrow().getRank(), 4);
+        assertTrue(index.getEntry("e").isEmpty());
+
+        assertEquals(new HashSet<>(uuids(index.top(2))), Set.of("a", "c"));
+        assertEquals(uuids(index.top(10)).subList(2, 4), List.of("b", "d"));
+
+        index.put("d", "d", 1600);
+        assertEquals(uuids(index.top(1)), List.of("d"));
+        assertEquals(index.getEntry("b").orElseThrow().getRank(), 4);
+        assertEquals(index.size(), 4);
+
+        // out of range ratings are clamped
+        index.put("e", "e", -20);
+        assertEquals(index.getRating("e").orElseThrow(), 0);
+    }
+
+    @Test
+    public void topAndRankMatchFullSort() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        Map<String, Integer> ratings = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            String uuid = "user" + random.nextInt(5000);
+            int rating = random.nextInt(LeaderboardIndex.MAX_RATING + 1);
+            index.put(uuid, uuid, rating);
+            ratings.put(uuid, rating);
+        }
+
+        List<Integer> sorted = ratings.values().stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        List<LeaderboardIndex.Entry> top = index.top(250);
+        assertEquals(top.size(), 250);
+        for (int i = 0; i < top.size(); i++) {
+            assertEquals(top.get(i).getRating(), sorted.get(i));
+            assertEquals(top.get(i).getRank(), sorted.indexOf(sorted.get(i)) + 1);
+        }
+
+        ratings.forEach((uuid, rating) -> {
+            assertEquals(index.getEntry(uuid).orElseThrow().getRank(), sorted.indexOf(rating) + 1);
+        });
+        assertEquals(index.size(), ratings.size());
+    }
+
+    @Test
+    public void removingUsersKeepsRanksAndLookups() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        Map<String, Integer> ratings = new HashMap<>();
+        Random random = new Random(11);
+        // enough users to grow the table, removals as common as puts so ids keep getting moved around
+        for (int i = 0; i < 50_000; i++) {
+            String uuid = "user" + random.nextInt(3000);
+            if (random.nextBoolean()) {
+                assertEquals(index.remove(uuid), ratings.remove(uuid) != null);
+            } else {
+                int rating = random.nextInt(LeaderboardIndex.MAX_RATING + 1);
+                index.put(uuid, uuid, rating);
+                ratings.put(uuid, rating);
+            }
+        }
+
+        assertEquals(index.size(), ratings.size());
+        List<Integer> sorted = ratings.values().stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        for (int i = 0; i < 3000; i++) {
+            String uuid = "user" + i;
+            Integer rating = ratings.get(uuid);
+            if (rating == null) {
+                assertTrue(index.getEntry(uuid).isEmpty());
+            } else {
+                assertEquals(index.getEntry(uuid).orElseThrow().getRank(), sorted.indexOf(rating) + 1);
+            }
+        }
+        assertEquals(index.top(ratings.size()).stream().map(LeaderboardIndex.Entry::getRating).collect(Collectors.toList()), sorted);
+    }
+
+    @Test
+    public void dropsUsersNotRatedSince() {
+        LeaderboardIndex index = new LeaderboardIndex();
+        index.put("a", "a", 1500);
+        index.put("b", "b", 1300);
+
+        assertEquals(index.removeRatedBefore(System.currentTimeMillis() - 60_000), 0);
+        assertEquals(index.size(), 2);
+
+        assertEquals(index.removeRatedBefore(System.currentTimeMillis() + 60_000), 2);
+        assertEquals(index.size(), 0);
+        assertTrue(index.top(10).isEmpty());
+        assertTrue(index.getRating("a").isEmpty());
+
+        index.put("a", "a", 1400);
+        assertEquals(index.getEntry("a").orElseThrow().getRank(), 1);
+    }
+
+    @Test
+    public void winnerTakesRatingFromEveryOtherHuman() {
+        RatingService ratings = new RatingService();
+        Player winner = new Player(new OrpsUserDetails("winner", "eloWinner"));
+        Player loser = new Player(new OrpsUserDetails("loser", "eloLoser"));
+
+        ratings.recordGame(finishedGame(List.of(winner, loser), 0));
+        assertEquals(ratings.getRating("eloWinner"), 1216);
+        assertEquals(ratings.getRating("eloLoser"), 1184);
+
+        // beating a lower rated player again is worth less
+        ratings.recordGame(finishedGame(List.of(new Player(winner), new Player(loser)), 0));
+        assertEquals(ratings.getRating("eloWinner"), 1231);
+        assertEquals(ratings.getRating("eloLoser"), 1169);
+
+        // bots are left out, three humans split K between the two losers
+        List<Player> players = List.of(new Player(new OrpsUserDetails("c", "eloC")), Player.from(new BotUserDetails("bot")),
+                new Player(new OrpsUserDetails("d", "eloD")), new Player(new OrpsUserDetails("e", "eloE")));
+        ratings.recordGame(finishedGame(players, 0));
+        assertEquals(ratings.getRating("eloC"), 1216);
+        assertEquals(ratings.getRating("eloD"), 1192);
+        assertEquals(ratings.getRating("eloE"), 1192);
+        assertTrue(ratings.getLeaderboard().getEntry("bot").isEmpty());
+    }
+
+    @Test
+    public void finishedGameShowsUpOnLeaderboard() {
+        Player winner = new Player(new OrpsUserDetails("winner", "leaderboardWinner"));
+        Player loser = new Player(new OrpsUserDetails("loser", "leaderboardLoser"));
+        Game game = gameService.createGame(List.of(winner, loser), new GameSettings(3, 1));
+        assertEquals(leaderboardController.getEntry(winner.getUuid()).getStatusCode(), HttpStatus.NOT_FOUND);
+
+        game.startNextRound();
+        winner.move = GameMove.PAPER;
+        loser.move = GameMove.ROCK;
+        actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()));
+
+        assertTrue(gameService.getGame(game.getUri()).isEmpty());
+        LeaderboardIndex.Entry entry = leaderboardController.getEntry(winner.getUuid()).getBody();
+        assertEquals(entry.getRating(), 1216);
+        assertEquals(entry.getUsername(), "winner");
+        assertTrue(entry.getRank() < leaderboardController.getEntry(loser.getUuid()).getBody().getRank());
+        assertFalse(leaderboardController.getTop(10).isEmpty());
+    }
+
+    @Test
+    public void walkoverWinIsRated() {
+        Player winner = new Player(new OrpsUserDetails("winner", "walkoverWinner"));
+        Player leaver = new Player(new OrpsUserDetails("leaver", "walkoverLeaver"));
+        Game game = gameService.createGame(List.of(winner, leaver), new GameSettings(3, 5));
+        game.startNextRound();
+
+        actionDispatcherService.handleAction(new Action("PLAYER_LEAVE", Category.GAME, Map.of("gameUri", game.getUri()), leaver));
+
+        assertTrue(gameService.getGame(game.getUri()).isEmpty());
+        assertEquals(leaderboardController.getEntry(winner.getUuid()).getBody().getRating(), 1216);
+        assertEquals(leaderboardController.getEntry(leaver.getUuid()).getBody().getRating(), 1184);
+    }
+
+    @Test
+    public void winByKickingTheLastOpponentIsRated() {
+        Player winner = new Player(new OrpsUserDetails("winner", "kickWinner"));
+        Player idler = new Player(new OrpsUserDetails("idler", "kickIdler"));
+        Game game = gameService.createGame(List.of(winner, idler), new GameSettings(3, 5));
+        idler.consecutiveMovesMissed = game.MISSED_MOVE_THRESHOLD - 1;
+
+        game.startNextRound();
+        winner.move = GameMove.ROCK;
+        actionDispatcherService.handleAction(ServerAction.game("FINISH_ROUND", game.getUri()));
+
+        assertTrue(gameService.getGame(game.getUri()).isEmpty());
+        assertEquals(leaderboardController.getEntry(winner.getUuid()).getBody().getRating(), 1216);
+        assertEquals(leaderboardController.getEntry(idler.getUuid()).getBody().getRating(), 1184);
+    }
+}
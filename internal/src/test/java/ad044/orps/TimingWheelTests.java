@@ -0,0 +1,108 @@
+package ad044.orps;
+
+import ad044.orps.dispatcher.ScheduledTimer;
+import ad044.orps.dispatcher.TimingWheel;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimingWheelTests {
+    private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final OrpsUserDetails author = new OrpsUserDetails("user1", "uuid1");
+
+    private ScheduledAction scheduledAction(String id, long deadline) {
+        Action action = new Action(id, Category.GENERAL, Collections.emptyMap(), author);
+        return ScheduledAction.atDeadline(action, deadline);
+    }
+
+    @Test
+    public void expiresTimersOnlyOnceTheirDeadlinePasses() {
+        TimingWheel wheel = new TimingWheel(TICK, 0);
+        wheel.add(scheduledAction("a", 5 * TICK + 1));
+
+        List<String> expired = new ArrayList<>();
+        assertEquals(wheel.advance(5 * TICK, timer -> expired.add(timer.getScheduledAction().getAction().getIdString())), 0);
+        assertEquals(wheel.nextWakeUpTime(), 6 * TICK);
+        assertEquals(wheel.advance(6 * TICK, timer -> expired.add(timer.getScheduledAction().getAction().getIdString())), 1);
+        assertEquals(expired, List.of("a"));
+        assertTrue(wheel.isEmpty());
+        assertEquals(wheel.nextWakeUpTime(), -1);
+    }
+
+    @Test
+    public void expiresOverdueTimersOnTheNextAdvance() {
+        TimingWheel wheel = new TimingWheel(TICK, 0);
+        wheel.advance(100 * TICK, timer -> {});
+        wheel.add(scheduledAction("late", 10 * TICK));
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(101 * TICK, timer -> expired.add(timer.getScheduledAction().getAction().getIdString()));
+        assertEquals(expired, List.of("late"));
+    }
+
+    @Test
+    public void dropsRemovedAndCancelledTimers() {
+        TimingWheel wheel = new TimingWheel(TICK, 0);
+        ScheduledTimer removed = wheel.add(scheduledAction("removed", 3 * TICK));
+        ScheduledTimer cancelled = wheel.add(scheduledAction("cancelled", 3 * TICK));
+        wheel.add(scheduledAction("kept", 3 * TICK));
+
+        assertTrue(wheel.remove(removed));
+        assertFalse(wheel.remove(removed));
+        assertTrue(cancelled.cancel());
+        assertEquals(wheel.size(), 2);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(3 * TICK, timer -> expired.add(timer.getScheduledAction().getAction().getIdString()));
+        assertEquals(expired, List.of("kept"));
+        assertTrue(wheel.isEmpty());
+        assertFalse(cancelled.cancel());
+    }
+
+    @Test
+    public void cascadesFarTimersInDeadlineOrder() {
+        TimingWheel wheel = new TimingWheel(TICK, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        // spread over every level, including timers past the range of the top one
+        for (int i = 0; i < 5000; i++) {
+            long deadline = (long) (Math.pow(10, random.nextDouble() * 8.5) * TICK);
+            deadlines.add(deadline);
+            wheel.add(scheduledAction(Long.toString(deadline), deadline));
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long now = 0;
+        while (!wheel.isEmpty()) {
+            long nextWakeUpTime = wheel.nextWakeUpTime();
+            assertTrue(nextWakeUpTime >= now);
+            now = nextWakeUpTime;
+            long expiredAt = now;
+            wheel.advance(now, timer -> {
+                long deadline = timer.getScheduledAction().getDeadline();
+                // never early, and at most a tick late
+                assertTrue(deadline <= expiredAt);
+                assertTrue(expiredAt - deadline < TICK);
+                expired.add(deadline);
+            });
+        }
+
+        Collections.sort(deadlines);
+        assertEquals(expired.size(), deadlines.size());
+        // a tick's timers come out together in no particular order, so compare tick by tick
+        for (int i = 0; i < deadlines.size(); i++) {
+            assertEquals((expired.get(i) - 1) / TICK, (deadlines.get(i) - 1) / TICK);
+        }
+    }
+}
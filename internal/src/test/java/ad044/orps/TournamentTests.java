@@ -0,0 +1,187 @@
+package ad044.orps;
+
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.event.TournamentEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.tournament.Tournament;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.ActionDispatcherService;
+import ad044.orps.service.GameService;
+import ad044.orps.service.TournamentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TournamentTests {
+    @Autowired
+    ActionDispatcherService actionDispatcherService;
+
+    @Autowired
+    TournamentService tournamentService;
+
+    @Autowired
+    GameService gameService;
+
+    private static List<OrpsUserDetails> entrants(String prefix, int count) {
+        List<OrpsUserDetails> entrants = new ArrayList<>();
+        for (int seed = 1; seed <= count; seed++) {
+            entrants.add(new OrpsUserDetails("seed" + seed, prefix + seed));
+        }
+        return entrants;
+    }
+
+    private static List<String> matchUuids(Tournament tournament, int match) {
+        List<String> uuids = new ArrayList<>();
+        tournament.getMatchEntrants(match).forEach(entrant -> uuids.add(entrant.getUuid()));
+        return uuids;
+    }
+
+    @Test
+    public void seedsBracketSoTopSeedsMeetLast() {
+        Tournament tournament = Tournament.seeded(entrants("", 8), new GameSettings(3, 3));
+        tournament.startRound();
+
+        assertEquals(tournament.takeUnstartedMatches(8), List.of(0, 1, 2, 3));
+        assertEquals(matchUuids(tournament, 0), List.of("1", "8"));
+        assertEquals(matchUuids(tournament, 1), List.of("4", "5"));
+        assertEquals(matchUuids(tournament, 2), List.of("2", "7"));
+        assertEquals(matchUuids(tournament, 3), List.of("3", "6"));
+    }
+
+    @Test
+    public void givesByesToTopSeeds() {
+        Tournament tournament = Tournament.seeded(entrants("", 6), new GameSettings(3, 3));
+        tournament.startRound();
+
+        List<Integer> matches = tournament.takeUnstartedMatches(8);
+        assertEquals(matches, List.of(1, 3));
+        assertEquals(matchUuids(tournament, 1), List.of("4", "5"));
+        assertEquals(matchUuids(tournament, 3), List.of("3", "6"));
+
+        tournament.matchStarted(1, "game1");
+        tournament.matchStarted(3, "game3");
+        assertFalse(tournament.recordResult("game1", "5"));
+        assertTrue(tournament.recordResult("game3", "3"));
+
+        tournament.startRound();
+        assertEquals(tournament.getRoundNumber(), 2);
+        assertEquals(matchUuids(tournament, 0), List.of("1", "5"));
+        assertEquals(matchUuids(tournament, 1), List.of("2", "3"));
+    }
+
+    @Test
+    public void matchWithoutWinnerGivesOpponentWalkover() {
+        Tournament tournament = Tournament.seeded(entrants("", 4), new GameSettings(3, 3));
+        tournament.startRound();
+        tournament.takeUnstartedMatches(2);
+        tournament.matchStarted(0, "game0");
+        tournament.matchStarted(1, "game1");
+
+        tournament.recordResult("game0", null);
+        assertTrue(tournament.recordResult("game1", "2"));
+
+        // the final only has seed 2 left in it
+        tournament.startRound();
+        assertTrue(tournament.isFinished());
+        assertEquals(tournament.getChampion().orElseThrow().getUuid(), "2");
+    }
+
+    @Test
+    public void startsMatchesInBatchesAndMovesWinnersForward() {
+        Tournament tournament = tournamentService.createTournament(entrants("batches", 1100), new GameSettings(3, 3));
+        String tournamentUri = tournament.getUri();
+
+        // 1100 entrants make a bracket of 2048, with 76 real matches in the first round
+        ActionHandlerResponse response = actionDispatcherService.handleAction(ServerAction.tournament("START_MATCHES", tournamentUri));
+        assertEquals(response.getEvents().size(), 76);
+        assertEquals(tournament.getOngoingMatchCount(), 76);
+        assertFalse(tournament.hasUnstartedMatches());
+
+        List<Game> games = new ArrayList<>();
+        for (Event<?> event : response.getEvents()) {
+            assertEquals(event.getCategory(), Category.TOURNAMENT);
+            assertEquals(event.getId(), TournamentEvent.ID.MATCH_STARTED);
+            String gameUri = event.getData(TournamentEvent.MatchStart.class).getGameData().getUri();
+            games.add(gameService.getGame(gameUri).orElseThrow());
+        }
+        for (ScheduledAction scheduledAction : response.getScheduledActions()) {
+            assertEquals(scheduledAction.getAction().getIdString(), "START_NEXT_ROUND");
+        }
+
+        for (int i = 0; i < games.size(); i++) {
+            Game game = games.get(i);
+            Map<String, String> data = Map.of("gameUri", game.getUri(), "winnerUuid", game.getPlayerUuids().get(1));
+            response = actionDispatcherService.handleAction(ServerAction.tournament("RECORD_RESULT", tournamentUri, data));
+            if (i < games.size() - 1) {
+                assertTrue(response.getEvents().isEmpty());
+            }
+        }
+
+        // round 2 has 512 matches, two batches
+        assertEquals(tournament.getRoundNumber(), 2);
+        assertEquals(response.getEvents().size(), 256);
+        assertTrue(tournament.hasUnstartedMatches());
+        ScheduledAction nextBatch = response.getScheduledActions().get(response.getScheduledActions().size() - 1);
+        assertEquals(nextBatch.getAction().getCategory(), Category.TOURNAMENT);
+        assertEquals(nextBatch.getAction().getIdString(), "START_MATCHES");
+
+        tournamentService.removeTournament(tournamentUri);
+        games.forEach(game -> gameService.removeGame(game.getUri()));
+        response.getEvents().forEach(event
+                -> gameService.removeGame(event.getData(TournamentEvent.MatchStart.class).getGameData().getUri()));
+    }
+
+    @Test
+    public void opponentLeavingFinishesTheMatch() throws InterruptedException {
+        Tournament tournament = tournamentService.createTournament(entrants("leaver", 2), new GameSettings(3, 3));
+        ActionHandlerResponse response = actionDispatcherService.handleAction(ServerAction.tournament("START_MATCHES", tournament.getUri()));
+        String gameUri = response.getEvents().get(0).getData(TournamentEvent.MatchStart.class).getGameData().getUri();
+        Game game = gameService.getGame(gameUri).orElseThrow();
+        OrpsUserDetails leaver = tournament.getMatchEntrants(0).get(1);
+
+        Action leave = new Action("PLAYER_LEAVE", Category.GAME, Map.of("gameUri", gameUri), leaver);
+        List<Event<?>> events = actionDispatcherService.handleAction(leave).getEvents();
+        assertEquals(events.get(events.size() - 1).getId(), GameEvent.ID.PLAYER_WON_GAME);
+        assertTrue(gameService.getGame(gameUri).isEmpty());
+
+        // the result is recorded on the tournament's lane
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tournamentService.getTournament(tournament.getUri()).isPresent() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(tournament.isFinished());
+        assertEquals(tournament.getChampion().orElseThrow().getUuid(), game.getPlayerUuids().get(0));
+    }
+
+    @Test
+    public void tournamentActionsFromClientsAreRejected() {
+        Tournament tournament = tournamentService.createTournament(entrants("clients", 2), new GameSettings(3, 3));
+        OrpsUserDetails user = new OrpsUserDetails("user", "clientsUser");
+
+        Action action = new Action("START_MATCHES", Category.TOURNAMENT, Map.of("tournamentUri", tournament.getUri()), user);
+        List<Event<?>> events = actionDispatcherService.handleAction(action).getEvents();
+
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getCategory(), Category.ERROR);
+        assertEquals(tournament.getRoundNumber(), 0);
+
+        tournamentService.removeTournament(tournament.getUri());
+    }
+}
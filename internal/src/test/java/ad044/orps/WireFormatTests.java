@@ -0,0 +1,206 @@
+package ad044.orps;
+
+import ad044.orps.config.WireFormat;
+import ad044.orps.config.WireFormatMessageConverter;
+import ad044.orps.dto.UserDTO;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.game.RoundDelta;
+import ad044.orps.model.user.OrpsUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.*;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WireFormatTests {
+    private final ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Map<WireFormat, ObjectMapper> binaryMappers = Map.of(
+            WireFormat.CBOR, Jackson2ObjectMapperBuilder.cbor().build(),
+            WireFormat.SMILE, Jackson2ObjectMapperBuilder.smile().build());
+
+    // same order as the broker converter: the binary formats first, then the defaults
+    private final CompositeMessageConverter converter = new CompositeMessageConverter(List.of(
+            new WireFormatMessageConverter(WireFormat.CBOR, binaryMappers.get(WireFormat.CBOR)),
+            new WireFormatMessageConverter(WireFormat.SMILE, binaryMappers.get(WireFormat.SMILE)),
+            new StringMessageConverter(),
+            new ByteArrayMessageConverter(),
+            new MappingJackson2MessageConverter()));
+
+    // Shared with the client's cbor.test.ts. serverEvents are what the server sends for the values below, the client
+    // has to decode them to their json. clientActions are what the client's encoder makes of their json, the server has
+    // to decode them back to the same action.
+    private static final Path CBOR_FIXTURES = Path.of("..", "external", "src", "utils", "cbor.fixtures.json");
+
+    private static Map<String, Object> cborFixtureValues() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("roundResult", GameEvent.receiveRoundResult(List.of("uuid1", "uuid2"), "game-uri",
+                new RoundDelta(2, 1, List.of("uuid3"), List.of(), List.of(
+                        new RoundDelta.Change(0, 1, GameMove.ROCK),
+                        new RoundDelta.Change(1, null, GameMove.SCISSORS)), "uuid1")));
+        values.put("drawnRound", GameEvent.receiveRoundResult(List.of("uuid1", "uuid2"), "game-uri",
+                new RoundDelta(3, 2, List.of(), List.of(), List.of(), null)));
+        values.put("textMessage", LobbyEvent.newTextMessage(List.of("uuid1"), "lobby-uri",
+                new UserDTO("user1", "uuid1"), "gg \uD83D\uDC4D \u00FCn\u00EFc\u00F6d\u00E9"));
+        values.put("longTextMessage", LobbyEvent.newTextMessage(List.of("uuid1"), "lobby-uri",
+                new UserDTO("user1", "uuid1"), "rock paper scissors ".repeat(15)));
+
+        Map<String, Object> numbers = new LinkedHashMap<>();
+        numbers.put("tiny", 23);
+        numbers.put("byte", 24);
+        numbers.put("short", 256);
+        numbers.put("int", 65_536);
+        numbers.put("long", 1_700_000_000_000L);
+        numbers.put("negative", -500);
+        numbers.put("fraction", 0.25);
+        numbers.put("flag", true);
+        numbers.put("nothing", null);
+        numbers.put("empty", List.of());
+        numbers.put("text", "");
+        values.put("numbers", numbers);
+        return values;
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private static byte[] unhex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private Event<?> roundResult() {
+        Game game = new Game(List.of(new Player(new OrpsUserDetails("user1", "uuid1")),
+                new Player(new OrpsUserDetails("user2", "uuid2"))), new GameSettings(3, 5));
+        game.startNextRound();
+        game.getPlayers().get(0).move = GameMove.ROCK;
+        game.getPlayers().get(1).move = GameMove.SCISSORS;
+        game.finishRound();
+
+        return GameEvent.receiveRoundResult(game.getPlayerUuids(), "game-uri", game.publishRoundResult());
+    }
+
+    @Test
+    public void binaryFormatsCarryTheSameEventAsJson() throws Exception {
+        Event<?> event = roundResult();
+        Map<?, ?> expected = jsonMapper.readValue((byte[]) converter.toMessage(event, null).getPayload(), Map.class);
+
+        for (WireFormat wireFormat : binaryMappers.keySet()) {
+            Message<?> message = converter.toMessage(event,
+                    new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, wireFormat.getMimeType())));
+            assertNotNull(message);
+
+            MimeType contentType = (MimeType) message.getHeaders().get(MessageHeaders.CONTENT_TYPE);
+            assertEquals(WireFormat.fromMimeType(contentType), wireFormat);
+
+            Map<?, ?> decoded = binaryMappers.get(wireFormat).readValue((byte[]) message.getPayload(), Map.class);
+            assertEquals(decoded, expected);
+        }
+    }
+
+    @Test
+    public void framesWithoutContentTypeStayJson() throws Exception {
+        Message<?> message = converter.toMessage(roundResult(), new MessageHeaders(Map.of("orpsTopic", "game")));
+        assertNotNull(message);
+
+        Map<?, ?> decoded = jsonMapper.readValue((byte[]) message.getPayload(), Map.class);
+        assertEquals(decoded.get("id"), "RECEIVE_ROUND_RESULT");
+        assertEquals(decoded.get("gameUri"), "game-uri");
+    }
+
+    @Test
+    public void decodesActionsSentInBinary() throws Exception {
+        Map<String, Object> action = Map.of(
+                "idString", "USER_MOVE",
+                "category", "GAME",
+                "data", Map.of("gameUri", "game-uri", "move", "PAPER"));
+
+        for (WireFormat wireFormat : binaryMappers.keySet()) {
+            Message<byte[]> message = MessageBuilder.withPayload(binaryMappers.get(wireFormat).writeValueAsBytes(action))
+                    .setHeader(MessageHeaders.CONTENT_TYPE, wireFormat.getMimeType())
+                    .build();
+
+            Action decoded = (Action) converter.fromMessage(message, Action.class);
+            assertNotNull(decoded);
+            assertEquals(decoded.getIdString(), "USER_MOVE");
+            assertEquals(decoded.getCategory(), Category.GAME);
+            assertEquals(decoded.getDataByKey("move"), Optional.of("PAPER"));
+        }
+    }
+
+    @Test
+    public void serverCborMatchesClientFixtures() throws Exception {
+        Map<?, ?> fixtures = jsonMapper.readValue(Files.readAllBytes(CBOR_FIXTURES), Map.class);
+        List<?> serverEvents = (List<?>) fixtures.get("serverEvents");
+        Map<String, Object> values = cborFixtureValues();
+        assertEquals(serverEvents.size(), values.size());
+
+        for (Object entry : serverEvents) {
+            Map<?, ?> fixture = (Map<?, ?>) entry;
+            Object value = values.get((String) fixture.get("name"));
+            Message<?> message = converter.toMessage(value,
+                    new MessageHeaders(Map.of(MessageHeaders.CONTENT_TYPE, WireFormat.CBOR.getMimeType())));
+            assertNotNull(message);
+
+            assertEquals(hex((byte[]) message.getPayload()), fixture.get("cbor"));
+            assertEquals(jsonMapper.readValue(jsonMapper.writeValueAsBytes(value), Object.class), fixture.get("json"));
+        }
+    }
+
+    @Test
+    public void decodesClientCborFixtures() throws Exception {
+        Map<?, ?> fixtures = jsonMapper.readValue(Files.readAllBytes(CBOR_FIXTURES), Map.class);
+
+        for (Object entry : (List<?>) fixtures.get("clientActions")) {
+            Map<?, ?> fixture = (Map<?, ?>) entry;
+            Message<byte[]> message = MessageBuilder.withPayload(unhex((String) fixture.get("cbor")))
+                    .setHeader(MessageHeaders.CONTENT_TYPE, WireFormat.CBOR.getMimeType())
+                    .build();
+
+            Action decoded = (Action) converter.fromMessage(message, Action.class);
+            assertNotNull(decoded);
+            Map<?, ?> expected = (Map<?, ?>) fixture.get("json");
+            assertEquals(decoded.getIdString(), expected.get("idString"));
+            assertEquals(decoded.getCategory().name(), expected.get("category"));
+            Map<?, ?> expectedData = (Map<?, ?>) expected.get("data");
+            if (expectedData != null) {
+                expectedData.forEach((key, value) -> assertEquals(decoded.getDataByKey((String) key), Optional.of(value)));
+            }
+        }
+    }
+
+    @Test
+    public void parsesTheConnectHeader() {
+        assertEquals(WireFormat.fromHeader(null), Optional.of(WireFormat.JSON));
+        assertEquals(WireFormat.fromHeader("cbor"), Optional.of(WireFormat.CBOR));
+        assertEquals(WireFormat.fromHeader("SMILE"), Optional.of(WireFormat.SMILE));
+        assertEquals(WireFormat.fromHeader("xml"), Optional.empty());
+    }
+}
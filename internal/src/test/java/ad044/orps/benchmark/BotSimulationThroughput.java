@@ -0,0 +1,57 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.simulation.BotSimulation;
+import ad044.orps.simulation.BotStrategy;
+import ad044.orps.simulation.SimulationReport;
+
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Rounds per second BotSimulation gets through with random bots, on one thread and on a pool as big as the machine.
+ * Classic games stay small, with more players a round almost never has a sole winner.
+ * Each configuration runs a few times to warm up, the last run is reported.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.BotSimulationThroughput
+ *     -Dexec.classpathScope=test
+ */
+public class BotSimulationThroughput {
+    private static final int GAMES = 100_000;
+    private static final int RUNS = 5;
+
+    private static void measure(String label, int players, boolean royale, ForkJoinPool pool) {
+        GameSettings settings = new GameSettings(3, 5);
+        settings.setRoyale(royale);
+        BotSimulation simulation = new BotSimulation(Collections.nCopies(players, BotStrategy.RANDOM), settings, 10_000);
+
+        SimulationReport report = null;
+        long nanos = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long startedAt = System.nanoTime();
+            report = simulation.run(GAMES / players, pool);
+            nanos = System.nanoTime() - startedAt;
+        }
+
+        System.out.printf("%-8s %8d %8d %10d %12d %14.0f %12.0f%n", label, pool.getParallelism(), players,
+                report.getGames(), report.getRounds(), report.getRounds() / (nanos / 1e9), report.getGames() / (nanos / 1e9));
+    }
+
+    public static void main(String[] args) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool all = new ForkJoinPool(cores);
+
+        System.out.printf("%-8s %8s %8s %10s %12s %14s %12s%n", "mode", "threads", "players", "games", "rounds",
+                "rounds/s", "games/s");
+        for (int players : new int[]{2, 4}) {
+            measure("classic", players, false, single);
+            measure("classic", players, false, all);
+        }
+        measure("royale", 100, true, single);
+        measure("royale", 100, true, all);
+
+        single.shutdown();
+        all.shutdown();
+    }
+}
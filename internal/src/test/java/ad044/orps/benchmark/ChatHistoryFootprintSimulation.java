@@ -0,0 +1,128 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dto.UserDTO;
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.lobby.ChatHistory;
+import ad044.orps.model.user.OrpsUserDetails;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Random;
+
+/**
+ * Heap taken by the chat history of 100k lobbies, each having seen twice as many messages as the history keeps.
+ * Messages are 10-80 ASCII characters from one of 5 members per lobby.
+ *
+ * ring: ChatHistory with the default 50 messages / 2048 bytes.
+ * deque: what keeping the broadcast events' TextMessage data in a capped ArrayDeque per lobby would take, 50 messages
+ * and no byte cap.
+ *
+ * Also prints how long filling the histories took, per message. Heap is measured after a full GC, with the members
+ * (shared by both) allocated beforehand.
+ *
+ * MAVEN_OPTS=-Xmx3g mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.ChatHistoryFootprintSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class ChatHistoryFootprintSimulation {
+    private static final int LOBBIES = 100_000;
+    private static final int MEMBERS = 5;
+    private static final int MAX_MESSAGES = 50;
+    private static final int MAX_BYTES = 2048;
+    private static final int MESSAGES_PER_LOBBY = MAX_MESSAGES * 2;
+
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz ABCDEFGHIJKLMNOPQRSTUVWXYZ .,!?0123456789".toCharArray();
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    // a fresh string per message, like the one that comes in with the action
+    private static String randomMessage(Random random) {
+        char[] chars = new char[10 + random.nextInt(71)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return new String(chars);
+    }
+
+    private static OrpsUserDetails[][] createMembers() {
+        OrpsUserDetails[][] members = new OrpsUserDetails[LOBBIES][MEMBERS];
+        for (int lobby = 0; lobby < LOBBIES; lobby++) {
+            for (int member = 0; member < MEMBERS; member++) {
+                members[lobby][member] = new OrpsUserDetails("user" + member, String.format("%08d-0000-4000-8000-%012d", lobby, member));
+            }
+        }
+        return members;
+    }
+
+    private static void report(String name, long before, long after, long fillNanos, int keptMessages) {
+        long bytes = after - before;
+        System.out.printf("%-5s %7.1f MB, %6.0f B per lobby, %5.1f B per kept message (%d kept), fill %5.1f ns per message%n",
+                name, bytes / 1e6, (double) bytes / LOBBIES, (double) bytes / keptMessages, keptMessages,
+                (double) fillNanos / ((long) LOBBIES * MESSAGES_PER_LOBBY));
+    }
+
+    private static void ring(OrpsUserDetails[][] members) {
+        long before = usedHeapAfterGc();
+        Random random = new Random(42);
+        ChatHistory[] histories = new ChatHistory[LOBBIES];
+        long fillNanos = 0;
+        for (int lobby = 0; lobby < LOBBIES; lobby++) {
+            histories[lobby] = new ChatHistory(MAX_MESSAGES, MAX_BYTES);
+            for (int i = 0; i < MESSAGES_PER_LOBBY; i++) {
+                OrpsUserDetails author = members[lobby][random.nextInt(MEMBERS)];
+                String content = randomMessage(random);
+                long startedAt = System.nanoTime();
+                histories[lobby].add(author.getUuid(), author.getUsername(), content);
+                fillNanos += System.nanoTime() - startedAt;
+            }
+        }
+        long after = usedHeapAfterGc();
+
+        int kept = 0;
+        for (ChatHistory history : histories) {
+            kept += history.size();
+        }
+        report("ring", before, after, fillNanos, kept);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void deque(OrpsUserDetails[][] members) {
+        long before = usedHeapAfterGc();
+        Random random = new Random(42);
+        ArrayDeque<LobbyEvent.TextMessage>[] histories = new ArrayDeque[LOBBIES];
+        long fillNanos = 0;
+        for (int lobby = 0; lobby < LOBBIES; lobby++) {
+            histories[lobby] = new ArrayDeque<>();
+            for (int i = 0; i < MESSAGES_PER_LOBBY; i++) {
+                OrpsUserDetails author = members[lobby][random.nextInt(MEMBERS)];
+                String content = randomMessage(random);
+                long startedAt = System.nanoTime();
+                if (histories[lobby].size() == MAX_MESSAGES) {
+                    histories[lobby].pollFirst();
+                }
+                histories[lobby].addLast(new LobbyEvent.TextMessage(UserDTO.from(author), content));
+                fillNanos += System.nanoTime() - startedAt;
+            }
+        }
+        long after = usedHeapAfterGc();
+
+        int kept = 0;
+        for (ArrayDeque<LobbyEvent.TextMessage> history : histories) {
+            kept += history.size();
+        }
+        report("deque", before, after, fillNanos, kept);
+    }
+
+    public static void main(String[] args) {
+        OrpsUserDetails[][] members = createMembers();
+
+        ring(members);
+        deque(members);
+        ring(members);
+        deque(members);
+    }
+}
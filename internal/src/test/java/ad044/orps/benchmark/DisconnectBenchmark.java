@@ -0,0 +1,131 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.actionhandler.GameActionHandler;
+import ad044.orps.actionhandler.GeneralActionHandler;
+import ad044.orps.actionhandler.LobbyActionHandler;
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.GeneralAction;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.GameService;
+import ad044.orps.service.LobbyService;
+import ad044.orps.service.MatchmakingService;
+import ad044.orps.service.RatingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a websocket disconnect with 50k live lobbies of 4 users, a fifth of them with a game going.
+ *
+ * scan: looking the user up the way getAllLobbiesWithUser/getAllGamesWithUser used to, every lobby and game asked
+ * whether it has the user.
+ * index: the same lookup through the services' membership index.
+ * disconnect: USER_DISCONNECT through GeneralActionHandler, leaving the lobby and game, then joining back so the state
+ * stays the same between operations.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisconnectBenchmark {
+    private static final int LOBBIES = 50_000;
+    private static final int MEMBERS_PER_LOBBY = 4;
+    private static final int LOBBIES_PER_GAME = 5;
+
+    private final LobbyService lobbyService = new LobbyService();
+    private final GameService gameService = new GameService();
+    private final GeneralActionHandler generalActionHandler = new GeneralActionHandler();
+    private final List<Lobby> lobbies = new ArrayList<>();
+    private final List<Game> games = new ArrayList<>();
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        LobbyActionHandler lobbyActionHandler = new LobbyActionHandler();
+        GameActionHandler gameActionHandler = new GameActionHandler();
+        ReflectionTestUtils.setField(lobbyActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(lobbyActionHandler, "lobbyService", lobbyService);
+        ReflectionTestUtils.setField(gameActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(generalActionHandler, "lobbyService", lobbyService);
+        ReflectionTestUtils.setField(generalActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(generalActionHandler, "lobbyActionHandler", lobbyActionHandler);
+        ReflectionTestUtils.setField(generalActionHandler, "gameActionHandler", gameActionHandler);
+
+        MatchmakingService matchmakingService = new MatchmakingService();
+        ReflectionTestUtils.setField(matchmakingService, "bucketWidth", 100);
+        ReflectionTestUtils.setField(matchmakingService, "ratingService", new RatingService());
+        ReflectionTestUtils.setField(matchmakingService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(matchmakingService, "postConstruct");
+        ReflectionTestUtils.setField(generalActionHandler, "matchmakingService", matchmakingService);
+
+        for (int i = 0; i < LOBBIES; i++) {
+            Lobby lobby = lobbyService.createLobby(new OrpsUserDetails("owner" + i, UUID.randomUUID().toString()));
+            for (int j = 1; j < MEMBERS_PER_LOBBY; j++) {
+                lobby.addMember(new OrpsUserDetails("user" + i + "-" + j, UUID.randomUUID().toString()));
+            }
+            lobbies.add(lobby);
+
+            if (i % LOBBIES_PER_GAME == 0) {
+                games.add(gameService.createLobbyGame(lobby));
+            }
+        }
+    }
+
+    // a member other than the owner, so leaving doesn't hand the lobby over
+    private OrpsUserDetails pickUser(int lobbyIndex) {
+        return lobbies.get(lobbyIndex).getMembers().get(1 + random.nextInt(MEMBERS_PER_LOBBY - 1));
+    }
+
+    @Benchmark
+    public void scan(Blackhole blackhole) {
+        String uuid = pickUser(random.nextInt(LOBBIES)).getUuid();
+        for (Lobby lobby : lobbies) {
+            if (lobby.hasMember(uuid)) {
+                blackhole.consume(lobby);
+            }
+        }
+        for (Game game : games) {
+            if (game.hasPlayer(uuid)) {
+                blackhole.consume(game);
+            }
+        }
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        String uuid = pickUser(random.nextInt(LOBBIES)).getUuid();
+        blackhole.consume(lobbyService.getAllLobbiesWithUser(uuid));
+        blackhole.consume(gameService.getAllGamesWithUser(uuid));
+    }
+
+    @Benchmark
+    public ActionHandlerResponse disconnect() {
+        // lobbies with a game, so both the lobby and the game get left
+        int lobbyIndex = random.nextInt(games.size()) * LOBBIES_PER_GAME;
+        Lobby lobby = lobbies.get(lobbyIndex);
+        Game game = games.get(lobbyIndex / LOBBIES_PER_GAME);
+        OrpsUserDetails user = pickUser(lobbyIndex);
+
+        Action action = new Action("USER_DISCONNECT", Category.GENERAL, Collections.emptyMap(), user);
+        ActionHandlerResponse response
+                = generalActionHandler.handleGeneralAction(new GeneralAction(action, GeneralAction.ID.USER_DISCONNECT));
+
+        lobby.addMember(user);
+        game.addPlayer(new Player(user));
+        return response;
+    }
+}
@@ -0,0 +1,108 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the old busy-spinning dispatcher loop against the parking one.
+ *
+ * idleCpu: the loopCpuNanos counter is the CPU time burned by the dispatcher thread per second of wall time
+ * while nothing is being dispatched (1e9 == one full core).
+ * wakeUpLatency: time from putAction on an idle (parked) loop until the action has been handled.
+ * scheduledWakeUp: time from scheduling an action 1 ms ahead until it has been handled.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatcherBenchmark {
+    private static final String LOOP_THREAD_NAME = "benchmark-dispatcher";
+
+    @Param({"SPINNING", "PARKING"})
+    public ActionLoop.Mode mode;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Action action = new Action("NOOP", Category.GENERAL, Collections.emptyMap(), new OrpsUserDetails("user", "uuid"));
+
+    private ActionLoop actionLoop;
+    private long loopThreadId;
+    // only written by the loop thread
+    private volatile long handledCount = 0;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class LoopCpu {
+        public long loopCpuNanos;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        actionLoop = new ActionLoop(LOOP_THREAD_NAME, mode, action -> handledCount = handledCount + 1);
+        actionLoop.start();
+
+        loopThreadId = Thread.getAllStackTraces().keySet()
+                .stream()
+                .filter(thread -> thread.getName().equals(LOOP_THREAD_NAME))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        actionLoop.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void idleCpu(LoopCpu loopCpu) throws InterruptedException {
+        long before = threadMXBean.getThreadCpuTime(loopThreadId);
+        Thread.sleep(10);
+        loopCpu.loopCpuNanos += threadMXBean.getThreadCpuTime(loopThreadId) - before;
+    }
+
+    @State(Scope.Thread)
+    public static class Idle {
+        // gives the loop enough time to go back to sleep between invocations
+        @Setup(Level.Invocation)
+        public void idle() throws InterruptedException {
+            Thread.sleep(1);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long wakeUpLatency(Idle idle) {
+        long expected = handledCount + 1;
+        actionLoop.putAction(action);
+        while (handledCount < expected) {
+            Thread.onSpinWait();
+        }
+
+        return expected;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long scheduledWakeUp(Idle idle) {
+        long expected = handledCount + 1;
+        actionLoop.scheduleAction(ScheduledAction.inMillis(action, 1));
+        while (handledCount < expected) {
+            Thread.onSpinWait();
+        }
+
+        return expected;
+    }
+}
@@ -0,0 +1,109 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dto.GameDTO;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of sending one event to all of its recipients through a SimpMessagingTemplate set up with the same
+ * converters as the broker one. PER_RECIPIENT is the old convertAndSendToUser per recipient, SERIALIZE_ONCE is what
+ * UserMessagingService does now. Run with -prof gc for the allocation side.
+ *
+ * GAME: round result for a 2 player game.
+ * LOBBY: createdGame (carrying the GameDTO) for a 50 member lobby.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FanOutBenchmark {
+    public enum Scenario {
+        GAME,
+        LOBBY
+    }
+
+    public enum Strategy {
+        PER_RECIPIENT,
+        SERIALIZE_ONCE
+    }
+
+    @Param({"GAME", "LOBBY"})
+    public Scenario scenario;
+
+    @Param({"PER_RECIPIENT", "SERIALIZE_ONCE"})
+    public Strategy strategy;
+
+    private SimpMessagingTemplate messagingTemplate;
+    private Event<?> event;
+    private Blackhole blackhole;
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        messagingTemplate = new SimpMessagingTemplate((message, timeout) -> {
+            this.blackhole.consume(message);
+            return true;
+        });
+        messagingTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+                new StringMessageConverter(), new ByteArrayMessageConverter(), new MappingJackson2MessageConverter())));
+
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < (scenario == Scenario.GAME ? 2 : 50); i++) {
+            Player player = new Player(new OrpsUserDetails("player" + i, String.format("00000000-0000-0000-0000-%012d", i)));
+            player.move = GameMove.ROCK;
+            players.add(player);
+        }
+        List<String> recipients = players.stream().map(Player::getUuid).collect(Collectors.toList());
+        Game game = new Game(players, new GameSettings(5, 3), "lobby-uri");
+
+        if (scenario == Scenario.GAME) {
+            game.startNextRound();
+            players.forEach(player -> player.move = GameMove.ROCK);
+            game.finishRound();
+            event = GameEvent.receiveRoundResult(recipients, game.getUri(), game.publishRoundResult());
+        } else {
+            event = LobbyEvent.createdGame(recipients, "lobby-uri", GameDTO.from(game));
+        }
+    }
+
+    @Benchmark
+    public void sendEvent() {
+        String topic = event.getCategory().getTextValue().toLowerCase();
+        String destination = String.format("/queue/reply/%s", topic);
+
+        if (strategy == Strategy.PER_RECIPIENT) {
+            for (String recipient : event.getRecipientUuids()) {
+                messagingTemplate.convertAndSendToUser(recipient, destination, event);
+            }
+        } else {
+            Message<?> message = messagingTemplate.getMessageConverter()
+                    .toMessage(event, new MessageHeaders(Map.of("orpsTopic", topic)));
+            for (String recipient : event.getRecipientUuids()) {
+                messagingTemplate.send(messagingTemplate.getUserDestinationPrefix() + recipient + destination, message);
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.actionhandler.GameActionHandler;
+import ad044.orps.actionhandler.LobbyActionHandler;
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.GameAction;
+import ad044.orps.model.action.LobbyAction;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.*;
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.lobby.LobbySettings;
+import ad044.orps.model.user.BotUserDetails;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.GameService;
+import ad044.orps.service.RatingService;
+import ch.qos.logback.classic.Level;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+/**
+ * Plays whole lobby games through LobbyActionHandler/GameActionHandler on a virtual clock, the way the dispatcher
+ * would, and reports how long games last, how many are resident at once when 20 games start per second, and how many
+ * dispatcher actions and outbound deliveries (one event to one recipient) each game costs. Human players answer after
+ * a uniform 300-2500 ms and miss a round 3% of the time, bots pick at round start. Settings are the lobby defaults
+ * (3 s to move, score goal 5). Resident memory is the measured retained size per game times the resident count.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.GameFlowSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class GameFlowSimulation {
+    private static final int GAMES = 2000;
+    private static final double GAMES_STARTED_PER_SECOND = 20;
+    private static final long MIN_REACTION_MILLIS = 300;
+    private static final long MAX_REACTION_MILLIS = 2500;
+    private static final double MISSED_ROUND_CHANCE = 0.03;
+
+    private static class Pending implements Comparable<Pending> {
+        final long time;
+        final long sequence;
+        final String gameUri;
+        final Action action;
+        boolean cancelled;
+
+        Pending(long time, long sequence, String gameUri, Action action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.gameUri = gameUri;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final Random random = new Random(42);
+    private final GameService gameService = new GameService();
+    private final GameActionHandler gameActionHandler = new GameActionHandler();
+    private final LobbyActionHandler lobbyActionHandler = new LobbyActionHandler();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private final Map<String, List<Pending>> pendingByGame = new HashMap<>();
+    private final Map<String, Long> startTimes = new HashMap<>();
+    private final List<Long> durations = new ArrayList<>();
+    private long now = 0;
+    private long sequence = 0;
+    private long rounds = 0;
+    private long actions = 0;
+    private long deliveries = 0;
+
+    private GameFlowSimulation(LobbyActionHandler.CountdownMode countdownMode) {
+        ReflectionTestUtils.setField(gameActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(gameActionHandler, "ratingService", new RatingService());
+        ReflectionTestUtils.setField(lobbyActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(lobbyActionHandler, "countdownMode", countdownMode);
+        gameService.addGameRemovalListener(game -> {
+            durations.add(now - startTimes.remove(game.getUri()));
+            cancel(game.getUri());
+        });
+    }
+
+    private void schedule(long time, String gameUri, Action action) {
+        Pending pending = new Pending(time, sequence++, gameUri, action);
+        queue.add(pending);
+        pendingByGame.computeIfAbsent(gameUri, k -> new ArrayList<>()).add(pending);
+    }
+
+    private void cancel(String gameUri) {
+        List<Pending> pending = pendingByGame.remove(gameUri);
+        if (pending != null) {
+            pending.forEach(p -> p.cancelled = true);
+        }
+    }
+
+    private void startGame(boolean finishRoundEarly, int humans, int bots) {
+        OrpsUserDetails owner = new OrpsUserDetails("player0", UUID.randomUUID().toString());
+        Lobby lobby = new Lobby(owner, new LobbySettings(3, 5, false));
+        lobby.getSettings().setFinishRoundEarly(finishRoundEarly);
+        for (int i = 1; i < humans; i++) {
+            lobby.addMember(new OrpsUserDetails("player" + i, UUID.randomUUID().toString()));
+        }
+        for (int i = 0; i < bots; i++) {
+            lobby.addMember(new BotUserDetails(UUID.randomUUID().toString()));
+        }
+
+        Action startGame = new Action("START_GAME", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), owner);
+        actions++;
+        ActionHandlerResponse response = lobbyActionHandler.handleAction(new LobbyAction(startGame, LobbyAction.ID.START_GAME, lobby));
+
+        String gameUri = response.getScheduledActions().get(0).getAction().getDataByKey("gameUri").orElseThrow();
+        startTimes.put(gameUri, now);
+        apply(response, gameUri, System.nanoTime());
+    }
+
+    private void apply(ActionHandlerResponse response, String gameUri, long sentAt) {
+        response.getCancelledScheduleKeys().forEach(this::cancel);
+        for (ScheduledAction scheduledAction : response.getScheduledActions()) {
+            long delayMillis = Math.round((scheduledAction.getDeadline() - sentAt) / 1e6);
+            schedule(now + delayMillis, gameUri, scheduledAction.getAction());
+        }
+
+        for (Event<?> event : response.getEvents()) {
+            deliveries += event.getRecipientUuids().size();
+        }
+    }
+
+    private void process(Pending pending) {
+        Optional<Game> optionalGame = gameService.getGame(pending.gameUri);
+        if (optionalGame.isEmpty()) {
+            return;
+        }
+        Game game = optionalGame.get();
+        Action action = pending.action;
+        GameAction.ID id = GameAction.ID.valueOf(action.getIdString());
+
+        ActionHandlerResponse response;
+        long sentAt = System.nanoTime();
+        actions++;
+        if (action instanceof ServerAction) {
+            response = gameActionHandler.handleGameServerAction(game, id);
+        } else {
+            Optional<Player> player = game.getPlayer(action.getAuthor().getUuid());
+            if (player.isEmpty()) {
+                return;
+            }
+            response = gameActionHandler.handleGameAction(new GameAction(action, id, game, player.get()));
+        }
+
+        apply(response, game.getUri(), sentAt);
+
+        for (Event<?> event : response.getEvents()) {
+            if (event.getId() == GameEvent.ID.START_NEXT_ROUND) {
+                rounds++;
+                scheduleHumanMoves(game);
+            }
+        }
+    }
+
+    private void scheduleHumanMoves(Game game) {
+        for (Player player : game.getPlayers()) {
+            if (player instanceof BotPlayer || random.nextDouble() < MISSED_ROUND_CHANCE) {
+                continue;
+            }
+            long reaction = MIN_REACTION_MILLIS + (long) (random.nextDouble() * (MAX_REACTION_MILLIS - MIN_REACTION_MILLIS));
+            String move = GameMove.values()[random.nextInt(3)].name();
+            Map<String, String> data = Map.of("gameUri", game.getUri(), "move", move);
+            schedule(now + reaction, game.getUri(), new Action("SUBMIT_MOVE", Category.GAME, data, player));
+        }
+    }
+
+    private void run(boolean finishRoundEarly, int humans, int bots) {
+        long interArrival = Math.round(1000 / GAMES_STARTED_PER_SECOND);
+        int started = 0;
+        long nextStart = 0;
+
+        while (started < GAMES || !queue.isEmpty()) {
+            long nextEvent = queue.isEmpty() ? Long.MAX_VALUE : queue.peek().time;
+            long next = started < GAMES ? Math.min(nextStart, nextEvent) : nextEvent;
+            now = next;
+
+            if (started < GAMES && nextStart <= nextEvent) {
+                startGame(finishRoundEarly, humans, bots);
+                started++;
+                nextStart += interArrival;
+                continue;
+            }
+
+            Pending pending = queue.poll();
+            List<Pending> forGame = pendingByGame.get(pending.gameUri);
+            if (forGame != null) {
+                forGame.remove(pending);
+            }
+            if (!pending.cancelled) {
+                process(pending);
+            }
+        }
+    }
+
+    private static long retainedBytesPerGame(int bots) {
+        GameService gameService = new GameService();
+        int count = 20000;
+        long before = usedHeap();
+        for (int i = 0; i < count; i++) {
+            List<Player> players = new ArrayList<>();
+            for (int p = 0; p < 2; p++) {
+                players.add(new Player(new OrpsUserDetails("player" + p, UUID.randomUUID().toString())));
+            }
+            for (int b = 0; b < bots; b++) {
+                players.add(new BotPlayer(new BotUserDetails(UUID.randomUUID().toString())));
+            }
+            gameService.createGame(players, new GameSettings(3, 5)).startNextRound();
+        }
+        long after = usedHeap();
+        long perGame = (after - before) / count;
+        // keep the games reachable until the measurement is done
+        return gameService.getGame("").isPresent() ? -1 : perGame;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long percentile(List<Long> sorted, double p) {
+        return sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * p)));
+    }
+
+    private static GameFlowSimulation simulate(LobbyActionHandler.CountdownMode countdownMode,
+                                               boolean finishRoundEarly, int humans, int bots) {
+        GameFlowSimulation simulation = new GameFlowSimulation(countdownMode);
+        simulation.run(finishRoundEarly, humans, bots);
+        return simulation;
+    }
+
+    private static double meanDuration(GameFlowSimulation simulation) {
+        return simulation.durations.stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    public static void main(String[] args) {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        System.out.println("finishRoundEarly, UPDATE_COUNTDOWN ticks");
+        System.out.printf("%-16s %-6s %8s %8s %8s %8s %10s %12s%n",
+                "players", "early", "mean s", "p50 s", "p95 s", "rounds", "resident", "resident KB");
+        for (int bots : new int[]{0, 2}) {
+            long bytesPerGame = retainedBytesPerGame(bots);
+            for (boolean finishRoundEarly : new boolean[]{false, true}) {
+                GameFlowSimulation simulation = simulate(LobbyActionHandler.CountdownMode.TICKS, finishRoundEarly, 2, bots);
+
+                List<Long> sorted = new ArrayList<>(simulation.durations);
+                Collections.sort(sorted);
+                double mean = meanDuration(simulation);
+                // Little's law, games started per second times seconds each game stays around
+                double resident = GAMES_STARTED_PER_SECOND * mean / 1000;
+                System.out.printf("%-16s %-6s %8.1f %8.1f %8.1f %8.1f %10.1f %12.1f%n",
+                        bots == 0 ? "2 humans" : "2 humans+2 bots", finishRoundEarly,
+                        mean / 1000, percentile(sorted, 0.5) / 1000.0, percentile(sorted, 0.95) / 1000.0,
+                        (double) simulation.rounds / GAMES, resident, resident * bytesPerGame / 1024);
+            }
+            System.out.printf("retained size per game (%d players, mid-round): %d bytes%n", 2 + bots, bytesPerGame);
+        }
+
+        System.out.println();
+        System.out.println("countdown mode, finishRoundEarly off, per game");
+        System.out.printf("%-16s %-9s %8s %10s %12s%n", "players", "countdown", "mean s", "actions", "deliveries");
+        for (int bots : new int[]{0, 2}) {
+            for (LobbyActionHandler.CountdownMode countdownMode : LobbyActionHandler.CountdownMode.values()) {
+                GameFlowSimulation simulation = simulate(countdownMode, false, 2, bots);
+                System.out.printf("%-16s %-9s %8.1f %10.1f %12.1f%n",
+                        bots == 0 ? "2 humans" : "2 humans+2 bots", countdownMode,
+                        meanDuration(simulation) / 1000,
+                        (double) simulation.actions / GAMES, (double) simulation.deliveries / GAMES);
+            }
+        }
+    }
+}
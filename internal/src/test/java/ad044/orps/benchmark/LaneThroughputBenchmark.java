@@ -0,0 +1,75 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.dispatcher.DispatcherLanes;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dispatcher throughput against the number of lanes. Each action burns a fixed amount of CPU to stand in
+ * for a handler, and actions are spread over GAME_COUNT games, like many unrelated games being played at once.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LaneThroughputBenchmark {
+    private static final int GAME_COUNT = 256;
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({"1", "2", "4", "8"})
+    public int laneCount;
+
+    @Param({"2000"})
+    public long handlerCpuTokens;
+
+    private DispatcherLanes lanes;
+    private final AtomicLong handledCount = new AtomicLong();
+    private final String[] gameUris = new String[GAME_COUNT];
+    private final Action[] actions = new Action[GAME_COUNT];
+
+    @Setup(Level.Trial)
+    public void setup() {
+        OrpsUserDetails author = new OrpsUserDetails("user", "uuid");
+        for (int i = 0; i < GAME_COUNT; i++) {
+            gameUris[i] = String.format("game-%d", i);
+            actions[i] = new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", gameUris[i]), author);
+        }
+
+        lanes = new DispatcherLanes(laneCount, ActionLoop.Mode.PARKING, action -> {
+            Blackhole.consumeCPU(handlerCpuTokens);
+            handledCount.incrementAndGet();
+        });
+        lanes.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lanes.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long dispatch() {
+        long expected = handledCount.get() + BATCH_SIZE;
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            int game = i % GAME_COUNT;
+            lanes.putAction(gameUris[game], actions[game]);
+        }
+
+        while (handledCount.get() < expected) {
+            Thread.onSpinWait();
+        }
+
+        return expected;
+    }
+}
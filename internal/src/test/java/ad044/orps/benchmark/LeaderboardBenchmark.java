@@ -0,0 +1,97 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.rating.LeaderboardIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leaderboard queries and rating updates with 1M rated users, ratings drawn from N(1200, 300).
+ *
+ * index*: LeaderboardIndex.
+ * sorted*: what answering the same from a plain uuid -> rating table would take, sorting (top 100) or counting
+ * (rank) every time.
+ *
+ * Setup also prints the heap the index takes per user (uuid strings included), measured after a full GC.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LeaderboardBenchmark {
+    private static final int USERS = 1_000_000;
+
+    private LeaderboardIndex index;
+    private String[] uuids;
+    private int[] ratings;
+    private final Random random = new Random(42);
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private int randomRating() {
+        return LeaderboardIndex.clamp((int) (1200 + random.nextGaussian() * 300));
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        uuids = new String[USERS];
+        ratings = new int[USERS];
+        for (int i = 0; i < USERS; i++) {
+            uuids[i] = String.format("%08d-0000-4000-8000-000000000000", i);
+            ratings[i] = randomRating();
+        }
+
+        long before = usedHeapAfterGc();
+        index = new LeaderboardIndex();
+        for (int i = 0; i < USERS; i++) {
+            index.put(uuids[i], uuids[i], ratings[i]);
+        }
+        long after = usedHeapAfterGc();
+        System.out.printf("%nindex: %.1f MB, %.1f bytes per user (on top of the uuid strings)%n",
+                (after - before) / 1e6, (double) (after - before) / USERS);
+    }
+
+    @Benchmark
+    public List<LeaderboardIndex.Entry> indexTop100() {
+        return index.top(100);
+    }
+
+    @Benchmark
+    public int indexRank() {
+        return index.getEntry(uuids[random.nextInt(USERS)]).orElseThrow().getRank();
+    }
+
+    @Benchmark
+    public void indexUpdate() {
+        int user = random.nextInt(USERS);
+        index.put(uuids[user], uuids[user], randomRating());
+    }
+
+    @Benchmark
+    public int[] sortedTop100() {
+        int[] sorted = ratings.clone();
+        Arrays.sort(sorted);
+        return Arrays.copyOfRange(sorted, USERS - 100, USERS);
+    }
+
+    @Benchmark
+    public int sortedRank() {
+        int rating = ratings[random.nextInt(USERS)];
+        int above = 0;
+        for (int other : ratings) {
+            if (other > rating) {
+                above++;
+            }
+        }
+        return above + 1;
+    }
+}
@@ -0,0 +1,62 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.LobbyService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One cleanup pass with 50k live lobbies, 1000 of them empty and waiting out their deletion date, none due yet.
+ *
+ * scan: what lobbyCleanupTask did once a minute, every lobby's deletionDate checked.
+ * queue: lobbyCleanupTask now, once a second.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LobbyCleanupBenchmark {
+    private static final int LOBBIES = 50_000;
+    private static final int PENDING_DELETION = 1000;
+
+    private final LobbyService lobbyService = new LobbyService();
+    private final List<Lobby> lobbies = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+
+        for (int i = 0; i < LOBBIES; i++) {
+            Lobby lobby = lobbyService.createLobby(new OrpsUserDetails("owner" + i, UUID.randomUUID().toString()));
+            if (i < PENDING_DELETION) {
+                lobbyService.scheduleDeletion(lobby);
+            }
+            lobbies.add(lobby);
+        }
+    }
+
+    @Benchmark
+    public int scan() {
+        long currTime = System.currentTimeMillis();
+        int due = 0;
+        for (Lobby lobby : lobbies) {
+            if (lobby.deletionDate != -1 && currTime >= lobby.deletionDate) {
+                due++;
+            }
+        }
+        return due;
+    }
+
+    @Benchmark
+    public void queue() {
+        lobbyService.lobbyCleanupTask();
+    }
+}
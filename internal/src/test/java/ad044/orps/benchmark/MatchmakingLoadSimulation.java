@@ -0,0 +1,175 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.MatchmakingService;
+import ad044.orps.service.RatingService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives MatchmakingService on the real clock, ratings drawn from N(1200, 300), nothing listening for the matches
+ * (so the matcher cost is the queue alone).
+ * <p>
+ * backlog: 100k users join from 4 threads while the matcher is stopped, a third of them cancel right away, then a
+ * single matcher pass goes over whoever is left.
+ * <p>
+ * steady: 4 threads have users join at a fixed total rate for 20 s with the matcher running every 100 ms, 10% of them
+ * cancel after up to 2 s. Reports the median time-to-match and the matcher CPU per second from the service's own
+ * metrics, and the most users that were waiting at once.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.MatchmakingLoadSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class MatchmakingLoadSimulation {
+    private static final int THREADS = 4;
+
+    private static MatchmakingService createService(MeterRegistry meterRegistry, RatingService ratingService, long intervalMillis) {
+        MatchmakingService service = new MatchmakingService();
+        ReflectionTestUtils.setField(service, "intervalMillis", intervalMillis);
+        ReflectionTestUtils.setField(service, "bucketWidth", 100);
+        ReflectionTestUtils.setField(service, "widenAfterMillis", 5000L);
+        ReflectionTestUtils.setField(service, "ratingService", ratingService);
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.invokeMethod(service, "postConstruct");
+        return service;
+    }
+
+    private static List<OrpsUserDetails> createUsers(RatingService ratingService, int count) {
+        Random random = new Random(42);
+        List<OrpsUserDetails> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            OrpsUserDetails user = new OrpsUserDetails("user" + i, "uuid" + i);
+            ratingService.setRating(user, (int) Math.max(0, 1200 + random.nextGaussian() * 300));
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static void runThreads(Runnable[] tasks) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (Runnable task : tasks) {
+            threads.add(new Thread(task));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void backlog(int userCount) throws InterruptedException {
+        RatingService ratingService = new RatingService();
+        MatchmakingService service = createService(new SimpleMeterRegistry(), ratingService, 0);
+        List<OrpsUserDetails> users = createUsers(ratingService, userCount);
+
+        Runnable[] producers = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            producers[t] = () -> {
+                for (int i = thread; i < userCount; i += THREADS) {
+                    service.join(users.get(i));
+                    if (i % 3 == 0) {
+                        service.leave(users.get(i).getUuid());
+                    }
+                }
+            };
+        }
+        long startedAt = System.nanoTime();
+        runThreads(producers);
+        long joinNanos = System.nanoTime() - startedAt;
+
+        int waiting = userCount - (userCount + 2) / 3;
+        startedAt = System.nanoTime();
+        int pairs = service.runMatcher().size();
+        long passNanos = System.nanoTime() - startedAt;
+
+        System.out.printf("backlog  %d joins + %d cancels from %d threads: %.1f ms (%.2f M ops/s)%n", userCount,
+                (userCount + 2) / 3, THREADS, joinNanos / 1e6, (userCount + (userCount + 2) / 3) / (joinNanos / 1e9) / 1e6);
+        System.out.printf("         first pass over %d waiting: %.1f ms, %d pairs, %d left waiting%n",
+                waiting, passNanos / 1e6, pairs, waiting - pairs * 2);
+    }
+
+    private static void steady(int joinsPerSecond, int seconds) throws InterruptedException {
+        RatingService ratingService = new RatingService();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MatchmakingService service = createService(meterRegistry, ratingService, 100);
+        List<OrpsUserDetails> users = createUsers(ratingService, joinsPerSecond * seconds);
+
+        AtomicInteger peakWaiting = new AtomicInteger();
+        LongAdder cancelled = new LongAdder();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * THREADS / joinsPerSecond;
+        long startedAt = System.nanoTime();
+
+        Runnable[] producers = new Runnable[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            producers[t] = () -> {
+                Random random = new Random(thread);
+                List<long[]> cancels = new ArrayList<>();
+                long next = startedAt;
+                for (int i = thread; i < users.size(); i += THREADS) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    next += intervalNanos;
+
+                    service.join(users.get(i));
+                    if (random.nextInt(10) == 0) {
+                        cancels.add(new long[]{System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(random.nextInt(2000)), i});
+                    }
+                    cancels.removeIf(cancel -> {
+                        if (cancel[0] > System.nanoTime()) {
+                            return false;
+                        }
+                        if (service.leave(users.get((int) cancel[1]).getUuid())) {
+                            cancelled.increment();
+                        }
+                        return true;
+                    });
+
+                    double waiting = meterRegistry.get("orps.matchmaking.waiting").gauge().value();
+                    peakWaiting.accumulateAndGet((int) waiting, Math::max);
+                }
+            };
+        }
+        runThreads(producers);
+        // let the matcher catch up with the last arrivals
+        Thread.sleep(500);
+
+        double medianMillis = 0;
+        for (ValueAtPercentile percentile : meterRegistry.get("orps.matchmaking.wait").timer().takeSnapshot().percentileValues()) {
+            medianMillis = percentile.value(TimeUnit.MILLISECONDS);
+        }
+        double cpuSeconds = meterRegistry.get("orps.matchmaking.matcher.cpu").functionCounter().count();
+        double wallSeconds = (System.nanoTime() - startedAt) / 1e9;
+        long matched = meterRegistry.get("orps.matchmaking.wait").timer().count();
+
+        System.out.printf("steady   %d joins/s for %d s: %d matched, %d cancelled, median time-to-match %.1f ms, " +
+                        "matcher cpu %.2f ms/s, peak waiting %d%n", joinsPerSecond, seconds, matched, cancelled.sum(),
+                medianMillis, cpuSeconds * 1000 / wallSeconds, peakWaiting.get());
+
+        ReflectionTestUtils.invokeMethod(service, "preDestroy");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        // warm up
+        backlog(100_000);
+        backlog(100_000);
+
+        backlog(100_000);
+        backlog(150_000);
+        steady(1000, 20);
+        steady(5000, 20);
+    }
+}
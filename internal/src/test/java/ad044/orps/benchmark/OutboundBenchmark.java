@@ -0,0 +1,85 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dispatcher.EventSenderPool;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time the dispatcher spends handing off one event, sending it inline (the old behaviour, Jackson serialization
+ * per recipient on the dispatcher thread) versus submitting it to the EventSenderPool.
+ * The senders get a millisecond between invocations to drain, so the samples are the hand-off cost only.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OutboundBenchmark {
+    public enum Delivery {
+        INLINE,
+        SENDER_POOL
+    }
+
+    @Param({"2", "50"})
+    public int recipientCount;
+
+    @Param({"INLINE", "SENDER_POOL"})
+    public Delivery delivery;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Event<?> event;
+    private EventSenderPool<Event<?>> senderPool;
+    // keeps the serialization from being optimized away, written by several threads
+    private volatile int lastSize;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> recipients = new ArrayList<>();
+        for (int i = 0; i < recipientCount; i++) {
+            recipients.add(String.format("00000000-0000-0000-0000-%012d", i));
+        }
+        event = GameEvent.countdownUpdate(recipients, "game-uri", 3);
+
+        senderPool = new EventSenderPool<>(Runtime.getRuntime().availableProcessors(), 10000,
+                EventSenderPool.OverflowPolicy.BLOCK, event -> event, this::send);
+        senderPool.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        senderPool.stop();
+    }
+
+    private void send(String recipient, Event<?> event) {
+        try {
+            lastSize = objectMapper.writeValueAsBytes(event).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Idle {
+        @Setup(Level.Invocation)
+        public void idle() throws InterruptedException {
+            Thread.sleep(1);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void sendEvent(Idle idle) {
+        if (delivery == Delivery.INLINE) {
+            event.getRecipientUuids().forEach(recipient -> send(recipient, event));
+        } else {
+            senderPool.submit(event);
+        }
+    }
+}
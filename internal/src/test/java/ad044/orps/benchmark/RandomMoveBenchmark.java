@@ -0,0 +1,41 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.game.GameMove;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Picking one bot move, the way GameMove.getRandomMove used to (filtering values() into a new list, Math.random) against
+ * the move table and a per-game SplittableRandom. Run with -prof gc for the allocation, and with -t to see the shared
+ * generator behind Math.random once several threads pick moves.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RandomMoveBenchmark {
+    // one per thread, like one per game
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Benchmark
+    public GameMove filteredList() {
+        List<GameMove> possibleMoves = Arrays
+                .stream(GameMove.values())
+                .filter(move -> !move.equals(GameMove.NO_MOVE))
+                .collect(Collectors.toList());
+
+        return possibleMoves.get((int) (Math.random() * (possibleMoves.size())));
+    }
+
+    @Benchmark
+    public GameMove table() {
+        return GameMove.getRandomMove(random);
+    }
+}
@@ -0,0 +1,66 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dto.PlayerDTO;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.game.RoundDelta;
+import ad044.orps.model.user.OrpsUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * JSON bytes a round result takes per frame, as the delta the server sends now against the full player list it used
+ * to send (every PlayerDTO plus the winner), over 50 classic rounds. Players pick a random move and miss the round
+ * 10% of the time. Every player gets the frame, so the outbound bytes per round are the frame times the players.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.RoundDeltaSizeSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class RoundDeltaSizeSimulation {
+    private static final int ROUNDS = 50;
+
+    private static void simulate(ObjectMapper objectMapper, int playerCount) throws Exception {
+        Random random = new Random(42);
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player(new OrpsUserDetails("player" + i, UUID.nameUUIDFromBytes(new byte[]{(byte) i, 1}).toString())));
+        }
+        Game game = new Game(players, new GameSettings(5, Integer.MAX_VALUE));
+        List<String> recipients = game.getPlayerUuids();
+
+        long deltaBytes = 0;
+        long fullBytes = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            game.startNextRound();
+            players.forEach(player -> player.move = random.nextInt(10) == 0 ? GameMove.NO_MOVE : GameMove.values()[random.nextInt(3)]);
+            game.finishRound();
+
+            RoundDelta delta = game.publishRoundResult();
+            byte[] event = objectMapper.writeValueAsBytes(GameEvent.receiveRoundResult(recipients, game.getUri(), delta));
+            deltaBytes += event.length;
+
+            // same envelope around the data the full round result carried
+            Map<String, Object> fullData = new LinkedHashMap<>();
+            fullData.put("playerData", players.stream().map(PlayerDTO::from).collect(Collectors.toList()));
+            fullData.put("winner", game.getRoundWinner().map(PlayerDTO::from).orElse(null));
+            fullBytes += event.length - objectMapper.writeValueAsBytes(delta).length + objectMapper.writeValueAsBytes(fullData).length;
+        }
+
+        System.out.printf("%4d players: delta %6.0f B/frame, full %6.0f B/frame (%.1fx), per round %8.1f KB vs %8.1f KB%n",
+                playerCount, (double) deltaBytes / ROUNDS, (double) fullBytes / ROUNDS, (double) fullBytes / deltaBytes,
+                (double) deltaBytes * playerCount / ROUNDS / 1e3, (double) fullBytes * playerCount / ROUNDS / 1e3);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        for (int playerCount : new int[]{2, 10, 50, 200}) {
+            simulate(objectMapper, playerCount);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving one round as the player count grows, the original pairwise comparison against the move tally in
+ * Game.determineWinner. Run with -prof gc to see the allocation per round.
+ *
+ * RANDOM: everyone picked a random move, almost always a tie once there are more than a handful of players.
+ * SOLE_WINNER: one ROCK among SCISSORS, the only case with a winner in big games.
+ * HALF_MISSED: the first half missed their move and the second half all picked ROCK. Every ROCK beats the whole first
+ * half before it meets another ROCK, which is the quadratic worst case of the pairwise comparison.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoundResolutionBenchmark {
+    public enum Scenario {
+        RANDOM,
+        SOLE_WINNER,
+        HALF_MISSED
+    }
+
+    @Param({"2", "10", "100", "1000"})
+    public int players;
+
+    @Param({"RANDOM", "SOLE_WINNER", "HALF_MISSED"})
+    public Scenario scenario;
+
+    private List<Player> playerList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        GameMove[] moves = {GameMove.ROCK, GameMove.PAPER, GameMove.SCISSORS};
+
+        playerList = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            Player player = new Player(new OrpsUserDetails("player" + i, "uuid" + i));
+            switch (scenario) {
+                case RANDOM:
+                    player.move = moves[random.nextInt(moves.length)];
+                    break;
+                case SOLE_WINNER:
+                    player.move = i == players / 2 ? GameMove.ROCK : GameMove.SCISSORS;
+                    break;
+                case HALF_MISSED:
+                    player.move = i < players / 2 ? GameMove.NO_MOVE : GameMove.ROCK;
+                    break;
+            }
+            playerList.add(player);
+        }
+    }
+
+    @Benchmark
+    public Optional<Player> pairwise() {
+        Player winner = null;
+        for (Player player : playerList) {
+            boolean beatsAll = playerList
+                    .stream()
+                    .filter(otherPlayer -> !otherPlayer.getUuid().equals(player.getUuid()))
+                    .allMatch(otherPlayer -> player.move.beats(otherPlayer.move));
+
+            if (beatsAll) {
+                winner = player;
+            }
+        }
+
+        return Optional.ofNullable(winner);
+    }
+
+    @Benchmark
+    public Optional<Player> counting() {
+        return Game.determineWinner(playerList);
+    }
+}
@@ -0,0 +1,227 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.actionhandler.GameActionHandler;
+import ad044.orps.actionhandler.LobbyActionHandler;
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.GameAction;
+import ad044.orps.model.action.LobbyAction;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.lobby.LobbySettings;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.GameService;
+import ad044.orps.service.RatingService;
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Plays royale games of 1000 players back to back through LobbyActionHandler/GameActionHandler on a virtual clock.
+ * Every player submits a random move after a uniform 300-2500 ms and misses the round 3% of the time. Reports per game
+ * the rounds played, handler time (real), outbound deliveries and JSON bytes per round (each event encoded once, times
+ * its recipients), the bytes CREATED_GAME took, and the heap left after a full GC so growth across games shows up. For comparison it also prints what
+ * the first round would cost with the classic fan-out, every move announced to everyone else and every player's move
+ * in the round result.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.RoyaleSoakSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class RoyaleSoakSimulation {
+    private static final int PLAYERS = 1000;
+    private static final int GAMES = 50;
+    private static final long MIN_REACTION_MILLIS = 300;
+    private static final long MAX_REACTION_MILLIS = 2500;
+    private static final double MISSED_ROUND_CHANCE = 0.03;
+
+    private static class Pending {
+        final long time;
+        final long sequence;
+        final Action action;
+
+        Pending(long time, long sequence, Action action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+    }
+
+    private final Random random = new Random(42);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final GameService gameService = new GameService();
+    private final GameActionHandler gameActionHandler = new GameActionHandler();
+    private final LobbyActionHandler lobbyActionHandler = new LobbyActionHandler();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>(Comparator
+            .<Pending>comparingLong(pending -> pending.time)
+            .thenComparingLong(pending -> pending.sequence));
+    private long now = 0;
+    private long sequence = 0;
+
+    // per game
+    private int rounds;
+    private long handlerNanos;
+    private long finishRoundNanos;
+    private long deliveries;
+    private long bytes;
+    private long startBytes;
+
+    private RoyaleSoakSimulation() {
+        ReflectionTestUtils.setField(gameActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(gameActionHandler, "ratingService", new RatingService());
+        ReflectionTestUtils.setField(lobbyActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(lobbyActionHandler, "countdownMode", LobbyActionHandler.CountdownMode.DEADLINE);
+    }
+
+    private void schedule(long time, Action action) {
+        queue.add(new Pending(time, sequence++, action));
+    }
+
+    private void apply(ActionHandlerResponse response, long sentAt) throws Exception {
+        for (ScheduledAction scheduledAction : response.getScheduledActions()) {
+            schedule(now + Math.round((scheduledAction.getDeadline() - sentAt) / 1e6), scheduledAction.getAction());
+        }
+
+        for (Event<?> event : response.getEvents()) {
+            int recipients = event.getRecipientUuids().size();
+            deliveries += recipients;
+            bytes += (long) objectMapper.writeValueAsBytes(event).length * recipients;
+        }
+    }
+
+    private Lobby createLobby() {
+        Lobby lobby = new Lobby(new OrpsUserDetails("player0", UUID.randomUUID().toString()), new LobbySettings(3, 5, false));
+        lobby.getSettings().setRoyale(true);
+        for (int i = 1; i < PLAYERS; i++) {
+            lobby.addMember(new OrpsUserDetails("player" + i, UUID.randomUUID().toString()));
+        }
+        return lobby;
+    }
+
+    private Game startGame(Lobby lobby) throws Exception {
+        Action startGame = new Action("START_GAME", Category.LOBBY, Map.of("lobbyUri", lobby.getUri()), lobby.getMembers().get(0));
+        long sentAt = System.nanoTime();
+        ActionHandlerResponse response = lobbyActionHandler.handleAction(new LobbyAction(startGame, LobbyAction.ID.START_GAME, lobby));
+        handlerNanos += System.nanoTime() - sentAt;
+        apply(response, sentAt);
+        startBytes = bytes;
+        bytes = 0;
+
+        String gameUri = response.getScheduledActions().get(0).getAction().getDataByKey("gameUri").orElseThrow();
+        return gameService.getGame(gameUri).orElseThrow();
+    }
+
+    private void scheduleMoves(Game game) {
+        for (Player player : game.getPlayers()) {
+            if (player.eliminated || random.nextDouble() < MISSED_ROUND_CHANCE) {
+                continue;
+            }
+            long reaction = MIN_REACTION_MILLIS + (long) (random.nextDouble() * (MAX_REACTION_MILLIS - MIN_REACTION_MILLIS));
+            String move = GameMove.values()[random.nextInt(3)].name();
+            Map<String, String> data = Map.of("gameUri", game.getUri(), "move", move);
+            schedule(now + reaction, new Action("SUBMIT_MOVE", Category.GAME, data, player));
+        }
+    }
+
+    private void process(Game game, Action action) throws Exception {
+        GameAction.ID id = GameAction.ID.valueOf(action.getIdString());
+
+        ActionHandlerResponse response;
+        long sentAt = System.nanoTime();
+        if (action instanceof ServerAction) {
+            response = gameActionHandler.handleGameServerAction(game, id);
+        } else {
+            Player player = game.getPlayer(action.getAuthor().getUuid()).orElseThrow();
+            response = gameActionHandler.handleGameAction(new GameAction(action, id, game, player));
+        }
+        long spent = System.nanoTime() - sentAt;
+        handlerNanos += spent;
+        if (id == GameAction.ID.FINISH_ROUND) {
+            finishRoundNanos += spent;
+        }
+
+        apply(response, sentAt);
+
+        if (id == GameAction.ID.START_NEXT_ROUND) {
+            rounds++;
+            scheduleMoves(game);
+        }
+    }
+
+    private void playGame() throws Exception {
+        rounds = 0;
+        handlerNanos = 0;
+        finishRoundNanos = 0;
+        deliveries = 0;
+        bytes = 0;
+
+        Game game = startGame(createLobby());
+        while (!queue.isEmpty()) {
+            Pending pending = queue.poll();
+            now = pending.time;
+            if (gameService.getGame(game.getUri()).isPresent()) {
+                process(game, pending.action);
+            }
+        }
+    }
+
+    private long classicFirstRoundBytes() throws Exception {
+        List<Player> players = createLobby().getMembers().stream().map(Player::new).collect(Collectors.toList());
+        List<String> uuids = players.stream().map(Player::getUuid).collect(Collectors.toList());
+
+        Game game = new Game(players, new GameSettings(5, 3));
+        game.startNextRound();
+        players.forEach(player -> player.move = GameMove.values()[random.nextInt(3)]);
+        game.finishRound();
+        long roundResult = objectMapper.writeValueAsBytes(GameEvent.receiveRoundResult(uuids, "game-uri", game.publishRoundResult())).length;
+        long madeMove = objectMapper.writeValueAsBytes(GameEvent.playerMadeMove(uuids, "game-uri", uuids.get(0))).length;
+
+        return roundResult * PLAYERS + madeMove * PLAYERS * (PLAYERS - 1);
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        RoyaleSoakSimulation simulation = new RoyaleSoakSimulation();
+        System.out.printf("%d players, classic fan-out would send %.1f MB in the first round alone%n%n",
+                PLAYERS, simulation.classicFirstRoundBytes() / 1e6);
+
+        System.out.printf("%5s %7s %10s %12s %14s %12s %10s %10s %9s%n", "game", "rounds", "virtual s",
+                "handler ms", "finish us/rd", "deliv/round", "KB/round", "start KB", "heap MB");
+        long firstHeap = 0;
+        for (int i = 1; i <= GAMES; i++) {
+            long startedAt = simulation.now;
+            simulation.playGame();
+            long heap = usedHeapAfterGc();
+            if (i == 1) {
+                firstHeap = heap;
+            }
+            if (i == 1 || i % 10 == 0) {
+                System.out.printf("%5d %7d %10.1f %12.1f %14.1f %12.0f %10.1f %10.1f %9.1f%n", i, simulation.rounds,
+                        (simulation.now - startedAt) / 1000.0, simulation.handlerNanos / 1e6,
+                        simulation.finishRoundNanos / 1e3 / simulation.rounds,
+                        (double) simulation.deliveries / simulation.rounds,
+                        simulation.bytes / 1024.0 / simulation.rounds, simulation.startBytes / 1024.0, heap / 1e6);
+            }
+        }
+        System.out.printf("%nheap growth over %d games: %.1f MB%n", GAMES, (usedHeapAfterGc() - firstHeap) / 1e6);
+    }
+}
@@ -0,0 +1,117 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.ByteArrayMessageConverter;
+import org.springframework.messaging.converter.CompositeMessageConverter;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One round result reaching every watcher of a game through a real SimpleBrokerMessageHandler, the event already
+ * encoded (as UserMessagingService does). Outbound frames end up in a blackhole instead of a socket.
+ *
+ * PER_USER: every watcher subscribed to their own queue and sent the event separately. Destinations are the
+ * already resolved /queue/...-user{session} ones, so this leaves out the user destination lookup a real per user
+ * send also pays for.
+ * TOPIC: every watcher subscribed to /topic/game/{uri}, the event sent there once.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpectatorFanOutBenchmark {
+    public enum Strategy {
+        PER_USER,
+        TOPIC
+    }
+
+    @Param({"100", "1000", "5000"})
+    public int watchers;
+
+    @Param({"PER_USER", "TOPIC"})
+    public Strategy strategy;
+
+    private SimpleBrokerMessageHandler broker;
+    private SimpMessagingTemplate messagingTemplate;
+    private Message<?> message;
+    private Blackhole blackhole;
+
+    private static String queueFor(int session) {
+        return "/queue/reply/game-usersession" + session;
+    }
+
+    private void subscribe(int session, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+        accessor.setSessionId("session" + session);
+        accessor.setSubscriptionId("sub0");
+        accessor.setDestination(destination);
+        broker.handleMessage(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+    }
+
+    @Setup(Level.Trial)
+    public void setup(Blackhole blackhole) {
+        this.blackhole = blackhole;
+        broker = new SimpleBrokerMessageHandler(new ExecutorSubscribableChannel(), (outbound, timeout) -> {
+            this.blackhole.consume(outbound);
+            return true;
+        }, new ExecutorSubscribableChannel(), List.of("/queue", "/topic"));
+        broker.start();
+
+        messagingTemplate = new SimpMessagingTemplate((sent, timeout) -> {
+            broker.handleMessage(sent);
+            return true;
+        });
+        messagingTemplate.setMessageConverter(new CompositeMessageConverter(List.of(
+                new StringMessageConverter(), new ByteArrayMessageConverter(), new MappingJackson2MessageConverter())));
+
+        for (int i = 0; i < watchers; i++) {
+            subscribe(i, strategy == Strategy.PER_USER ? queueFor(i) : "/topic/game/game-uri");
+        }
+
+        Game game = new Game(List.of(new Player(new OrpsUserDetails("player0", "00000000-0000-0000-0000-000000000000")),
+                new Player(new OrpsUserDetails("player1", "00000000-0000-0000-0000-000000000001"))), new GameSettings(3, 5));
+        game.startNextRound();
+        game.getPlayers().forEach(player -> player.move = GameMove.ROCK);
+        game.finishRound();
+        Event<?> event = GameEvent.receiveRoundResult(List.of(), "game-uri", game.publishRoundResult());
+        message = messagingTemplate.getMessageConverter().toMessage(event, new MessageHeaders(Map.of("orpsTopic", "game")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        broker.stop();
+    }
+
+    @Benchmark
+    public void sendEvent() {
+        if (strategy == Strategy.PER_USER) {
+            for (int i = 0; i < watchers; i++) {
+                messagingTemplate.send(queueFor(i), message);
+            }
+        } else {
+            messagingTemplate.send("/topic/game/game-uri", message);
+        }
+    }
+}
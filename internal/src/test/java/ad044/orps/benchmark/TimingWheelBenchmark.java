@@ -0,0 +1,152 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.dispatcher.ActionLoop;
+import ad044.orps.dispatcher.TimingWheel;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.user.OrpsUserDetails;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Scheduling cost and firing jitter with 100k pending scheduled actions.
+ *
+ * churn: one operation schedules a timer somewhere in the next PENDING ticks and advances (virtual) time by one tick,
+ * expiring whatever came due, so the number of pending timers stays around PENDING. Compares the old PriorityQueue
+ * against the TimingWheel.
+ * jitter: a real ActionLoop holding PENDING timers spread over the next 10 minutes. One operation schedules an action
+ * PROBE_DELAY_MILLIS ahead and waits until it has been handled, so the lateness is the sample minus the delay.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TimingWheelBenchmark {
+    private static final int PENDING = 100_000;
+    private static final long PROBE_DELAY_MILLIS = 2;
+
+    private static final OrpsUserDetails author = new OrpsUserDetails("user", "uuid");
+    private static final Action backgroundAction = new Action("BACKGROUND", Category.GENERAL, Collections.emptyMap(), author);
+    private static final Action probeAction = new Action("PROBE", Category.GENERAL, Collections.emptyMap(), author);
+
+    public enum Scheduler {
+        PRIORITY_QUEUE,
+        TIMING_WHEEL
+    }
+
+    @State(Scope.Thread)
+    public static class Churn {
+        private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+
+        @Param({"PRIORITY_QUEUE", "TIMING_WHEEL"})
+        public Scheduler scheduler;
+
+        private final long[] delays = new long[1 << 16];
+        private int nextDelay = 0;
+        private long now = 0;
+        private PriorityQueue<ScheduledAction> priorityQueue;
+        private TimingWheel timingWheel;
+        public long expired;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            for (int i = 0; i < delays.length; i++) {
+                delays[i] = 1 + (long) (random.nextDouble() * PENDING * TICK);
+            }
+
+            priorityQueue = new PriorityQueue<>();
+            timingWheel = new TimingWheel(TICK, now);
+            for (int i = 0; i < PENDING; i++) {
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            ScheduledAction scheduledAction = ScheduledAction.atDeadline(backgroundAction, now + delays[nextDelay++ & (delays.length - 1)]);
+            if (scheduler == Scheduler.PRIORITY_QUEUE) {
+                priorityQueue.add(scheduledAction);
+            } else {
+                timingWheel.add(scheduledAction);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long churn(Churn churn) {
+        churn.schedule();
+        churn.now += Churn.TICK;
+
+        if (churn.scheduler == Scheduler.PRIORITY_QUEUE) {
+            ScheduledAction scheduledAction;
+            while ((scheduledAction = churn.priorityQueue.peek()) != null && churn.now - scheduledAction.getDeadline() >= 0) {
+                churn.priorityQueue.poll();
+                churn.expired++;
+            }
+        } else {
+            churn.expired += churn.timingWheel.advance(churn.now, timer -> {});
+        }
+
+        return churn.expired;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Loop {
+        @Param({"1", "10"})
+        public long tickMillis;
+
+        private ActionLoop actionLoop;
+        // only written by the loop thread
+        private volatile long probesHandled = 0;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            actionLoop = new ActionLoop("benchmark-dispatcher", ActionLoop.Mode.PARKING, TimeUnit.MILLISECONDS.toNanos(tickMillis),
+                    action -> {
+                        if (action == probeAction) {
+                            probesHandled = probesHandled + 1;
+                        }
+                    });
+            actionLoop.start();
+
+            Random random = new Random(42);
+            long now = System.nanoTime();
+            for (int i = 0; i < PENDING; i++) {
+                long deadline = now + (long) (random.nextDouble() * TimeUnit.MINUTES.toNanos(10));
+                actionLoop.scheduleAction(ScheduledAction.atDeadline(backgroundAction, deadline));
+            }
+        }
+
+        // otherwise every probe is scheduled right after a tick fired and they'd all land at the same phase
+        @Setup(Level.Invocation)
+        public void randomizePhase() {
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(TimeUnit.MILLISECONDS.toNanos(tickMillis)));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            actionLoop.stop();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long jitter(Loop loop) {
+        long expected = loop.probesHandled + 1;
+        loop.actionLoop.scheduleAction(ScheduledAction.inMillis(probeAction, PROBE_DELAY_MILLIS));
+        while (loop.probesHandled < expected) {
+            Thread.onSpinWait();
+        }
+
+        return expected;
+    }
+}
@@ -0,0 +1,242 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.actionhandler.GameActionHandler;
+import ad044.orps.actionhandler.TournamentActionHandler;
+import ad044.orps.model.ActionHandlerResponse;
+import ad044.orps.model.Category;
+import ad044.orps.model.action.Action;
+import ad044.orps.model.action.GameAction;
+import ad044.orps.model.action.ScheduledAction;
+import ad044.orps.model.action.ServerAction;
+import ad044.orps.model.action.TournamentAction;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.tournament.Tournament;
+import ad044.orps.model.user.OrpsUserDetails;
+import ad044.orps.service.GameService;
+import ad044.orps.service.RatingService;
+import ad044.orps.service.TournamentService;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * Plays 64k-player tournaments to the end through TournamentActionHandler/GameActionHandler on a virtual clock, once as
+ * a single bracket and once as 16 brackets of 4096 running side by side, each with and without batched round starts.
+ * Players are human, submit a random move after a uniform 300-2500 ms and miss the round 3% of the time, games go to 3
+ * points and finish rounds early.
+ * <p>
+ * Reports the virtual time the event took, the handler time (real), the longest single handler call (how long the
+ * lane a round transition runs on is held up), the most actions due in the same virtual millisecond (the burst the
+ * timing wheel and lanes have to absorb), the most games alive at once and the heap left after a full GC.
+ *
+ * mvn -Pbenchmark test-compile exec:java -Dexec.mainClass=ad044.orps.benchmark.TournamentLoadSimulation
+ *     -Dexec.classpathScope=test
+ */
+public class TournamentLoadSimulation {
+    private static final int PLAYERS = 65536;
+    private static final long MIN_REACTION_MILLIS = 300;
+    private static final long MAX_REACTION_MILLIS = 2500;
+    private static final double MISSED_ROUND_CHANCE = 0.03;
+
+    private static class Pending {
+        final long time;
+        final long sequence;
+        final String key;
+        final int generation;
+        final Action action;
+
+        Pending(long time, long sequence, String key, int generation, Action action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.key = key;
+            this.generation = generation;
+            this.action = action;
+        }
+    }
+
+    private final Random random = new Random(42);
+    private final GameService gameService = new GameService();
+    private final TournamentService tournamentService = new TournamentService();
+    private final GameActionHandler gameActionHandler = new GameActionHandler();
+    private final TournamentActionHandler tournamentActionHandler = new TournamentActionHandler();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>(Comparator
+            .<Pending>comparingLong(pending -> pending.time)
+            .thenComparingLong(pending -> pending.sequence));
+    // cancelling a key bumps its generation, whatever was queued under an older one gets skipped
+    private final Map<String, Integer> generations = new HashMap<>();
+    private final Map<Long, Integer> dueByMillis = new HashMap<>();
+    private long now = 0;
+    private long sequence = 0;
+
+    private long actions = 0;
+    private long deliveries = 0;
+    private long handlerNanos = 0;
+    private long longestHandlerNanos = 0;
+    private String longestHandlerAction = "";
+    private int peakGames = 0;
+
+    private TournamentLoadSimulation(int batchSize) {
+        ReflectionTestUtils.setField(gameActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(gameActionHandler, "ratingService", new RatingService());
+        ReflectionTestUtils.setField(tournamentActionHandler, "gameService", gameService);
+        ReflectionTestUtils.setField(tournamentActionHandler, "tournamentService", tournamentService);
+        ReflectionTestUtils.setField(tournamentActionHandler, "batchSize", batchSize);
+        ReflectionTestUtils.setField(tournamentActionHandler, "batchIntervalMillis", 100L);
+
+        // what ActionDispatcherService does when a game goes away
+        gameService.addGameRemovalListener(game -> {
+            cancel(game.getUri());
+            tournamentService.takeMatchResult(game).ifPresent(action -> schedule(now, action));
+        });
+    }
+
+    private static String keyOf(Action action) {
+        return action.getCategory() == Category.TOURNAMENT
+                ? action.getDataByKey("tournamentUri").orElseThrow()
+                : action.getDataByKey("gameUri").orElseThrow();
+    }
+
+    private void schedule(long time, Action action) {
+        String key = keyOf(action);
+        queue.add(new Pending(time, sequence++, key, generations.getOrDefault(key, 0), action));
+        dueByMillis.merge(time, 1, Integer::sum);
+    }
+
+    private void cancel(String key) {
+        generations.merge(key, 1, Integer::sum);
+    }
+
+    private void apply(ActionHandlerResponse response, long sentAt) {
+        response.getCancelledScheduleKeys().forEach(this::cancel);
+        for (ScheduledAction scheduledAction : response.getScheduledActions()) {
+            schedule(now + Math.round((scheduledAction.getDeadline() - sentAt) / 1e6), scheduledAction.getAction());
+        }
+        for (Event<?> event : response.getEvents()) {
+            deliveries += event.getRecipientUuids().size();
+        }
+    }
+
+    private void scheduleMoves(Game game) {
+        for (Player player : game.getPlayers()) {
+            if (random.nextDouble() < MISSED_ROUND_CHANCE) {
+                continue;
+            }
+            long reaction = MIN_REACTION_MILLIS + (long) (random.nextDouble() * (MAX_REACTION_MILLIS - MIN_REACTION_MILLIS));
+            String move = GameMove.values()[random.nextInt(3)].name();
+            schedule(now + reaction, new Action("SUBMIT_MOVE", Category.GAME, Map.of("gameUri", game.getUri(), "move", move), player));
+        }
+    }
+
+    private void process(Action action) {
+        ActionHandlerResponse response;
+        Game game = null;
+        long sentAt = System.nanoTime();
+        if (action.getCategory() == Category.TOURNAMENT) {
+            Optional<Tournament> tournament = tournamentService.getTournament(keyOf(action));
+            if (tournament.isEmpty()) {
+                return;
+            }
+            TournamentAction.ID id = TournamentAction.ID.valueOf(action.getIdString());
+            response = tournamentActionHandler.handleTournamentServerAction(new TournamentAction(action, id, tournament.get()));
+        } else {
+            Optional<Game> optionalGame = gameService.getGame(keyOf(action));
+            if (optionalGame.isEmpty()) {
+                return;
+            }
+            game = optionalGame.get();
+            GameAction.ID id = GameAction.ID.valueOf(action.getIdString());
+            if (action instanceof ServerAction) {
+                response = gameActionHandler.handleGameServerAction(game, id);
+            } else {
+                Optional<Player> player = game.getPlayer(action.getAuthor().getUuid());
+                if (player.isEmpty()) {
+                    return;
+                }
+                response = gameActionHandler.handleGameAction(new GameAction(action, id, game, player.get()));
+            }
+        }
+        long spent = System.nanoTime() - sentAt;
+
+        actions++;
+        handlerNanos += spent;
+        if (spent > longestHandlerNanos) {
+            longestHandlerNanos = spent;
+            longestHandlerAction = action.getIdString();
+        }
+
+        apply(response, sentAt);
+
+        if (game != null && action.getIdString().equals("START_NEXT_ROUND") && gameService.getGame(game.getUri()).isPresent()) {
+            scheduleMoves(game);
+        }
+    }
+
+    private void run(int tournaments) {
+        GameSettings settings = new GameSettings(3, 3);
+        settings.setFinishRoundEarly(true);
+
+        int entrantsPerTournament = PLAYERS / tournaments;
+        for (int t = 0; t < tournaments; t++) {
+            List<OrpsUserDetails> entrants = new ArrayList<>();
+            for (int i = 0; i < entrantsPerTournament; i++) {
+                entrants.add(new OrpsUserDetails("player" + t + "-" + i, UUID.randomUUID().toString()));
+            }
+            Tournament tournament = tournamentService.createTournament(entrants, settings);
+            schedule(0, ServerAction.tournament("START_MATCHES", tournament.getUri()));
+        }
+
+        while (!queue.isEmpty()) {
+            Pending pending = queue.poll();
+            now = pending.time;
+            if (pending.generation != generations.getOrDefault(pending.key, 0)) {
+                continue;
+            }
+            process(pending.action);
+
+            // games only get created by tournament actions
+            if (pending.action.getCategory() == Category.TOURNAMENT) {
+                peakGames = Math.max(peakGames, countLiveGames());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int countLiveGames() {
+        return ((Map<String, Game>) ReflectionTestUtils.getField(gameService, "gameSessions")).size();
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(ch.qos.logback.classic.Level.WARN);
+
+        System.out.printf("%-12s %-10s %10s %10s %12s %12s %24s %10s %11s %9s%n", "brackets", "batch", "virtual s",
+                "actions", "deliveries", "handler ms", "longest call ms", "peak/ms", "peak games", "heap MB");
+        for (int tournaments : new int[]{1, 16}) {
+            for (int batchSize : new int[]{Integer.MAX_VALUE, 256}) {
+                TournamentLoadSimulation simulation = new TournamentLoadSimulation(batchSize);
+                long startedAt = System.nanoTime();
+                simulation.run(tournaments);
+                long realMillis = (System.nanoTime() - startedAt) / 1_000_000;
+                long heap = usedHeapAfterGc();
+
+                int peakDue = simulation.dueByMillis.values().stream().max(Integer::compare).orElse(0);
+                System.out.printf("%-12s %-10s %10.1f %10d %12d %12.0f %12.1f %-11s %10d %11d %9.1f   (%d ms real)%n",
+                        tournaments + "x" + (PLAYERS / tournaments), batchSize == Integer.MAX_VALUE ? "off" : "256/100ms",
+                        simulation.now / 1000.0, simulation.actions, simulation.deliveries, simulation.handlerNanos / 1e6,
+                        simulation.longestHandlerNanos / 1e6, simulation.longestHandlerAction, peakDue,
+                        simulation.peakGames, heap / 1e6, realMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ad044.orps.benchmark;
+
+import ad044.orps.config.WireFormat;
+import ad044.orps.dto.LobbyDTO;
+import ad044.orps.model.event.Event;
+import ad044.orps.model.event.GameEvent;
+import ad044.orps.model.event.LobbyEvent;
+import ad044.orps.model.game.Game;
+import ad044.orps.model.game.GameMove;
+import ad044.orps.model.game.GameSettings;
+import ad044.orps.model.game.Player;
+import ad044.orps.model.lobby.Lobby;
+import ad044.orps.model.lobby.LobbySettings;
+import ad044.orps.model.user.OrpsUserDetails;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Encode and decode cost of one event body per wire format, with the mappers WebSocketConfig uses.
+ * The frame size for each case is printed once per trial.
+ *
+ * ROUND_RESULT: round result for a 2 player game.
+ * LOBBY_DATA: receiveLobbyData for a 10 member lobby.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WireFormatBenchmark {
+    public enum Scenario {
+        ROUND_RESULT,
+        LOBBY_DATA
+    }
+
+    @Param({"ROUND_RESULT", "LOBBY_DATA"})
+    public Scenario scenario;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public WireFormat wireFormat;
+
+    private ObjectMapper objectMapper;
+    private Event<?> event;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        switch (wireFormat) {
+            case CBOR:
+                objectMapper = Jackson2ObjectMapperBuilder.cbor().build();
+                break;
+            case SMILE:
+                objectMapper = Jackson2ObjectMapperBuilder.smile().build();
+                break;
+            default:
+                objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        }
+
+        List<OrpsUserDetails> users = new ArrayList<>();
+        for (int i = 0; i < (scenario == Scenario.ROUND_RESULT ? 2 : 10); i++) {
+            users.add(new OrpsUserDetails("player" + i, String.format("00000000-0000-0000-0000-%012d", i)));
+        }
+        List<String> recipients = users.stream().map(OrpsUserDetails::getUuid).collect(Collectors.toList());
+
+        if (scenario == Scenario.ROUND_RESULT) {
+            List<Player> players = users.stream().map(Player::new).collect(Collectors.toList());
+            Game game = new Game(players, new GameSettings(5, 3));
+            game.startNextRound();
+            players.forEach(player -> player.move = GameMove.PAPER);
+            players.get(0).move = GameMove.SCISSORS;
+            game.finishRound();
+            event = GameEvent.receiveRoundResult(recipients, "game-uri", game.publishRoundResult());
+        } else {
+            Lobby lobby = new Lobby(users.get(0), new LobbySettings(5, 3, false));
+            users.stream().skip(1).forEach(lobby::addMember);
+            event = LobbyEvent.receiveLobbyData(recipients.get(0), lobby.getUri(), LobbyDTO.from(lobby), List.of());
+        }
+
+        encoded = objectMapper.writeValueAsBytes(event);
+        System.out.printf("%n%s %s: %d bytes per frame%n", scenario, wireFormat, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public Map<?, ?> decode() throws Exception {
+        return objectMapper.readValue(encoded, Map.class);
+    }
+}